@@ -0,0 +1,978 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * <p>Picks the next action of a creature in a skirmish between two sides of a
+ * {@link BattleWorld} with a Monte Carlo tree search.</p>
+ *
+ * <p>The skirmish is a small copy of the creatures of both sides. In each round
+ * the living creatures of the first side act in order, then those of the second
+ * side, and the search starts at the turn of the planning creature. A creature can
+ * use its attack on a living enemy, restore its firePower or mana to the maximum,
+ * or heal itself by {@code HEAL_AMOUNT}. Attacks follow the rules of
+ * {@link CombatEngine#resolveRound}; an orc whose berserk would do nothing is not
+ * offered it. Only the three standard species can be planned for: a species added
+ * by a {@link SpeciesTable} has no restore action to offer, so a skirmish holding
+ * one is rejected.</p>
+ *
+ * <p>Every rollout walks down the tree with UCT, adds a node, then plays the rest
+ * of the skirmish with the rule {@link Tournament} uses: attack a random living
+ * enemy, or restore when too low to attack. A rollout stops when one side is dead
+ * or after {@code ROLLOUT_ROUNDS} rounds, and scores 1 for a win of the planning
+ * creature's side, 0 for a loss, and otherwise the difference of the health left
+ * on each side as a fraction of its full health, scaled between the two.</p>
+ *
+ * <p>The search runs one tree per thread of a {@link ForkJoinPool}, each with its
+ * own {@link SplittableRandom} split from the seed before forking, and adds up
+ * the visits of the first actions of every tree. All trees stop at the same
+ * deadline, so how many rollouts fit depends on the machine; with a rollout limit
+ * that is reached first, the decision depends only on the seed, the limit and the
+ * parallelism of the pool.</p>
+ *
+ * @author Justin Cardas
+ * @author Mohammad Sadeghi
+ * @author Armaan Brar
+ * @version 1.0
+ */
+final class BattlePlanner
+{
+    static final int ACTION_BREATH_FIRE;
+    static final int ACTION_CAST_SPELL;
+    static final int ACTION_BERSERK;
+    static final int ACTION_RESTORE_FIRE_POWER;
+    static final int ACTION_RESTORE_MANA;
+    static final int ACTION_HEAL;
+    static final int NO_TARGET;
+    static final int HEAL_AMOUNT;
+    static final int ROLLOUT_ROUNDS;
+
+    private static final double EXPLORATION;
+    private static final double WIN;
+    private static final double LOSS;
+    private static final int    ROOT;
+    private static final int    NOT_EXPANDED;
+    private static final int    DEFAULT_NODE_CAPACITY;
+    private static final int    GROWTH_FACTOR;
+
+    static
+    {
+        ACTION_BREATH_FIRE        = CombatEngine.ACTION_BREATH_FIRE;
+        ACTION_CAST_SPELL         = CombatEngine.ACTION_CAST_SPELL;
+        ACTION_BERSERK            = CombatEngine.ACTION_BERSERK;
+        ACTION_RESTORE_FIRE_POWER = 3;
+        ACTION_RESTORE_MANA       = 4;
+        ACTION_HEAL               = 5;
+        NO_TARGET                 = -1;
+        HEAL_AMOUNT               = 10;
+        ROLLOUT_ROUNDS            = 10;
+        EXPLORATION               = Math.sqrt(2.0);
+        WIN                       = 1.0;
+        LOSS                      = 0.0;
+        ROOT                      = 0;
+        NOT_EXPANDED              = -1;
+        DEFAULT_NODE_CAPACITY     = 1_024;
+        GROWTH_FACTOR             = 2;
+    }
+
+    private BattlePlanner()
+    {
+    }
+
+    /**
+     * Plans the next action of a creature on the common {@link ForkJoinPool},
+     * searching until {@code budgetNanos} have passed.
+     *
+     * @param world       the battle state.
+     * @param firstSide   the ids of the creatures of the side that acts first in a round.
+     * @param secondSide  the ids of the creatures of the other side.
+     * @param actorId     the id of the creature to plan for, a living member of either side.
+     * @param budgetNanos the time to search for, in nanoseconds.
+     * @param seed        the seed of the rollouts.
+     * @return the action with the most visits.
+     * @throws IllegalArgumentException if the sides are empty, overlap or hold unknown ids
+     *                                  or species other than dragon, elf and orc, the actor
+     *                                  is not a living member of a side, or the budget is
+     *                                  not positive.
+     */
+    static Decision plan(final BattleWorld world,
+                         final int[] firstSide,
+                         final int[] secondSide,
+                         final int actorId,
+                         final long budgetNanos,
+                         final long seed)
+    {
+        return plan(world, firstSide, secondSide, actorId, budgetNanos, Long.MAX_VALUE, seed, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Plans the next action of a creature on {@code pool}, searching until
+     * {@code budgetNanos} have passed or {@code maxRollouts} rollouts are done.
+     *
+     * @param world       the battle state.
+     * @param firstSide   the ids of the creatures of the side that acts first in a round.
+     * @param secondSide  the ids of the creatures of the other side.
+     * @param actorId     the id of the creature to plan for, a living member of either side.
+     * @param budgetNanos the time to search for, in nanoseconds.
+     * @param maxRollouts the most rollouts to run over all threads.
+     * @param seed        the seed of the rollouts.
+     * @param pool        the pool to search on, one tree per thread.
+     * @return the action with the most visits.
+     * @throws IllegalArgumentException if the sides are empty, overlap or hold unknown ids
+     *                                  or species other than dragon, elf and orc, the
+     *                                  actor is not a living member of a side, the
+     *                                  budget or rollout limit is not positive, or
+     *                                  {@code pool} is {@code null}.
+     */
+    static Decision plan(final BattleWorld world,
+                         final int[] firstSide,
+                         final int[] secondSide,
+                         final int actorId,
+                         final long budgetNanos,
+                         final long maxRollouts,
+                         final long seed,
+                         final ForkJoinPool pool)
+    {
+        final Skirmish  skirmish;
+        final long      deadline;
+        final RootStats stats;
+
+        if(budgetNanos < 1 || maxRollouts < 1)
+        {
+            throw new IllegalArgumentException("Budget and rollouts must be positive: " + budgetNanos + ", " + maxRollouts);
+        }
+        if(pool == null)
+        {
+            throw new IllegalArgumentException("Pool cannot be null");
+        }
+
+        skirmish = new Skirmish(world, firstSide, secondSide, actorId);
+        deadline = System.nanoTime() + budgetNanos;
+        stats    = pool.invoke(new SearchTask(skirmish,
+                                              new SplittableRandom(seed),
+                                              pool.getParallelism(),
+                                              maxRollouts,
+                                              deadline));
+
+        return stats.best(skirmish);
+    }
+
+    /**
+     * The action picked for a creature, with how the search rated it.
+     */
+    static final class Decision
+    {
+        private final int    actorId;
+        private final int    action;
+        private final int    targetId;
+        private final int    visits;
+        private final double value;
+        private final long   rollouts;
+
+        private Decision(final int actorId,
+                         final int action,
+                         final int targetId,
+                         final int visits,
+                         final double value,
+                         final long rollouts)
+        {
+            this.actorId  = actorId;
+            this.action   = action;
+            this.targetId = targetId;
+            this.visits   = visits;
+            this.value    = value;
+            this.rollouts = rollouts;
+        }
+
+        /**
+         * @return int the id of the creature the action is for.
+         */
+        int getActorId()
+        {
+            return actorId;
+        }
+
+        /**
+         * @return int one of the {@code ACTION_} constants.
+         */
+        int getAction()
+        {
+            return action;
+        }
+
+        /**
+         * @return int the id of the enemy attacked, or {@code NO_TARGET} for a restore or heal.
+         */
+        int getTargetId()
+        {
+            return targetId;
+        }
+
+        /**
+         * @return int number of rollouts that started with this action.
+         */
+        int getVisits()
+        {
+            return visits;
+        }
+
+        /**
+         * @return double the mean score of those rollouts for the actor's side, from 0 to 1.
+         */
+        double getValue()
+        {
+            return value;
+        }
+
+        /**
+         * @return long number of rollouts run over all threads.
+         */
+        long getRollouts()
+        {
+            return rollouts;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Decision{" +
+                   "actorId=" + actorId +
+                   ", action=" + action +
+                   ", targetId=" + targetId +
+                   ", visits=" + visits +
+                   ", value=" + value +
+                   ", rollouts=" + rollouts +
+                   '}';
+        }
+    }
+
+    /*
+     * The creatures of a skirmish, copied out of the world once and shared read only
+     * by every tree. Creatures are indexed by their place in the turn order: the
+     * first side from 0, then the second side from firstCount.
+     */
+    private static final class Skirmish
+    {
+        private final int[] ids;
+        private final int[] species;
+        private final int[] health;
+        private final int[] resources;
+        private final int   firstCount;
+        private final int   actor;
+        private final int   horizon;
+
+        private Skirmish(final BattleWorld world,
+                         final int[] firstSide,
+                         final int[] secondSide,
+                         final int actorId)
+        {
+            final int count;
+            int       actorIndex;
+
+            if(world == null || firstSide == null || secondSide == null)
+            {
+                throw new IllegalArgumentException("Skirmish arguments cannot be null");
+            }
+            if(firstSide.length == 0 || secondSide.length == 0)
+            {
+                throw new IllegalArgumentException("Both sides need at least one creature");
+            }
+
+            count      = firstSide.length + secondSide.length;
+            ids        = new int[count];
+            species    = new int[count];
+            health     = new int[count];
+            resources  = new int[count];
+            firstCount = firstSide.length;
+            actorIndex = NO_TARGET;
+
+            System.arraycopy(firstSide, 0, ids, 0, firstCount);
+            System.arraycopy(secondSide, 0, ids, firstCount, secondSide.length);
+
+            for(int i = 0; i < count; i++)
+            {
+                // getSpecies rejects unknown ids
+                species[i]   = world.getSpecies(ids[i]);
+                health[i]    = world.getHealth(ids[i]);
+                resources[i] = world.getResource(ids[i]);
+
+                if(species[i] > CreaturePool.SPECIES_ORC)
+                {
+                    throw new IllegalArgumentException("Creature " + ids[i] + " is not a dragon, elf or orc");
+                }
+
+                for(int j = 0; j < i; j++)
+                {
+                    if(ids[j] == ids[i])
+                    {
+                        throw new IllegalArgumentException("Creature " + ids[i] + " is listed twice");
+                    }
+                }
+                if(ids[i] == actorId)
+                {
+                    actorIndex = i;
+                }
+            }
+
+            if(actorIndex == NO_TARGET || health[actorIndex] == Creature.NO_HEALTH)
+            {
+                throw new IllegalArgumentException("Creature " + actorId + " is not a living member of either side");
+            }
+
+            actor   = actorIndex;
+            horizon = ROLLOUT_ROUNDS * count;
+        }
+
+        private boolean onFirstSide(final int index)
+        {
+            return index < firstCount;
+        }
+    }
+
+    /*
+     * Searches one tree per thread, splitting the threads and the rollout limit in
+     * half until one tree is left.
+     */
+    private static final class SearchTask extends RecursiveTask<RootStats>
+    {
+        private final Skirmish         skirmish;
+        private final SplittableRandom random;
+        private final int              trees;
+        private final long             maxRollouts;
+        private final long             deadline;
+
+        private SearchTask(final Skirmish skirmish,
+                           final SplittableRandom random,
+                           final int trees,
+                           final long maxRollouts,
+                           final long deadline)
+        {
+            this.skirmish    = skirmish;
+            this.random      = random;
+            this.trees       = trees;
+            this.maxRollouts = maxRollouts;
+            this.deadline    = deadline;
+        }
+
+        @Override
+        protected RootStats compute()
+        {
+            if(trees > 1 && maxRollouts > 1)
+            {
+                final SearchTask left;
+                final SearchTask right;
+
+                // split before forking so the random streams never depend on scheduling
+                left  = new SearchTask(skirmish, random.split(), trees / 2, maxRollouts / 2, deadline);
+                right = new SearchTask(skirmish, random, trees - trees / 2, maxRollouts - maxRollouts / 2, deadline);
+
+                left.fork();
+
+                return right.compute().merge(left.join());
+            }
+
+            return new Search(skirmish, random).run(maxRollouts, deadline);
+        }
+    }
+
+    /*
+     * The visits and total score of each first action, added up over trees. Every
+     * tree lists the first actions in the same order, since they come from the same
+     * skirmish.
+     */
+    private static final class RootStats
+    {
+        private final int[]    actions;
+        private final int[]    targets;
+        private final int[]    visits;
+        private final double[] values;
+        private long           rollouts;
+
+        private RootStats(final int[] actions,
+                          final int[] targets,
+                          final int[] visits,
+                          final double[] values,
+                          final long rollouts)
+        {
+            this.actions  = actions;
+            this.targets  = targets;
+            this.visits   = visits;
+            this.values   = values;
+            this.rollouts = rollouts;
+        }
+
+        private RootStats merge(final RootStats other)
+        {
+            for(int i = 0; i < visits.length; i++)
+            {
+                visits[i] += other.visits[i];
+                values[i] += other.values[i];
+            }
+            rollouts += other.rollouts;
+
+            return this;
+        }
+
+        /*
+         * Picks the most visited action, then the best scored, then the first.
+         */
+        private Decision best(final Skirmish skirmish)
+        {
+            int best;
+
+            best = 0;
+
+            for(int i = 1; i < visits.length; i++)
+            {
+                if(visits[i] > visits[best] ||
+                   visits[i] == visits[best] && values[i] * visits[best] > values[best] * visits[i])
+                {
+                    best = i;
+                }
+            }
+
+            return new Decision(skirmish.ids[skirmish.actor],
+                                actions[best],
+                                targets[best] == NO_TARGET
+                                ? NO_TARGET
+                                : skirmish.ids[targets[best]],
+                                visits[best],
+                                visits[best] == 0
+                                ? 0.0
+                                : values[best] / visits[best],
+                                rollouts);
+        }
+    }
+
+    /*
+     * One search tree and the skirmish state its rollouts play on. Nodes are
+     * columns indexed by node number; the children of a node are numbered
+     * consecutively from firstChild. A node holds the action that led to it, who
+     * took it, and the total score of its rollouts for that creature's side.
+     */
+    private static final class Search
+    {
+        private final Skirmish         skirmish;
+        private final SplittableRandom random;
+        private final int[]            health;
+        private final int[]            resources;
+        private final int[]            scratchActions;
+        private final int[]            scratchTargets;
+        private int[]                  parents;
+        private int[]                  firstChildren;
+        private int[]                  childCounts;
+        private int[]                  movers;
+        private int[]                  actions;
+        private int[]                  targets;
+        private int[]                  visits;
+        private double[]               values;
+        private int                    nodes;
+        private int                    firstLiving;
+        private int                    secondLiving;
+
+        private Search(final Skirmish skirmish,
+                       final SplittableRandom random)
+        {
+            final int count;
+
+            count = skirmish.ids.length;
+
+            this.skirmish       = skirmish;
+            this.random         = random;
+            this.health         = new int[count];
+            this.resources      = new int[count];
+            this.scratchActions = new int[count + 2];
+            this.scratchTargets = new int[count + 2];
+            this.parents        = new int[DEFAULT_NODE_CAPACITY];
+            this.firstChildren  = new int[DEFAULT_NODE_CAPACITY];
+            this.childCounts    = new int[DEFAULT_NODE_CAPACITY];
+            this.movers         = new int[DEFAULT_NODE_CAPACITY];
+            this.actions        = new int[DEFAULT_NODE_CAPACITY];
+            this.targets        = new int[DEFAULT_NODE_CAPACITY];
+            this.visits         = new int[DEFAULT_NODE_CAPACITY];
+            this.values         = new double[DEFAULT_NODE_CAPACITY];
+            this.nodes          = 0;
+
+            addNode(NOT_EXPANDED, NO_TARGET, NO_TARGET, NO_TARGET);
+            reset();
+            expand(ROOT, skirmish.actor);
+        }
+
+        /*
+         * Runs rollouts until the limit or the deadline, and returns the stats of the
+         * root's children.
+         */
+        private RootStats run(final long maxRollouts,
+                              final long deadline)
+        {
+            final int      children;
+            final int      first;
+            final int[]    rootActions;
+            final int[]    rootTargets;
+            final int[]    rootVisits;
+            final double[] rootValues;
+            long           rollouts;
+
+            children = childCounts[ROOT];
+            first    = firstChildren[ROOT];
+            rollouts = 0;
+
+            // always run at least one rollout, even past the deadline, and no more
+            // when there is nothing to choose from
+            do
+            {
+                rollout();
+                rollouts++;
+            } while(children > 1 && rollouts < maxRollouts && System.nanoTime() - deadline < 0);
+
+            rootActions = new int[children];
+            rootTargets = new int[children];
+            rootVisits  = new int[children];
+            rootValues  = new double[children];
+
+            for(int i = 0; i < children; i++)
+            {
+                rootActions[i] = actions[first + i];
+                rootTargets[i] = targets[first + i];
+                rootVisits[i]  = visits[first + i];
+                rootValues[i]  = values[first + i];
+            }
+
+            return new RootStats(rootActions, rootTargets, rootVisits, rootValues, rollouts);
+        }
+
+        /*
+         * Selects down the tree from a fresh copy of the skirmish, adds the first
+         * unvisited node, plays out the rest with the default rule and backs the
+         * score up to the root.
+         */
+        private void rollout()
+        {
+            final double firstSideScore;
+            int          node;
+            int          turn;
+            int          ply;
+
+            reset();
+
+            node = ROOT;
+            turn = skirmish.actor;
+            ply  = 0;
+
+            while(!isOver() && ply < skirmish.horizon)
+            {
+                final int child;
+
+                if(firstChildren[node] == NOT_EXPANDED)
+                {
+                    expand(node, turn);
+                }
+
+                child = select(node);
+
+                apply(turn, actions[child], targets[child]);
+
+                node = child;
+                turn = nextTurn(turn);
+                ply++;
+
+                if(visits[child] == 0)
+                {
+                    break;
+                }
+            }
+
+            while(!isOver() && ply < skirmish.horizon)
+            {
+                act(turn);
+
+                turn = nextTurn(turn);
+                ply++;
+            }
+
+            firstSideScore = score();
+
+            for(int n = node; n != ROOT; n = parents[n])
+            {
+                visits[n]++;
+                values[n] += skirmish.onFirstSide(movers[n])
+                             ? firstSideScore
+                             : WIN - firstSideScore;
+            }
+            visits[ROOT]++;
+        }
+
+        /*
+         * Picks an unvisited child if there is one, else the child with the best
+         * UCT bound.
+         */
+        private int select(final int node)
+        {
+            final int    first;
+            final int    last;
+            final double logVisits;
+            int          best;
+            double       bestBound;
+
+            first     = firstChildren[node];
+            last      = first + childCounts[node];
+            logVisits = Math.log(visits[node]);
+            best      = first;
+            bestBound = Double.NEGATIVE_INFINITY;
+
+            for(int child = first; child < last; child++)
+            {
+                final double bound;
+
+                if(visits[child] == 0)
+                {
+                    return child;
+                }
+
+                bound = values[child] / visits[child] + EXPLORATION * Math.sqrt(logVisits / visits[child]);
+
+                if(bound > bestBound)
+                {
+                    best      = child;
+                    bestBound = bound;
+                }
+            }
+
+            return best;
+        }
+
+        /*
+         * Adds a child for every action the creature on turn can take.
+         */
+        private void expand(final int node,
+                            final int turn)
+        {
+            final int count;
+            final int first;
+
+            count = legalActions(turn);
+            first = nodes;
+
+            for(int i = 0; i < count; i++)
+            {
+                addNode(node, turn, scratchActions[i], scratchTargets[i]);
+            }
+
+            firstChildren[node] = first;
+            childCounts[node]   = count;
+        }
+
+        /*
+         * Lists the actions of a creature into the scratch columns: its attack on every
+         * living enemy it can hit, a restore when below the maximum, and a heal, which
+         * is always possible so no creature is ever without an action.
+         */
+        private int legalActions(final int turn)
+        {
+            final int speciesTag;
+            final int resource;
+            final int firstEnemy;
+            final int lastEnemy;
+            final int attack;
+            boolean   canAttack;
+            int       count;
+
+            speciesTag = skirmish.species[turn];
+            resource   = resources[turn];
+            firstEnemy = skirmish.onFirstSide(turn)
+                         ? skirmish.firstCount
+                         : 0;
+            lastEnemy  = skirmish.onFirstSide(turn)
+                         ? skirmish.ids.length
+                         : skirmish.firstCount;
+            count      = 0;
+
+            if(speciesTag == CreaturePool.SPECIES_DRAGON)
+            {
+                attack    = ACTION_BREATH_FIRE;
+                canAttack = resource >= Dragon.FIREPOWER_COST;
+            } else if(speciesTag == CreaturePool.SPECIES_ELF)
+            {
+                attack    = ACTION_CAST_SPELL;
+                canAttack = resource >= Elf.MANA_SPELL_COST;
+            } else
+            {
+                attack    = ACTION_BERSERK;
+                canAttack = resource > Orc.RAGE_BOOST_REQUIREMENT ||
+                            resource >= Orc.MIN_RAGE && resource < Orc.RAGE_BOOST_REQUIREMENT;
+            }
+
+            if(canAttack)
+            {
+                for(int enemy = firstEnemy; enemy < lastEnemy; enemy++)
+                {
+                    if(health[enemy] > Creature.NO_HEALTH)
+                    {
+                        scratchActions[count] = attack;
+                        scratchTargets[count] = enemy;
+                        count++;
+                    }
+                }
+            }
+
+            if(speciesTag == CreaturePool.SPECIES_DRAGON && resource < Dragon.MAX_FIREPOWER)
+            {
+                scratchActions[count] = ACTION_RESTORE_FIRE_POWER;
+                scratchTargets[count] = NO_TARGET;
+                count++;
+            } else if(speciesTag == CreaturePool.SPECIES_ELF && resource < Elf.MAX_MANA)
+            {
+                scratchActions[count] = ACTION_RESTORE_MANA;
+                scratchTargets[count] = NO_TARGET;
+                count++;
+            }
+
+            scratchActions[count] = ACTION_HEAL;
+            scratchTargets[count] = NO_TARGET;
+
+            return count + 1;
+        }
+
+        /*
+         * The default rule of a rollout: attack a random living enemy, or restore
+         * when too low to attack.
+         */
+        private void act(final int turn)
+        {
+            final int firstEnemy;
+            final int enemies;
+            int       target;
+
+            firstEnemy = skirmish.onFirstSide(turn)
+                         ? skirmish.firstCount
+                         : 0;
+            enemies    = skirmish.onFirstSide(turn)
+                         ? skirmish.ids.length - skirmish.firstCount
+                         : skirmish.firstCount;
+
+            do
+            {
+                target = firstEnemy + random.nextInt(enemies);
+            } while(health[target] == Creature.NO_HEALTH);
+
+            if(skirmish.species[turn] == CreaturePool.SPECIES_DRAGON)
+            {
+                apply(turn,
+                      resources[turn] >= Dragon.FIREPOWER_COST
+                      ? ACTION_BREATH_FIRE
+                      : ACTION_RESTORE_FIRE_POWER,
+                      target);
+            } else if(skirmish.species[turn] == CreaturePool.SPECIES_ELF)
+            {
+                apply(turn,
+                      resources[turn] >= Elf.MANA_SPELL_COST
+                      ? ACTION_CAST_SPELL
+                      : ACTION_RESTORE_MANA,
+                      target);
+            } else
+            {
+                apply(turn, ACTION_BERSERK, target);
+            }
+        }
+
+        /*
+         * Applies an action with the same rules as CombatEngine.resolveRound; an
+         * attack the creature is too low for does nothing.
+         */
+        private void apply(final int turn,
+                           final int action,
+                           final int target)
+        {
+            if(action == ACTION_BREATH_FIRE)
+            {
+                if(resources[turn] >= Dragon.FIREPOWER_COST)
+                {
+                    resources[turn] -= Dragon.FIREPOWER_COST;
+                    hit(target, Dragon.FIREPOWER_DAMAGE);
+                }
+            } else if(action == ACTION_CAST_SPELL)
+            {
+                if(resources[turn] >= Elf.MANA_SPELL_COST)
+                {
+                    resources[turn] -= Elf.MANA_SPELL_COST;
+                    hit(target, Elf.SPELL_POWER);
+                }
+            } else if(action == ACTION_BERSERK)
+            {
+                int rage;
+
+                rage = resources[turn];
+
+                if(rage > Orc.RAGE_BOOST_REQUIREMENT)
+                {
+                    hit(target, Orc.RAGE_NORMAL_DAMAGE * Orc.RAGE_BOOST_MODIFIER);
+                    rage += Orc.BERSERK_RAGE_INCREASE;
+                }
+                if(rage >= Orc.MIN_RAGE && rage < Orc.RAGE_BOOST_REQUIREMENT)
+                {
+                    hit(target, Orc.RAGE_NORMAL_DAMAGE);
+                    rage += Orc.BERSERK_RAGE_INCREASE;
+                }
+                resources[turn] = rage;
+            } else if(action == ACTION_RESTORE_FIRE_POWER)
+            {
+                resources[turn] = Dragon.MAX_FIREPOWER;
+            } else if(action == ACTION_RESTORE_MANA)
+            {
+                resources[turn] = Elf.MAX_MANA;
+            } else
+            {
+                health[turn] = Math.min(health[turn] + HEAL_AMOUNT, Creature.MAX_HEALTH);
+            }
+        }
+
+        private void hit(final int target,
+                         final int damage)
+        {
+            if(health[target] == Creature.NO_HEALTH)
+            {
+                return;
+            }
+
+            health[target] = Math.max(health[target] - damage, Creature.NO_HEALTH);
+
+            if(health[target] == Creature.NO_HEALTH)
+            {
+                if(skirmish.onFirstSide(target))
+                {
+                    firstLiving--;
+                } else
+                {
+                    secondLiving--;
+                }
+            }
+        }
+
+        /*
+         * Gets the next living creature in the turn order. The creature that just
+         * acted is still alive, since no action hurts the creature taking it.
+         */
+        private int nextTurn(final int turn)
+        {
+            int next;
+
+            next = turn;
+
+            do
+            {
+                next = next + 1 == health.length
+                       ? 0
+                       : next + 1;
+            } while(health[next] == Creature.NO_HEALTH);
+
+            return next;
+        }
+
+        private boolean isOver()
+        {
+            return firstLiving == 0 || secondLiving == 0;
+        }
+
+        /*
+         * Scores the skirmish for the first side: a win or a loss, or half way
+         * between them moved by the difference of the health left on each side.
+         */
+        private double score()
+        {
+            final int firstCount;
+            final int secondCount;
+            long      firstHealth;
+            long      secondHealth;
+
+            if(secondLiving == 0)
+            {
+                return WIN;
+            }
+            if(firstLiving == 0)
+            {
+                return LOSS;
+            }
+
+            firstCount   = skirmish.firstCount;
+            secondCount  = health.length - firstCount;
+            firstHealth  = 0;
+            secondHealth = 0;
+
+            for(int i = 0; i < firstCount; i++)
+            {
+                firstHealth += health[i];
+            }
+            for(int i = firstCount; i < health.length; i++)
+            {
+                secondHealth += health[i];
+            }
+
+            return (WIN + LOSS) / 2 +
+                   ((double) firstHealth / firstCount - (double) secondHealth / secondCount) / Creature.MAX_HEALTH / 2;
+        }
+
+        /*
+         * Copies the skirmish back to its starting state.
+         */
+        private void reset()
+        {
+            System.arraycopy(skirmish.health, 0, health, 0, health.length);
+            System.arraycopy(skirmish.resources, 0, resources, 0, resources.length);
+
+            firstLiving  = 0;
+            secondLiving = 0;
+
+            for(int i = 0; i < health.length; i++)
+            {
+                if(health[i] > Creature.NO_HEALTH)
+                {
+                    if(skirmish.onFirstSide(i))
+                    {
+                        firstLiving++;
+                    } else
+                    {
+                        secondLiving++;
+                    }
+                }
+            }
+        }
+
+        private void addNode(final int parent,
+                             final int mover,
+                             final int action,
+                             final int target)
+        {
+            if(nodes == parents.length)
+            {
+                growNodes();
+            }
+
+            parents[nodes]       = parent;
+            firstChildren[nodes] = NOT_EXPANDED;
+            childCounts[nodes]   = 0;
+            movers[nodes]        = mover;
+            actions[nodes]       = action;
+            targets[nodes]       = target;
+            visits[nodes]        = 0;
+            values[nodes]        = 0.0;
+            nodes++;
+        }
+
+        private void growNodes()
+        {
+            final int newLength;
+
+            newLength = parents.length * GROWTH_FACTOR;
+
+            parents       = Arrays.copyOf(parents, newLength);
+            firstChildren = Arrays.copyOf(firstChildren, newLength);
+            childCounts   = Arrays.copyOf(childCounts, newLength);
+            movers        = Arrays.copyOf(movers, newLength);
+            actions       = Arrays.copyOf(actions, newLength);
+            targets       = Arrays.copyOf(targets, newLength);
+            visits        = Arrays.copyOf(visits, newLength);
+            values        = Arrays.copyOf(values, newLength);
+        }
+    }
+}
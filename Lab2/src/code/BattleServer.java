@@ -0,0 +1,397 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Hosts battles as a line based text service on the loopback interface.</p>
+ *
+ * <p>Every connection is served by its own virtual thread, so tens of thousands of
+ * mostly idle clients cost little more than their sockets. Each request is one
+ * line and gets one response line, either {@code OK ...} or {@code ERR <message>}:</p>
+ * <ul>
+ *     <li>{@code spawn Dragon|Elf|Orc} - creates a creature, replies {@code OK <id>}.</li>
+ *     <li>{@code Dragon <id> breathFire <target>}, {@code Elf <id> castSpell <target>},
+ *         {@code Orc <id> berserk <target>} - attacks, replies {@code OK <outcome>}.</li>
+ *     <li>{@code Dragon <id> restoreFirePower <amount>}, {@code Elf <id> restoreMana <amount>}.</li>
+ *     <li>{@code heal <id> <amount>}, {@code damage <id> <amount>} - replies {@code OK <health>}.</li>
+ *     <li>{@code details <id>} - replies {@code OK} and the creature's details line.</li>
+ * </ul>
+ *
+ * <p>The creatures are the existing {@link Dragon}, {@link Elf} and {@link Orc} classes.
+ * Their health and resource updates are compare-and-set operations, so concurrent
+ * commands against the same creature are applied one after another without
+ * losing updates.</p>
+ *
+ * <p>Starting a server registers {@link CombatMetrics} with the platform MBean server,
+ * so a running server can be watched from any JMX console.</p>
+ *
+ * @author Justin Cardas
+ * @author Mohammad Sadeghi
+ * @author Armaan Brar
+ * @version 1.0
+ */
+class BattleServer implements Closeable
+{
+    private static final int    BACKLOG;
+    private static final long   MIN_ACCEPT_BACKOFF_MILLIS;
+    private static final long   MAX_ACCEPT_BACKOFF_MILLIS;
+    private static final Date   SPAWN_DATE_OF_BIRTH;
+    private static final String OK;
+    private static final String ERROR;
+
+    static
+    {
+        BACKLOG                   = 16 * 1024;
+        MIN_ACCEPT_BACKOFF_MILLIS = 1L;
+        MAX_ACCEPT_BACKOFF_MILLIS = 1_000L;
+        SPAWN_DATE_OF_BIRTH       = Date.of(1, 1, 2000);
+        OK                        = "OK";
+        ERROR                     = "ERR";
+    }
+
+    private final ServerSocket           serverSocket;
+    private final ExecutorService        connections;
+    private final Map<Integer, Creature> creatures;
+    private final Set<Socket>            openSockets;
+    private final AtomicInteger          nextId;
+    private volatile boolean             running;
+
+    /**
+     * Binds a server to {@code port} on the loopback address. Port 0 picks a free port.
+     *
+     * @param port the port to listen on.
+     * @throws IOException if the port cannot be bound.
+     */
+    BattleServer(final int port) throws IOException
+    {
+        this.serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+        this.connections  = Executors.newVirtualThreadPerTaskExecutor();
+        this.creatures    = new ConcurrentHashMap<>();
+        this.openSockets  = ConcurrentHashMap.newKeySet();
+        this.nextId       = new AtomicInteger();
+        this.running      = false;
+    }
+
+    /**
+     * @return int port the server is listening on.
+     */
+    int getPort()
+    {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Registers the combat metrics MBean, then starts accepting connections on a
+     * virtual thread and returns immediately.
+     */
+    void start()
+    {
+        CombatMetrics.registerMBean();
+
+        running = true;
+        connections.submit(this::acceptConnections);
+    }
+
+    /*
+     * Accepts connections until the server is closed, handing each to its own virtual thread.
+     * A failed accept (for example, out of file descriptors) usually keeps failing until
+     * some clients disconnect, so retries back off exponentially up to
+     * MAX_ACCEPT_BACKOFF_MILLIS instead of spinning. Accepting stops once the server
+     * socket is closed, since that can never recover.
+     */
+    private void acceptConnections()
+    {
+        long backoffMillis;
+
+        backoffMillis = MIN_ACCEPT_BACKOFF_MILLIS;
+
+        while(running)
+        {
+            final Socket socket;
+
+            try
+            {
+                socket = serverSocket.accept();
+            } catch(IOException e)
+            {
+                if(!running || serverSocket.isClosed())
+                {
+                    return;
+                }
+
+                System.err.println("Accept failed, retrying in " + backoffMillis + " ms: " + e.getMessage());
+
+                try
+                {
+                    Thread.sleep(backoffMillis);
+                } catch(InterruptedException interrupted)
+                {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+
+                backoffMillis = Math.min(backoffMillis * 2, MAX_ACCEPT_BACKOFF_MILLIS);
+                continue;
+            }
+
+            backoffMillis = MIN_ACCEPT_BACKOFF_MILLIS;
+
+            openSockets.add(socket);
+            connections.submit(() -> serve(socket));
+        }
+    }
+
+    /*
+     * Reads request lines from one client and writes one response line for each.
+     */
+    private void serve(final Socket socket)
+    {
+        try(socket;
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)))
+        {
+            String line;
+
+            socket.setTcpNoDelay(true);
+
+            while((line = in.readLine()) != null)
+            {
+                out.write(handle(line));
+                out.newLine();
+                out.flush();
+            }
+        } catch(IOException e)
+        {
+            // the client went away or the server is closing; nothing left to answer
+        } finally
+        {
+            openSockets.remove(socket);
+        }
+    }
+
+    /**
+     * Executes one request line and returns its response line.
+     *
+     * @param line the request.
+     * @return String the response, starting with {@code OK} or {@code ERR}.
+     */
+    String handle(final String line)
+    {
+        final String[] tokens;
+
+        tokens = line.trim().split("\\s+");
+
+        try
+        {
+            return switch(tokens[0])
+            {
+                case "spawn" -> spawn(tokens);
+                case "details" -> details(tokens);
+                case "heal" -> heal(tokens);
+                case "damage" -> damage(tokens);
+                case "Dragon", "Elf", "Orc" -> act(tokens);
+                default -> ERROR + " unknown command: " + tokens[0];
+            };
+        } catch(RuntimeException e)
+        {
+            return ERROR + " " + e.getMessage();
+        }
+    }
+
+    /*
+     * spawn <species>
+     */
+    private String spawn(final String[] tokens)
+    {
+        final int      id;
+        final Creature creature;
+
+        requireTokens(tokens, 2);
+
+        id       = nextId.getAndIncrement();
+        creature = switch(tokens[1])
+        {
+            case "Dragon" -> new Dragon("Dragon-" + id, SPAWN_DATE_OF_BIRTH, Creature.MAX_HEALTH, Dragon.MAX_FIREPOWER);
+            case "Elf" -> new Elf("Elf-" + id, SPAWN_DATE_OF_BIRTH, Creature.MAX_HEALTH, Elf.MAX_MANA);
+            case "Orc" -> new Orc("Orc-" + id, SPAWN_DATE_OF_BIRTH, Creature.MAX_HEALTH, Orc.MIN_RAGE);
+            default -> throw new IllegalArgumentException("unknown species: " + tokens[1]);
+        };
+
+        creatures.put(id, creature);
+
+        return OK + " " + id;
+    }
+
+    /*
+     * details <id>
+     */
+    private String details(final String[] tokens)
+    {
+        final StringBuilder response;
+
+        requireTokens(tokens, 2);
+
+        response = new StringBuilder(OK).append(' ');
+
+        try
+        {
+            find(tokens[1]).appendDetails(response);
+        } catch(IOException e)
+        {
+            // a StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+
+        return response.toString();
+    }
+
+    /*
+     * heal <id> <amount>
+     */
+    private String heal(final String[] tokens)
+    {
+        final Creature creature;
+
+        requireTokens(tokens, 3);
+
+        creature = find(tokens[1]);
+        creature.heal(Integer.parseInt(tokens[2]));
+
+        return OK + " " + creature.getHealth();
+    }
+
+    /*
+     * damage <id> <amount>
+     */
+    private String damage(final String[] tokens)
+    {
+        final Creature creature;
+
+        requireTokens(tokens, 3);
+
+        creature = find(tokens[1]);
+        creature.takeDamage(Integer.parseInt(tokens[2]));
+
+        return OK + " " + creature.getHealth();
+    }
+
+    /*
+     * <species> <id> <action> <target or amount>
+     */
+    private String act(final String[] tokens)
+    {
+        final Creature attacker;
+        final String   action;
+
+        requireTokens(tokens, 4);
+
+        attacker = find(tokens[1]);
+        action   = tokens[2];
+
+        if(attacker instanceof Dragon dragon && tokens[0].equals("Dragon"))
+        {
+            if(action.equals("breathFire"))
+            {
+                return OK + " " + CombatOutcome.name(dragon.tryBreathFire(find(tokens[3])));
+            }
+            if(action.equals("restoreFirePower"))
+            {
+                dragon.restoreFirePower(Integer.parseInt(tokens[3]));
+                return OK;
+            }
+        } else if(attacker instanceof Elf elf && tokens[0].equals("Elf"))
+        {
+            if(action.equals("castSpell"))
+            {
+                return OK + " " + CombatOutcome.name(elf.tryCastSpell(find(tokens[3])));
+            }
+            if(action.equals("restoreMana"))
+            {
+                elf.restoreMana(Integer.parseInt(tokens[3]));
+                return OK;
+            }
+        } else if(attacker instanceof Orc orc && tokens[0].equals("Orc"))
+        {
+            if(action.equals("berserk"))
+            {
+                return OK + " " + CombatOutcome.name(orc.tryBerserk(find(tokens[3])));
+            }
+        } else
+        {
+            return ERROR + " creature " + tokens[1] + " is not a " + tokens[0];
+        }
+
+        return ERROR + " " + tokens[0] + " cannot " + action;
+    }
+
+    /*
+     * Looks up a creature by its id token.
+     */
+    private Creature find(final String idToken)
+    {
+        final Creature creature;
+
+        creature = creatures.get(Integer.parseInt(idToken));
+
+        if(creature == null)
+        {
+            throw new IllegalArgumentException("no creature with id " + idToken);
+        }
+        return creature;
+    }
+
+    /*
+     * Throws an IllegalArgumentException if a request has fewer tokens than needed.
+     */
+    private static void requireTokens(final String[] tokens,
+                                      final int count)
+    {
+        if(tokens.length < count)
+        {
+            throw new IllegalArgumentException("expected " + count + " words");
+        }
+    }
+
+    /**
+     * Stops accepting connections and disconnects every client.
+     *
+     * @throws IOException if the server socket cannot be closed.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        running = false;
+
+        try
+        {
+            serverSocket.close();
+        } finally
+        {
+            for(final Socket socket : openSockets)
+            {
+                try
+                {
+                    socket.close();
+                } catch(IOException e)
+                {
+                    // already closing; keep disconnecting the others
+                }
+            }
+            connections.shutdown();
+        }
+    }
+}
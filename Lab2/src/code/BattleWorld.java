@@ -0,0 +1,551 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>A persistent copy of the health and resources of every creature of a
+ * {@link CreaturePool}, for exploring "what if" branches of a battle. Forking a
+ * world is O(1), each branch is changed with the same combat rules as the pool,
+ * and a branch that is no longer wanted is simply dropped.</p>
+ *
+ * <p>The columns are split into chunks of {@code CHUNK_SIZE} creatures, held by
+ * nodes of {@code NODE_SIZE} chunks under a root array. A fork shares every
+ * node and chunk with its parent, and both stop owning them: a world changes a
+ * chunk in place only if it made that chunk itself, and otherwise first copies the
+ * chunk and the node and root on the way to it. A branch that touches k creatures
+ * therefore costs O(k) chunks on top of what it shares, so thousands of branches of
+ * a large battle fit in memory at once.</p>
+ *
+ * <p>Species, names and dates of birth never change in battle and are shared with
+ * the pool. Branches are speculative, so unlike the pool they are not counted by
+ * {@link CombatMetrics}. A world is not thread-safe, but forks of it may be used on
+ * different threads, since nothing they share is ever written again.</p>
+ *
+ * <p>Each world keeps the {@link WorldHash} of its creatures up to date like the
+ * pool, starting from the pool's, so a branch can be checked against the pool or
+ * another branch with one comparison of {@link #stateHash()}.</p>
+ *
+ * @author Justin Cardas
+ * @author Mohammad Sadeghi
+ * @author Armaan Brar
+ * @version 1.0
+ */
+final class BattleWorld
+{
+    private static final int        CHUNK_SHIFT;
+    private static final int        CHUNK_SIZE;
+    private static final int        CHUNK_MASK;
+    private static final int        NODE_SHIFT;
+    private static final int        NODE_SIZE;
+    private static final int        NODE_MASK;
+    private static final AtomicLong OWNERS;
+
+    static
+    {
+        CHUNK_SHIFT = 6;
+        CHUNK_SIZE  = 1 << CHUNK_SHIFT;
+        CHUNK_MASK  = CHUNK_SIZE - 1;
+        NODE_SHIFT  = 6;
+        NODE_SIZE   = 1 << NODE_SHIFT;
+        NODE_MASK   = NODE_SIZE - 1;
+        OWNERS      = new AtomicLong();
+    }
+
+    /*
+     * A chunk holds the health of its creatures followed by their resources.
+     * chunkOwners records which world made each chunk and may write to it.
+     */
+    private static final class Node
+    {
+        private final long    owner;
+        private final int[][] chunks;
+        private final long[]  chunkOwners;
+
+        private Node(final long owner,
+                     final int[][] chunks)
+        {
+            this.owner       = owner;
+            this.chunks      = chunks;
+            this.chunkOwners = new long[chunks.length];
+        }
+    }
+
+    private final CreaturePool pool;
+    private final int[]        species;
+    private final int          size;
+    private Node[]             nodes;
+    private long               rootOwner;
+    private int[]              livingCounts;
+    private long               owner;
+    private long               stateHash;
+
+    /*
+     * Wraps the state of a new world or fork.
+     */
+    private BattleWorld(final CreaturePool pool,
+                        final int[] species,
+                        final int size,
+                        final Node[] nodes,
+                        final long rootOwner,
+                        final int[] livingCounts,
+                        final long owner,
+                        final long stateHash)
+    {
+        this.pool         = pool;
+        this.species      = species;
+        this.size         = size;
+        this.nodes        = nodes;
+        this.rootOwner    = rootOwner;
+        this.livingCounts = livingCounts;
+        this.owner        = owner;
+        this.stateHash    = stateHash;
+    }
+
+    /**
+     * Copies the current health and resources of every creature of {@code pool}
+     * into a new world. Creatures added to the pool later are not part of it.
+     *
+     * @param pool the pool to copy.
+     * @return BattleWorld the new world.
+     * @throws IllegalArgumentException if {@code pool} is {@code null}.
+     */
+    static BattleWorld of(final CreaturePool pool)
+    {
+        final int    size;
+        final int[]  species;
+        final int[]  health;
+        final int[]  resources;
+        final int[]  livingCounts;
+        final long   owner;
+        final Node[] nodes;
+
+        if(pool == null)
+        {
+            throw new IllegalArgumentException("Pool cannot be null");
+        }
+
+        size         = pool.size();
+        species      = Arrays.copyOf(pool.speciesColumn(), size);
+        health       = pool.healthColumn();
+        resources    = pool.resourceColumn();
+        livingCounts = new int[pool.speciesTable().size()];
+        owner        = OWNERS.incrementAndGet();
+        nodes        = new Node[(chunkCount(size) + NODE_MASK) >> NODE_SHIFT];
+
+        for(int n = 0; n < nodes.length; n++)
+        {
+            final int[][] chunks;
+
+            chunks = new int[Math.min(NODE_SIZE, chunkCount(size) - (n << NODE_SHIFT))][];
+
+            for(int c = 0; c < chunks.length; c++)
+            {
+                final int first;
+                final int count;
+
+                first     = ((n << NODE_SHIFT) + c) << CHUNK_SHIFT;
+                count     = Math.min(CHUNK_SIZE, size - first);
+                chunks[c] = new int[CHUNK_SIZE * 2];
+
+                System.arraycopy(health, first, chunks[c], 0, count);
+                System.arraycopy(resources, first, chunks[c], CHUNK_SIZE, count);
+            }
+
+            nodes[n] = new Node(owner, chunks);
+
+            Arrays.fill(nodes[n].chunkOwners, owner);
+        }
+
+        for(int id = 0; id < size; id++)
+        {
+            if(health[id] > Creature.NO_HEALTH)
+            {
+                livingCounts[species[id]]++;
+            }
+        }
+
+        return new BattleWorld(pool, species, size, nodes, owner, livingCounts, owner, pool.stateHash());
+    }
+
+    /**
+     * Forks this world in O(1). The fork and this world start out equal and from
+     * then on change independently.
+     *
+     * @return BattleWorld the fork.
+     */
+    BattleWorld fork()
+    {
+        // neither world may write to what they now share
+        owner = OWNERS.incrementAndGet();
+
+        return new BattleWorld(pool,
+                               species,
+                               size,
+                               nodes,
+                               rootOwner,
+                               livingCounts.clone(),
+                               OWNERS.incrementAndGet(),
+                               stateHash);
+    }
+
+    /**
+     * @return int number of creatures in the world.
+     */
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * @return CreaturePool the pool the world was copied from, for names and dates of birth.
+     */
+    CreaturePool pool()
+    {
+        return pool;
+    }
+
+    /**
+     * @param id the id of the creature.
+     * @return int species tag of the creature.
+     */
+    int getSpecies(final int id)
+    {
+        validateId(id);
+        return species[id];
+    }
+
+    /**
+     * @param id the id of the creature.
+     * @return int health of the creature in this world.
+     */
+    int getHealth(final int id)
+    {
+        validateId(id);
+        return chunk(id)[id & CHUNK_MASK];
+    }
+
+    /**
+     * @param id the id of the creature.
+     * @return int firePower, mana or rage of the creature in this world.
+     */
+    int getResource(final int id)
+    {
+        validateId(id);
+        return chunk(id)[CHUNK_SIZE + (id & CHUNK_MASK)];
+    }
+
+    /**
+     * @param id the id of the creature.
+     * @return true if the creature is alive in this world.
+     */
+    boolean isAlive(final int id)
+    {
+        return getHealth(id) > Creature.NO_HEALTH;
+    }
+
+    /**
+     * @param speciesTag the species tag.
+     * @return int number of living creatures of the species in this world.
+     */
+    int countLiving(final int speciesTag)
+    {
+        return livingCounts[speciesTag];
+    }
+
+    /**
+     * @return int number of living creatures in this world.
+     */
+    int countLiving()
+    {
+        int living;
+
+        living = 0;
+
+        for(final int count : livingCounts)
+        {
+            living += count;
+        }
+        return living;
+    }
+
+    /**
+     * Gets the {@link WorldHash} of the species, health and resource of every
+     * creature in the world.
+     *
+     * @return long the hash.
+     */
+    long stateHash()
+    {
+        return stateHash;
+    }
+
+    /**
+     * Reduces the health of a creature by {@code damage}, following
+     * {@link CreaturePool#takeDamage(int, int)}.
+     *
+     * @param id     the id of the creature.
+     * @param damage amount of damage taken.
+     * @throws DamageException if {@code damage} is negative.
+     */
+    void takeDamage(final int id,
+                    final int damage)
+    {
+        final int[] chunk;
+        final int   before;
+
+        validateId(id);
+
+        if(damage < Creature.NO_HEALTH)
+        {
+            throw new DamageException("Damage cannot be negative");
+        }
+
+        chunk  = writableChunk(id);
+        before = chunk[id & CHUNK_MASK];
+
+        chunk[id & CHUNK_MASK] = Math.max(before - damage, Creature.NO_HEALTH);
+        stateHash              ^= WorldHash.healthChange(id, before, chunk[id & CHUNK_MASK]);
+
+        if(before > Creature.NO_HEALTH && chunk[id & CHUNK_MASK] == Creature.NO_HEALTH)
+        {
+            livingCounts[species[id]]--;
+        }
+    }
+
+    /**
+     * Increases the health of a creature by {@code healAmount}, following
+     * {@link CreaturePool#heal(int, int)}.
+     *
+     * @param id         the id of the creature.
+     * @param healAmount amount of healing to apply.
+     * @throws HealingException if {@code healAmount} is negative.
+     */
+    void heal(final int id,
+              final int healAmount)
+    {
+        final int[] chunk;
+        final int   before;
+
+        validateId(id);
+
+        if(healAmount < Creature.NO_HEALTH)
+        {
+            throw new HealingException("Healing amount cannot be negative.");
+        }
+
+        chunk  = writableChunk(id);
+        before = chunk[id & CHUNK_MASK];
+
+        chunk[id & CHUNK_MASK] = Math.min(before + healAmount, Creature.MAX_HEALTH);
+        stateHash              ^= WorldHash.healthChange(id, before, chunk[id & CHUNK_MASK]);
+
+        if(before == Creature.NO_HEALTH && chunk[id & CHUNK_MASK] > Creature.NO_HEALTH)
+        {
+            livingCounts[species[id]]++;
+        }
+    }
+
+    /**
+     * Makes a dragon breathe fire at a target, following {@link CreaturePool#breathFire(int, int)}.
+     *
+     * @param dragonId the id of the dragon.
+     * @param targetId the id of the creature hit.
+     * @throws IllegalArgumentException if {@code dragonId} is not a dragon or {@code targetId} is unknown.
+     * @throws LowFirePowerException    if the current firePower amount is lower than FIREPOWER_COST.
+     */
+    void breathFire(final int dragonId,
+                    final int targetId)
+    throws LowFirePowerException
+    {
+        final int firePower;
+
+        validateSpecies(dragonId, CreaturePool.SPECIES_DRAGON);
+        validateId(targetId);
+
+        firePower = getResource(dragonId);
+
+        if(firePower < Dragon.FIREPOWER_COST)
+        {
+            throw new LowFirePowerException("couldn't breath fire. Fire power too low. " + "[" + firePower + "]");
+        }
+
+        setResource(dragonId, firePower - Dragon.FIREPOWER_COST);
+        takeDamage(targetId, Dragon.FIREPOWER_DAMAGE);
+    }
+
+    /**
+     * Restores the firePower of a dragon, following {@link CreaturePool#restoreFirePower(int, int)}.
+     *
+     * @param dragonId the id of the dragon.
+     * @param amount   the amount of firePower to restore.
+     * @throws IllegalArgumentException if {@code dragonId} is not a dragon or {@code amount} is negative.
+     */
+    void restoreFirePower(final int dragonId,
+                          final int amount)
+    {
+        validateSpecies(dragonId, CreaturePool.SPECIES_DRAGON);
+
+        if(amount < Dragon.MIN_FIREPOWER)
+        {
+            throw new IllegalArgumentException("Firepower cannot be negative");
+        }
+
+        setResource(dragonId, Math.min(getResource(dragonId) + amount, Dragon.MAX_FIREPOWER));
+    }
+
+    /**
+     * Makes an elf cast a spell at a target, following {@link CreaturePool#castSpell(int, int)}.
+     *
+     * @param elfId    the id of the elf.
+     * @param targetId the id of the creature hit.
+     * @throws IllegalArgumentException if {@code elfId} is not an elf or {@code targetId} is unknown.
+     * @throws LowManaException         if the current mana is lower than MANA_SPELL_COST.
+     */
+    void castSpell(final int elfId,
+                   final int targetId)
+    throws LowManaException
+    {
+        final int mana;
+
+        validateSpecies(elfId, CreaturePool.SPECIES_ELF);
+        validateId(targetId);
+
+        mana = getResource(elfId);
+
+        if(mana < Elf.MANA_SPELL_COST)
+        {
+            throw new LowManaException("couldn't cast spell. Mana is too low. " + "[" + mana + "]");
+        }
+
+        setResource(elfId, mana - Elf.MANA_SPELL_COST);
+        takeDamage(targetId, Elf.SPELL_POWER);
+    }
+
+    /**
+     * Restores the mana of an elf, following {@link CreaturePool#restoreMana(int, int)}.
+     *
+     * @param elfId  the id of the elf.
+     * @param amount the amount of mana to restore.
+     * @throws IllegalArgumentException if {@code elfId} is not an elf or {@code amount}
+     *                                  is outside {@code MIN_MANA} to {@code MAX_MANA}.
+     */
+    void restoreMana(final int elfId,
+                     final int amount)
+    {
+        validateSpecies(elfId, CreaturePool.SPECIES_ELF);
+
+        if(amount < Elf.MIN_MANA || amount > Elf.MAX_MANA)
+        {
+            throw new IllegalArgumentException("Invalid mana amount: " + amount);
+        }
+
+        setResource(elfId, Math.min(getResource(elfId) + amount, Elf.MAX_MANA));
+    }
+
+    /**
+     * Makes an orc go berserk against a target, following {@link CreaturePool#berserk(int, int)}.
+     *
+     * @param orcId    the id of the orc.
+     * @param targetId the id of the creature hit.
+     * @throws IllegalArgumentException if {@code orcId} is not an orc or {@code targetId} is unknown.
+     * @throws LowRageException         if {@code rage} is less than {@code MIN_RAGE}
+     */
+    void berserk(final int orcId,
+                 final int targetId)
+    {
+        validateSpecies(orcId, CreaturePool.SPECIES_ORC);
+        validateId(targetId);
+
+        if(getResource(orcId) > Orc.RAGE_BOOST_REQUIREMENT)
+        {
+            takeDamage(targetId, Orc.RAGE_NORMAL_DAMAGE * Orc.RAGE_BOOST_MODIFIER);
+            setResource(orcId, getResource(orcId) + Orc.BERSERK_RAGE_INCREASE);
+        }
+        if(getResource(orcId) < Orc.MIN_RAGE)
+        {
+            throw new LowRageException("rage too low: [" + getResource(orcId) + "]");
+        } else if(getResource(orcId) < Orc.RAGE_BOOST_REQUIREMENT)
+        {
+            takeDamage(targetId, Orc.RAGE_NORMAL_DAMAGE);
+            setResource(orcId, getResource(orcId) + Orc.BERSERK_RAGE_INCREASE);
+        }
+    }
+
+    private static int chunkCount(final int creatures)
+    {
+        return (creatures + CHUNK_MASK) >> CHUNK_SHIFT;
+    }
+
+    private void setResource(final int id,
+                             final int resource)
+    {
+        stateHash ^= WorldHash.resourceChange(id, getResource(id), resource);
+
+        writableChunk(id)[CHUNK_SIZE + (id & CHUNK_MASK)] = resource;
+    }
+
+    private int[] chunk(final int id)
+    {
+        return nodes[id >>> (CHUNK_SHIFT + NODE_SHIFT)].chunks[(id >>> CHUNK_SHIFT) & NODE_MASK];
+    }
+
+    /*
+     * Gets the chunk of a creature for writing, first copying the root, the node and
+     * the chunk on the way to it if this world did not make them.
+     */
+    private int[] writableChunk(final int id)
+    {
+        final int nodeIndex;
+        final int chunkIndex;
+        Node      node;
+
+        nodeIndex  = id >>> (CHUNK_SHIFT + NODE_SHIFT);
+        chunkIndex = (id >>> CHUNK_SHIFT) & NODE_MASK;
+
+        if(rootOwner != owner)
+        {
+            nodes     = nodes.clone();
+            rootOwner = owner;
+        }
+
+        node = nodes[nodeIndex];
+
+        if(node.owner != owner)
+        {
+            node             = new Node(owner, node.chunks.clone());
+            nodes[nodeIndex] = node;
+        }
+
+        if(node.chunkOwners[chunkIndex] != owner)
+        {
+            node.chunks[chunkIndex]      = node.chunks[chunkIndex].clone();
+            node.chunkOwners[chunkIndex] = owner;
+        }
+
+        return node.chunks[chunkIndex];
+    }
+
+    /*
+     * Throws an IllegalArgumentException if the creature is not in this world.
+     */
+    private void validateId(final int id)
+    {
+        if(id < 0 || id >= size)
+        {
+            throw new IllegalArgumentException("Unknown creature id: " + id);
+        }
+    }
+
+    /*
+     * Throws an IllegalArgumentException if the creature is not of the expected species.
+     */
+    private void validateSpecies(final int id,
+                                 final int expectedSpecies)
+    {
+        validateId(id);
+
+        if(species[id] != expectedSpecies)
+        {
+            throw new IllegalArgumentException("Creature " + id + " cannot perform this action");
+        }
+    }
+}
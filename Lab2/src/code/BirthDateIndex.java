@@ -0,0 +1,382 @@
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * <p>A secondary index on the date of birth of the creatures of a {@link CreaturePool},
+ * for age-range queries and age histograms without scanning the pool.</p>
+ *
+ * <p>Creature ids are kept sorted by epoch day together with the position of the
+ * first creature born on each supported day, so the creatures born in any range of
+ * days are one contiguous run: counting them is O(1), listing them O(result), and a
+ * histogram O(buckets). Creatures added to the pool after the index was built are
+ * kept in a short unsorted tail that queries scan; once the tail grows past an
+ * eighth of the index, the index is rebuilt by a counting sort in O(creatures + days).</p>
+ *
+ * <p>Ages follow {@link Creature#getAgeYears()}, the current year minus the year of
+ * birth, but the current year comes from an injectable {@link Clock}. The default
+ * clock is fixed on {@code CURRENT_YEAR}, {@code CURRENT_MONTH} and {@code CURRENT_DAY}
+ * so ages match the rest of the lab.</p>
+ *
+ * @author Justin Cardas
+ * @author Mohammad Sadeghi
+ * @author Armaan Brar
+ * @version 1.0
+ */
+final class BirthDateIndex
+{
+    private static final Clock DEFAULT_CLOCK;
+    private static final int   FIRST_YEAR;
+    private static final int   LAST_YEAR;
+    private static final int   MIN_TAIL;
+    private static final int   TAIL_DIVISOR;
+
+    static
+    {
+        DEFAULT_CLOCK = Clock.fixed(LocalDate.of(Creature.CURRENT_YEAR, Creature.CURRENT_MONTH, Creature.CURRENT_DAY)
+                                             .atStartOfDay(ZoneOffset.UTC)
+                                             .toInstant(),
+                                    ZoneOffset.UTC);
+        FIRST_YEAR    = Date.ofEpochDay(0).getYear();
+        LAST_YEAR     = Date.ofEpochDay(Date.supportedDays() - 1).getYear();
+        MIN_TAIL      = 4_096;
+        TAIL_DIVISOR  = 8;
+    }
+
+    private final CreaturePool pool;
+    private final Clock        clock;
+    private int[]              dayStarts;
+    private int[]              sortedIds;
+    private int                indexed;
+
+    /**
+     * Builds an index of {@code pool} with the clock fixed on the lab's current date.
+     *
+     * @param pool the pool to index.
+     */
+    BirthDateIndex(final CreaturePool pool)
+    {
+        this(pool, DEFAULT_CLOCK);
+    }
+
+    /**
+     * Builds an index of {@code pool} whose ages are relative to {@code clock}.
+     *
+     * @param pool  the pool to index.
+     * @param clock the clock giving the current year.
+     * @throws IllegalArgumentException if {@code pool} or {@code clock} is {@code null}.
+     */
+    BirthDateIndex(final CreaturePool pool,
+                   final Clock clock)
+    {
+        if(pool == null || clock == null)
+        {
+            throw new IllegalArgumentException("Pool and clock cannot be null");
+        }
+
+        this.pool  = pool;
+        this.clock = clock;
+
+        rebuild();
+    }
+
+    /**
+     * @return int the current year according to the clock.
+     */
+    int currentYear()
+    {
+        return LocalDate.now(clock).getYear();
+    }
+
+    /**
+     * {@link CreaturePool#getAgeYears(int)} relative to the clock.
+     *
+     * @param id the id of the creature.
+     * @return int age in years.
+     */
+    int getAgeYears(final int id)
+    {
+        return currentYear() - Date.packedYear(pool.getPackedDateOfBirth(id));
+    }
+
+    /**
+     * @param from the first date of birth, inclusive.
+     * @param to   the last date of birth, inclusive.
+     * @return int number of creatures born from {@code from} to {@code to}.
+     */
+    int countBornBetween(final Date from,
+                         final Date to)
+    {
+        return count(from.toEpochDay(), to.toEpochDay() + 1);
+    }
+
+    /**
+     * @param from the first date of birth, inclusive.
+     * @param to   the last date of birth, inclusive.
+     * @return int[] the ids of the creatures born from {@code from} to {@code to},
+     *         oldest first, followed by those added since the last rebuild.
+     */
+    int[] idsBornBetween(final Date from,
+                         final Date to)
+    {
+        return ids(from.toEpochDay(), to.toEpochDay() + 1);
+    }
+
+    /**
+     * @param date the date.
+     * @return int number of creatures born before {@code date}.
+     */
+    int countBornBefore(final Date date)
+    {
+        return count(0, date.toEpochDay());
+    }
+
+    /**
+     * @param date the date.
+     * @return int[] the ids of the creatures born before {@code date}, oldest first,
+     *         followed by those added since the last rebuild.
+     */
+    int[] idsBornBefore(final Date date)
+    {
+        return ids(0, date.toEpochDay());
+    }
+
+    /**
+     * @param minAge the lowest age, inclusive.
+     * @param maxAge the highest age, inclusive.
+     * @return int number of creatures aged {@code minAge} to {@code maxAge}.
+     */
+    int countAged(final int minAge,
+                  final int maxAge)
+    {
+        final int year;
+
+        year = currentYear();
+
+        return count(firstDayOfYear(year - maxAge), firstDayOfYear(year - minAge + 1));
+    }
+
+    /**
+     * @param minAge the lowest age, inclusive.
+     * @param maxAge the highest age, inclusive.
+     * @return int[] the ids of the creatures aged {@code minAge} to {@code maxAge},
+     *         oldest first, followed by those added since the last rebuild.
+     */
+    int[] idsAged(final int minAge,
+                  final int maxAge)
+    {
+        final int year;
+
+        year = currentYear();
+
+        return ids(firstDayOfYear(year - maxAge), firstDayOfYear(year - minAge + 1));
+    }
+
+    /**
+     * Counts the creatures in age buckets of {@code bucketYears} years: bucket
+     * {@code k} holds ages {@code k * bucketYears} to {@code (k + 1) * bucketYears - 1},
+     * up to the oldest possible age.
+     *
+     * @param bucketYears the width of each bucket in years.
+     * @return int[] the number of creatures in each bucket.
+     * @throws IllegalArgumentException if {@code bucketYears} is not positive.
+     */
+    int[] ageHistogram(final int bucketYears)
+    {
+        final int   year;
+        final int   maxAge;
+        final int[] histogram;
+
+        if(bucketYears <= 0)
+        {
+            throw new IllegalArgumentException("Bucket width must be positive: " + bucketYears);
+        }
+
+        refreshIfTailTooLong();
+
+        year      = currentYear();
+        maxAge    = Math.max(year - FIRST_YEAR, 0);
+        histogram = new int[maxAge / bucketYears + 1];
+
+        for(int bucket = 0; bucket < histogram.length; bucket++)
+        {
+            final int youngest;
+            final int oldest;
+
+            youngest = bucket * bucketYears;
+            oldest   = youngest + bucketYears - 1;
+
+            histogram[bucket] = countIndexed(firstDayOfYear(year - oldest), firstDayOfYear(year - youngest + 1));
+        }
+
+        for(int id = indexed; id < pool.size(); id++)
+        {
+            final int age;
+
+            age = year - Date.packedYear(pool.getPackedDateOfBirth(id));
+
+            if(age >= 0)
+            {
+                histogram[Math.min(age / bucketYears, histogram.length - 1)]++;
+            }
+        }
+
+        return histogram;
+    }
+
+    /**
+     * Sorts every creature of the pool into the index, emptying the tail.
+     */
+    void rebuild()
+    {
+        final int   days;
+        final int   size;
+        final int[] starts;
+        final int[] cursors;
+        final int[] ids;
+
+        days   = Date.supportedDays();
+        size   = pool.size();
+        starts = new int[days + 1];
+        ids    = new int[size];
+
+        for(int id = 0; id < size; id++)
+        {
+            starts[Date.packedEpochDay(pool.getPackedDateOfBirth(id)) + 1]++;
+        }
+        for(int day = 0; day < days; day++)
+        {
+            starts[day + 1] += starts[day];
+        }
+
+        cursors = Arrays.copyOf(starts, days);
+
+        for(int id = 0; id < size; id++)
+        {
+            ids[cursors[Date.packedEpochDay(pool.getPackedDateOfBirth(id))]++] = id;
+        }
+
+        this.dayStarts = starts;
+        this.sortedIds = ids;
+        this.indexed   = size;
+    }
+
+    /*
+     * Counts the creatures born on epoch days fromDay (inclusive) to toDay (exclusive).
+     */
+    private int count(final int fromDay,
+                      final int toDay)
+    {
+        final int from;
+        final int to;
+        int       count;
+
+        refreshIfTailTooLong();
+
+        from  = clampDay(fromDay);
+        to    = Math.max(clampDay(toDay), from);
+        count = countIndexed(from, to);
+
+        for(int id = indexed; id < pool.size(); id++)
+        {
+            if(inRange(id, from, to))
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /*
+     * Lists the creatures born on epoch days fromDay (inclusive) to toDay (exclusive).
+     */
+    private int[] ids(final int fromDay,
+                      final int toDay)
+    {
+        final int from;
+        final int to;
+        final int first;
+        final int last;
+        int[]     ids;
+        int       found;
+
+        refreshIfTailTooLong();
+
+        from  = clampDay(fromDay);
+        to    = Math.max(clampDay(toDay), from);
+        first = dayStarts[from];
+        last  = dayStarts[to];
+        ids   = Arrays.copyOfRange(sortedIds, first, last + pool.size() - indexed);
+        found = last - first;
+
+        for(int id = indexed; id < pool.size(); id++)
+        {
+            if(inRange(id, from, to))
+            {
+                ids[found++] = id;
+            }
+        }
+
+        if(found < ids.length)
+        {
+            ids = Arrays.copyOf(ids, found);
+        }
+        return ids;
+    }
+
+    private int countIndexed(final int fromDay,
+                             final int toDay)
+    {
+        final int from;
+        final int to;
+
+        from = clampDay(fromDay);
+        to   = Math.max(clampDay(toDay), from);
+
+        return dayStarts[to] - dayStarts[from];
+    }
+
+    private boolean inRange(final int id,
+                            final int fromDay,
+                            final int toDay)
+    {
+        final int day;
+
+        day = Date.packedEpochDay(pool.getPackedDateOfBirth(id));
+
+        return day >= fromDay && day < toDay;
+    }
+
+    /*
+     * Rebuilds once the creatures added since the last rebuild are too many to scan.
+     */
+    private void refreshIfTailTooLong()
+    {
+        if(pool.size() - indexed > Math.max(MIN_TAIL, indexed / TAIL_DIVISOR))
+        {
+            rebuild();
+        }
+    }
+
+    /*
+     * Gets the epoch day of January 1 of a year, clamped to the supported days.
+     */
+    private static int firstDayOfYear(final int year)
+    {
+        if(year < FIRST_YEAR)
+        {
+            return 0;
+        }
+        if(year > LAST_YEAR)
+        {
+            return Date.supportedDays();
+        }
+        return Date.of(1, 1, year).toEpochDay();
+    }
+
+    private static int clampDay(final int day)
+    {
+        return Math.min(Math.max(day, 0), Date.supportedDays());
+    }
+}
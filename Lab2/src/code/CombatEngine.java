@@ -0,0 +1,225 @@
+/**
+ * <p>Resolves a whole round of attacks against a {@link CreaturePool} in one loop.</p>
+ *
+ * <p>A round is described by parallel arrays: attacker ids, target ids and action
+ * kinds. The action kind of a species is its species tag, so the built-in kinds
+ * are {@code ACTION_BREATH_FIRE}, {@code ACTION_CAST_SPELL} and
+ * {@code ACTION_BERSERK}. Every attack is resolved in order by one interpreter
+ * loop over the rules of the pool's {@link SpeciesTable}, which for the standard
+ * species are exactly the rules of {@link CreaturePool#breathFire(int, int)},
+ * {@link CreaturePool#castSpell(int, int)} and {@link CreaturePool#berserk(int, int)},
+ * but a low resource is recorded as {@link CombatOutcome#LOW_RESOURCE} instead of
+ * being thrown. The rule is worked out with flags instead of branches, so a round
+ * of mixed species costs no more than a round of one.</p>
+ *
+ * <p>{@link CombatMetrics} are added up in locals and recorded once per round.
+ * The metrics only count attacks per species for the three standard species.</p>
+ *
+ * @author Justin Cardas
+ * @author Mohammad Sadeghi
+ * @author Armaan Brar
+ * @version 1.0
+ */
+final class CombatEngine
+{
+    // Action kinds
+    static final int ACTION_BREATH_FIRE;
+    static final int ACTION_CAST_SPELL;
+    static final int ACTION_BERSERK;
+
+    private static final int STANDARD_SPECIES;
+
+    static
+    {
+        ACTION_BREATH_FIRE = CreaturePool.SPECIES_DRAGON;
+        ACTION_CAST_SPELL  = CreaturePool.SPECIES_ELF;
+        ACTION_BERSERK     = CreaturePool.SPECIES_ORC;
+        STANDARD_SPECIES   = 3;
+    }
+
+    private CombatEngine()
+    {
+    }
+
+    /**
+     * <p>Resolves every attack of a round in order and writes one
+     * {@link CombatOutcome} code per attack into {@code outcomes}.</p>
+     *
+     * <p>The whole round is validated before anything is applied, so an invalid
+     * round leaves the pool untouched.</p>
+     *
+     * @param pool        the pool holding every attacker and target.
+     * @param attackerIds the id of the attacker of each attack.
+     * @param targetIds   the id of the creature hit by each attack.
+     * @param actions     the action kind of each attack.
+     * @param outcomes    receives the outcome code of each attack.
+     * @return int number of attacks that succeeded.
+     * @throws IllegalArgumentException if any of the following:
+     *                                  <ul>
+     *                                      <li>an argument is {@code null}.</li>
+     *                                      <li>the arrays are shorter than {@code attackerIds}.</li>
+     *                                      <li>an id is unknown to the pool.</li>
+     *                                      <li>an attacker cannot perform its action kind.</li>
+     *                                  </ul>
+     */
+    static int resolveRound(final CreaturePool pool,
+                            final int[] attackerIds,
+                            final int[] targetIds,
+                            final int[] actions,
+                            final int[] outcomes)
+    {
+        final int[]       species;
+        final int[]       health;
+        final int[]       resources;
+        final int[]       rules;
+        final LivingIndex living;
+        final int         attacks;
+        final int[]       attacksBySpecies;
+        final int[]       lowBySpecies;
+        final long        start;
+        final int         livingBefore;
+        int               successes;
+        long              damageDealt;
+        long              hashChange;
+
+        validateRound(pool, attackerIds, targetIds, actions, outcomes);
+
+        species          = pool.speciesColumn();
+        health           = pool.healthColumn();
+        resources        = pool.resourceColumn();
+        rules            = pool.speciesTable().rules();
+        living           = pool.living();
+        attacks          = attackerIds.length;
+        attacksBySpecies = new int[Math.max(pool.speciesTable().size(), STANDARD_SPECIES)];
+        lowBySpecies     = new int[attacksBySpecies.length];
+        start            = CombatMetrics.startTimer(CombatMetrics.RESOLVE_ROUND);
+        livingBefore     = living.count();
+        successes        = 0;
+        damageDealt      = 0;
+        hashChange       = 0;
+
+        for(int i = 0; i < attacks; i++)
+        {
+            final int attacker;
+            final int target;
+            final int kind;
+            final int rule;
+            final int resourceBefore;
+            final int healthBefore;
+            final int low;
+
+            attacker       = attackerIds[i];
+            target         = targetIds[i];
+            kind           = actions[i];
+            rule           = kind * SpeciesTable.RULE_STRIDE;
+            resourceBefore = resources[attacker];
+            healthBefore   = health[target];
+
+            // The SpeciesTable attack rule, computed without branches so the species
+            // mix cannot cause mispredictions. Its boosted and normal hits land as
+            // one, which clamps at NO_HEALTH the same way.
+            low          = SpeciesTable.attackFails(rules, rule, resourceBefore);
+            damageDealt += hit(health, target, SpeciesTable.attackDamage(rules, rule, resourceBefore));
+
+            resources[attacker] = SpeciesTable.resourceAfterAttack(rules, rule, resourceBefore);
+
+            markIfDead(living, health, species, target);
+            hashChange ^= WorldHash.healthChange(target, healthBefore, health[target]) ^
+                          WorldHash.resourceChange(attacker, resourceBefore, resources[attacker]);
+            outcomes[i] = low == 0 ? CombatOutcome.SUCCESS : CombatOutcome.LOW_RESOURCE;
+
+            attacksBySpecies[kind]++;
+            lowBySpecies[kind] += low;
+            successes          += 1 - low;
+        }
+
+        pool.mixStateHash(hashChange);
+
+        CombatMetrics.round(attacksBySpecies[CreaturePool.SPECIES_DRAGON],
+                            attacksBySpecies[CreaturePool.SPECIES_ELF],
+                            attacksBySpecies[CreaturePool.SPECIES_ORC],
+                            lowBySpecies[CreaturePool.SPECIES_DRAGON],
+                            lowBySpecies[CreaturePool.SPECIES_ELF],
+                            lowBySpecies[CreaturePool.SPECIES_ORC],
+                            damageDealt,
+                            livingBefore - living.count());
+        CombatMetrics.stopTimer(CombatMetrics.RESOLVE_ROUND, start);
+
+        return successes;
+    }
+
+    /*
+     * Takes damage off a target's health, never below NO_HEALTH, and returns the health it lost.
+     */
+    private static int hit(final int[] health,
+                           final int target,
+                           final int damage)
+    {
+        final int before;
+
+        before         = health[target];
+        health[target] = Math.max(before - damage, Creature.NO_HEALTH);
+
+        return before - health[target];
+    }
+
+    /*
+     * Removes a target from the living index once its health reaches NO_HEALTH.
+     */
+    private static void markIfDead(final LivingIndex living,
+                                   final int[] health,
+                                   final int[] species,
+                                   final int target)
+    {
+        if(health[target] == Creature.NO_HEALTH)
+        {
+            living.markDead(target, species[target]);
+        }
+    }
+
+    /*
+     * Checks the shape of the round and that every attacker can perform its action,
+     * so the resolving loop itself needs no checks.
+     */
+    private static void validateRound(final CreaturePool pool,
+                                      final int[] attackerIds,
+                                      final int[] targetIds,
+                                      final int[] actions,
+                                      final int[] outcomes)
+    {
+        final int attacks;
+        final int speciesCount;
+
+        if(pool == null || attackerIds == null || targetIds == null || actions == null || outcomes == null)
+        {
+            throw new IllegalArgumentException("Round arguments cannot be null");
+        }
+
+        attacks = attackerIds.length;
+
+        if(targetIds.length < attacks || actions.length < attacks || outcomes.length < attacks)
+        {
+            throw new IllegalArgumentException("Round arrays must all hold " + attacks + " attacks");
+        }
+
+        speciesCount = pool.speciesTable().size();
+
+        for(int i = 0; i < attacks; i++)
+        {
+            final int attackerSpecies;
+
+            // getSpecies rejects unknown ids, getHealth does the same for targets.
+            attackerSpecies = pool.getSpecies(attackerIds[i]);
+            pool.getHealth(targetIds[i]);
+
+            if(actions[i] < 0 || actions[i] >= speciesCount)
+            {
+                throw new IllegalArgumentException("Unknown action: " + actions[i]);
+            }
+            if(attackerSpecies != actions[i])
+            {
+                throw new IllegalArgumentException("Creature " + attackerIds[i] + " cannot perform action " + actions[i]);
+            }
+        }
+    }
+}
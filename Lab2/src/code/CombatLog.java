@@ -0,0 +1,874 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * <p>An append-only, event-sourced log of the state changes made to a {@link CreaturePool}
+ * through it.</p>
+ *
+ * <p>Each method of this log is applied to the pool and, if the pool accepted it,
+ * appended as a compact binary event. An action the pool rejects (an unknown id, a
+ * resource too low) changes nothing and is not logged.</p>
+ *
+ * <p>Only changes made through the methods of this log are recorded. The area
+ * {@link CreaturePool#breathFire(int, int, SpatialGrid, int)},
+ * {@link EffectScheduler#breathFire(int, int)}, {@link EffectScheduler#tick()} and
+ * {@link CombatEngine#resolveRound} change the pool without going through this log
+ * and have no event; after one of them, {@link #recover(Path)} silently rebuilds a
+ * pool that differs from the live one. To keep the log recoverable, run them while
+ * no logged action is in progress and then call {@link #checkpoint()}, which saves
+ * the pool as it now is. Checkpoints and events cover the dragon, elf and orc only,
+ * so a pool logged here holds no species added by a larger {@link SpeciesTable}.</p>
+ *
+ * <p>Events are buffered and written as frames of {@code [length][CRC32C][events]}.
+ * A background thread forces the file to disk every {@code commitIntervalMillis}
+ * (group commit), so one fsync covers every event since the last one and combat is
+ * never blocked on the disk. {@link #sync()} forces immediately. After a crash,
+ * events from the last commit interval may be lost, and a torn final frame is
+ * recognised by its checksum and ignored.</p>
+ *
+ * <p>Logging still costs every action something. Each method takes this log's lock
+ * and encodes its event while holding it, so the log holds actions in the order the
+ * pool applied them and replay rebuilds the same state; the pool's columns are not
+ * thread-safe, so per-thread buffers would need a global sequence to restore that
+ * order. On one core, {@code CombatLogReport} measures logged runs 25% to 40% slower
+ * than unlogged ones, about half of it the lock and half the encoding. The disk
+ * is not the cost: turning off the group commit or the checkpoints changes
+ * nothing measurable.</p>
+ *
+ * <p>Every {@code checkpointInterval} events the pool is saved as a
+ * {@link RosterSnapshot} and a new log segment is started, so {@link #recover(Path)}
+ * never replays more than one interval of events. A log directory holds
+ * {@code checkpoint-<n>.snapshot} and {@code combat-<n>.log} for the latest
+ * checkpoint {@code n}. The previous checkpoint and segment are deleted only once
+ * the new snapshot, its rename and the new segment are forced to disk, so a crash
+ * during a checkpoint always leaves one complete checkpoint to recover from.</p>
+ *
+ * @author Justin Cardas
+ * @author Mohammad Sadeghi
+ * @author Armaan Brar
+ * @version 1.0
+ */
+class CombatLog implements Closeable
+{
+    static final long DEFAULT_COMMIT_INTERVAL_MILLIS;
+    static final int  DEFAULT_CHECKPOINT_INTERVAL;
+
+    // Event kinds
+    private static final byte ADD_DRAGON;
+    private static final byte ADD_ELF;
+    private static final byte ADD_ORC;
+    private static final byte TAKE_DAMAGE;
+    private static final byte HEAL;
+    private static final byte BREATH_FIRE;
+    private static final byte CAST_SPELL;
+    private static final byte BERSERK;
+    private static final byte RESTORE_FIRE_POWER;
+    private static final byte RESTORE_MANA;
+
+    // kind, id, target or amount
+    private static final int ACTION_EVENT_BYTES;
+    // kind, packed date of birth, health, resource, name length
+    private static final int ADD_EVENT_BYTES;
+    private static final int FRAME_HEADER_BYTES;
+    private static final int BUFFER_BYTES;
+
+    private static final String CHECKPOINT_PREFIX;
+    private static final String CHECKPOINT_SUFFIX;
+    private static final String LOG_PREFIX;
+    private static final String LOG_SUFFIX;
+    private static final String TEMPORARY_SUFFIX;
+
+    static
+    {
+        DEFAULT_COMMIT_INTERVAL_MILLIS = 10L;
+        DEFAULT_CHECKPOINT_INTERVAL    = 1_000_000;
+
+        ADD_DRAGON         = 1;
+        ADD_ELF            = 2;
+        ADD_ORC            = 3;
+        TAKE_DAMAGE        = 4;
+        HEAL               = 5;
+        BREATH_FIRE        = 6;
+        CAST_SPELL         = 7;
+        BERSERK            = 8;
+        RESTORE_FIRE_POWER = 9;
+        RESTORE_MANA       = 10;
+
+        ACTION_EVENT_BYTES = 1 + Integer.BYTES + Integer.BYTES;
+        ADD_EVENT_BYTES    = 1 + 4 * Integer.BYTES;
+        FRAME_HEADER_BYTES = Integer.BYTES + Integer.BYTES;
+        BUFFER_BYTES       = 64 * 1024;
+
+        CHECKPOINT_PREFIX = "checkpoint-";
+        CHECKPOINT_SUFFIX = ".snapshot";
+        LOG_PREFIX        = "combat-";
+        LOG_SUFFIX        = ".log";
+        TEMPORARY_SUFFIX  = ".tmp";
+    }
+
+    private final Path                     directory;
+    private final CreaturePool             pool;
+    private final int                      checkpointInterval;
+    private final ScheduledExecutorService committer;
+    private final ByteBuffer               frameHeader;
+    private final CRC32C                   checksum;
+    private FileChannel                    channel;
+    private ByteBuffer                     events;
+    private long                           sequence;
+    private int                            eventsSinceCheckpoint;
+
+    /**
+     * Starts logging {@code pool} into {@code directory} with the default commit and
+     * checkpoint intervals.
+     *
+     * @param directory the log directory; created if missing.
+     * @param pool      the pool whose changes are logged.
+     * @throws IOException if the directory or first checkpoint cannot be written.
+     */
+    CombatLog(final Path directory,
+              final CreaturePool pool) throws IOException
+    {
+        this(directory, pool, DEFAULT_COMMIT_INTERVAL_MILLIS, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * Starts logging {@code pool} into {@code directory}. The current state of the
+     * pool is saved as a new checkpoint first, so a directory written by an earlier
+     * log can be continued with the pool returned by {@link #recover(Path)}.
+     *
+     * @param directory            the log directory; created if missing.
+     * @param pool                 the pool whose changes are logged.
+     * @param commitIntervalMillis how often buffered events are forced to disk.
+     * @param checkpointInterval   how many events are logged between checkpoints.
+     * @throws IOException              if the directory or first checkpoint cannot be written.
+     * @throws IllegalArgumentException if {@code pool} is {@code null} or an interval is not positive.
+     */
+    CombatLog(final Path directory,
+              final CreaturePool pool,
+              final long commitIntervalMillis,
+              final int checkpointInterval) throws IOException
+    {
+        if(pool == null)
+        {
+            throw new IllegalArgumentException("Pool cannot be null");
+        }
+        if(commitIntervalMillis <= 0 || checkpointInterval <= 0)
+        {
+            throw new IllegalArgumentException("Commit and checkpoint intervals must be positive");
+        }
+
+        Files.createDirectories(directory);
+
+        this.directory          = directory;
+        this.pool               = pool;
+        this.checkpointInterval = checkpointInterval;
+        this.frameHeader        = ByteBuffer.allocateDirect(FRAME_HEADER_BYTES);
+        this.checksum           = new CRC32C();
+        this.events             = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        this.sequence           = nextCheckpoint(directory);
+
+        startSegment();
+        deleteSegment(sequence - 1);
+
+        this.committer = Executors.newSingleThreadScheduledExecutor(task ->
+        {
+            final Thread thread;
+
+            thread = new Thread(task, "combat-log-commit");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+        this.committer.scheduleWithFixedDelay(this::commit,
+                                              commitIntervalMillis,
+                                              commitIntervalMillis,
+                                              TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * {@link CreaturePool#addDragon(String, Date, int, int)}, logged.
+     *
+     * @param name        the name of the dragon.
+     * @param dateOfBirth the date of birth of the dragon.
+     * @param health      the initial health of the dragon.
+     * @param firePower   the initial firePower of the dragon.
+     * @return the id of the new dragon.
+     * @throws IOException if the event cannot be written.
+     */
+    synchronized int addDragon(final String name,
+                               final Date dateOfBirth,
+                               final int health,
+                               final int firePower) throws IOException
+    {
+        final int id;
+
+        id = pool.addDragon(name, dateOfBirth, health, firePower);
+        appendAdd(ADD_DRAGON, id);
+
+        return id;
+    }
+
+    /**
+     * {@link CreaturePool#addElf(String, Date, int, int)}, logged.
+     *
+     * @param name        the name of the elf.
+     * @param dateOfBirth the date of birth of the elf.
+     * @param health      the initial health of the elf.
+     * @param mana        the initial mana of the elf.
+     * @return the id of the new elf.
+     * @throws IOException if the event cannot be written.
+     */
+    synchronized int addElf(final String name,
+                            final Date dateOfBirth,
+                            final int health,
+                            final int mana) throws IOException
+    {
+        final int id;
+
+        id = pool.addElf(name, dateOfBirth, health, mana);
+        appendAdd(ADD_ELF, id);
+
+        return id;
+    }
+
+    /**
+     * {@link CreaturePool#addOrc(String, Date, int, int)}, logged.
+     *
+     * @param name        the name of the orc.
+     * @param dateOfBirth the date of birth of the orc.
+     * @param health      the initial health of the orc.
+     * @param rage        the initial rage of the orc.
+     * @return the id of the new orc.
+     * @throws IOException if the event cannot be written.
+     */
+    synchronized int addOrc(final String name,
+                            final Date dateOfBirth,
+                            final int health,
+                            final int rage) throws IOException
+    {
+        final int id;
+
+        id = pool.addOrc(name, dateOfBirth, health, rage);
+        appendAdd(ADD_ORC, id);
+
+        return id;
+    }
+
+    /**
+     * {@link CreaturePool#takeDamage(int, int)}, logged.
+     *
+     * @param id     the id of the creature.
+     * @param damage amount of damage taken.
+     * @throws IOException if the event cannot be written.
+     */
+    synchronized void takeDamage(final int id,
+                                 final int damage) throws IOException
+    {
+        pool.takeDamage(id, damage);
+        appendAction(TAKE_DAMAGE, id, damage);
+    }
+
+    /**
+     * {@link CreaturePool#heal(int, int)}, logged.
+     *
+     * @param id         the id of the creature.
+     * @param healAmount amount of healing to apply.
+     * @throws IOException if the event cannot be written.
+     */
+    synchronized void heal(final int id,
+                           final int healAmount) throws IOException
+    {
+        pool.heal(id, healAmount);
+        appendAction(HEAL, id, healAmount);
+    }
+
+    /**
+     * {@link CreaturePool#breathFire(int, int)}, logged.
+     *
+     * @param dragonId the id of the dragon.
+     * @param targetId the id of the creature hit.
+     * @throws LowFirePowerException if the current firePower amount is lower than FIREPOWER_COST.
+     * @throws IOException           if the event cannot be written.
+     */
+    synchronized void breathFire(final int dragonId,
+                                 final int targetId)
+    throws LowFirePowerException, IOException
+    {
+        pool.breathFire(dragonId, targetId);
+        appendAction(BREATH_FIRE, dragonId, targetId);
+    }
+
+    /**
+     * {@link CreaturePool#castSpell(int, int)}, logged.
+     *
+     * @param elfId    the id of the elf.
+     * @param targetId the id of the creature hit.
+     * @throws LowManaException if the current mana is lower than MANA_SPELL_COST.
+     * @throws IOException      if the event cannot be written.
+     */
+    synchronized void castSpell(final int elfId,
+                                final int targetId)
+    throws LowManaException, IOException
+    {
+        pool.castSpell(elfId, targetId);
+        appendAction(CAST_SPELL, elfId, targetId);
+    }
+
+    /**
+     * {@link CreaturePool#berserk(int, int)}, logged.
+     *
+     * @param orcId    the id of the orc.
+     * @param targetId the id of the creature hit.
+     * @throws IOException if the event cannot be written.
+     */
+    synchronized void berserk(final int orcId,
+                              final int targetId) throws IOException
+    {
+        pool.berserk(orcId, targetId);
+        appendAction(BERSERK, orcId, targetId);
+    }
+
+    /**
+     * {@link CreaturePool#restoreFirePower(int, int)}, logged.
+     *
+     * @param dragonId the id of the dragon.
+     * @param amount   the amount of firePower to restore.
+     * @throws IOException if the event cannot be written.
+     */
+    synchronized void restoreFirePower(final int dragonId,
+                                       final int amount) throws IOException
+    {
+        pool.restoreFirePower(dragonId, amount);
+        appendAction(RESTORE_FIRE_POWER, dragonId, amount);
+    }
+
+    /**
+     * {@link CreaturePool#restoreMana(int, int)}, logged.
+     *
+     * @param elfId  the id of the elf.
+     * @param amount the amount of mana to restore.
+     * @throws IOException if the event cannot be written.
+     */
+    synchronized void restoreMana(final int elfId,
+                                  final int amount) throws IOException
+    {
+        pool.restoreMana(elfId, amount);
+        appendAction(RESTORE_MANA, elfId, amount);
+    }
+
+    /*
+     * Appends the event adding creature id, copying its fields back from the pool.
+     */
+    private void appendAdd(final byte kind,
+                           final int id) throws IOException
+    {
+        final byte[] name;
+
+        name = pool.getName(id).getBytes(StandardCharsets.UTF_8);
+
+        reserve(ADD_EVENT_BYTES + name.length);
+
+        events.put(kind);
+        events.putInt(pool.getPackedDateOfBirth(id));
+        events.putInt(pool.getHealth(id));
+        events.putInt(pool.getResource(id));
+        events.putInt(name.length);
+        events.put(name);
+
+        eventLogged();
+    }
+
+    /*
+     * Appends an event acting on creature id with a target id or an amount.
+     */
+    private void appendAction(final byte kind,
+                              final int id,
+                              final int argument) throws IOException
+    {
+        reserve(ACTION_EVENT_BYTES);
+
+        events.put(kind);
+        events.putInt(id);
+        events.putInt(argument);
+
+        eventLogged();
+    }
+
+    /*
+     * Makes room for an event, writing the buffered frame out if it is full.
+     */
+    private void reserve(final int bytes) throws IOException
+    {
+        if(events.remaining() < bytes)
+        {
+            writeFrame();
+
+            if(events.capacity() < bytes)
+            {
+                events = ByteBuffer.allocateDirect(bytes);
+            }
+        }
+    }
+
+    /*
+     * Starts a new segment once checkpointInterval events have been logged.
+     */
+    private void eventLogged() throws IOException
+    {
+        eventsSinceCheckpoint++;
+
+        if(eventsSinceCheckpoint >= checkpointInterval)
+        {
+            checkpoint();
+        }
+    }
+
+    /*
+     * Writes the buffered events as one checksummed frame, without forcing it to disk.
+     */
+    private void writeFrame() throws IOException
+    {
+        if(events.position() == 0)
+        {
+            return;
+        }
+
+        events.flip();
+
+        checksum.reset();
+        checksum.update(events.duplicate());
+
+        frameHeader.clear();
+        frameHeader.putInt(events.remaining());
+        frameHeader.putInt((int) checksum.getValue());
+        frameHeader.flip();
+
+        while(frameHeader.hasRemaining() || events.hasRemaining())
+        {
+            channel.write(new ByteBuffer[] {frameHeader, events});
+        }
+
+        events.clear();
+    }
+
+    /**
+     * Writes every buffered event and forces the log to disk.
+     *
+     * @throws IOException if the log cannot be written.
+     */
+    void sync() throws IOException
+    {
+        final FileChannel written;
+
+        synchronized(this)
+        {
+            writeFrame();
+            written = channel;
+        }
+
+        // forced outside the lock so combat keeps appending during the fsync
+        try
+        {
+            written.force(false);
+        } catch(ClosedChannelException e)
+        {
+            // a checkpoint closed this segment after forcing it itself
+        }
+    }
+
+    /*
+     * The group commit run by the committer thread.
+     */
+    private void commit()
+    {
+        try
+        {
+            sync();
+        } catch(IOException e)
+        {
+            System.err.println("Combat log commit failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Saves the pool as a new checkpoint and starts a new log segment, deleting the
+     * previous checkpoint and segment.
+     *
+     * @throws IOException if the checkpoint cannot be written.
+     */
+    synchronized void checkpoint() throws IOException
+    {
+        writeFrame();
+        channel.force(false);
+        channel.close();
+
+        sequence++;
+
+        startSegment();
+        deleteSegment(sequence - 1);
+    }
+
+    /*
+     * Deletes a checkpoint and its log segment once a later checkpoint replaces them.
+     */
+    private void deleteSegment(final long replaced) throws IOException
+    {
+        Files.deleteIfExists(logFile(directory, replaced));
+        Files.deleteIfExists(checkpointFile(directory, replaced));
+    }
+
+    /*
+     * Saves the pool as checkpoint sequence and opens an empty log segment after it.
+     * The snapshot is forced to disk by its writer and renamed into place only once
+     * complete, and the rename is forced before the segment is opened, so the caller
+     * may delete the previous checkpoint as soon as this returns.
+     */
+    private void startSegment() throws IOException
+    {
+        final Path checkpoint;
+        final Path temporary;
+
+        checkpoint = checkpointFile(directory, sequence);
+        temporary  = checkpoint.resolveSibling(checkpoint.getFileName() + TEMPORARY_SUFFIX);
+
+        RosterSnapshot.write(temporary, pool);
+        Files.move(temporary, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(directory);
+
+        channel = FileChannel.open(logFile(directory, sequence),
+                                   StandardOpenOption.CREATE,
+                                   StandardOpenOption.TRUNCATE_EXISTING,
+                                   StandardOpenOption.WRITE);
+
+        // forcing the segment later saves its events but not its directory entry
+        forceDirectory(directory);
+
+        eventsSinceCheckpoint = 0;
+    }
+
+    /*
+     * Forces the entries of directory to disk, making renames and new files in it
+     * durable. Platforms that cannot open a directory, such as Windows, persist
+     * entries without it, so there is nothing to force.
+     */
+    private static void forceDirectory(final Path directory) throws IOException
+    {
+        final FileChannel entries;
+
+        try
+        {
+            entries = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch(IOException e)
+        {
+            return;
+        }
+
+        try(entries)
+        {
+            entries.force(true);
+        }
+    }
+
+    /**
+     * Stops the committer and forces every buffered event to disk.
+     *
+     * @throws IOException if the log cannot be written.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        committer.shutdown();
+
+        synchronized(this)
+        {
+            try
+            {
+                writeFrame();
+                channel.force(false);
+            } finally
+            {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the pool logged into {@code directory}: loads the latest checkpoint and
+     * replays its log segment up to the last complete frame.
+     *
+     * @param directory the log directory.
+     * @return a new pool in the state of the last logged event.
+     * @throws IOException if the directory holds no checkpoint or cannot be read.
+     */
+    static CreaturePool recover(final Path directory) throws IOException
+    {
+        final long         latest;
+        final CreaturePool pool;
+        final Path         log;
+
+        latest = nextCheckpoint(directory) - 1;
+
+        if(latest < 0)
+        {
+            throw new IOException("No checkpoint in " + directory);
+        }
+
+        pool = new CreaturePool();
+
+        try(RosterSnapshot snapshot = RosterSnapshot.open(checkpointFile(directory, latest)))
+        {
+            snapshot.loadInto(pool);
+        }
+
+        log = logFile(directory, latest);
+
+        if(Files.exists(log))
+        {
+            replay(log, pool);
+        }
+
+        return pool;
+    }
+
+    /*
+     * Applies every event of a log segment to pool, stopping at the first frame
+     * that is incomplete or fails its checksum.
+     */
+    private static void replay(final Path log,
+                               final CreaturePool pool) throws IOException
+    {
+        final ByteBuffer header;
+        final CRC32C     crc;
+        ByteBuffer       frame;
+
+        header = ByteBuffer.allocate(FRAME_HEADER_BYTES);
+        crc    = new CRC32C();
+        frame  = ByteBuffer.allocate(BUFFER_BYTES);
+
+        try(FileChannel channel = FileChannel.open(log, StandardOpenOption.READ))
+        {
+            while(true)
+            {
+                final int length;
+                final int expected;
+
+                header.clear();
+
+                if(!readFully(channel, header))
+                {
+                    return;
+                }
+
+                length   = header.getInt();
+                expected = header.getInt();
+
+                if(length <= 0 || length > channel.size() - channel.position())
+                {
+                    return;
+                }
+                if(frame.capacity() < length)
+                {
+                    frame = ByteBuffer.allocate(length);
+                }
+
+                frame.clear().limit(length);
+
+                if(!readFully(channel, frame))
+                {
+                    return;
+                }
+
+                crc.reset();
+                crc.update(frame.array(), 0, length);
+
+                if((int) crc.getValue() != expected)
+                {
+                    return;
+                }
+
+                while(frame.hasRemaining())
+                {
+                    apply(frame, pool);
+                }
+            }
+        }
+    }
+
+    /*
+     * Fills buffer from the channel and flips it, or returns false if the file ends first.
+     */
+    private static boolean readFully(final FileChannel channel,
+                                     final ByteBuffer buffer) throws IOException
+    {
+        while(buffer.hasRemaining())
+        {
+            if(channel.read(buffer) < 0)
+            {
+                return false;
+            }
+        }
+
+        buffer.flip();
+
+        return true;
+    }
+
+    /*
+     * Reads one event from frame and applies it to pool.
+     */
+    private static void apply(final ByteBuffer frame,
+                              final CreaturePool pool)
+    {
+        final byte kind;
+
+        kind = frame.get();
+
+        if(kind == ADD_DRAGON || kind == ADD_ELF || kind == ADD_ORC)
+        {
+            applyAdd(kind, frame, pool);
+        } else
+        {
+            applyAction(kind, frame.getInt(), frame.getInt(), pool);
+        }
+    }
+
+    /*
+     * Reads the rest of an add event from frame and adds the creature to pool.
+     */
+    private static void applyAdd(final byte kind,
+                                 final ByteBuffer frame,
+                                 final CreaturePool pool)
+    {
+        final Date   dateOfBirth;
+        final int    health;
+        final int    resource;
+        final byte[] nameBytes;
+        final String name;
+
+        dateOfBirth = Date.fromPackedDate(frame.getInt());
+        health      = frame.getInt();
+        resource    = frame.getInt();
+        nameBytes   = new byte[frame.getInt()];
+
+        frame.get(nameBytes);
+        name = new String(nameBytes, StandardCharsets.UTF_8);
+
+        if(kind == ADD_DRAGON)
+        {
+            pool.addDragon(name, dateOfBirth, health, resource);
+        } else if(kind == ADD_ELF)
+        {
+            pool.addElf(name, dateOfBirth, health, resource);
+        } else
+        {
+            pool.addOrc(name, dateOfBirth, health, resource);
+        }
+    }
+
+    /*
+     * Applies an event acting on creature id with a target id or an amount.
+     */
+    private static void applyAction(final byte kind,
+                                    final int id,
+                                    final int argument,
+                                    final CreaturePool pool)
+    {
+        try
+        {
+            applyLoggedAction(kind, id, argument, pool);
+        } catch(LowFirePowerException | LowManaException e)
+        {
+            // only actions the pool accepted are logged, so replaying one cannot fail
+            throw new IllegalStateException("Combat log does not match its checkpoint", e);
+        }
+    }
+
+    private static void applyLoggedAction(final byte kind,
+                                          final int id,
+                                          final int argument,
+                                          final CreaturePool pool)
+    throws LowFirePowerException, LowManaException
+    {
+        if(kind == TAKE_DAMAGE)
+        {
+            pool.takeDamage(id, argument);
+        } else if(kind == HEAL)
+        {
+            pool.heal(id, argument);
+        } else if(kind == BREATH_FIRE)
+        {
+            pool.breathFire(id, argument);
+        } else if(kind == CAST_SPELL)
+        {
+            pool.castSpell(id, argument);
+        } else if(kind == BERSERK)
+        {
+            pool.berserk(id, argument);
+        } else if(kind == RESTORE_FIRE_POWER)
+        {
+            pool.restoreFirePower(id, argument);
+        } else if(kind == RESTORE_MANA)
+        {
+            pool.restoreMana(id, argument);
+        } else
+        {
+            throw new IllegalStateException("Unknown combat log event: " + kind);
+        }
+    }
+
+    /*
+     * Gets one past the highest checkpoint sequence in directory, or 0 if there is none.
+     */
+    private static long nextCheckpoint(final Path directory) throws IOException
+    {
+        long next;
+
+        next = 0;
+
+        if(!Files.isDirectory(directory))
+        {
+            return next;
+        }
+
+        try(DirectoryStream<Path> checkpoints = Files.newDirectoryStream(directory,
+                                                                         CHECKPOINT_PREFIX + "*" + CHECKPOINT_SUFFIX))
+        {
+            for(final Path checkpoint : checkpoints)
+            {
+                final String name;
+
+                name = checkpoint.getFileName().toString();
+                next = Math.max(next,
+                                Long.parseLong(name.substring(CHECKPOINT_PREFIX.length(),
+                                                              name.length() - CHECKPOINT_SUFFIX.length())) + 1);
+            }
+        }
+
+        return next;
+    }
+
+    private static Path checkpointFile(final Path directory,
+                                       final long sequence)
+    {
+        return directory.resolve(CHECKPOINT_PREFIX + sequence + CHECKPOINT_SUFFIX);
+    }
+
+    private static Path logFile(final Path directory,
+                                final long sequence)
+    {
+        return directory.resolve(LOG_PREFIX + sequence + LOG_SUFFIX);
+    }
+}
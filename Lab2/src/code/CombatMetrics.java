@@ -0,0 +1,807 @@
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * <p>Process-wide counters and latency histograms for combat: attacks per species,
+ * failed attacks by cause, damage dealt, health healed, deaths, and the latency of
+ * each combat method.</p>
+ *
+ * <p>Counters are striped like a {@link LongAdder}, taken one step further: every
+ * thread owns a cell of counters and bumps it with plain writes, so counting costs
+ * no atomic instruction and no cache line is shared between fighting threads.
+ * Reads add up the cells, and the cell of a thread that has died is folded into a
+ * retired total so short-lived threads do not pile up. A running thread's latest
+ * updates may show up a little late.</p>
+ *
+ * <p>Every thread counts the calls of each combat method; the count of an attack
+ * method is the number of attacks by its species. Latency is timed for every
+ * {@code 2^SAMPLE_SHIFT}-th call of a method on each thread and kept in power-of-two
+ * nanosecond buckets of {@link LongAdder}s, so the clock is read on few calls.</p>
+ *
+ * <p>A combat call looks its thread's {@link Cell} up once with {@link #cell()} and
+ * passes it to both of its recording calls: {@link #startTimer(Cell, int)}, which only
+ * reads the cell, and one closing call such as {@link #hit(Cell, int, int, int, long)}
+ * that makes every write. Keeping the writes after the compare-and-set of the combat
+ * call means the compare-and-set never waits for them to drain. An attack damages its
+ * target without the metrics of {@code takeDamage} and counts the damage in its own
+ * closing call, so the {@code takeDamage} histogram times direct calls only.</p>
+ *
+ * <p>Metrics are off unless the JVM is started with {@code -Dcombat.metrics=true}.
+ * Off, {@link #ENABLED} is a constant {@code false} and the JIT compiler removes
+ * every recording call along with the work feeding it, so a default run pays
+ * nothing. On, they cost attack-heavy combat roughly 6% to 8% of its throughput on
+ * one core, mostly the three counter writes of each attack, which is more than
+ * a run that only fights should pay.</p>
+ *
+ * <p>The counters are published through JMX by {@link #registerMBean()} and as
+ * plain text by {@link #snapshot()}.</p>
+ *
+ * @author Justin Cardas
+ * @author Mohammad Sadeghi
+ * @author Armaan Brar
+ * @version 1.0
+ */
+final class CombatMetrics
+{
+    /**
+     * Whether metrics are recorded, fixed when the class is loaded.
+     */
+    static final boolean ENABLED;
+
+    // Combat methods with a latency histogram. An attack method shares the species
+    // tag of its attacker, so it also names the species an attack is counted for.
+    static final int BREATH_FIRE;
+    static final int CAST_SPELL;
+    static final int BERSERK;
+    static final int TAKE_DAMAGE;
+    static final int HEAL;
+    static final int RESOLVE_ROUND;
+
+    // Causes of a failed attack
+    static final int LOW_FIRE_POWER;
+    static final int LOW_MANA;
+    static final int LOW_RAGE;
+
+    static final String OBJECT_NAME;
+
+    private static final String[]      SPECIES_NAMES;
+    private static final String[]      METHOD_NAMES;
+    private static final String[]      CAUSE_NAMES;
+    private static final int           SAMPLE_SHIFT;
+    private static final int           SAMPLE_MASK;
+    private static final long          NOT_SAMPLED;
+    private static final int           BUCKETS;
+    private static final int           SWEEP_EVERY;
+    private static final int           CACHE_MASK;
+
+    // Slots of a counter cell
+    private static final int           CALLS_SLOT;
+    private static final int           FAILURES_SLOT;
+    private static final int           DAMAGE_DEALT_SLOT;
+    private static final int           HEALTH_HEALED_SLOT;
+    private static final int           DEATHS_SLOT;
+    private static final int           SLOTS;
+
+    private static final Cell[]                      CACHE;
+    private static final ThreadLocal<Cell>           CELL;
+    private static final ConcurrentLinkedQueue<Cell> CELLS;
+    private static final AtomicInteger               CELLS_CREATED;
+    private static final long[]                      RETIRED;
+    private static final LongAdder[][]               LATENCY;
+
+    static
+    {
+        ENABLED = Boolean.getBoolean("combat.metrics");
+
+        BREATH_FIRE   = CreaturePool.SPECIES_DRAGON;
+        CAST_SPELL    = CreaturePool.SPECIES_ELF;
+        BERSERK       = CreaturePool.SPECIES_ORC;
+        TAKE_DAMAGE   = 3;
+        HEAL          = 4;
+        RESOLVE_ROUND = 5;
+
+        LOW_FIRE_POWER = 0;
+        LOW_MANA       = 1;
+        LOW_RAGE       = 2;
+
+        OBJECT_NAME = "Lab2:type=CombatMetrics";
+
+        SPECIES_NAMES = new String[]{"dragon", "elf", "orc"};
+        METHOD_NAMES  = new String[]{"breathFire", "castSpell", "berserk", "takeDamage", "heal", "resolveRound"};
+        CAUSE_NAMES   = new String[]{"lowFirePower", "lowMana", "lowRage"};
+        SAMPLE_SHIFT  = 10;
+        SAMPLE_MASK   = (1 << SAMPLE_SHIFT) - 1;
+        NOT_SAMPLED   = Long.MIN_VALUE;
+        BUCKETS       = Long.SIZE + 1;
+        SWEEP_EVERY   = 1_024;
+        CACHE_MASK    = 255;
+
+        CALLS_SLOT         = 0;
+        FAILURES_SLOT      = CALLS_SLOT + METHOD_NAMES.length;
+        DAMAGE_DEALT_SLOT  = FAILURES_SLOT + CAUSE_NAMES.length;
+        HEALTH_HEALED_SLOT = DAMAGE_DEALT_SLOT + 1;
+        DEATHS_SLOT        = HEALTH_HEALED_SLOT + 1;
+        SLOTS              = DEATHS_SLOT + 1;
+
+        CACHE         = new Cell[CACHE_MASK + 1];
+        CELL          = ThreadLocal.withInitial(CombatMetrics::newCell);
+        CELLS         = new ConcurrentLinkedQueue<>();
+        CELLS_CREATED = new AtomicInteger();
+        RETIRED       = new long[SLOTS];
+        LATENCY       = new LongAdder[METHOD_NAMES.length][];
+
+        for(int method = 0; method < METHOD_NAMES.length; method++)
+        {
+            LATENCY[method] = adders(BUCKETS);
+        }
+    }
+
+    private CombatMetrics()
+    {
+    }
+
+    private static LongAdder[] adders(final int count)
+    {
+        final LongAdder[] adders;
+
+        adders = new LongAdder[count];
+
+        for(int i = 0; i < count; i++)
+        {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * Gets the counter cell of the calling thread, to pass to every recording method
+     * of one combat call. Cells are cached by thread id in a small table so the
+     * common case is two loads and a compare; threads whose ids collide fall back to
+     * the ThreadLocal and take the slot over.
+     *
+     * @return Cell the calling thread's cell, or {@code null} if metrics are disabled.
+     */
+    static Cell cell()
+    {
+        final Thread thread;
+        final int    slot;
+        Cell         cell;
+
+        if(!ENABLED)
+        {
+            return null;
+        }
+
+        thread = Thread.currentThread();
+        slot   = (int) (thread.threadId() & CACHE_MASK);
+        cell   = CACHE[slot];
+
+        if(cell == null || cell.ownerId != thread.threadId())
+        {
+            cell        = CELL.get();
+            CACHE[slot] = cell;
+        }
+        return cell;
+    }
+
+    /*
+     * Creates the counter cell of the calling thread, retiring the cells of dead
+     * threads every SWEEP_EVERY new cells.
+     */
+    private static Cell newCell()
+    {
+        final Cell cell;
+
+        cell = new Cell(Thread.currentThread());
+
+        CELLS.add(cell);
+
+        if(CELLS_CREATED.incrementAndGet() % SWEEP_EVERY == 0)
+        {
+            sweep();
+        }
+        return cell;
+    }
+
+    /*
+     * Folds the cells of threads that have died into RETIRED. A thread's death
+     * happens-before isAlive() returning false, so its last writes are seen.
+     */
+    private static synchronized void sweep()
+    {
+        final Iterator<Cell> cells;
+
+        cells = CELLS.iterator();
+
+        while(cells.hasNext())
+        {
+            final Cell   cell;
+            final Thread owner;
+
+            cell  = cells.next();
+            owner = cell.owner.get();
+
+            if(owner == null || !owner.isAlive())
+            {
+                for(int slot = 0; slot < SLOTS; slot++)
+                {
+                    RETIRED[slot] += cell.counts[slot];
+                }
+                cells.remove();
+            }
+        }
+    }
+
+    /*
+     * Adds up one slot over the retired total and every live cell.
+     */
+    private static synchronized long sum(final int slot)
+    {
+        long sum;
+
+        sweep();
+
+        sum = RETIRED[slot];
+
+        for(final Cell cell : CELLS)
+        {
+            sum += cell.counts[slot];
+        }
+        return sum;
+    }
+
+    /**
+     * Counts an attack that failed for lack of the attacker's resource and
+     * records its latency.
+     *
+     * @param cell   the value returned by {@link #cell()}.
+     * @param method the attack method, such as {@code BREATH_FIRE}.
+     * @param cause  {@code LOW_FIRE_POWER}, {@code LOW_MANA} or {@code LOW_RAGE}.
+     * @param start  the value returned by {@link #startTimer(Cell, int)}.
+     */
+    static void failure(final Cell cell,
+                        final int method,
+                        final int cause,
+                        final long start)
+    {
+        if(ENABLED)
+        {
+            cell.counts[FAILURES_SLOT + cause]++;
+            attacked(cell, method, start);
+        }
+    }
+
+    /**
+     * Counts an attack that damaged its target, the health the target lost and its
+     * death if the loss killed it, and records the latency of the attack.
+     *
+     * @param cell         the value returned by {@link #cell()}.
+     * @param method       the attack method, such as {@code BREATH_FIRE}.
+     * @param healthBefore the health of the target before the damage.
+     * @param damage       the damage dealt to the target.
+     * @param start        the value returned by {@link #startTimer(Cell, int)}.
+     */
+    static void hit(final Cell cell,
+                    final int method,
+                    final int healthBefore,
+                    final int damage,
+                    final long start)
+    {
+        if(ENABLED)
+        {
+            lost(cell, healthBefore, Math.max(healthBefore - damage, Creature.NO_HEALTH));
+            attacked(cell, method, start);
+        }
+    }
+
+    /**
+     * Counts an attack whose damage, if it dealt any, is counted separately, and
+     * records its latency.
+     *
+     * @param cell   the value returned by {@link #cell()}.
+     * @param method the attack method, such as {@code BREATH_FIRE}.
+     * @param start  the value returned by {@link #startTimer(Cell, int)}.
+     */
+    static void attacked(final Cell cell,
+                         final int method,
+                         final long start)
+    {
+        if(ENABLED)
+        {
+            stop(cell, method, start);
+        }
+    }
+
+    /**
+     * Counts the health a creature lost, and its death if the loss killed it,
+     * and records the latency of {@code takeDamage}.
+     *
+     * @param cell         the value returned by {@link #cell()}.
+     * @param healthBefore the health before the damage.
+     * @param healthAfter  the health after the damage.
+     * @param start        the value returned by {@link #startTimer(Cell, int)}.
+     */
+    static void damage(final Cell cell,
+                       final int healthBefore,
+                       final int healthAfter,
+                       final long start)
+    {
+        if(ENABLED)
+        {
+            lost(cell, healthBefore, healthAfter);
+            stop(cell, TAKE_DAMAGE, start);
+        }
+    }
+
+    private static void lost(final Cell cell,
+                             final int healthBefore,
+                             final int healthAfter)
+    {
+        cell.counts[DAMAGE_DEALT_SLOT] += healthBefore - healthAfter;
+
+        if(healthBefore > Creature.NO_HEALTH && healthAfter == Creature.NO_HEALTH)
+        {
+            cell.counts[DEATHS_SLOT]++;
+        }
+    }
+
+    /**
+     * Counts the health a creature gained and records the latency of {@code heal}.
+     *
+     * @param cell         the value returned by {@link #cell()}.
+     * @param healthBefore the health before the heal.
+     * @param healthAfter  the health after the heal.
+     * @param start        the value returned by {@link #startTimer(Cell, int)}.
+     */
+    static void heal(final Cell cell,
+                     final int healthBefore,
+                     final int healthAfter,
+                     final long start)
+    {
+        if(ENABLED)
+        {
+            cell.counts[HEALTH_HEALED_SLOT] += healthAfter - healthBefore;
+            stop(cell, HEAL, start);
+        }
+    }
+
+    /**
+     * Counts a whole round resolved by {@link CombatEngine} with one update per
+     * counter instead of several per attack.
+     *
+     * @param dragonAttacks the number of attacks by dragons.
+     * @param elfAttacks    the number of attacks by elves.
+     * @param orcAttacks    the number of attacks by orcs.
+     * @param lowFirePower  the number of dragons without enough firePower.
+     * @param lowMana       the number of elves without enough mana.
+     * @param lowRage       the number of orcs without enough rage.
+     * @param damageDealt   the health lost by the targets.
+     * @param deaths        the number of targets killed.
+     */
+    static void round(final int dragonAttacks,
+                      final int elfAttacks,
+                      final int orcAttacks,
+                      final int lowFirePower,
+                      final int lowMana,
+                      final int lowRage,
+                      final long damageDealt,
+                      final int deaths)
+    {
+        if(ENABLED)
+        {
+            final long[] counts;
+
+            counts = cell().counts;
+
+            counts[CALLS_SLOT + BREATH_FIRE]       += dragonAttacks;
+            counts[CALLS_SLOT + CAST_SPELL]        += elfAttacks;
+            counts[CALLS_SLOT + BERSERK]           += orcAttacks;
+            counts[FAILURES_SLOT + LOW_FIRE_POWER] += lowFirePower;
+            counts[FAILURES_SLOT + LOW_MANA]       += lowMana;
+            counts[FAILURES_SLOT + LOW_RAGE]       += lowRage;
+            counts[DAMAGE_DEALT_SLOT]              += damageDealt;
+            counts[DEATHS_SLOT]                    += deaths;
+        }
+    }
+
+    /**
+     * Counts the health changes of one batch applied straight to the pool's
+     * columns: the timed effects of an {@link EffectScheduler} tick, or the targets
+     * of an area attack.
+     *
+     * @param damageDealt  the health lost to damage.
+     * @param healthHealed the health gained by regeneration.
+     * @param deaths       the number of creatures killed.
+     */
+    static void effects(final long damageDealt,
+                        final long healthHealed,
+                        final int deaths)
+    {
+        if(ENABLED)
+        {
+            final long[] counts;
+
+            counts = cell().counts;
+
+            counts[DAMAGE_DEALT_SLOT]  += damageDealt;
+            counts[HEALTH_HEALED_SLOT] += healthHealed;
+            counts[DEATHS_SLOT]        += deaths;
+        }
+    }
+
+    /**
+     * Starts timing a combat method if this call is sampled.
+     *
+     * @param method the combat method, such as {@code RESOLVE_ROUND}.
+     * @return long the start time to pass to {@link #stopTimer(int, long)}.
+     */
+    static long startTimer(final int method)
+    {
+        return startTimer(cell(), method);
+    }
+
+    /**
+     * Starts timing a combat method if this call is sampled, with a cell the call
+     * has looked up already. Only reads the cell; the closing call counts the call.
+     *
+     * @param cell   the value returned by {@link #cell()}.
+     * @param method the combat method, such as {@code BREATH_FIRE}.
+     * @return long the start time to pass to the closing call, such as
+     *         {@link #hit(Cell, int, int, int, long)} or {@link #damage(Cell, int, int, long)}.
+     */
+    static long startTimer(final Cell cell,
+                           final int method)
+    {
+        if(ENABLED && (cell.counts[CALLS_SLOT + method] & SAMPLE_MASK) == 0)
+        {
+            return System.nanoTime();
+        }
+        return NOT_SAMPLED;
+    }
+
+    /**
+     * Counts a call of a combat method and records its latency if it was sampled.
+     *
+     * @param method the combat method, such as {@code RESOLVE_ROUND}.
+     * @param start  the value returned by {@link #startTimer(int)}.
+     */
+    static void stopTimer(final int method,
+                          final long start)
+    {
+        if(ENABLED)
+        {
+            stop(cell(), method, start);
+        }
+    }
+
+    /*
+     * Counts a call of a combat method on the cell's thread and records its latency
+     * if it was sampled.
+     */
+    private static void stop(final Cell cell,
+                             final int method,
+                             final long start)
+    {
+        cell.counts[CALLS_SLOT + method]++;
+
+        if(start != NOT_SAMPLED)
+        {
+            LATENCY[method][bucket(System.nanoTime() - start)].increment();
+        }
+    }
+
+    /*
+     * Bucket b holds latencies from 2^(b-1) to 2^b - 1 nanoseconds; bucket 0 holds 0.
+     */
+    private static int bucket(final long nanos)
+    {
+        return Long.SIZE - Long.numberOfLeadingZeros(Math.max(nanos, 0));
+    }
+
+    /**
+     * @param species the species tag.
+     * @return long number of attacks by creatures of the species.
+     */
+    static long attacks(final int species)
+    {
+        // each species has one attack method, whose tag is the species tag
+        return sum(CALLS_SLOT + species);
+    }
+
+    /**
+     * @param cause {@code LOW_FIRE_POWER}, {@code LOW_MANA} or {@code LOW_RAGE}.
+     * @return long number of attacks that failed for that cause.
+     */
+    static long failures(final int cause)
+    {
+        return sum(FAILURES_SLOT + cause);
+    }
+
+    /**
+     * @return long total health lost to damage.
+     */
+    static long damageDealt()
+    {
+        return sum(DAMAGE_DEALT_SLOT);
+    }
+
+    /**
+     * @return long total health gained by healing.
+     */
+    static long healthHealed()
+    {
+        return sum(HEALTH_HEALED_SLOT);
+    }
+
+    /**
+     * @return long number of creatures killed.
+     */
+    static long deaths()
+    {
+        return sum(DEATHS_SLOT);
+    }
+
+    /**
+     * @param method the combat method, such as {@code BREATH_FIRE}.
+     * @return long number of timed calls of the method.
+     */
+    static long latencySamples(final int method)
+    {
+        long samples;
+
+        samples = 0;
+
+        for(final LongAdder bucket : LATENCY[method])
+        {
+            samples += bucket.sum();
+        }
+        return samples;
+    }
+
+    /**
+     * Gets an upper bound of a latency percentile of a combat method, to within
+     * a factor of two.
+     *
+     * @param method     the combat method, such as {@code BREATH_FIRE}.
+     * @param percentile the percentile, from 0 to 100.
+     * @return long the percentile in nanoseconds, or 0 if the method was never timed.
+     */
+    static long latencyPercentile(final int method,
+                                  final double percentile)
+    {
+        final long[] counts;
+        final long   rank;
+        long         samples;
+        long         seen;
+
+        counts  = new long[BUCKETS];
+        samples = 0;
+
+        for(int bucket = 0; bucket < BUCKETS; bucket++)
+        {
+            counts[bucket] = LATENCY[method][bucket].sum();
+            samples += counts[bucket];
+        }
+
+        if(samples == 0)
+        {
+            return 0;
+        }
+
+        rank = Math.max((long) Math.ceil(samples * percentile / 100.0), 1);
+        seen = 0;
+
+        for(int bucket = 0; bucket < BUCKETS; bucket++)
+        {
+            seen += counts[bucket];
+
+            if(seen >= rank)
+            {
+                return bucket == BUCKETS - 1
+                       ? Long.MAX_VALUE
+                       : (1L << bucket) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Sets every counter and histogram back to zero. Updates made by other threads
+     * while resetting may be lost or kept.
+     */
+    static synchronized void reset()
+    {
+        for(final Cell cell : CELLS)
+        {
+            for(int slot = 0; slot < SLOTS; slot++)
+            {
+                cell.counts[slot] = 0;
+            }
+        }
+        for(final LongAdder[] histogram : LATENCY)
+        {
+            for(final LongAdder adder : histogram)
+            {
+                adder.reset();
+            }
+        }
+
+        Arrays.fill(RETIRED, 0);
+    }
+
+    /**
+     * Formats every counter and latency percentile as plain text, one metric per line.
+     *
+     * @return String the snapshot.
+     */
+    static String snapshot()
+    {
+        final StringBuilder out;
+
+        out = new StringBuilder();
+
+        out.append("combat metrics ").append(ENABLED ? "enabled" : "disabled").append(System.lineSeparator());
+
+        for(int species = 0; species < SPECIES_NAMES.length; species++)
+        {
+            line(out, "attacks." + SPECIES_NAMES[species], attacks(species));
+        }
+        for(int cause = 0; cause < CAUSE_NAMES.length; cause++)
+        {
+            line(out, "failures." + CAUSE_NAMES[cause], failures(cause));
+        }
+
+        line(out, "damageDealt", damageDealt());
+        line(out, "healthHealed", healthHealed());
+        line(out, "deaths", deaths());
+
+        for(int method = 0; method < METHOD_NAMES.length; method++)
+        {
+            out.append(String.format(Locale.ROOT,
+                                     "latency.%-14s samples %,d  p50 <= %,d ns  p99 <= %,d ns  max <= %,d ns%n",
+                                     METHOD_NAMES[method],
+                                     latencySamples(method),
+                                     latencyPercentile(method, 50),
+                                     latencyPercentile(method, 99),
+                                     latencyPercentile(method, 100)));
+        }
+
+        return out.toString();
+    }
+
+    private static void line(final StringBuilder out,
+                             final String name,
+                             final long value)
+    {
+        out.append(String.format(Locale.ROOT, "%-22s %,d%n", name, value));
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server under {@link #OBJECT_NAME},
+     * unless they are registered already.
+     *
+     * @throws IllegalStateException if the MBean cannot be registered.
+     */
+    static void registerMBean()
+    {
+        final MBeanServer server;
+
+        server = ManagementFactory.getPlatformMBeanServer();
+
+        try
+        {
+            server.registerMBean(new Bean(), new ObjectName(OBJECT_NAME));
+        } catch(InstanceAlreadyExistsException e)
+        {
+            // registered by an earlier call
+        } catch(JMException e)
+        {
+            throw new IllegalStateException("Cannot register " + OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * The counters of one thread, written only by that thread.
+     */
+    static final class Cell
+    {
+        private final WeakReference<Thread> owner;
+        private final long                  ownerId;
+        private final long[]                counts;
+
+        private Cell(final Thread owner)
+        {
+            this.owner   = new WeakReference<>(owner);
+            this.ownerId = owner.threadId();
+            this.counts  = new long[SLOTS];
+        }
+    }
+
+    /*
+     * The JMX view of the counters.
+     */
+    private static final class Bean implements CombatMetricsMXBean
+    {
+        @Override
+        public boolean isEnabled()
+        {
+            return ENABLED;
+        }
+
+        @Override
+        public long getDragonAttacks()
+        {
+            return attacks(CreaturePool.SPECIES_DRAGON);
+        }
+
+        @Override
+        public long getElfAttacks()
+        {
+            return attacks(CreaturePool.SPECIES_ELF);
+        }
+
+        @Override
+        public long getOrcAttacks()
+        {
+            return attacks(CreaturePool.SPECIES_ORC);
+        }
+
+        @Override
+        public long getLowFirePowerFailures()
+        {
+            return failures(LOW_FIRE_POWER);
+        }
+
+        @Override
+        public long getLowManaFailures()
+        {
+            return failures(LOW_MANA);
+        }
+
+        @Override
+        public long getLowRageFailures()
+        {
+            return failures(LOW_RAGE);
+        }
+
+        @Override
+        public long getDamageDealt()
+        {
+            return damageDealt();
+        }
+
+        @Override
+        public long getHealthHealed()
+        {
+            return healthHealed();
+        }
+
+        @Override
+        public long getDeaths()
+        {
+            return deaths();
+        }
+
+        @Override
+        public String getSnapshot()
+        {
+            return snapshot();
+        }
+
+        @Override
+        public void reset()
+        {
+            CombatMetrics.reset();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * <p>The JMX view of {@link CombatMetrics}, registered as {@code Lab2:type=CombatMetrics}.</p>
+ *
+ * <p>JMX only introspects public interfaces, so unlike the rest of the lab this
+ * interface is public.</p>
+ *
+ * @author Justin Cardas
+ * @author Mohammad Sadeghi
+ * @author Armaan Brar
+ * @version 1.0
+ */
+public interface CombatMetricsMXBean
+{
+    /**
+     * @return true if metrics are being recorded.
+     */
+    boolean isEnabled();
+
+    /**
+     * @return long number of attacks by dragons.
+     */
+    long getDragonAttacks();
+
+    /**
+     * @return long number of attacks by elves.
+     */
+    long getElfAttacks();
+
+    /**
+     * @return long number of attacks by orcs.
+     */
+    long getOrcAttacks();
+
+    /**
+     * @return long number of attacks that failed with too little firePower.
+     */
+    long getLowFirePowerFailures();
+
+    /**
+     * @return long number of attacks that failed with too little mana.
+     */
+    long getLowManaFailures();
+
+    /**
+     * @return long number of attacks that failed with too little rage.
+     */
+    long getLowRageFailures();
+
+    /**
+     * @return long total health lost to damage.
+     */
+    long getDamageDealt();
+
+    /**
+     * @return long total health gained by healing.
+     */
+    long getHealthHealed();
+
+    /**
+     * @return long number of creatures killed.
+     */
+    long getDeaths();
+
+    /**
+     * @return String every counter and latency percentile as plain text.
+     */
+    String getSnapshot();
+
+    /**
+     * Sets every counter and histogram back to zero.
+     */
+    void reset();
+}
@@ -0,0 +1,52 @@
+/**
+ * <p>Outcome codes returned by the non-throwing combat APIs.</p>
+ *
+ * <p>Codes are plain {@code int}s so a whole round of results fits in an
+ * {@code int[]} without boxing.</p>
+ *
+ * @author Justin Cardas
+ * @author Mohammad Sadeghi
+ * @author Armaan Brar
+ * @version 1.0
+ */
+final class CombatOutcome
+{
+    static final int SUCCESS;
+    static final int LOW_RESOURCE;
+    static final int TARGET_DEAD;
+
+    static
+    {
+        SUCCESS      = 0;
+        LOW_RESOURCE = 1;
+        TARGET_DEAD  = 2;
+    }
+
+    private CombatOutcome()
+    {
+    }
+
+    /**
+     * Gets the name of an outcome code, for logs and text protocols.
+     *
+     * @param outcome the outcome code.
+     * @return String name of the outcome (e.g. "LOW_RESOURCE").
+     * @throws IllegalArgumentException if {@code outcome} is not a known code.
+     */
+    static String name(final int outcome)
+    {
+        if(outcome == SUCCESS)
+        {
+            return "SUCCESS";
+        }
+        if(outcome == LOW_RESOURCE)
+        {
+            return "LOW_RESOURCE";
+        }
+        if(outcome == TARGET_DEAD)
+        {
+            return "TARGET_DEAD";
+        }
+        throw new IllegalArgumentException("Unknown outcome: " + outcome);
+    }
+}
@@ -1,8 +1,17 @@
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
 /**
  * Models a creature with a given name, date of birth and health amount.
  * Includes methods for checking if it's alive, taking damage,
  * healing, getting its age in years and getting its details.
  *
+ * <p>{@code health} is updated with compare-and-set, so many threads can damage
+ * and heal the same creature without losing updates or taking a lock. A
+ * {@link PooledCreature} keeps its health in a {@link CreaturePool} instead and
+ * does not make this promise.</p>
+ *
  * @author Mohammad Sadeghi
  * @author Justin Cardas
  * @author Armaan
@@ -14,14 +23,16 @@ class Creature
     // Instance Variables
 
     // Health
-    private static final int NO_HEALTH;
-    private static final int MIN_HEALTH;
-    private static final int MAX_HEALTH;
+    static final int NO_HEALTH;
+    static final int MIN_HEALTH;
+    static final int MAX_HEALTH;
 
     // Year
-    private static final int CURRENT_YEAR;
-    private static final int CURRENT_MONTH;
-    private static final int CURRENT_DAY;
+    static final int CURRENT_YEAR;
+    static final int CURRENT_MONTH;
+    static final int CURRENT_DAY;
+
+    private static final VarHandle HEALTH;
 
     static
     {
@@ -34,11 +45,19 @@ class Creature
         CURRENT_YEAR = 2025;
         CURRENT_MONTH = 1;
         CURRENT_DAY = 23;
+
+        try
+        {
+            HEALTH = MethodHandles.lookup().findVarHandle(Creature.class, "health", int.class);
+        } catch(ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
     }
 
     private final String name;
     private final Date dateOfBirth;
-    private int health;
+    private volatile int health;
 
     /**
      * <p>Constructs a new {@code Creature} object with the specified
@@ -104,12 +123,29 @@ class Creature
      * 2. Must not be empty
      *
      */
-    private void validateName(final String name)
+    static void validateName(final String name)
+    {
+        final String problem;
+
+        problem = checkName(name);
+
+        if (problem != null)
+        {
+            throw new IllegalArgumentException(problem);
+        }
+    }
+
+    /*
+     * The rule behind validateName, without throwing.
+     * Returns null if the name is valid, otherwise why it is not.
+     */
+    static String checkName(final String name)
     {
         if (name == null || name.isBlank())
         {
-            throw new IllegalArgumentException("Name cannot be null or empty");
+            return "Name cannot be null or empty";
         }
+        return null;
     }
 
     /*
@@ -117,34 +153,51 @@ class Creature
      * 1. Must not be in the future
      *
      */
-    private void validateDOB(final Date dateOfBirth)
+    static void validateDOB(final Date dateOfBirth)
+    {
+        final String problem;
+
+        problem = checkDOB(dateOfBirth);
+
+        if (problem != null)
+        {
+            throw new IllegalArgumentException(problem);
+        }
+    }
+
+    /*
+     * The rules behind validateDOB, without throwing.
+     * Returns null if the date of birth is valid, otherwise why it is not.
+     */
+    static String checkDOB(final Date dateOfBirth)
     {
-        //throw an IllegalArgumentException if no date of birth is given
+        //no date of birth is given
         if (dateOfBirth == null)
         {
-            throw new IllegalArgumentException("Date of birth cannot be null");
+            return "Date of birth cannot be null";
         }
 
-        //throw an IllegalArgumentException if year of date of birth is in the future
+        //year of date of birth is in the future
         if (dateOfBirth.getYear() > CURRENT_YEAR)
         {
-            throw new IllegalArgumentException("Date of birth cannot be in the future");
+            return "Date of birth cannot be in the future";
         }
 
         if (dateOfBirth.getYear() == CURRENT_YEAR)
         {
-            //throw an IllegalArgumentException if month of date of birth is in the future of the current year
+            //month of date of birth is in the future of the current year
             if (dateOfBirth.getMonth() > CURRENT_MONTH)
             {
-                throw new IllegalArgumentException("Date of birth cannot be in the future");
+                return "Date of birth cannot be in the future";
             }
 
-            //throw an IllegalArgumentException if day of date of birth is in the future of the current year and current month
+            //day of date of birth is in the future of the current year and current month
             if (dateOfBirth.getMonth() == CURRENT_MONTH && dateOfBirth.getDay() > CURRENT_DAY)
             {
-                throw new IllegalArgumentException("Date of birth cannot be in the future");
+                return "Date of birth cannot be in the future";
             }
         }
+        return null;
     }
 
     /*
@@ -152,12 +205,29 @@ class Creature
      * 1. Must be in the range of MIN_HEALTH - MAX_HEALTH
      *
      */
-    private void validateHealth(final int health)
+    static void validateHealth(final int health)
+    {
+        final String problem;
+
+        problem = checkHealth(health);
+
+        if (problem != null)
+        {
+            throw new IllegalArgumentException(problem);
+        }
+    }
+
+    /*
+     * The rule behind validateHealth, without throwing.
+     * Returns null if the health is valid, otherwise why it is not.
+     */
+    static String checkHealth(final int health)
     {
         if (health < NO_HEALTH || health > MAX_HEALTH)
         {
-            throw new IllegalArgumentException("Health must be between " + MIN_HEALTH + " and " + MAX_HEALTH);
+            return "Health must be between " + MIN_HEALTH + " and " + MAX_HEALTH;
         }
+        return null;
     }
 
     /**
@@ -180,16 +250,41 @@ class Creature
      */
     void takeDamage(final int damage)
     {
+        final CombatMetrics.Cell metrics;
+        final long               start;
+        final int                before;
+
         if (damage < NO_HEALTH)
         {
             throw new DamageException("Damage cannot be negative");
         }
-        this.health -= damage;
 
-        if (this.health < NO_HEALTH)
+        metrics = CombatMetrics.cell();
+        start   = CombatMetrics.startTimer(metrics, CombatMetrics.TAKE_DAMAGE);
+        before  = loseHealth(damage);
+
+        CombatMetrics.damage(metrics, before, Math.max(before - damage, NO_HEALTH), start);
+    }
+
+    /**
+     * <p>Applies {@code damage} as {@link #takeDamage(int)} does, without validating
+     * it or recording metrics. Attacks use this and count the damage with their own
+     * metrics.</p>
+     *
+     * @param damage amount of damage taken, not negative.
+     * @return int health before the damage.
+     */
+    int loseHealth(final int damage)
+    {
+        int current;
+
+        // Subtracts the damage from current health, or sets the health to NO_HEALTH, whichever is higher.
+        do
         {
-            this.health = NO_HEALTH;
-        }
+            current = this.health;
+        } while(!HEALTH.compareAndSet(this, current, Math.max(current - damage, NO_HEALTH)));
+
+        return current;
     }
 
     /**
@@ -202,13 +297,27 @@ class Creature
      */
     void heal(final int healAmount)
     {
+        final CombatMetrics.Cell metrics;
+        final long               start;
+        int                      current;
+        int                      updated;
+
         if (healAmount < NO_HEALTH)
         {
             throw new HealingException("Healing amount cannot be negative.");
         }
 
+        metrics = CombatMetrics.cell();
+        start   = CombatMetrics.startTimer(metrics, CombatMetrics.HEAL);
+
         // Adds the healAmount to current health, or sets the health to MAX_HEALTH, whichever is lower.
-        this.health = Math.min(this.health + healAmount, MAX_HEALTH);
+        do
+        {
+            current = this.health;
+            updated = Math.min(current + healAmount, MAX_HEALTH);
+        } while(!HEALTH.compareAndSet(this, current, updated));
+
+        CombatMetrics.heal(metrics, current, updated, start);
     }
 
     /**
@@ -243,4 +352,25 @@ class Creature
 
         System.out.print(details);
     }
-}
\ No newline at end of file
+
+    /**
+     * <p>Appends the text printed by {@link #getDetails()}, without the trailing
+     * line separator, to {@code out}.</p>
+     * <p>Nothing is allocated, so a reused {@link StringBuilder} or a
+     * {@link RosterReportWriter} can render many creatures cheaply.</p>
+     *
+     * @param out the destination.
+     * @throws IOException if {@code out} fails.
+     */
+    void appendDetails(final Appendable out) throws IOException
+    {
+        out.append(this.name);
+        out.append(", born on ");
+        dateOfBirth.appendTo(out);
+        out.append(" (");
+        Digits.append(out, this.getAgeYears());
+        out.append(") has ");
+        Digits.append(out, this.health);
+        out.append(" health");
+    }
+}
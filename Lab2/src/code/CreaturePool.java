@@ -0,0 +1,850 @@
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * <p>Stores a population of creatures as parallel primitive columns
+ * (struct-of-arrays) instead of one object per creature.</p>
+ *
+ * <p>Each creature is identified by an {@code int} id handed out by the
+ * {@code add} methods. Health, the species resource ({@code firePower},
+ * {@code mana} or {@code rage}) and the date of birth all live in {@code int[]}
+ * columns indexed by that id. The combat methods apply exactly the same rules as
+ * {@link Creature}, {@link Dragon}, {@link Elf} and {@link Orc}, and
+ * {@link #view(int)} exposes a {@link Creature} for existing callers to target
+ * and report on.</p>
+ *
+ * <p>A {@link LivingIndex} of the creatures that are alive is updated whenever a
+ * creature is added, dies or is healed back to life; see {@link #living()}.</p>
+ *
+ * <p>A {@link WorldHash} of every species, health and resource is updated in O(1)
+ * on every change, so two pools that should hold the same battle can be checked
+ * with one comparison of {@link #stateHash()}.</p>
+ *
+ * <p>The rules of each species tag come from the pool's {@link SpeciesTable}, by
+ * default {@link SpeciesTable#STANDARD}; a pool built with a larger table also
+ * holds the species it adds, through {@link #add(int, String, Date, int, int)}.
+ * Every table restates the standard species exactly, so the dragon, elf and orc
+ * methods below and {@link CombatEngine#resolveRound} play by the same rules.</p>
+ *
+ * <p>A pool is not thread-safe. Its methods update the columns, the state hash and
+ * the living index with plain reads and writes, so concurrent changes lose damage
+ * and can corrupt the living index. Threads that share a pool must serialise every
+ * change, as {@link CombatLog} does with its lock. The same holds for the views
+ * returned by {@link #view(int)}.</p>
+ *
+ * @author Justin Cardas
+ * @author Mohammad Sadeghi
+ * @author Armaan Brar
+ * @version 1.0
+ */
+class CreaturePool
+{
+    // Species tags
+    static final int SPECIES_DRAGON;
+    static final int SPECIES_ELF;
+    static final int SPECIES_ORC;
+
+    private static final int DEFAULT_CAPACITY;
+    private static final int GROWTH_FACTOR;
+
+    static
+    {
+        SPECIES_DRAGON = 0;
+        SPECIES_ELF    = 1;
+        SPECIES_ORC    = 2;
+
+        DEFAULT_CAPACITY = 16;
+        GROWTH_FACTOR    = 2;
+    }
+
+    private String[] names;
+    private int[]    birthDates;
+    private int[]    species;
+    private int[]    health;
+    private int[]    resources;
+    private int      size;
+    private long     stateHash;
+
+    private final LivingIndex  living;
+    private final SpeciesTable speciesTable;
+
+    /**
+     * Constructs an empty {@code CreaturePool} with a default capacity.
+     */
+    CreaturePool()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty {@code CreaturePool} of the standard species able to hold
+     * {@code capacity} creatures before its columns need to grow.
+     *
+     * @param capacity the initial number of creatures to reserve room for.
+     * @throws IllegalArgumentException if {@code capacity} is negative.
+     */
+    CreaturePool(final int capacity)
+    {
+        this(capacity, SpeciesTable.STANDARD);
+    }
+
+    /**
+     * Constructs an empty {@code CreaturePool} of the species of {@code speciesTable}
+     * able to hold {@code capacity} creatures before its columns need to grow.
+     *
+     * @param capacity     the initial number of creatures to reserve room for.
+     * @param speciesTable the rules of every species the pool can hold.
+     * @throws IllegalArgumentException if {@code capacity} is negative or {@code speciesTable} is null.
+     */
+    CreaturePool(final int capacity,
+                 final SpeciesTable speciesTable)
+    {
+        if(capacity < 0)
+        {
+            throw new IllegalArgumentException("Capacity cannot be negative: " + capacity);
+        }
+        if(speciesTable == null)
+        {
+            throw new IllegalArgumentException("Species table cannot be null");
+        }
+
+        this.names        = new String[capacity];
+        this.birthDates   = new int[capacity];
+        this.species      = new int[capacity];
+        this.health       = new int[capacity];
+        this.resources    = new int[capacity];
+        this.size         = 0;
+        this.stateHash    = 0;
+        this.living       = new LivingIndex();
+        this.speciesTable = speciesTable;
+    }
+
+    /**
+     * Adds a dragon to the pool, validating it like the {@link Dragon} constructor.
+     *
+     * @param name        the name of the dragon.
+     * @param dateOfBirth the date of birth of the dragon.
+     * @param health      the initial health of the dragon.
+     * @param firePower   the initial firePower of the dragon.
+     * @return the id of the new dragon.
+     * @throws IllegalArgumentException if any parameter is invalid.
+     */
+    int addDragon(final String name,
+                  final Date dateOfBirth,
+                  final int health,
+                  final int firePower)
+    {
+        validateCreature(name, dateOfBirth, health);
+        Dragon.validateFirePower(firePower);
+
+        return append(SPECIES_DRAGON, name, dateOfBirth, health, firePower);
+    }
+
+    /**
+     * Adds an elf to the pool, validating it like the {@link Elf} constructor.
+     *
+     * @param name        the name of the elf.
+     * @param dateOfBirth the date of birth of the elf.
+     * @param health      the initial health of the elf.
+     * @param mana        the initial mana of the elf.
+     * @return the id of the new elf.
+     * @throws IllegalArgumentException if any parameter is invalid.
+     */
+    int addElf(final String name,
+               final Date dateOfBirth,
+               final int health,
+               final int mana)
+    {
+        validateCreature(name, dateOfBirth, health);
+        Elf.validateMana(mana);
+
+        return append(SPECIES_ELF, name, dateOfBirth, health, mana);
+    }
+
+    /**
+     * Adds an orc to the pool, validating it like the {@link Orc} constructor.
+     *
+     * @param name        the name of the orc.
+     * @param dateOfBirth the date of birth of the orc.
+     * @param health      the initial health of the orc.
+     * @param rage        the initial rage of the orc.
+     * @return the id of the new orc.
+     * @throws IllegalArgumentException if any parameter is invalid.
+     * @throws LowRageException         if {@code rage} is outside {@code MIN_RAGE} to {@code MAX_RAGE}.
+     */
+    int addOrc(final String name,
+               final Date dateOfBirth,
+               final int health,
+               final int rage)
+    {
+        validateCreature(name, dateOfBirth, health);
+        Orc.validateRage(rage);
+
+        return append(SPECIES_ORC, name, dateOfBirth, health, rage);
+    }
+
+    /**
+     * Adds a creature of any species of the pool's {@link SpeciesTable}, validating
+     * its resource against the table.
+     *
+     * @param speciesTag  the species tag.
+     * @param name        the name of the creature.
+     * @param dateOfBirth the date of birth of the creature.
+     * @param health      the initial health of the creature.
+     * @param resource    the initial resource of the creature.
+     * @return the id of the new creature.
+     * @throws IllegalArgumentException if any parameter is invalid.
+     */
+    int add(final int speciesTag,
+            final String name,
+            final Date dateOfBirth,
+            final int health,
+            final int resource)
+    {
+        final String problem;
+
+        validateCreature(name, dateOfBirth, health);
+
+        problem = speciesTable.checkResource(speciesTag, resource);
+
+        if(problem != null)
+        {
+            throw new IllegalArgumentException(problem);
+        }
+
+        return append(speciesTag, name, dateOfBirth, health, resource);
+    }
+
+    /*
+     * Applies the validation rules of the Creature constructor.
+     */
+    private static void validateCreature(final String name,
+                                         final Date dateOfBirth,
+                                         final int health)
+    {
+        Creature.validateName(name);
+        Creature.validateDOB(dateOfBirth);
+        Creature.validateHealth(health);
+    }
+
+    /*
+     * Appends an already validated creature to every column, growing them if needed.
+     */
+    private int append(final int speciesTag,
+                       final String name,
+                       final Date dateOfBirth,
+                       final int health,
+                       final int resource)
+    {
+        final int id;
+
+        if(size == names.length)
+        {
+            grow();
+        }
+
+        id = size;
+
+        this.names[id]      = name;
+        this.birthDates[id] = dateOfBirth.getPackedDate();
+        this.species[id]    = speciesTag;
+        this.health[id]     = health;
+        this.resources[id]  = resource;
+        this.size++;
+
+        stateHash ^= WorldHash.species(id, speciesTag) ^
+                     WorldHash.health(id, health) ^
+                     WorldHash.resource(id, resource);
+
+        if(health > Creature.NO_HEALTH)
+        {
+            living.markAlive(id, speciesTag);
+        }
+
+        return id;
+    }
+
+    /*
+     * Grows every column by GROWTH_FACTOR.
+     */
+    private void grow()
+    {
+        final int newCapacity;
+
+        newCapacity = Math.max(DEFAULT_CAPACITY, names.length * GROWTH_FACTOR);
+
+        this.names      = Arrays.copyOf(names, newCapacity);
+        this.birthDates = Arrays.copyOf(birthDates, newCapacity);
+        this.species    = Arrays.copyOf(species, newCapacity);
+        this.health     = Arrays.copyOf(health, newCapacity);
+        this.resources  = Arrays.copyOf(resources, newCapacity);
+    }
+
+    /*
+     * Writes the resource of a creature and updates the state hash.
+     */
+    private void setResource(final int id,
+                             final int resource)
+    {
+        stateHash     ^= WorldHash.resourceChange(id, resources[id], resource);
+        resources[id] = resource;
+    }
+
+    /*
+     * Throws an IllegalArgumentException if the id was not handed out by this pool.
+     */
+    private void validateId(final int id)
+    {
+        if(id < 0 || id >= size)
+        {
+            throw new IllegalArgumentException("Unknown creature id: " + id);
+        }
+    }
+
+    /*
+     * Throws an IllegalArgumentException if the creature is not of the expected species.
+     */
+    private void validateSpecies(final int id,
+                                 final int expectedSpecies)
+    {
+        validateId(id);
+
+        if(species[id] != expectedSpecies)
+        {
+            throw new IllegalArgumentException("Creature " + id + " cannot perform this action");
+        }
+    }
+
+    /*
+     * The raw columns below are shared with CombatEngine, EffectScheduler and
+     * WorldShard so a whole round or tick can be resolved without per-call
+     * validation. They must be re-read after any add, since growing the pool
+     * replaces the arrays.
+     */
+    int[] speciesColumn()
+    {
+        return species;
+    }
+
+    int[] healthColumn()
+    {
+        return health;
+    }
+
+    int[] resourceColumn()
+    {
+        return resources;
+    }
+
+    /**
+     * Gets the index of the living creatures of this pool. It is kept up to date by
+     * the pool, {@link CombatEngine} and {@link EffectScheduler} and must only be read
+     * by other callers.
+     *
+     * @return the living index.
+     */
+    LivingIndex living()
+    {
+        return living;
+    }
+
+    /**
+     * Gets the {@link WorldHash} of the species, health and resource of every
+     * creature in the pool.
+     *
+     * @return long the hash.
+     */
+    long stateHash()
+    {
+        return stateHash;
+    }
+
+    /*
+     * Lets CombatEngine, EffectScheduler and WorldShard, which write the raw columns,
+     * XOR in the WorldHash changes of the values they wrote.
+     */
+    void mixStateHash(final long change)
+    {
+        stateHash ^= change;
+    }
+
+    /**
+     * @return SpeciesTable the rules of every species the pool can hold.
+     */
+    SpeciesTable speciesTable()
+    {
+        return speciesTable;
+    }
+
+    /**
+     * @return int number of creatures in the pool.
+     */
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * @param id the id of the creature.
+     * @return int species tag ({@code SPECIES_DRAGON}, {@code SPECIES_ELF} or {@code SPECIES_ORC}).
+     */
+    int getSpecies(final int id)
+    {
+        validateId(id);
+        return species[id];
+    }
+
+    /**
+     * @param id the id of the creature.
+     * @return String name of the creature.
+     */
+    String getName(final int id)
+    {
+        validateId(id);
+        return names[id];
+    }
+
+    /**
+     * @param id the id of the creature.
+     * @return Date object date of birth of the creature.
+     */
+    Date getDateOfBirth(final int id)
+    {
+        validateId(id);
+        return Date.fromPackedDate(birthDates[id]);
+    }
+
+    /**
+     * @param id the id of the creature.
+     * @return int packed date of birth of the creature, as {@link Date#getPackedDate()}.
+     */
+    int getPackedDateOfBirth(final int id)
+    {
+        validateId(id);
+        return birthDates[id];
+    }
+
+    /**
+     * @param id the id of the creature.
+     * @return int health of the creature.
+     */
+    int getHealth(final int id)
+    {
+        validateId(id);
+        return health[id];
+    }
+
+    /**
+     * Gets the species resource of a creature: {@code firePower} for a dragon,
+     * {@code mana} for an elf or {@code rage} for an orc.
+     *
+     * @param id the id of the creature.
+     * @return int resource amount of the creature.
+     */
+    int getResource(final int id)
+    {
+        validateId(id);
+        return resources[id];
+    }
+
+    /**
+     * Checks if the creature is alive or not, based on its health.
+     *
+     * @param id the id of the creature.
+     * @return true if health of creature is greater than 0, false otherwise
+     */
+    boolean isAlive(final int id)
+    {
+        validateId(id);
+        return health[id] > Creature.NO_HEALTH;
+    }
+
+    /**
+     * <p>Returns the age of the creature in years
+     * by subtracting the year of birth from the {@code CURRENT_YEAR}</p>
+     *
+     * @param id the id of the creature.
+     * @return int - age in years.
+     */
+    int getAgeYears(final int id)
+    {
+        validateId(id);
+        return Creature.CURRENT_YEAR - Date.packedYear(birthDates[id]);
+    }
+
+    /**
+     * Reduces the health of a creature by {@code damage}, following
+     * {@link Creature#takeDamage(int)}.
+     *
+     * @param id     the id of the creature.
+     * @param damage amount of damage taken.
+     * @throws DamageException if {@code damage} is negative.
+     */
+    void takeDamage(final int id,
+                    final int damage)
+    {
+        final CombatMetrics.Cell metrics;
+        final long               start;
+        final int                before;
+
+        validateId(id);
+
+        if(damage < Creature.NO_HEALTH)
+        {
+            throw new DamageException("Damage cannot be negative");
+        }
+
+        metrics = CombatMetrics.cell();
+        start   = CombatMetrics.startTimer(metrics, CombatMetrics.TAKE_DAMAGE);
+        before  = loseHealth(id, damage);
+
+        CombatMetrics.damage(metrics, before, health[id], start);
+    }
+
+    /**
+     * Applies {@code damage} as {@link #takeDamage(int, int)} does, without
+     * validating it or recording metrics. Attacks use this and count the damage
+     * with their own metrics.
+     *
+     * @param id     the id of a creature of this pool.
+     * @param damage amount of damage taken, not negative.
+     * @return int health before the damage.
+     */
+    int loseHealth(final int id,
+                   final int damage)
+    {
+        final int before;
+
+        before     = health[id];
+        health[id] = Math.max(before - damage, Creature.NO_HEALTH);
+        stateHash  ^= WorldHash.healthChange(id, before, health[id]);
+
+        if(health[id] == Creature.NO_HEALTH)
+        {
+            living.markDead(id, species[id]);
+        }
+
+        return before;
+    }
+
+    /**
+     * Increases the health of a creature by {@code healAmount}, following
+     * {@link Creature#heal(int)}.
+     *
+     * @param id         the id of the creature.
+     * @param healAmount amount of healing to apply.
+     * @throws HealingException if {@code healAmount} is negative.
+     */
+    void heal(final int id,
+              final int healAmount)
+    {
+        final CombatMetrics.Cell metrics;
+        final long               start;
+        final int                before;
+
+        validateId(id);
+
+        if(healAmount < Creature.NO_HEALTH)
+        {
+            throw new HealingException("Healing amount cannot be negative.");
+        }
+
+        metrics    = CombatMetrics.cell();
+        start      = CombatMetrics.startTimer(metrics, CombatMetrics.HEAL);
+        before     = health[id];
+        health[id] = Math.min(before + healAmount, Creature.MAX_HEALTH);
+        stateHash  ^= WorldHash.healthChange(id, before, health[id]);
+
+        if(health[id] > Creature.NO_HEALTH)
+        {
+            living.markAlive(id, species[id]);
+        }
+
+        CombatMetrics.heal(metrics, before, health[id], start);
+    }
+
+    /**
+     * Makes a dragon breathe fire at a target, following {@link Dragon#breathFire(Creature)}.
+     *
+     * @param dragonId the id of the dragon.
+     * @param targetId the id of the creature hit.
+     * @throws IllegalArgumentException if {@code dragonId} is not a dragon or {@code targetId} is unknown.
+     * @throws LowFirePowerException    if the current firePower amount is lower than FIREPOWER_COST.
+     */
+    void breathFire(final int dragonId,
+                    final int targetId)
+    throws LowFirePowerException
+    {
+        final CombatMetrics.Cell metrics;
+        final long               start;
+
+        validateSpecies(dragonId, SPECIES_DRAGON);
+        validateId(targetId);
+
+        metrics = CombatMetrics.cell();
+        start   = CombatMetrics.startTimer(metrics, CombatMetrics.BREATH_FIRE);
+
+        if(resources[dragonId] < Dragon.FIREPOWER_COST)
+        {
+            CombatMetrics.failure(metrics, CombatMetrics.BREATH_FIRE, CombatMetrics.LOW_FIRE_POWER, start);
+            throw new LowFirePowerException("couldn't breath fire. Fire power too low. " + "[" + resources[dragonId] + "]");
+        }
+
+        setResource(dragonId, resources[dragonId] - Dragon.FIREPOWER_COST);
+        CombatMetrics.hit(metrics,
+                          CombatMetrics.BREATH_FIRE,
+                          loseHealth(targetId, Dragon.FIREPOWER_DAMAGE),
+                          Dragon.FIREPOWER_DAMAGE,
+                          start);
+    }
+
+    /**
+     * Makes a dragon breathe fire at a target and burn every living creature within
+     * {@code radius} of it, dragon aside. The firePower costs {@code FIREPOWER_COST}
+     * as for a single target, and every creature hit takes {@code FIREPOWER_DAMAGE}.
+     * The targets come from {@code grid} and take their damage in one batch, with
+     * the same result as {@link #takeDamage(int, int)} on each.
+     *
+     * @param dragonId the id of the dragon.
+     * @param targetId the id of the placed creature at the centre of the fire.
+     * @param grid     the positions of this pool's creatures.
+     * @param radius   the radius of the fire.
+     * @return int number of creatures hit.
+     * @throws IllegalArgumentException if {@code dragonId} is not a dragon, {@code targetId}
+     *                                  is unknown or not placed, {@code grid} is not a grid of
+     *                                  this pool, or {@code radius} is negative.
+     * @throws LowFirePowerException    if the current firePower amount is lower than FIREPOWER_COST.
+     */
+    int breathFire(final int dragonId,
+                   final int targetId,
+                   final SpatialGrid grid,
+                   final int radius)
+    throws LowFirePowerException
+    {
+        final CombatMetrics.Cell metrics;
+        final long               start;
+        final int                x;
+        final int                y;
+        final int[]              totals;
+
+        validateSpecies(dragonId, SPECIES_DRAGON);
+        validateId(targetId);
+
+        if(grid == null || grid.pool() != this)
+        {
+            throw new IllegalArgumentException("Grid does not belong to this pool");
+        }
+        if(radius < 0)
+        {
+            throw new IllegalArgumentException("Radius cannot be negative: " + radius);
+        }
+
+        x = grid.getX(targetId);
+        y = grid.getY(targetId);
+
+        metrics = CombatMetrics.cell();
+        start   = CombatMetrics.startTimer(metrics, CombatMetrics.BREATH_FIRE);
+
+        if(resources[dragonId] < Dragon.FIREPOWER_COST)
+        {
+            CombatMetrics.failure(metrics, CombatMetrics.BREATH_FIRE, CombatMetrics.LOW_FIRE_POWER, start);
+            throw new LowFirePowerException("couldn't breath fire. Fire power too low. " + "[" + resources[dragonId] + "]");
+        }
+
+        setResource(dragonId, resources[dragonId] - Dragon.FIREPOWER_COST);
+
+        // hits, damage dealt and deaths
+        totals = new int[3];
+
+        grid.forEachWithin(x, y, radius, id ->
+        {
+            final int before;
+
+            before = health[id];
+
+            if(id != dragonId && before > Creature.NO_HEALTH)
+            {
+                health[id] = Math.max(before - Dragon.FIREPOWER_DAMAGE, Creature.NO_HEALTH);
+                stateHash  ^= WorldHash.healthChange(id, before, health[id]);
+                totals[0]++;
+                totals[1] += before - health[id];
+
+                if(health[id] == Creature.NO_HEALTH)
+                {
+                    living.markDead(id, species[id]);
+                    totals[2]++;
+                }
+            }
+        });
+
+        CombatMetrics.effects(totals[1], 0, totals[2]);
+        CombatMetrics.attacked(metrics, CombatMetrics.BREATH_FIRE, start);
+
+        return totals[0];
+    }
+
+    /**
+     * Restores the firePower of a dragon, following {@link Dragon#restoreFirePower(int)}.
+     *
+     * @param dragonId the id of the dragon.
+     * @param amount   the amount of firePower to restore.
+     * @throws IllegalArgumentException if {@code dragonId} is not a dragon or {@code amount} is negative.
+     */
+    void restoreFirePower(final int dragonId,
+                          final int amount)
+    {
+        validateSpecies(dragonId, SPECIES_DRAGON);
+
+        if(amount < Dragon.MIN_FIREPOWER)
+        {
+            throw new IllegalArgumentException("Firepower cannot be negative");
+        }
+
+        setResource(dragonId, Math.min(resources[dragonId] + amount, Dragon.MAX_FIREPOWER));
+    }
+
+    /**
+     * Makes an elf cast a spell at a target, following {@link Elf#castSpell(Creature)}.
+     *
+     * @param elfId    the id of the elf.
+     * @param targetId the id of the creature hit.
+     * @throws IllegalArgumentException if {@code elfId} is not an elf or {@code targetId} is unknown.
+     * @throws LowManaException         if the current mana is lower than MANA_SPELL_COST.
+     */
+    void castSpell(final int elfId,
+                   final int targetId)
+    throws LowManaException
+    {
+        final CombatMetrics.Cell metrics;
+        final long               start;
+
+        validateSpecies(elfId, SPECIES_ELF);
+        validateId(targetId);
+
+        metrics = CombatMetrics.cell();
+        start   = CombatMetrics.startTimer(metrics, CombatMetrics.CAST_SPELL);
+
+        if(resources[elfId] < Elf.MANA_SPELL_COST)
+        {
+            CombatMetrics.failure(metrics, CombatMetrics.CAST_SPELL, CombatMetrics.LOW_MANA, start);
+            throw new LowManaException("couldn't cast spell. Mana is too low. " + "[" + resources[elfId] + "]");
+        }
+
+        setResource(elfId, resources[elfId] - Elf.MANA_SPELL_COST);
+        CombatMetrics.hit(metrics,
+                          CombatMetrics.CAST_SPELL,
+                          loseHealth(targetId, Elf.SPELL_POWER),
+                          Elf.SPELL_POWER,
+                          start);
+    }
+
+    /**
+     * Restores the mana of an elf, following {@link Elf#restoreMana(int)}.
+     *
+     * @param elfId  the id of the elf.
+     * @param amount the amount of mana to restore.
+     * @throws IllegalArgumentException if {@code elfId} is not an elf or {@code amount}
+     *                                  is outside {@code MIN_MANA} to {@code MAX_MANA}.
+     */
+    void restoreMana(final int elfId,
+                     final int amount)
+    {
+        validateSpecies(elfId, SPECIES_ELF);
+
+        if(amount < Elf.MIN_MANA || amount > Elf.MAX_MANA)
+        {
+            throw new IllegalArgumentException("Invalid mana amount: " + amount);
+        }
+
+        setResource(elfId, Math.min(resources[elfId] + amount, Elf.MAX_MANA));
+    }
+
+    /**
+     * Makes an orc go berserk against a target, following {@link Orc#berserk(Creature)}.
+     *
+     * @param orcId    the id of the orc.
+     * @param targetId the id of the creature hit.
+     * @throws IllegalArgumentException if {@code orcId} is not an orc or {@code targetId} is unknown.
+     * @throws LowRageException         if {@code rage} is less than {@code MIN_RAGE}
+     */
+    void berserk(final int orcId,
+                 final int targetId)
+    {
+        final CombatMetrics.Cell metrics;
+        final long               start;
+        int                      damage;
+
+        validateSpecies(orcId, SPECIES_ORC);
+        validateId(targetId);
+
+        metrics = CombatMetrics.cell();
+        start   = CombatMetrics.startTimer(metrics, CombatMetrics.BERSERK);
+        damage  = 0;
+
+        if(resources[orcId] > Orc.RAGE_BOOST_REQUIREMENT)
+        {
+            damage = Orc.RAGE_NORMAL_DAMAGE * Orc.RAGE_BOOST_MODIFIER;
+            setResource(orcId, resources[orcId] + Orc.BERSERK_RAGE_INCREASE);
+        }
+        if(resources[orcId] < Orc.MIN_RAGE)
+        {
+            CombatMetrics.failure(metrics, CombatMetrics.BERSERK, CombatMetrics.LOW_RAGE, start);
+            throw new LowRageException("rage too low: [" + resources[orcId] + "]");
+        } else if(resources[orcId] < Orc.RAGE_BOOST_REQUIREMENT)
+        {
+            damage = Orc.RAGE_NORMAL_DAMAGE;
+            setResource(orcId, resources[orcId] + Orc.BERSERK_RAGE_INCREASE);
+        }
+
+        if(damage > 0)
+        {
+            CombatMetrics.hit(metrics, CombatMetrics.BERSERK, loseHealth(targetId, damage), damage, start);
+        } else
+        {
+            CombatMetrics.attacked(metrics, CombatMetrics.BERSERK, start);
+        }
+    }
+
+    /**
+     * Appends the text {@code getDetails} prints for the creature, without the
+     * trailing line separator, straight from the pool's columns.
+     *
+     * @param id  the id of the creature.
+     * @param out the destination.
+     * @throws IOException if {@code out} fails.
+     */
+    void appendDetails(final int id,
+                       final Appendable out) throws IOException
+    {
+        validateId(id);
+
+        out.append(names[id]);
+        out.append(", born on ");
+        Date.fromPackedDate(birthDates[id]).appendTo(out);
+        out.append(" (");
+        Digits.append(out, Creature.CURRENT_YEAR - Date.packedYear(birthDates[id]));
+        out.append(") has ");
+        Digits.append(out, health[id]);
+        out.append(" health and has ");
+        Digits.append(out, resources[id]);
+        out.append(' ');
+        out.append(speciesTable.resourceName(species[id]));
+        out.append(" left.");
+    }
+
+    /**
+     * Returns a {@link Creature} backed by this pool, so a pooled creature can be
+     * the target of existing code such as {@link Dragon#breathFire(Creature)}.
+     * Reads and writes through the view go straight to the pool's columns. The view
+     * is never a {@link Dragon}, {@link Elf} or {@link Orc}, so it cannot attack;
+     * use the id based attack methods of this pool for that.
+     *
+     * @param id the id of the creature.
+     * @return a {@link PooledCreature} view of the creature.
+     */
+    PooledCreature view(final int id)
+    {
+        validateId(id);
+        return new PooledCreature(this, id);
+    }
+}
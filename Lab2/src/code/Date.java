@@ -1,8 +1,21 @@
 
 
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Objects;
+
 /**
  * Represents a date, with the capability of calculating the day of week.
  *
+ * <p>A date is stored as a single packed {@code int} (year, month and day bit fields).
+ * Days in month, day of week and epoch day are looked up in tables built once for
+ * every month from {@code EARLIEST_SUPPORTED_YEAR} to {@code CURRENT_YEAR}.</p>
+ *
+ * <p>{@link #of(int, int, int)} returns one shared instance per date, so dates
+ * obtained from it can be compared with {@code ==}.</p>
+ *
  * @author Felix Nguyen
  * @author Justin Cardas
  * @author Armaan Brar
@@ -61,6 +74,34 @@ public class Date
     private static final int TWO;
     private static final int ZERO;
 
+    // packed date layout: year << PACKED_YEAR_SHIFT | month << PACKED_MONTH_SHIFT | day
+    private static final int PACKED_MONTH_SHIFT;
+    private static final int PACKED_YEAR_SHIFT;
+    private static final int PACKED_DAY_MASK;
+    private static final int PACKED_MONTH_MASK;
+
+    // ISO 8601 text, YYYY-MM-DD: field offsets and two-digit tables indexed by 0 to 99
+    static final int ISO_LENGTH;
+
+    private static final int    ISO_MONTH_OFFSET;
+    private static final int    ISO_DAY_OFFSET;
+    private static final char   ISO_SEPARATOR;
+    private static final char   ZERO_DIGIT;
+    private static final int    RADIX;
+    private static final char[] TENS_DIGITS;
+    private static final char[] ONES_DIGITS;
+
+    // per month tables, indexed by (year - EARLIEST_SUPPORTED_YEAR) * MONTHS_IN_YEAR + (month - FIRST_MONTH)
+    private static final int    SUPPORTED_MONTHS;
+    private static final byte[] MONTH_LENGTHS;
+    private static final byte[] WEEKDAY_OFFSETS;
+    private static final int[]  MONTH_START_EPOCH_DAYS;
+    private static final int    SUPPORTED_DAYS;
+
+    // shared instances returned by of(), indexed by epoch day and filled on first use
+    private static final Date[]    CANONICAL_DATES;
+    private static final VarHandle CANONICAL_DATE_SLOT;
+
     static
     {
         // year range
@@ -116,12 +157,61 @@ public class Date
         FOUR             = 4;
         TWO              = 2;
         ZERO             = 0;
+
+        PACKED_MONTH_SHIFT = 5;
+        PACKED_YEAR_SHIFT  = 9;
+        PACKED_DAY_MASK    = 0x1F;
+        PACKED_MONTH_MASK  = 0xF;
+
+        ISO_LENGTH       = 10;
+        ISO_MONTH_OFFSET = 5;
+        ISO_DAY_OFFSET   = 8;
+        ISO_SEPARATOR    = '-';
+        ZERO_DIGIT       = '0';
+        RADIX            = 10;
+        TENS_DIGITS      = new char[ONE_HUNDRED];
+        ONES_DIGITS      = new char[ONE_HUNDRED];
+
+        for(int i = ZERO; i < ONE_HUNDRED; i++)
+        {
+            TENS_DIGITS[i] = (char) (ZERO_DIGIT + i / RADIX);
+            ONES_DIGITS[i] = (char) (ZERO_DIGIT + i % RADIX);
+        }
+
+        SUPPORTED_MONTHS       = (CURRENT_YEAR - EARLIEST_SUPPORTED_YEAR + 1) * MONTHS_IN_YEAR;
+        MONTH_LENGTHS          = new byte[SUPPORTED_MONTHS];
+        WEEKDAY_OFFSETS        = new byte[SUPPORTED_MONTHS];
+        MONTH_START_EPOCH_DAYS = new int[SUPPORTED_MONTHS];
+
+        int epochDay;
+
+        epochDay = ZERO;
+
+        for(int year = EARLIEST_SUPPORTED_YEAR; year <= CURRENT_YEAR; year++)
+        {
+            for(int month = FIRST_MONTH; month <= MONTHS_IN_YEAR; month++)
+            {
+                final int index;
+
+                index = monthIndex(year, month);
+
+                // The weekday formula only adds the day at the end, so its value for day 0
+                // is an offset that the day of the month is added to.
+                MONTH_LENGTHS[index]          = (byte) calculateNumberOfDays(year, month);
+                WEEKDAY_OFFSETS[index]        = (byte) calculateWeekdayCode(year, month, ZERO);
+                MONTH_START_EPOCH_DAYS[index] = epochDay;
+
+                epochDay += MONTH_LENGTHS[index];
+            }
+        }
+
+        SUPPORTED_DAYS = epochDay;
+
+        CANONICAL_DATES     = new Date[SUPPORTED_DAYS];
+        CANONICAL_DATE_SLOT = MethodHandles.arrayElementVarHandle(Date[].class);
     }
 
-    private final int    day;
-    private final int    month;
-    private final int    year;
-    private final String dayOfWeek;
+    private final int packed;
 
     /**
      * Constructs a Date object. Validates whether the given parameters
@@ -138,10 +228,565 @@ public class Date
         validateYear(year);
         validateMonth(month);
         validateDay(year, month, day);
-        this.day       = day;
-        this.month     = month;
-        this.year      = year;
-        this.dayOfWeek = calculateDayOfWeek(year, month, day);
+        this.packed = pack(day, month, year);
+    }
+
+    /*
+        Constructs a Date from an already validated packed date.
+     */
+    private Date(final int packed)
+    {
+        this.packed = packed;
+    }
+
+    /**
+     * Gets the Date for a packed date produced by {@link #getPackedDate()}.
+     *
+     * @param packedDate the packed date
+     * @return the Date
+     * @throws IllegalArgumentException if the packed date is not a valid date
+     */
+    static Date fromPackedDate(final int packedDate)
+    {
+        return of(packedDay(packedDate), packedMonth(packedDate), packedYear(packedDate));
+    }
+
+    /**
+     * Gets the shared Date for a day, month and year. Validates the date like the
+     * constructor, but every call with the same date returns the same instance.
+     *
+     * @param day   an int for the day
+     * @param month an int for the month
+     * @param year  an int for the year
+     * @return the shared Date
+     * @throws IllegalArgumentException if the parameters are not a valid date
+     */
+    public static Date of(final int day,
+                          final int month,
+                          final int year)
+    {
+        validateYear(year);
+        validateMonth(month);
+        validateDay(year, month, day);
+
+        return canonical(MONTH_START_EPOCH_DAYS[monthIndex(year, month)] + day - FIRST_DAY,
+                         pack(day, month, year));
+    }
+
+    /*
+        Returns the shared Date for an epoch day, creating it on first use.
+        If two threads race, compare-and-set keeps the first one so every
+        caller sees the same instance.
+     */
+    private static Date canonical(final int epochDay,
+                                  final int packed)
+    {
+        final Date cached;
+        final Date created;
+        final Date winner;
+
+        cached = CANONICAL_DATES[epochDay];
+
+        if(cached != null)
+        {
+            return cached;
+        }
+
+        created = new Date(packed);
+        winner  = (Date) CANONICAL_DATE_SLOT.compareAndExchange(CANONICAL_DATES, epochDay, null, created);
+
+        return winner == null
+               ? created
+               : winner;
+    }
+
+    /**
+     * Gets the Date a number of days after January 1 of {@code EARLIEST_SUPPORTED_YEAR}.
+     *
+     * @param epochDay the number of days since January 1 of {@code EARLIEST_SUPPORTED_YEAR}
+     * @return the Date
+     * @throws IllegalArgumentException if the epoch day is outside the supported years
+     */
+    static Date ofEpochDay(final int epochDay)
+    {
+        int index;
+
+        if(epochDay < ZERO || epochDay >= SUPPORTED_DAYS)
+        {
+            throw new IllegalArgumentException("Epoch day must be between 0 and " + (SUPPORTED_DAYS - 1));
+        }
+
+        index = Arrays.binarySearch(MONTH_START_EPOCH_DAYS, epochDay);
+
+        if(index < ZERO)
+        {
+            // insertion point minus one: the month that starts before epochDay
+            index = -index - TWO;
+        }
+
+        return canonical(epochDay,
+                         pack(epochDay - MONTH_START_EPOCH_DAYS[index] + FIRST_DAY,
+                              index % MONTHS_IN_YEAR + FIRST_MONTH,
+                              index / MONTHS_IN_YEAR + EARLIEST_SUPPORTED_YEAR));
+    }
+
+    /**
+     * Parses a date in ISO 8601 {@code YYYY-MM-DD} format, such as {@code 2006-01-20},
+     * and validates it like {@link #of(int, int, int)}.
+     *
+     * @param text the date text, exactly {@code ISO_LENGTH} characters
+     * @return the shared Date
+     * @throws IllegalArgumentException if the text is not in YYYY-MM-DD format or is not a valid date
+     */
+    public static Date parse(final CharSequence text)
+    {
+        final int year;
+        final int month;
+        final int day;
+
+        if(text == null || text.length() != ISO_LENGTH)
+        {
+            throw new IllegalArgumentException("Date must be in YYYY-MM-DD format: " + text);
+        }
+
+        year  = digits(text, ZERO, ISO_MONTH_OFFSET - 1);
+        month = digits(text, ISO_MONTH_OFFSET, TWO);
+        day   = digits(text, ISO_DAY_OFFSET, TWO);
+
+        if(year < ZERO || month < ZERO || day < ZERO ||
+           text.charAt(ISO_MONTH_OFFSET - 1) != ISO_SEPARATOR ||
+           text.charAt(ISO_DAY_OFFSET - 1) != ISO_SEPARATOR)
+        {
+            throw new IllegalArgumentException("Date must be in YYYY-MM-DD format: " + text);
+        }
+
+        return of(day, month, year);
+    }
+
+    /**
+     * Parses a column of {@code count} dates stored back to back as
+     * {@code ISO_LENGTH} bytes of ASCII {@code YYYY-MM-DD} each, and writes their
+     * packed dates.
+     *
+     * @param text        the ASCII text
+     * @param textOffset  the index of the first byte of the first date
+     * @param packedDates the destination of the packed dates
+     * @param from        the index of the first packed date to write
+     * @param count       the number of dates
+     * @throws IllegalArgumentException  if a date is not in YYYY-MM-DD format or is not a valid date
+     * @throws IndexOutOfBoundsException if either array is too short
+     */
+    static void parseColumn(final byte[] text,
+                            final int textOffset,
+                            final int[] packedDates,
+                            final int from,
+                            final int count)
+    {
+        Objects.checkFromIndexSize(textOffset, count * ISO_LENGTH, text.length);
+        Objects.checkFromIndexSize(from, count, packedDates.length);
+
+        for(int i = ZERO; i < count; i++)
+        {
+            final int    at;
+            final int    year;
+            final int    month;
+            final int    day;
+            final String problem;
+
+            at    = textOffset + i * ISO_LENGTH;
+            year  = digits(text, at, ISO_MONTH_OFFSET - 1);
+            month = digits(text, at + ISO_MONTH_OFFSET, TWO);
+            day   = digits(text, at + ISO_DAY_OFFSET, TWO);
+
+            if(year < ZERO || month < ZERO || day < ZERO ||
+               text[at + ISO_MONTH_OFFSET - 1] != ISO_SEPARATOR ||
+               text[at + ISO_DAY_OFFSET - 1] != ISO_SEPARATOR)
+            {
+                throw new IllegalArgumentException("Date " + i + " must be in YYYY-MM-DD format");
+            }
+
+            problem = checkDate(day, month, year);
+
+            if(problem != null)
+            {
+                throw new IllegalArgumentException("Date " + i + ": " + problem);
+            }
+
+            packedDates[from + i] = pack(day, month, year);
+        }
+    }
+
+    /**
+     * Writes a column of packed dates as {@code ISO_LENGTH} bytes of ASCII
+     * {@code YYYY-MM-DD} each, back to back.
+     *
+     * @param packedDates packed dates produced by {@link #getPackedDate()}
+     * @param from        the index of the first packed date
+     * @param count       the number of dates
+     * @param out         the destination
+     * @param outOffset   the index of the first byte to write
+     * @throws IndexOutOfBoundsException if either array is too short
+     */
+    static void formatColumn(final int[] packedDates,
+                             final int from,
+                             final int count,
+                             final byte[] out,
+                             final int outOffset)
+    {
+        Objects.checkFromIndexSize(from, count, packedDates.length);
+        Objects.checkFromIndexSize(outOffset, count * ISO_LENGTH, out.length);
+
+        for(int i = ZERO; i < count; i++)
+        {
+            writeIso(packedDates[from + i], out, outOffset + i * ISO_LENGTH);
+        }
+    }
+
+    /**
+     * Writes a column of packed dates as {@code ISO_LENGTH} characters of
+     * {@code YYYY-MM-DD} each, back to back.
+     *
+     * @param packedDates packed dates produced by {@link #getPackedDate()}
+     * @param from        the index of the first packed date
+     * @param count       the number of dates
+     * @param out         the destination
+     * @param outOffset   the index of the first character to write
+     * @throws IndexOutOfBoundsException if either array is too short
+     */
+    static void formatColumn(final int[] packedDates,
+                             final int from,
+                             final int count,
+                             final char[] out,
+                             final int outOffset)
+    {
+        Objects.checkFromIndexSize(from, count, packedDates.length);
+        Objects.checkFromIndexSize(outOffset, count * ISO_LENGTH, out.length);
+
+        for(int i = ZERO; i < count; i++)
+        {
+            writeIso(packedDates[from + i], out, outOffset + i * ISO_LENGTH);
+        }
+    }
+
+    /**
+     * Gets the weekday codes of a column of dates given as separate year, month and
+     * day columns, the same codes {@link #getWeekday()} would give: 0 (saturday) to
+     * 6 (friday), see {@link Weekday#fromCode(int)}.
+     *
+     * @param years    the years
+     * @param months   the months
+     * @param days     the days
+     * @param from     the index of the first date in the three columns
+     * @param count    the number of dates
+     * @param codes    the destination of the weekday codes
+     * @param codeFrom the index of the first code to write
+     * @throws IllegalArgumentException  if a row is not a valid date
+     * @throws IndexOutOfBoundsException if any array is too short
+     */
+    static void weekdayCodes(final int[] years,
+                             final int[] months,
+                             final int[] days,
+                             final int from,
+                             final int count,
+                             final byte[] codes,
+                             final int codeFrom)
+    {
+        Objects.checkFromIndexSize(from, count, years.length);
+        Objects.checkFromIndexSize(from, count, months.length);
+        Objects.checkFromIndexSize(from, count, days.length);
+        Objects.checkFromIndexSize(codeFrom, count, codes.length);
+
+        for(int i = ZERO; i < count; i++)
+        {
+            final int year;
+            final int month;
+            final int day;
+            final int index;
+
+            year  = years[from + i];
+            month = months[from + i];
+            day   = days[from + i];
+
+            // one sign test for all four bounds; the exact problem is only worked out to throw
+            if(((year - EARLIEST_SUPPORTED_YEAR) | (CURRENT_YEAR - year) |
+                (month - FIRST_MONTH) | (MONTHS_IN_YEAR - month)) < ZERO)
+            {
+                throw invalidRow(from + i, day, month, year);
+            }
+
+            index = monthIndex(year, month);
+
+            if(((day - FIRST_DAY) | (MONTH_LENGTHS[index] - day)) < ZERO)
+            {
+                throw invalidRow(from + i, day, month, year);
+            }
+
+            codes[codeFrom + i] = (byte) ((WEEKDAY_OFFSETS[index] + day) % DAYS_IN_WEEK);
+        }
+    }
+
+    /**
+     * Gets whether each year of a column is a leap year, by the same rule as the
+     * rest of this class, for any year.
+     *
+     * @param years    the years
+     * @param from     the index of the first year
+     * @param count    the number of years
+     * @param leap     the destination, true for a leap year
+     * @param leapFrom the index of the first result to write
+     * @throws IndexOutOfBoundsException if either array is too short
+     */
+    static void leapYears(final int[] years,
+                          final int from,
+                          final int count,
+                          final boolean[] leap,
+                          final int leapFrom)
+    {
+        Objects.checkFromIndexSize(from, count, years.length);
+        Objects.checkFromIndexSize(leapFrom, count, leap.length);
+
+        for(int i = ZERO; i < count; i++)
+        {
+            final int year;
+
+            year = years[from + i];
+
+            // non-short-circuit operators, so the loop body has no branches
+            leap[leapFrom + i] = year % LEAP_YEAR_CYCLE == ZERO &
+                                 year % LEAP_YEAR_EXCEPTION_CYCLE != ZERO |
+                                 year % LEAP_YEAR_EXCEPTION_EXCEPTION_CYCLE == ZERO;
+        }
+    }
+
+    /*
+        The exception for a row of a bulk method that is not a valid date.
+     */
+    private static IllegalArgumentException invalidRow(final int row,
+                                                       final int day,
+                                                       final int month,
+                                                       final int year)
+    {
+        return new IllegalArgumentException("Date " + row + ": " + checkDate(day, month, year));
+    }
+
+    /*
+        Reads count decimal digits of text starting at from.
+        Returns -1 if any of them is not a digit.
+     */
+    private static int digits(final CharSequence text,
+                              final int from,
+                              final int count)
+    {
+        int value;
+
+        value = ZERO;
+
+        for(int i = from; i < from + count; i++)
+        {
+            final int digit;
+
+            digit = text.charAt(i) - ZERO_DIGIT;
+
+            if(digit < ZERO || digit >= RADIX)
+            {
+                return -1;
+            }
+            value = value * RADIX + digit;
+        }
+        return value;
+    }
+
+    /*
+        Reads count decimal ASCII digits of text starting at from.
+        Returns -1 if any of them is not a digit.
+     */
+    private static int digits(final byte[] text,
+                              final int from,
+                              final int count)
+    {
+        int value;
+
+        value = ZERO;
+
+        for(int i = from; i < from + count; i++)
+        {
+            final int digit;
+
+            digit = text[i] - ZERO_DIGIT;
+
+            if(digit < ZERO || digit >= RADIX)
+            {
+                return -1;
+            }
+            value = value * RADIX + digit;
+        }
+        return value;
+    }
+
+    /*
+        Writes the YYYY-MM-DD text of a packed date, two digits at a time.
+     */
+    private static void writeIso(final int packedDate,
+                                 final char[] out,
+                                 final int offset)
+    {
+        final int year;
+        final int month;
+        final int day;
+        final int century;
+        final int yearOfCentury;
+
+        year          = packedYear(packedDate);
+        month         = packedMonth(packedDate);
+        day           = packedDay(packedDate);
+        century       = year / ONE_HUNDRED;
+        yearOfCentury = year - century * ONE_HUNDRED;
+
+        out[offset]     = TENS_DIGITS[century];
+        out[offset + 1] = ONES_DIGITS[century];
+        out[offset + 2] = TENS_DIGITS[yearOfCentury];
+        out[offset + 3] = ONES_DIGITS[yearOfCentury];
+        out[offset + 4] = ISO_SEPARATOR;
+        out[offset + 5] = TENS_DIGITS[month];
+        out[offset + 6] = ONES_DIGITS[month];
+        out[offset + 7] = ISO_SEPARATOR;
+        out[offset + 8] = TENS_DIGITS[day];
+        out[offset + 9] = ONES_DIGITS[day];
+    }
+
+    /*
+        Writes the YYYY-MM-DD ASCII text of a packed date, two digits at a time.
+     */
+    private static void writeIso(final int packedDate,
+                                 final byte[] out,
+                                 final int offset)
+    {
+        final int year;
+        final int month;
+        final int day;
+        final int century;
+        final int yearOfCentury;
+
+        year          = packedYear(packedDate);
+        month         = packedMonth(packedDate);
+        day           = packedDay(packedDate);
+        century       = year / ONE_HUNDRED;
+        yearOfCentury = year - century * ONE_HUNDRED;
+
+        out[offset]     = (byte) TENS_DIGITS[century];
+        out[offset + 1] = (byte) ONES_DIGITS[century];
+        out[offset + 2] = (byte) TENS_DIGITS[yearOfCentury];
+        out[offset + 3] = (byte) ONES_DIGITS[yearOfCentury];
+        out[offset + 4] = (byte) ISO_SEPARATOR;
+        out[offset + 5] = (byte) TENS_DIGITS[month];
+        out[offset + 6] = (byte) ONES_DIGITS[month];
+        out[offset + 7] = (byte) ISO_SEPARATOR;
+        out[offset + 8] = (byte) TENS_DIGITS[day];
+        out[offset + 9] = (byte) ONES_DIGITS[day];
+    }
+
+    /*
+        Packs a day, month and year into a single int.
+     */
+    private static int pack(final int day,
+                            final int month,
+                            final int year)
+    {
+        return (year << PACKED_YEAR_SHIFT) | (month << PACKED_MONTH_SHIFT) | day;
+    }
+
+    /**
+     * Gets the year of a packed date.
+     *
+     * @param packedDate the packed date
+     * @return the year as an int
+     */
+    static int packedYear(final int packedDate)
+    {
+        return packedDate >>> PACKED_YEAR_SHIFT;
+    }
+
+    /**
+     * Gets the month of a packed date.
+     *
+     * @param packedDate the packed date
+     * @return the month as an int
+     */
+    static int packedMonth(final int packedDate)
+    {
+        return (packedDate >>> PACKED_MONTH_SHIFT) & PACKED_MONTH_MASK;
+    }
+
+    /**
+     * Gets the day of a packed date.
+     *
+     * @param packedDate the packed date
+     * @return the day as an int
+     */
+    static int packedDay(final int packedDate)
+    {
+        return packedDate & PACKED_DAY_MASK;
+    }
+
+    /**
+     * Gets the epoch day of a valid packed date without looking up its Date.
+     *
+     * @param packedDate a packed date produced by {@link #getPackedDate()}
+     * @return the number of days since January 1 of {@code EARLIEST_SUPPORTED_YEAR}
+     */
+    static int packedEpochDay(final int packedDate)
+    {
+        return MONTH_START_EPOCH_DAYS[monthIndex(packedYear(packedDate), packedMonth(packedDate))] +
+               packedDay(packedDate) - FIRST_DAY;
+    }
+
+    /**
+     * @return the number of days from January 1 of {@code EARLIEST_SUPPORTED_YEAR}
+     *         to the end of the current year, the range of {@link #ofEpochDay(int)}
+     */
+    static int supportedDays()
+    {
+        return SUPPORTED_DAYS;
+    }
+
+    /*
+        Gets the index of a supported year and month in the per month tables.
+     */
+    private static int monthIndex(final int year,
+                                  final int month)
+    {
+        return (year - EARLIEST_SUPPORTED_YEAR) * MONTHS_IN_YEAR + (month - FIRST_MONTH);
+    }
+
+    /**
+     * Checks a day, month and year with the same rules as the constructor, without throwing.
+     *
+     * @param day   an int for the day
+     * @param month an int for the month
+     * @param year  an int for the year
+     * @return null if the parameters are a valid date, otherwise why they are not
+     */
+    static String checkDate(final int day,
+                            final int month,
+                            final int year)
+    {
+        final String yearProblem;
+        final String monthProblem;
+
+        yearProblem = checkYear(year);
+
+        if(yearProblem != null)
+        {
+            return yearProblem;
+        }
+
+        monthProblem = checkMonth(month);
+
+        if(monthProblem != null)
+        {
+            return monthProblem;
+        }
+        return checkDay(year, month, day);
     }
 
     /*
@@ -150,15 +795,31 @@ public class Date
          Throws IllegalArgumentException if invalid.
      */
     private static void validateYear(final int year)
+    {
+        final String problem;
+
+        problem = checkYear(year);
+
+        if(problem != null)
+        {
+            throw new IllegalArgumentException(problem);
+        }
+    }
+
+    /*
+        The rule behind validateYear. Returns null if valid, otherwise why not.
+     */
+    private static String checkYear(final int year)
     {
         if(year < EARLIEST_SUPPORTED_YEAR)
         {
-            throw new IllegalArgumentException("Year must be >=" + EARLIEST_SUPPORTED_YEAR);
+            return "Year must be >=" + EARLIEST_SUPPORTED_YEAR;
         }
         if(year > CURRENT_YEAR)
         {
-            throw new IllegalArgumentException("Year must be <=" + CURRENT_YEAR);
+            return "Year must be <=" + CURRENT_YEAR;
         }
+        return null;
     }
 
     /*
@@ -166,15 +827,31 @@ public class Date
         Throws IllegalArgumentException if invalid.
      */
     private static void validateMonth(final int month)
+    {
+        final String problem;
+
+        problem = checkMonth(month);
+
+        if(problem != null)
+        {
+            throw new IllegalArgumentException(problem);
+        }
+    }
+
+    /*
+        The rule behind validateMonth. Returns null if valid, otherwise why not.
+     */
+    private static String checkMonth(final int month)
     {
         if(month < FIRST_MONTH)
         {
-            throw new IllegalArgumentException("Month must be >=" + FIRST_MONTH);
+            return "Month must be >=" + FIRST_MONTH;
         }
         if(month > MONTHS_IN_YEAR)
         {
-            throw new IllegalArgumentException("Month must be <=" + MONTHS_IN_YEAR);
+            return "Month must be <=" + MONTHS_IN_YEAR;
         }
+        return null;
     }
 
     /*
@@ -184,22 +861,40 @@ public class Date
     private static void validateDay(final int year,
                                     final int month,
                                     final int day)
+    {
+        final String problem;
+
+        problem = checkDay(year, month, day);
+
+        if(problem != null)
+        {
+            throw new IllegalArgumentException(problem);
+        }
+    }
+
+    /*
+        The rule behind validateDay. Returns null if valid, otherwise why not.
+     */
+    private static String checkDay(final int year,
+                                   final int month,
+                                   final int day)
     {
         final int numberOfDays;
-        numberOfDays = calculateNumberOfDays(year, month);
+        numberOfDays = MONTH_LENGTHS[monthIndex(year, month)];
         if(day < FIRST_DAY)
         {
-            throw new IllegalArgumentException("Day must be >=" + FIRST_DAY);
+            return "Day must be >=" + FIRST_DAY;
         }
         if(day > numberOfDays)
         {
-            throw new IllegalArgumentException("Day must be <=" + numberOfDays);
+            return "Day must be <=" + numberOfDays;
         }
+        return null;
     }
 
     /*
         Calculates how many days are in a month of a particular year,
-        considering leap years.
+        considering leap years. Only used to build MONTH_LENGTHS.
      */
     private static int calculateNumberOfDays(final int year,
                                              final int month)
@@ -275,8 +970,10 @@ public class Date
         a) for January/February dates in leap years, add 6 at the start
         b) for all dates in the 2000s, add 6 at the start
         c) for all dates in the 1800s, add 2 at the start
+
+        Only used to build WEEKDAY_OFFSETS. Returns the weekday code from step 7.
      */
-    private static String calculateDayOfWeek(final int year,
+    private static int calculateWeekdayCode(final int year,
                                              final int month,
                                              final int day)
     {
@@ -329,17 +1026,7 @@ public class Date
             default -> throw new IllegalStateException("Unexpected value: " + month);
         };
         valueStep6 = valueStep5 % DAYS_IN_WEEK;
-        return switch(valueStep6)
-        {
-            case 0 -> "saturday";
-            case 1 -> "sunday";
-            case 2 -> "monday";
-            case 3 -> "tuesday";
-            case 4 -> "wednesday";
-            case 5 -> "thursday";
-            case 6 -> "friday";
-            default -> throw new IllegalStateException("Unexpected value: " + valueStep6);
-        };
+        return valueStep6;
     }
 
     /**
@@ -349,7 +1036,7 @@ public class Date
      */
     public int getYear()
     {
-        return year;
+        return packedYear(packed);
     }
 
     /**
@@ -359,7 +1046,7 @@ public class Date
      */
     public int getMonth()
     {
-        return month;
+        return packedMonth(packed);
     }
 
     /**
@@ -369,7 +1056,7 @@ public class Date
      */
     public int getDay()
     {
-        return day;
+        return packedDay(packed);
     }
 
     /**
@@ -379,20 +1066,124 @@ public class Date
      */
     public String getDayOfWeek()
     {
-        return dayOfWeek;
+        return getWeekday().getDisplayName();
+    }
+
+    /**
+     * Gets the week day
+     *
+     * @return the week day as a Weekday
+     */
+    public Weekday getWeekday()
+    {
+        final int offset;
+
+        offset = WEEKDAY_OFFSETS[monthIndex(getYear(), getMonth())];
+
+        return Weekday.fromCode((offset + getDay()) % DAYS_IN_WEEK);
     }
 
     /**
-     * Gets the date in YYYY-MM-DD format.
+     * Gets the date as a single packed int. Packed dates sort in date order.
+     *
+     * @return the packed date
+     */
+    int getPackedDate()
+    {
+        return packed;
+    }
+
+    /**
+     * Gets the number of days since January 1 of {@code EARLIEST_SUPPORTED_YEAR}.
+     *
+     * @return the epoch day as an int
+     */
+    int toEpochDay()
+    {
+        return MONTH_START_EPOCH_DAYS[monthIndex(getYear(), getMonth())] + getDay() - FIRST_DAY;
+    }
+
+    /**
+     * Gets the date in YYYY-MM-DD format, zero padded, e.g. 2006-01-20.
      *
      * @return the date as a String
      */
     public String getYyyyMmDd()
     {
-        return String.format("%d-%d-%d",
-                             this.year,
-                             this.month,
-                             this.day);
+        final char[] text;
+
+        text = new char[ISO_LENGTH];
+
+        writeIso(packed, text, ZERO);
+
+        return new String(text);
+    }
+
+    /**
+     * Writes the date in YYYY-MM-DD format, zero padded, into {@code out}.
+     *
+     * @param out    the destination
+     * @param offset the index of the first character to write
+     * @return the index after the last character written
+     * @throws IndexOutOfBoundsException if {@code out} has no room for {@code ISO_LENGTH} characters at {@code offset}
+     */
+    public int formatIso(final char[] out,
+                         final int offset)
+    {
+        Objects.checkFromIndexSize(offset, ISO_LENGTH, out.length);
+
+        writeIso(packed, out, offset);
+
+        return offset + ISO_LENGTH;
+    }
+
+    /**
+     * Writes the date in YYYY-MM-DD format, zero padded, into {@code out} as ASCII.
+     *
+     * @param out    the destination
+     * @param offset the index of the first byte to write
+     * @return the index after the last byte written
+     * @throws IndexOutOfBoundsException if {@code out} has no room for {@code ISO_LENGTH} bytes at {@code offset}
+     */
+    public int formatIso(final byte[] out,
+                         final int offset)
+    {
+        Objects.checkFromIndexSize(offset, ISO_LENGTH, out.length);
+
+        writeIso(packed, out, offset);
+
+        return offset + ISO_LENGTH;
+    }
+
+    /**
+     * Checks whether another object is a Date for the same day.
+     *
+     * @param other the object to compare with
+     * @return true if {@code other} is a Date with the same year, month and day
+     */
+    @Override
+    public boolean equals(final Object other)
+    {
+        if(this == other)
+        {
+            return true;
+        }
+        if(!(other instanceof Date))
+        {
+            return false;
+        }
+        return this.packed == ((Date) other).packed;
+    }
+
+    /**
+     * Gets a hash code consistent with {@link #equals(Object)}.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode()
+    {
+        return Integer.hashCode(packed);
     }
 
     /**
@@ -420,7 +1211,45 @@ public class Date
         final String        monthName;
         final StringBuilder humanReadableDate;
 
-        monthName = switch(this.month)
+        monthName = monthName(getMonth());
+
+        humanReadableDate = new StringBuilder();
+        humanReadableDate.append(getDayOfWeek());
+        humanReadableDate.append(", ");
+        humanReadableDate.append(monthName);
+        humanReadableDate.append(" ");
+        humanReadableDate.append(getDay());
+        humanReadableDate.append(", ");
+        humanReadableDate.append(getYear());
+
+        return humanReadableDate.toString();
+    }
+
+    /**
+     * Appends the same text as {@link #toString()} to {@code out}
+     * without creating any intermediate objects.
+     *
+     * @param out the destination.
+     * @throws IOException if {@code out} fails.
+     */
+    void appendTo(final Appendable out) throws IOException
+    {
+        out.append(getDayOfWeek());
+        out.append(", ");
+        out.append(monthName(getMonth()));
+        out.append(" ");
+        Digits.append(out, getDay());
+        out.append(", ");
+        Digits.append(out, getYear());
+    }
+
+    /*
+        Converts a month number into its full English name.
+        Throws IllegalStateException if the month is not between 1 and 12.
+     */
+    private static String monthName(final int month)
+    {
+        return switch(month)
         {
             case 1 -> "January";
             case 2 -> "February";
@@ -434,18 +1263,7 @@ public class Date
             case 10 -> "October";
             case 11 -> "November";
             case 12 -> "December";
-            default -> throw new IllegalStateException("Unexpected value: " + this.month);
+            default -> throw new IllegalStateException("Unexpected value: " + month);
         };
-
-        humanReadableDate = new StringBuilder();
-        humanReadableDate.append(this.dayOfWeek);
-        humanReadableDate.append(", ");
-        humanReadableDate.append(monthName);
-        humanReadableDate.append(" ");
-        humanReadableDate.append(this.day);
-        humanReadableDate.append(", ");
-        humanReadableDate.append(this.year);
-
-        return humanReadableDate.toString();
     }
-}
\ No newline at end of file
+}
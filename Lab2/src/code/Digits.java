@@ -0,0 +1,68 @@
+import java.io.IOException;
+
+/**
+ * Writes decimal {@code int}s character by character, so numbers can be
+ * appended to an {@link Appendable} without creating a {@code String}.
+ *
+ * @author Justin Cardas
+ * @author Mohammad Sadeghi
+ * @author Armaan Brar
+ * @version 1.0
+ */
+final class Digits
+{
+    private static final int    RADIX;
+    private static final char   ZERO_DIGIT;
+    private static final String MIN_VALUE_DIGITS;
+
+    static
+    {
+        RADIX            = 10;
+        ZERO_DIGIT       = '0';
+        MIN_VALUE_DIGITS = "2147483648";
+    }
+
+    private Digits()
+    {
+    }
+
+    /**
+     * Appends the decimal text of {@code value}, exactly as {@link String#valueOf(int)} would.
+     *
+     * @param out   the destination.
+     * @param value the number to write.
+     * @throws IOException if {@code out} fails.
+     */
+    static void append(final Appendable out,
+                       final int value) throws IOException
+    {
+        int magnitude;
+        int divisor;
+
+        if(value < 0)
+        {
+            out.append('-');
+
+            // -Integer.MIN_VALUE does not fit in an int
+            if(value == Integer.MIN_VALUE)
+            {
+                out.append(MIN_VALUE_DIGITS);
+                return;
+            }
+        }
+
+        magnitude = Math.abs(value);
+        divisor   = 1;
+
+        while(magnitude / divisor >= RADIX)
+        {
+            divisor *= RADIX;
+        }
+
+        while(divisor > 0)
+        {
+            out.append((char) (ZERO_DIGIT + magnitude / divisor % RADIX));
+            divisor /= RADIX;
+        }
+    }
+}
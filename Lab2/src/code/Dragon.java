@@ -1,8 +1,15 @@
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
 /**
  * <P>Represents a dragon which extends {@code Creature} with a firePower amount.</P>
  *
  * <p>Includes methods for breathing fire, and restoring firePower.</p>
  *
+ * <p>{@code firePower} is checked and spent with compare-and-set, so concurrent
+ * attacks never spend firePower the dragon does not have.</p>
+ *
  * @author Justin Cardasddr5 ram
  * @author Mohammad Sadeghi
  * @author Armaan Brar
@@ -10,10 +17,12 @@
  */
 class Dragon extends Creature
 {
-    private static final int MIN_FIREPOWER;
-    private static final int MAX_FIREPOWER;
-    private static final int FIREPOWER_COST;
-    private static final int FIREPOWER_DAMAGE;
+    static final int MIN_FIREPOWER;
+    static final int MAX_FIREPOWER;
+    static final int FIREPOWER_COST;
+    static final int FIREPOWER_DAMAGE;
+
+    private static final VarHandle FIRE_POWER;
 
     static
     {
@@ -21,9 +30,17 @@ class Dragon extends Creature
         MAX_FIREPOWER = 100;
         FIREPOWER_COST = 10;
         FIREPOWER_DAMAGE = 20;
+
+        try
+        {
+            FIRE_POWER = MethodHandles.lookup().findVarHandle(Dragon.class, "firePower", int.class);
+        } catch(ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
     }
 
-    private int firePower;
+    private volatile int firePower;
 
     /**
      * <p>Constructs a new {@code Dragon} object with the specified
@@ -51,16 +68,43 @@ class Dragon extends Creature
     }
 
 
+    /**
+     * Gets the current firePower amount.
+     *
+     * @return int firePower.
+     */
+    int getFirePower()
+    {
+        return this.firePower;
+    }
+
     /*
      * Checks if firePower is less than MIN_FIREPOWER.
      * If true, throws an IllegalArgumentException.
      */
-    private void validateFirePower(final int firePower)
+    static void validateFirePower(final int firePower)
+    {
+        final String problem;
+
+        problem = checkFirePower(firePower);
+
+        if (problem != null)
+        {
+            throw new IllegalArgumentException(problem);
+        }
+    }
+
+    /*
+     * The rule behind validateFirePower, without throwing.
+     * Returns null if firePower is valid, otherwise why it is not.
+     */
+    static String checkFirePower(final int firePower)
     {
         if (firePower < MIN_FIREPOWER)
         {
-            throw new IllegalArgumentException("Firepower cannot be negative.");
+            return "Firepower cannot be negative.";
         }
+        return null;
     }
 
     /**
@@ -83,6 +127,23 @@ class Dragon extends Creature
         System.out.println(details.toString());
     }
 
+    /**
+     * Overrides {@code appendDetails} from parent class and appends the creature's
+     * {@code firePower} amount.
+     *
+     * @param out the destination.
+     * @throws IOException if {@code out} fails.
+     */
+    @Override
+    void appendDetails(final Appendable out) throws IOException
+    {
+        super.appendDetails(out);
+
+        out.append(" and has ");
+        Digits.append(out, this.firePower);
+        out.append(" fire power left.");
+    }
+
     /**
      * <p>Reduces {@code firePower} by {@code FIREPOWER_COST} and deals {@code FIREPOWER_DAMAGE}
      * amount of damage to a creature.</p>
@@ -95,18 +156,93 @@ class Dragon extends Creature
     void breathFire(final Creature creatureHit)
     throws LowFirePowerException
     {
+        final CombatMetrics.Cell metrics;
+        final long               start;
+
         if(creatureHit == null)
         {
             throw new IllegalArgumentException("creatureHit cannot be null.");
         }
-        if(this.firePower < FIREPOWER_COST)
+
+        metrics = CombatMetrics.cell();
+        start   = CombatMetrics.startTimer(metrics, CombatMetrics.BREATH_FIRE);
+
+        if(!spendFirePower())
         {
+            CombatMetrics.failure(metrics, CombatMetrics.BREATH_FIRE, CombatMetrics.LOW_FIRE_POWER, start);
             throw new LowFirePowerException("couldn't breath fire. Fire power too low. " + "[" + this.firePower + "]");
         }
 
-        // Reduce firePower by 10, cause creature hit to take 20 damage.
-        this.firePower -= FIREPOWER_COST;
-        creatureHit.takeDamage(FIREPOWER_DAMAGE);
+        // firePower was reduced by 10, cause creature hit to take 20 damage.
+        CombatMetrics.hit(metrics,
+                          CombatMetrics.BREATH_FIRE,
+                          creatureHit.loseHealth(FIREPOWER_DAMAGE),
+                          FIREPOWER_DAMAGE,
+                          start);
+    }
+
+    /*
+     * Atomically reduces firePower by FIREPOWER_COST.
+     * Returns false, leaving firePower unchanged, if there is not enough firePower.
+     */
+    private boolean spendFirePower()
+    {
+        int current;
+
+        do
+        {
+            current = this.firePower;
+
+            if(current < FIREPOWER_COST)
+            {
+                return false;
+            }
+        } while(!FIRE_POWER.compareAndSet(this, current, current - FIREPOWER_COST));
+
+        return true;
+    }
+
+    /**
+     * <p>Non-throwing variant of {@link #breathFire(Creature)} for simulations where
+     * running out of firePower is expected.</p>
+     * <p>Returns {@link CombatOutcome#TARGET_DEAD} without spending firePower if
+     * {@code creatureHit} is already dead, and {@link CombatOutcome#LOW_RESOURCE}
+     * if {@code firePower} is less than {@code FIREPOWER_COST}.</p>
+     *
+     * @param creatureHit The creature object to be affected.
+     * @return int {@link CombatOutcome} code.
+     * @throws IllegalArgumentException if {@code creatureHit} is {@code null}.
+     **/
+    int tryBreathFire(final Creature creatureHit)
+    {
+        final CombatMetrics.Cell metrics;
+        final long               start;
+
+        if(creatureHit == null)
+        {
+            throw new IllegalArgumentException("creatureHit cannot be null.");
+        }
+        if(!creatureHit.isAlive())
+        {
+            return CombatOutcome.TARGET_DEAD;
+        }
+
+        metrics = CombatMetrics.cell();
+        start   = CombatMetrics.startTimer(metrics, CombatMetrics.BREATH_FIRE);
+
+        if(!spendFirePower())
+        {
+            CombatMetrics.failure(metrics, CombatMetrics.BREATH_FIRE, CombatMetrics.LOW_FIRE_POWER, start);
+            return CombatOutcome.LOW_RESOURCE;
+        }
+
+        CombatMetrics.hit(metrics,
+                          CombatMetrics.BREATH_FIRE,
+                          creatureHit.loseHealth(FIREPOWER_DAMAGE),
+                          FIREPOWER_DAMAGE,
+                          start);
+
+        return CombatOutcome.SUCCESS;
     }
 
     /**
@@ -118,6 +254,9 @@ class Dragon extends Creature
      **/
     void restoreFirePower(int amount)
     {
+        int current;
+        int updated;
+
         if (amount < MIN_FIREPOWER)
         {
             throw new IllegalArgumentException("Firepower cannot be negative");
@@ -125,6 +264,10 @@ class Dragon extends Creature
 
         // Adds the firePower amount to current firePower,
         // or sets the firePower to MAX_FIREPOWER, whichever is lower.
-        this.firePower = Math.min(this.firePower + amount, MAX_FIREPOWER);
+        do
+        {
+            current = this.firePower;
+            updated = Math.min(current + amount, MAX_FIREPOWER);
+        } while(!FIRE_POWER.compareAndSet(this, current, updated));
     }
 }
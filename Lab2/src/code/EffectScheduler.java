@@ -0,0 +1,666 @@
+import java.util.Arrays;
+
+/**
+ * <p>Runs timed effects on the creatures of a {@link CreaturePool}: passive
+ * regeneration of health, firePower or mana every few ticks, and damage over time
+ * such as the burn left by {@link #breathFire(int, int)}.</p>
+ *
+ * <p>Effects wait in a hierarchical timing wheel of {@code LEVELS} wheels of
+ * {@code WHEEL_SIZE} buckets. Level 0 has one bucket per tick for the next
+ * {@code WHEEL_SIZE} ticks, and every level above covers {@code WHEEL_SIZE} times
+ * the span of the one below; its buckets are cascaded down a level whenever the
+ * wheel below wraps around. Scheduling and cancelling an effect are O(1), and each
+ * tick fires the whole bucket of effects due at once.</p>
+ *
+ * <p>A bucket is a plain int array holding the effects themselves, {@code RECORD_INTS}
+ * ints each, so millions of effects cost no object each. An effect that applies
+ * again is copied on to the end of its next bucket, which keeps every tick a
+ * sequential read of one array and a sequential write of another, however the
+ * effects are spread over time. Because an effect moves, a handle names a slot
+ * whose generation is bumped when the effect ends: cancelling only bumps the
+ * generation, and the stale copy is dropped when its bucket comes due.</p>
+ *
+ * <p>A tick applies its effects straight to the pool's columns with the same caps
+ * as {@link CreaturePool#heal(int, int)}, {@link CreaturePool#restoreFirePower(int, int)},
+ * {@link CreaturePool#restoreMana(int, int)} and {@link CreaturePool#takeDamage(int, int)}.
+ * Unlike a heal, regeneration does not bring the dead back: an effect ends once its
+ * creature is dead.</p>
+ *
+ * @author Justin Cardas
+ * @author Mohammad Sadeghi
+ * @author Armaan Brar
+ * @version 1.0
+ */
+final class EffectScheduler
+{
+    // Effect kinds
+    static final int EFFECT_HEAL;
+    static final int EFFECT_RESTORE_FIRE_POWER;
+    static final int EFFECT_RESTORE_MANA;
+    static final int EFFECT_BURN;
+
+    static final int  FOREVER;
+    static final int  BURN_DAMAGE;
+    static final int  BURN_TICKS;
+    static final long NO_EFFECT;
+
+    // Fields of a record
+    private static final int SLOT;
+    private static final int GENERATION;
+    private static final int CREATURE;
+    private static final int KIND;
+    private static final int AMOUNT;
+    private static final int PERIOD;
+    private static final int REMAINING;
+    private static final int DUE;
+    private static final int RECORD_INTS;
+
+    private static final int WHEEL_BITS;
+    private static final int WHEEL_SIZE;
+    private static final int WHEEL_MASK;
+    private static final int LEVELS;
+    private static final int DEFAULT_CAPACITY;
+    private static final int GROWTH_FACTOR;
+
+    static
+    {
+        EFFECT_HEAL               = 0;
+        EFFECT_RESTORE_FIRE_POWER = 1;
+        EFFECT_RESTORE_MANA       = 2;
+        EFFECT_BURN               = 3;
+
+        FOREVER     = -1;
+        BURN_DAMAGE = 2;
+        BURN_TICKS  = 5;
+        NO_EFFECT   = -1L;
+
+        SLOT        = 0;
+        GENERATION  = 1;
+        CREATURE    = 2;
+        KIND        = 3;
+        AMOUNT      = 4;
+        PERIOD      = 5;
+        REMAINING   = 6;
+        DUE         = 7;
+        RECORD_INTS = 8;
+
+        WHEEL_BITS       = 8;
+        WHEEL_SIZE       = 1 << WHEEL_BITS;
+        WHEEL_MASK       = WHEEL_SIZE - 1;
+        LEVELS           = 4;
+        DEFAULT_CAPACITY = 16;
+        GROWTH_FACTOR    = 2;
+    }
+
+    /*
+     * bucketInts counts the ints in use of each bucket. DUE holds the low 32 bits of
+     * the due tick, which is all the wheels need since no wait exceeds
+     * Integer.MAX_VALUE ticks.
+     */
+    private final CreaturePool pool;
+    private final int[][]      buckets;
+    private final int[]        bucketInts;
+    private int[]              spare;
+    private int[]              generations;
+    private int[]              freeSlots;
+    private int                freeCount;
+    private int                used;
+    private int                size;
+    private long               now;
+
+    /**
+     * Constructs a scheduler with no effects for the creatures of {@code pool}.
+     *
+     * @param pool the pool the effects apply to.
+     */
+    EffectScheduler(final CreaturePool pool)
+    {
+        this(pool, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a scheduler with no effects for the creatures of {@code pool}, with
+     * room for {@code capacity} effects before anything needs to grow, however they
+     * are spread over the buckets.
+     *
+     * @param pool     the pool the effects apply to.
+     * @param capacity the initial number of effects to reserve room for.
+     * @throws IllegalArgumentException if {@code pool} is {@code null} or {@code capacity} is
+     *                                  negative or too large.
+     */
+    EffectScheduler(final CreaturePool pool,
+                    final int capacity)
+    {
+        if(pool == null)
+        {
+            throw new IllegalArgumentException("Pool cannot be null");
+        }
+        if(capacity < 0 || capacity > Integer.MAX_VALUE / RECORD_INTS)
+        {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+
+        this.pool        = pool;
+        this.buckets     = new int[LEVELS * WHEEL_SIZE][];
+        this.bucketInts  = new int[LEVELS * WHEEL_SIZE];
+        this.spare       = new int[capacity * RECORD_INTS];
+        this.generations = new int[capacity];
+        this.freeSlots   = new int[capacity];
+        this.freeCount   = 0;
+        this.used        = 0;
+        this.size        = 0;
+        this.now         = 0;
+
+        Arrays.fill(buckets, new int[0]);
+    }
+
+    /**
+     * Schedules an effect.
+     *
+     * @param kind       {@code EFFECT_HEAL}, {@code EFFECT_RESTORE_FIRE_POWER},
+     *                   {@code EFFECT_RESTORE_MANA} or {@code EFFECT_BURN}.
+     * @param creatureId the id of the creature affected.
+     * @param amount     the health, firePower or mana restored, or the damage dealt, each time.
+     * @param delay      the number of ticks until the effect first applies.
+     * @param period     the number of ticks between applications.
+     * @param times      the number of applications, or {@code FOREVER}.
+     * @return long a handle for {@link #cancel(long)}.
+     * @throws IllegalArgumentException if the creature is unknown or cannot receive the
+     *                                  effect, or if any other parameter is invalid.
+     */
+    long schedule(final int kind,
+                  final int creatureId,
+                  final int amount,
+                  final int delay,
+                  final int period,
+                  final int times)
+    {
+        final int   slot;
+        final int   due;
+        final int   bucket;
+        final int   at;
+        final int[] records;
+
+        validateEffect(kind, creatureId, amount);
+
+        if(delay < 1 || period < 1)
+        {
+            throw new IllegalArgumentException("Delay and period must be at least one tick");
+        }
+        if(times < 1 && times != FOREVER)
+        {
+            throw new IllegalArgumentException("Invalid number of applications: " + times);
+        }
+
+        slot    = allocate();
+        due     = (int) now + delay;
+        bucket  = bucketFor(due);
+        at      = reserve(bucket);
+        records = buckets[bucket];
+
+        records[at + SLOT]       = slot;
+        records[at + GENERATION] = generations[slot];
+        records[at + CREATURE]   = creatureId;
+        records[at + KIND]       = kind;
+        records[at + AMOUNT]     = amount;
+        records[at + PERIOD]     = period;
+        records[at + REMAINING]  = times;
+        records[at + DUE]        = due;
+
+        return (long) generations[slot] << Integer.SIZE | slot;
+    }
+
+    /**
+     * Regenerates {@code amount} health, firePower or mana of a creature every
+     * {@code period} ticks until cancelled or the creature dies.
+     *
+     * @param kind       {@code EFFECT_HEAL}, {@code EFFECT_RESTORE_FIRE_POWER} or {@code EFFECT_RESTORE_MANA}.
+     * @param creatureId the id of the creature.
+     * @param amount     the amount restored each time.
+     * @param period     the number of ticks between restores.
+     * @return long a handle for {@link #cancel(long)}.
+     * @throws IllegalArgumentException if {@code kind} is not a regeneration or any parameter is invalid.
+     */
+    long regenerate(final int kind,
+                    final int creatureId,
+                    final int amount,
+                    final int period)
+    {
+        if(kind == EFFECT_BURN)
+        {
+            throw new IllegalArgumentException("Burn is not a regeneration");
+        }
+        return schedule(kind, creatureId, amount, period, period, FOREVER);
+    }
+
+    /**
+     * Makes a dragon breathe fire at a target with {@link CreaturePool#breathFire(int, int)},
+     * then sets the target burning for {@code BURN_DAMAGE} damage on each of the next
+     * {@code BURN_TICKS} ticks.
+     *
+     * @param dragonId the id of the dragon.
+     * @param targetId the id of the creature hit.
+     * @return long a handle for {@link #cancel(long)} of the burn, or {@code NO_EFFECT}
+     *         if the fire already killed the target.
+     * @throws IllegalArgumentException if {@code dragonId} is not a dragon or {@code targetId} is unknown.
+     * @throws LowFirePowerException    if the current firePower amount is lower than FIREPOWER_COST.
+     */
+    long breathFire(final int dragonId,
+                    final int targetId)
+    throws LowFirePowerException
+    {
+        pool.breathFire(dragonId, targetId);
+
+        if(!pool.isAlive(targetId))
+        {
+            return NO_EFFECT;
+        }
+        return schedule(EFFECT_BURN, targetId, BURN_DAMAGE, 1, 1, BURN_TICKS);
+    }
+
+    /**
+     * Cancels an effect before its remaining applications.
+     *
+     * @param handle the handle returned when the effect was scheduled.
+     * @return true if the effect was still scheduled.
+     */
+    boolean cancel(final long handle)
+    {
+        if(!isScheduled(handle))
+        {
+            return false;
+        }
+
+        release((int) handle);
+
+        return true;
+    }
+
+    /**
+     * @param handle the handle returned when the effect was scheduled.
+     * @return true if the effect has applications left and was not cancelled.
+     */
+    boolean isScheduled(final long handle)
+    {
+        final int slot;
+
+        slot = (int) handle;
+
+        return slot >= 0 &&
+               slot < used &&
+               generations[slot] == (int) (handle >>> Integer.SIZE);
+    }
+
+    /**
+     * @return long number of ticks run so far.
+     */
+    long currentTick()
+    {
+        return now;
+    }
+
+    /**
+     * @return int number of effects scheduled.
+     */
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * Advances time by one tick and applies every effect due on it.
+     *
+     * @return int number of effects applied.
+     */
+    int tick()
+    {
+        final int[]       live;
+        final int[]       species;
+        final int[]       health;
+        final int[]       resources;
+        final LivingIndex living;
+        final int         bucket;
+        final int[]       records;
+        final int         end;
+        int               applied;
+        int               deaths;
+        long              damageDealt;
+        long              healthHealed;
+        long              hashChange;
+
+        now++;
+
+        if((now & WHEEL_MASK) == 0)
+        {
+            cascade();
+        }
+
+        live         = generations;
+        species      = pool.speciesColumn();
+        health       = pool.healthColumn();
+        resources    = pool.resourceColumn();
+        living       = pool.living();
+        bucket       = (int) (now & WHEEL_MASK);
+        records      = buckets[bucket];
+        end          = bucketInts[bucket];
+        applied      = 0;
+        deaths       = 0;
+        damageDealt  = 0;
+        healthHealed = 0;
+        hashChange   = 0;
+
+        // nothing is added to the bucket being fired, since every period is at least a tick
+        for(int at = 0; at < end; at += RECORD_INTS)
+        {
+            final int slot;
+            final int id;
+            final int kind;
+            final int amount;
+            final int times;
+            final int before;
+
+            slot = records[at + SLOT];
+
+            if(records[at + GENERATION] != live[slot])
+            {
+                // cancelled
+                continue;
+            }
+
+            id     = records[at + CREATURE];
+            kind   = records[at + KIND];
+            amount = records[at + AMOUNT];
+            times  = records[at + REMAINING];
+            before = health[id];
+
+            if(before == Creature.NO_HEALTH)
+            {
+                // the creature died since the last application
+                release(slot);
+                continue;
+            }
+
+            if(kind == EFFECT_HEAL)
+            {
+                health[id] = Math.min(before + amount, Creature.MAX_HEALTH);
+                healthHealed += health[id] - before;
+                hashChange   ^= WorldHash.healthChange(id, before, health[id]);
+            } else if(kind == EFFECT_RESTORE_FIRE_POWER)
+            {
+                final int restored;
+
+                restored      = Math.min(resources[id] + amount, Dragon.MAX_FIREPOWER);
+                hashChange    ^= WorldHash.resourceChange(id, resources[id], restored);
+                resources[id] = restored;
+            } else if(kind == EFFECT_RESTORE_MANA)
+            {
+                final int restored;
+
+                restored      = Math.min(resources[id] + amount, Elf.MAX_MANA);
+                hashChange    ^= WorldHash.resourceChange(id, resources[id], restored);
+                resources[id] = restored;
+            } else
+            {
+                health[id] = Math.max(before - amount, Creature.NO_HEALTH);
+                damageDealt += before - health[id];
+                hashChange  ^= WorldHash.healthChange(id, before, health[id]);
+
+                if(health[id] == Creature.NO_HEALTH)
+                {
+                    living.markDead(id, species[id]);
+                    deaths++;
+                }
+            }
+
+            applied++;
+
+            if(times == 1)
+            {
+                release(slot);
+            } else
+            {
+                move(records, at, (int) now + records[at + PERIOD], times == FOREVER ? FOREVER : times - 1);
+            }
+        }
+
+        empty(bucket);
+
+        pool.mixStateHash(hashChange);
+        CombatMetrics.effects(damageDealt, healthHealed, deaths);
+
+        return applied;
+    }
+
+    /*
+     * Checks that the creature exists and can receive the effect, with the same
+     * amount rules as the pool methods the effect stands for.
+     */
+    private void validateEffect(final int kind,
+                                final int creatureId,
+                                final int amount)
+    {
+        final int species;
+
+        species = pool.getSpecies(creatureId);
+
+        if(kind == EFFECT_HEAL)
+        {
+            if(amount < Creature.NO_HEALTH)
+            {
+                throw new HealingException("Healing amount cannot be negative.");
+            }
+        } else if(kind == EFFECT_RESTORE_FIRE_POWER)
+        {
+            if(species != CreaturePool.SPECIES_DRAGON)
+            {
+                throw new IllegalArgumentException("Creature " + creatureId + " is not a dragon");
+            }
+            if(amount < Dragon.MIN_FIREPOWER)
+            {
+                throw new IllegalArgumentException("Firepower cannot be negative");
+            }
+        } else if(kind == EFFECT_RESTORE_MANA)
+        {
+            if(species != CreaturePool.SPECIES_ELF)
+            {
+                throw new IllegalArgumentException("Creature " + creatureId + " is not an elf");
+            }
+            if(amount < Elf.MIN_MANA || amount > Elf.MAX_MANA)
+            {
+                throw new IllegalArgumentException("Invalid mana amount: " + amount);
+            }
+        } else if(kind == EFFECT_BURN)
+        {
+            if(amount < Creature.NO_HEALTH)
+            {
+                throw new DamageException("Damage cannot be negative");
+            }
+        } else
+        {
+            throw new IllegalArgumentException("Unknown effect: " + kind);
+        }
+    }
+
+    /*
+     * Moves every effect in the buckets that come due at this tick down the wheels,
+     * from the highest level to the lowest, so an effect cascaded from level 2 into
+     * the level 1 bucket of this tick is cascaded again straight away. Cancelled
+     * effects are dropped on the way.
+     */
+    private void cascade()
+    {
+        for(int level = LEVELS - 1; level > 0; level--)
+        {
+            final int shift;
+
+            shift = WHEEL_BITS * level;
+
+            if((now & ((1L << shift) - 1)) == 0)
+            {
+                final int   bucket;
+                final int[] records;
+                final int   end;
+
+                bucket  = level * WHEEL_SIZE + (int) ((now >>> shift) & WHEEL_MASK);
+                records = buckets[bucket];
+                end     = bucketInts[bucket];
+
+                // every effect moves to a lower level, never back into this bucket
+                for(int at = 0; at < end; at += RECORD_INTS)
+                {
+                    if(records[at + GENERATION] == generations[records[at + SLOT]])
+                    {
+                        move(records, at, records[at + DUE], records[at + REMAINING]);
+                    }
+                }
+
+                empty(bucket);
+            }
+        }
+    }
+
+    /*
+     * Copies the effect at index at of records to the end of the bucket for its new
+     * due tick.
+     */
+    private void move(final int[] records,
+                      final int at,
+                      final int due,
+                      final int times)
+    {
+        final int   bucket;
+        final int   to;
+        final int[] target;
+
+        bucket = bucketFor(due);
+        to     = reserve(bucket);
+        target = buckets[bucket];
+
+        target[to + SLOT]       = records[at + SLOT];
+        target[to + GENERATION] = records[at + GENERATION];
+        target[to + CREATURE]   = records[at + CREATURE];
+        target[to + KIND]       = records[at + KIND];
+        target[to + AMOUNT]     = records[at + AMOUNT];
+        target[to + PERIOD]     = records[at + PERIOD];
+        target[to + REMAINING]  = times;
+        target[to + DUE]        = due;
+    }
+
+    /*
+     * Finds the bucket for a due tick: level 0 if it is due within WHEEL_SIZE ticks,
+     * otherwise the level whose span covers the wait.
+     */
+    private int bucketFor(final int due)
+    {
+        final int wait;
+        final int level;
+
+        wait  = due - (int) now;
+        level = wait < WHEEL_SIZE
+                ? 0
+                : Math.min((Integer.SIZE - 1 - Integer.numberOfLeadingZeros(wait)) / WHEEL_BITS, LEVELS - 1);
+
+        return level * WHEEL_SIZE + ((due >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+    }
+
+    /*
+     * Makes room for one more record at the end of a bucket and returns its index.
+     */
+    private int reserve(final int bucket)
+    {
+        final int at;
+
+        at = bucketInts[bucket];
+
+        if(at == buckets[bucket].length)
+        {
+            growBucket(bucket);
+        }
+
+        bucketInts[bucket] = at + RECORD_INTS;
+
+        return at;
+    }
+
+    /*
+     * Empties a bucket once its effects have been fired or cascaded. Its array is
+     * kept as the spare for the next bucket that needs to grow, so a steady stream
+     * of effects moving from bucket to bucket stops allocating.
+     */
+    private void empty(final int bucket)
+    {
+        final int[] records;
+
+        records            = buckets[bucket];
+        bucketInts[bucket] = 0;
+
+        if(records.length > spare.length)
+        {
+            spare           = records;
+            buckets[bucket] = new int[0];
+        }
+    }
+
+    private void growBucket(final int bucket)
+    {
+        final int[] records;
+        final long  capacity;
+
+        records  = buckets[bucket];
+        capacity = Math.min(Math.max((long) records.length * GROWTH_FACTOR, DEFAULT_CAPACITY * RECORD_INTS),
+                            Integer.MAX_VALUE & -RECORD_INTS);
+
+        if(capacity == records.length)
+        {
+            throw new IllegalStateException("Too many effects due at once");
+        }
+
+        if(spare.length >= capacity)
+        {
+            System.arraycopy(records, 0, spare, 0, records.length);
+            buckets[bucket] = spare;
+            spare           = records;
+        } else
+        {
+            buckets[bucket] = Arrays.copyOf(records, (int) capacity);
+        }
+    }
+
+    private int allocate()
+    {
+        final int slot;
+
+        if(freeCount > 0)
+        {
+            slot = freeSlots[--freeCount];
+        } else
+        {
+            if(used == generations.length)
+            {
+                generations = Arrays.copyOf(generations, Math.max(used * GROWTH_FACTOR, DEFAULT_CAPACITY));
+            }
+            slot = used++;
+        }
+
+        size++;
+
+        return slot;
+    }
+
+    /*
+     * Frees a slot for reuse. Bumping the generation makes old handles to it, and
+     * any copy of its effect still in a bucket, stale.
+     */
+    private void release(final int slot)
+    {
+        generations[slot]++;
+
+        if(freeCount == freeSlots.length)
+        {
+            freeSlots = Arrays.copyOf(freeSlots, Math.max(freeCount * GROWTH_FACTOR, DEFAULT_CAPACITY));
+        }
+
+        freeSlots[freeCount++] = slot;
+        size--;
+    }
+}
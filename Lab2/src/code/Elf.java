@@ -1,6 +1,12 @@
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
 /**
  * Represents an Elf which extends {@code Creature} with a mana amount.
  * Includes methods for castSpell and restoreMana.
+ * {@code mana} is checked and spent with compare-and-set, so it stays consistent
+ * when several threads use the same elf.
  *
  * @author Armaan Brar
  * @author Justin Cardas
@@ -8,10 +14,12 @@
  */
 public class Elf extends Creature
 {
-    private final static int MIN_MANA;
-    private final static int MAX_MANA;
-    private final static int MANA_SPELL_COST;
-    private final static int SPELL_POWER;
+    final static int MIN_MANA;
+    final static int MAX_MANA;
+    final static int MANA_SPELL_COST;
+    final static int SPELL_POWER;
+
+    private final static VarHandle MANA;
 
     static
     {
@@ -19,9 +27,17 @@ public class Elf extends Creature
         MAX_MANA = 50;
         MANA_SPELL_COST = 5;
         SPELL_POWER = 10;
+
+        try
+        {
+            MANA = MethodHandles.lookup().findVarHandle(Elf.class, "mana", int.class);
+        } catch(ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
     }
 
-    private int mana;
+    private volatile int mana;
 
     /**
      * <p>Constructs a new {@code Elf} object with the specified
@@ -48,16 +64,43 @@ public class Elf extends Creature
         this.mana = mana;
     }
 
+    /**
+     * Gets the current mana amount.
+     *
+     * @return int mana.
+     */
+    int getMana()
+    {
+        return this.mana;
+    }
+
     /*
      * Checks if {@code mana} is less than {@code MIN_MANA} or greater than
      * {@code MAX_MANA}, if either is true, throw exception.
      */
-    private static void validateMana(final int mana)
+    static void validateMana(final int mana)
+    {
+        final String problem;
+
+        problem = checkMana(mana);
+
+        if(problem != null)
+        {
+            throw new IllegalArgumentException(problem);
+        }
+    }
+
+    /*
+     * The rule behind validateMana, without throwing.
+     * Returns null if mana is valid, otherwise why it is not.
+     */
+    static String checkMana(final int mana)
     {
         if(mana < MIN_MANA || mana > MAX_MANA)
         {
-            throw new IllegalArgumentException("Invalid mana: " + mana);
+            return "Invalid mana: " + mana;
         }
+        return null;
     }
 
     /**
@@ -79,6 +122,23 @@ public class Elf extends Creature
         System.out.println(details.toString());
     }
 
+    /**
+     * Overrides {@code appendDetails} from parent class and appends the creature's
+     * {@code mana} amount.
+     *
+     * @param out the destination.
+     * @throws IOException if {@code out} fails.
+     */
+    @Override
+    void appendDetails(final Appendable out) throws IOException
+    {
+        super.appendDetails(out);
+
+        out.append(" and has ");
+        Digits.append(out, this.mana);
+        out.append(" mana left.");
+    }
+
     /**
      * <p>Reduces {@code mana} by {@code MANA_SPELL_COST} and deals {@code SPELL_POWER}
      * amount of damage to a creature. If {@code mana} is less than {@code MANA_SPELL_COST}
@@ -89,16 +149,91 @@ public class Elf extends Creature
     void castSpell(Creature creatureHit)
     throws LowManaException
     {
+        final CombatMetrics.Cell metrics;
+        final long               start;
+
         if(creatureHit == null)
         {
             throw new IllegalArgumentException("Creature hit cannot be null");
         }
-        if(this.mana < MANA_SPELL_COST)
+
+        metrics = CombatMetrics.cell();
+        start   = CombatMetrics.startTimer(metrics, CombatMetrics.CAST_SPELL);
+
+        if(!spendMana())
         {
+            CombatMetrics.failure(metrics, CombatMetrics.CAST_SPELL, CombatMetrics.LOW_MANA, start);
             throw new LowManaException("couldn't cast spell. Mana is too low. " + "[" + this.mana + "]");
         }
-        this.mana -= MANA_SPELL_COST;
-        creatureHit.takeDamage(SPELL_POWER);
+        CombatMetrics.hit(metrics,
+                          CombatMetrics.CAST_SPELL,
+                          creatureHit.loseHealth(SPELL_POWER),
+                          SPELL_POWER,
+                          start);
+    }
+
+    /*
+     * Atomically reduces mana by MANA_SPELL_COST.
+     * Returns false, leaving mana unchanged, if there is not enough mana.
+     */
+    private boolean spendMana()
+    {
+        int current;
+
+        do
+        {
+            current = this.mana;
+
+            if(current < MANA_SPELL_COST)
+            {
+                return false;
+            }
+        } while(!MANA.compareAndSet(this, current, current - MANA_SPELL_COST));
+
+        return true;
+    }
+
+    /**
+     * <p>Non-throwing variant of {@link #castSpell(Creature)} for simulations where
+     * running out of mana is expected.</p>
+     * <p>Returns {@link CombatOutcome#TARGET_DEAD} without spending mana if
+     * {@code creatureHit} is already dead, and {@link CombatOutcome#LOW_RESOURCE}
+     * if {@code mana} is less than {@code MANA_SPELL_COST}.</p>
+     *
+     * @param creatureHit The {@link Creature} object to be affected.
+     * @return int {@link CombatOutcome} code.
+     * @throws IllegalArgumentException if {@code creatureHit} is {@code null}.
+     */
+    int tryCastSpell(final Creature creatureHit)
+    {
+        final CombatMetrics.Cell metrics;
+        final long               start;
+
+        if(creatureHit == null)
+        {
+            throw new IllegalArgumentException("Creature hit cannot be null");
+        }
+        if(!creatureHit.isAlive())
+        {
+            return CombatOutcome.TARGET_DEAD;
+        }
+
+        metrics = CombatMetrics.cell();
+        start   = CombatMetrics.startTimer(metrics, CombatMetrics.CAST_SPELL);
+
+        if(!spendMana())
+        {
+            CombatMetrics.failure(metrics, CombatMetrics.CAST_SPELL, CombatMetrics.LOW_MANA, start);
+            return CombatOutcome.LOW_RESOURCE;
+        }
+
+        CombatMetrics.hit(metrics,
+                          CombatMetrics.CAST_SPELL,
+                          creatureHit.loseHealth(SPELL_POWER),
+                          SPELL_POWER,
+                          start);
+
+        return CombatOutcome.SUCCESS;
     }
 
     /**
@@ -111,6 +246,9 @@ public class Elf extends Creature
      */
     void restoreMana(int amount)
     {
+        int current;
+        int updated;
+
         if(amount < MIN_MANA || amount > MAX_MANA)
         {
             throw new IllegalArgumentException("Invalid mana amount: " + amount);
@@ -118,6 +256,10 @@ public class Elf extends Creature
 
         // Adds the mana amount to current mana,
         // or sets the mana to MAX_MANA, whichever is lower.
-        this.mana = Math.min(this.mana + amount, MAX_MANA);
+        do
+        {
+            current = this.mana;
+            updated = Math.min(current + amount, MAX_MANA);
+        } while(!MANA.compareAndSet(this, current, updated));
     }
 }
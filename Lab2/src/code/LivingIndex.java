@@ -0,0 +1,221 @@
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+/**
+ * <p>Tracks which creatures of a {@link CreaturePool} are alive, with one bitset
+ * per species and one for every species.</p>
+ *
+ * <p>The pool keeps the index up to date at the moment a creature is added, its
+ * health drops to {@code NO_HEALTH}, or a heal brings it back, so survivors are
+ * found without looking at the dead: counts are O(1), and walking the living
+ * costs O(result + words) instead of a health check per creature.</p>
+ *
+ * <p>The index starts with room for the three built-in species and grows the
+ * first time a creature of a species from a larger {@link SpeciesTable} is marked
+ * alive; a species nobody of has been alive yet counts as empty.</p>
+ *
+ * @author Justin Cardas
+ * @author Mohammad Sadeghi
+ * @author Armaan Brar
+ * @version 1.0
+ */
+final class LivingIndex
+{
+    private static final int SPECIES_COUNT;
+    private static final int NONE;
+
+    static
+    {
+        SPECIES_COUNT = 3;
+        NONE          = -1;
+    }
+
+    private final BitSet all;
+    private BitSet[]     bySpecies;
+    private int[]        counts;
+
+    /**
+     * Constructs an index in which nobody is alive.
+     */
+    LivingIndex()
+    {
+        this.bySpecies = new BitSet[SPECIES_COUNT];
+        this.all       = new BitSet();
+        this.counts    = new int[SPECIES_COUNT];
+
+        for(int species = 0; species < SPECIES_COUNT; species++)
+        {
+            bySpecies[species] = new BitSet();
+        }
+    }
+
+    /*
+     * Records that a creature has become alive. Only called by CreaturePool, CombatEngine and EffectScheduler.
+     */
+    void markAlive(final int id,
+                   final int species)
+    {
+        if(!all.get(id))
+        {
+            if(species >= counts.length)
+            {
+                addSpecies(species);
+            }
+
+            all.set(id);
+            bySpecies[species].set(id);
+            counts[species]++;
+        }
+    }
+
+    /*
+     * Records that a creature has died. Only called by CreaturePool, CombatEngine and EffectScheduler.
+     */
+    void markDead(final int id,
+                  final int species)
+    {
+        if(all.get(id))
+        {
+            all.clear(id);
+            bySpecies[species].clear(id);
+            counts[species]--;
+        }
+    }
+
+    /**
+     * @param id the id of the creature.
+     * @return true if the creature is alive.
+     */
+    boolean isAlive(final int id)
+    {
+        return all.get(id);
+    }
+
+    /**
+     * @param species the species tag.
+     * @return int number of living creatures of the species.
+     */
+    int count(final int species)
+    {
+        return species < counts.length
+               ? counts[species]
+               : 0;
+    }
+
+    /**
+     * @return int number of living creatures.
+     */
+    int count()
+    {
+        int total;
+
+        total = 0;
+
+        for(final int count : counts)
+        {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Gets the first living creature of a species with an id of at least {@code fromId}.
+     *
+     * @param species the species tag.
+     * @param fromId  the first id to consider.
+     * @return int the id, or -1 if there is none.
+     */
+    int next(final int species,
+             final int fromId)
+    {
+        return species < bySpecies.length
+               ? bySpecies[species].nextSetBit(Math.max(fromId, 0))
+               : NONE;
+    }
+
+    /**
+     * Gets the first living creature of any species with an id of at least {@code fromId}.
+     *
+     * @param fromId the first id to consider.
+     * @return int the id, or -1 if there is none.
+     */
+    int next(final int fromId)
+    {
+        return all.nextSetBit(Math.max(fromId, 0));
+    }
+
+    /**
+     * Gets the next living creature after {@code id}, wrapping around to the lowest
+     * id, for picking the next target of a creature.
+     *
+     * @param id the id to start after.
+     * @return int the id of another living creature, or -1 if no other creature is alive.
+     */
+    int nextAfter(final int id)
+    {
+        int next;
+
+        next = all.nextSetBit(id + 1);
+
+        if(next == NONE)
+        {
+            next = all.nextSetBit(0);
+        }
+
+        return next == id
+               ? NONE
+               : next;
+    }
+
+    /**
+     * @param species the species tag.
+     * @return int[] the ids of every living creature of the species, in order.
+     */
+    int[] ids(final int species)
+    {
+        final int[] ids;
+        int         found;
+
+        ids   = new int[count(species)];
+        found = 0;
+
+        for(int id = next(species, 0); id != NONE; id = next(species, id + 1))
+        {
+            ids[found++] = id;
+        }
+        return ids;
+    }
+
+    /**
+     * Calls {@code action} with the id of every living creature of a species, in order.
+     *
+     * @param species the species tag.
+     * @param action  the action to call.
+     */
+    void forEach(final int species,
+                 final IntConsumer action)
+    {
+        for(int id = next(species, 0); id != NONE; id = next(species, id + 1))
+        {
+            action.accept(id);
+        }
+    }
+
+    /*
+     * Grows the per species bitsets and counts to hold species tags up to species.
+     */
+    private void addSpecies(final int species)
+    {
+        final int previous;
+
+        previous  = counts.length;
+        bySpecies = Arrays.copyOf(bySpecies, species + 1);
+        counts    = Arrays.copyOf(counts, species + 1);
+
+        for(int added = previous; added <= species; added++)
+        {
+            bySpecies[added] = new BitSet();
+        }
+    }
+}
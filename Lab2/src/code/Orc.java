@@ -1,13 +1,20 @@
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
 public class Orc extends Creature
 {
-    private static final int RAGE_BOOST_REQUIREMENT;
-    private static final int BERSERK_RAGE_INCREASE;
-    private static final int RAGE_BOOST_MODIFIER;
-    private static final int MIN_RAGE;
-    private static final int MAX_RAGE;
-    private static final int RAGE_NORMAL_DAMAGE;
+    static final int RAGE_BOOST_REQUIREMENT;
+    static final int BERSERK_RAGE_INCREASE;
+    static final int RAGE_BOOST_MODIFIER;
+    static final int MIN_RAGE;
+    static final int MAX_RAGE;
+    static final int RAGE_NORMAL_DAMAGE;
+
+    private static final int       LOW_RAGE;
+    private static final VarHandle RAGE;
 
-    private int rage;
+    private volatile int rage;
 
     static
     {
@@ -17,6 +24,15 @@ public class Orc extends Creature
         MIN_RAGE               = 5;
         MAX_RAGE               = 30;
         RAGE_NORMAL_DAMAGE     = 15;
+        LOW_RAGE               = -1;
+
+        try
+        {
+            RAGE = MethodHandles.lookup().findVarHandle(Orc.class, "rage", int.class);
+        } catch(ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
     }
 
     /**
@@ -49,16 +65,33 @@ public class Orc extends Creature
      * Checks if rage is less than MIN_RAGE or greater than MAX_RAGE.
      * If true, throws an IllegalArgumentException.
      */
-    private void validateRage(final int rage)
+    static void validateRage(final int rage)
+    {
+        final String problem;
+
+        problem = checkRage(rage);
+
+        if(problem != null)
+        {
+            throw new LowRageException(problem);
+        }
+    }
+
+    /*
+     * The rule behind validateRage, without throwing.
+     * Returns null if rage is valid, otherwise why it is not.
+     */
+    static String checkRage(final int rage)
     {
         if(rage < MIN_RAGE)
         {
-            throw new LowRageException("Rage too low.");
+            return "Rage too low.";
         }
         if(rage > MAX_RAGE)
         {
-            throw new LowRageException("Rage too high.");
+            return "Rage too high.";
         }
+        return null;
     }
 
     /**
@@ -80,6 +113,23 @@ public class Orc extends Creature
         System.out.println(details.toString());
     }
 
+    /**
+     * Overrides {@code appendDetails} from parent class and appends the creature's
+     * {@code rage} amount.
+     *
+     * @param out the destination.
+     * @throws IOException if {@code out} fails.
+     */
+    @Override
+    void appendDetails(final Appendable out) throws IOException
+    {
+        super.appendDetails(out);
+
+        out.append(" and has ");
+        Digits.append(out, this.rage);
+        out.append(" rage left.");
+    }
+
     /**
      * Gets the current rage amount.
      *
@@ -102,22 +152,112 @@ public class Orc extends Creature
      */
     void berserk(Creature creatureHit)
     {
+        final CombatMetrics.Cell metrics;
+        final long               start;
+        final int                damage;
+
         if(creatureHit == null)
         {
             throw new IllegalArgumentException("creatureHit cannot be null");
         }
-        if(rage > RAGE_BOOST_REQUIREMENT)
+
+        metrics = CombatMetrics.cell();
+        start   = CombatMetrics.startTimer(metrics, CombatMetrics.BERSERK);
+        damage  = claimBerserkDamage();
+
+        if(damage == LOW_RAGE)
         {
-            creatureHit.takeDamage(RAGE_NORMAL_DAMAGE * RAGE_BOOST_MODIFIER);
-            this.rage += BERSERK_RAGE_INCREASE;
+            CombatMetrics.failure(metrics, CombatMetrics.BERSERK, CombatMetrics.LOW_RAGE, start);
+            throw new LowRageException("rage too low: [" + rage + "]");
         }
-        if(rage < MIN_RAGE)
+        if(damage > 0)
         {
-            throw new LowRageException("rage too low: [" + rage + "]");
-        } else if(rage < RAGE_BOOST_REQUIREMENT)
+            CombatMetrics.hit(metrics, CombatMetrics.BERSERK, creatureHit.loseHealth(damage), damage, start);
+        } else
         {
-            creatureHit.takeDamage(RAGE_NORMAL_DAMAGE);
-            this.rage += BERSERK_RAGE_INCREASE;
+            CombatMetrics.attacked(metrics, CombatMetrics.BERSERK, start);
         }
     }
+
+    /*
+     * Atomically applies the rage increase of one berserk and returns the damage it deals:
+     * double damage above RAGE_BOOST_REQUIREMENT, normal damage below it, and none at exactly
+     * RAGE_BOOST_REQUIREMENT. Returns LOW_RAGE, leaving rage unchanged, if rage is below MIN_RAGE.
+     */
+    private int claimBerserkDamage()
+    {
+        int current;
+        int updated;
+        int damage;
+
+        do
+        {
+            current = this.rage;
+
+            if(current > RAGE_BOOST_REQUIREMENT)
+            {
+                damage  = RAGE_NORMAL_DAMAGE * RAGE_BOOST_MODIFIER;
+                updated = current + BERSERK_RAGE_INCREASE;
+            } else if(current < MIN_RAGE)
+            {
+                return LOW_RAGE;
+            } else if(current < RAGE_BOOST_REQUIREMENT)
+            {
+                damage  = RAGE_NORMAL_DAMAGE;
+                updated = current + BERSERK_RAGE_INCREASE;
+            } else
+            {
+                damage  = 0;
+                updated = current;
+            }
+        } while(!RAGE.compareAndSet(this, current, updated));
+
+        return damage;
+    }
+
+    /**
+     * <p>Non-throwing variant of {@link #berserk(Creature)} for simulations where
+     * running out of rage is expected.</p>
+     * <p>Returns {@link CombatOutcome#TARGET_DEAD} without changing {@code rage} if
+     * {@code creatureHit} is already dead, and {@link CombatOutcome#LOW_RESOURCE}
+     * where {@code berserk} would throw {@link LowRageException}.</p>
+     *
+     * @param creatureHit The {@link Creature} object to be affected.
+     * @return int {@link CombatOutcome} code.
+     * @throws IllegalArgumentException if {@code creatureHit} is {@code null}
+     */
+    int tryBerserk(final Creature creatureHit)
+    {
+        final CombatMetrics.Cell metrics;
+        final long               start;
+        final int                damage;
+
+        if(creatureHit == null)
+        {
+            throw new IllegalArgumentException("creatureHit cannot be null");
+        }
+        if(!creatureHit.isAlive())
+        {
+            return CombatOutcome.TARGET_DEAD;
+        }
+
+        metrics = CombatMetrics.cell();
+        start   = CombatMetrics.startTimer(metrics, CombatMetrics.BERSERK);
+        damage  = claimBerserkDamage();
+
+        if(damage == LOW_RAGE)
+        {
+            CombatMetrics.failure(metrics, CombatMetrics.BERSERK, CombatMetrics.LOW_RAGE, start);
+            return CombatOutcome.LOW_RESOURCE;
+        }
+        if(damage > 0)
+        {
+            CombatMetrics.hit(metrics, CombatMetrics.BERSERK, creatureHit.loseHealth(damage), damage, start);
+        } else
+        {
+            CombatMetrics.attacked(metrics, CombatMetrics.BERSERK, start);
+        }
+
+        return CombatOutcome.SUCCESS;
+    }
 }
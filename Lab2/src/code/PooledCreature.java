@@ -0,0 +1,165 @@
+import java.io.IOException;
+
+/**
+ * <p>A {@link Creature} view over one entry of a {@link CreaturePool}.</p>
+ *
+ * <p>Every accessor and mutator reads or writes the pool's columns, so changes made
+ * through the view and through the pool's id based methods are always in sync.</p>
+ *
+ * <p>A view is a plain {@code Creature} whatever the species of the pooled creature,
+ * never a {@link Dragon}, {@link Elf} or {@link Orc}. It can be the target of existing
+ * attack code, be healed and damaged, and report its details, but it cannot attack:
+ * a pooled creature attacks through the pool's id based methods, such as
+ * {@link CreaturePool#breathFire(int, int)}, or {@link CombatEngine#resolveRound}.</p>
+ *
+ * <p>Unlike a {@code Creature}, a view is not thread-safe. Its health lives in the
+ * pool, which is not thread-safe, so a view does not keep {@code Creature}'s promise
+ * that many threads can damage and heal it without losing updates. Threads that
+ * share a view, or its pool, must serialise every change.</p>
+ *
+ * @author Justin Cardas
+ * @author Mohammad Sadeghi
+ * @author Armaan Brar
+ * @version 1.0
+ */
+class PooledCreature extends Creature
+{
+    private final CreaturePool pool;
+    private final int          id;
+
+    /**
+     * Constructs a view of the creature with the given {@code id} in {@code pool}.
+     *
+     * @param pool the pool holding the creature.
+     * @param id   the id of the creature.
+     */
+    PooledCreature(final CreaturePool pool,
+                   final int id)
+    {
+        super(pool.getName(id), pool.getDateOfBirth(id), pool.getHealth(id));
+
+        this.pool = pool;
+        this.id   = id;
+    }
+
+    /**
+     * @return int id of the creature in its pool.
+     */
+    int getId()
+    {
+        return id;
+    }
+
+    /**
+     * @return CreaturePool pool holding the creature.
+     */
+    CreaturePool getPool()
+    {
+        return pool;
+    }
+
+    @Override
+    public String getName()
+    {
+        return pool.getName(id);
+    }
+
+    @Override
+    public Date getDateOfBirth()
+    {
+        return pool.getDateOfBirth(id);
+    }
+
+    @Override
+    public int getHealth()
+    {
+        return pool.getHealth(id);
+    }
+
+    @Override
+    boolean isAlive()
+    {
+        return pool.isAlive(id);
+    }
+
+    /**
+     * {@link CreaturePool#takeDamage(int, int)} on the viewed creature. Not atomic,
+     * unlike {@link Creature#takeDamage(int)}.
+     *
+     * @param damage amount of damage taken.
+     */
+    @Override
+    void takeDamage(final int damage)
+    {
+        pool.takeDamage(id, damage);
+    }
+
+    /**
+     * {@link CreaturePool#loseHealth(int, int)} on the viewed creature. Not atomic,
+     * unlike {@link Creature#loseHealth(int)}.
+     *
+     * @param damage amount of damage taken.
+     * @return int the health before the damage.
+     */
+    @Override
+    int loseHealth(final int damage)
+    {
+        return pool.loseHealth(id, damage);
+    }
+
+    /**
+     * {@link CreaturePool#heal(int, int)} on the viewed creature. Not atomic, unlike
+     * {@link Creature#heal(int)}.
+     *
+     * @param healAmount amount of healing to apply.
+     */
+    @Override
+    void heal(final int healAmount)
+    {
+        pool.heal(id, healAmount);
+    }
+
+    @Override
+    int getAgeYears()
+    {
+        return pool.getAgeYears(id);
+    }
+
+    @Override
+    void appendDetails(final Appendable out) throws IOException
+    {
+        pool.appendDetails(id, out);
+    }
+
+    /**
+     * <p>Prints the same line as {@code getDetails} of the matching
+     * {@link Dragon}, {@link Elf} or {@link Orc}, and for any other species the
+     * resource name of the pool's {@link SpeciesTable}, as
+     * {@link CreaturePool#appendDetails(int, Appendable)} does.</p>
+     */
+    @Override
+    void getDetails()
+    {
+        final StringBuilder details;
+        final int           speciesTag;
+
+        details    = new StringBuilder();
+        speciesTag = pool.getSpecies(id);
+
+        details.append(getName());
+        details.append(", born on ");
+        details.append(getDateOfBirth());
+        details.append(" (");
+        details.append(getAgeYears());
+        details.append(") has ");
+        details.append(getHealth());
+        details.append(" health");
+        details.append(" and has ");
+        details.append(pool.getResource(id));
+        details.append(' ');
+        details.append(pool.speciesTable().resourceName(speciesTag));
+        details.append(" left.");
+
+        System.out.println(details);
+    }
+}
@@ -0,0 +1,1105 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * <p>Streams large rosters of {@link Dragon}s, {@link Elf}s and {@link Orc}s from
+ * CSV or newline-delimited JSON into a {@link CreaturePool}.</p>
+ *
+ * <p>A CSV row is {@code species,name,day,month,year,health,resource}. Spaces around
+ * a field are trimmed; a name may be quoted to keep them, with {@code ""} for a
+ * quote. A first line starting with {@code species} is skipped as a header. An NDJSON row is a flat object with the
+ * keys {@code species}, {@code name}, {@code day}, {@code month}, {@code year},
+ * {@code health} and {@code resource}; {@code firePower}, {@code mana} and
+ * {@code rage} are accepted in place of {@code resource}. Blank lines are skipped.</p>
+ *
+ * <p>The file is read in fixed-size chunks cut at line ends, and the chunks are
+ * parsed in parallel on the common {@link ForkJoinPool}. Numbers are parsed straight
+ * from the bytes; the only String made for a valid row is its name. Every row is
+ * checked with the rules of the {@link Creature}, {@link Date}, {@link Dragon},
+ * {@link Elf} and {@link Orc} validators without throwing: a rejected row is
+ * reported to an {@link ErrorSink} with its line number and the rest are imported.
+ * Parsed chunks are added to the pool in file order, so creatures get their ids in
+ * the order of their rows and rejected rows are reported in line order.</p>
+ *
+ * @author Justin Cardas
+ * @author Mohammad Sadeghi
+ * @author Armaan Brar
+ * @version 1.0
+ */
+final class RosterImporter
+{
+    /**
+     * Receives the rows an import rejects, in line order, on the importing thread.
+     */
+    interface ErrorSink
+    {
+        /**
+         * @param lineNumber the 1-based line number of the row.
+         * @param line       the text of the row.
+         * @param reason     why the row was rejected.
+         */
+        void reject(long lineNumber,
+                    String line,
+                    String reason);
+    }
+
+    private static final int  CHUNK_BYTES;
+    private static final int  CHUNKS_IN_FLIGHT_PER_THREAD;
+    private static final int  CSV_FIELDS;
+    private static final long INVALID_NUMBER;
+    private static final int  NO_SPECIES;
+
+    private static final byte[] DRAGON;
+    private static final byte[] ELF;
+    private static final byte[] ORC;
+    private static final byte[] CSV_HEADER;
+
+    // NDJSON keys, as bits of the set of keys seen in a row
+    private static final int      KEY_SPECIES;
+    private static final int      KEY_NAME;
+    private static final int      KEY_DAY;
+    private static final int      KEY_MONTH;
+    private static final int      KEY_YEAR;
+    private static final int      KEY_HEALTH;
+    private static final int      KEY_RESOURCE;
+    private static final int      ALL_KEYS;
+    private static final byte[][] KEY_NAMES;
+    private static final int[]    KEY_BITS;
+
+    static
+    {
+        CHUNK_BYTES                 = 4 * 1024 * 1024;
+        CHUNKS_IN_FLIGHT_PER_THREAD = 2;
+        CSV_FIELDS                  = 7;
+        INVALID_NUMBER              = Long.MIN_VALUE;
+        NO_SPECIES                  = -1;
+
+        DRAGON     = "Dragon".getBytes(StandardCharsets.US_ASCII);
+        ELF        = "Elf".getBytes(StandardCharsets.US_ASCII);
+        ORC        = "Orc".getBytes(StandardCharsets.US_ASCII);
+        CSV_HEADER = "species".getBytes(StandardCharsets.US_ASCII);
+
+        KEY_SPECIES  = 1;
+        KEY_NAME     = 1 << 1;
+        KEY_DAY      = 1 << 2;
+        KEY_MONTH    = 1 << 3;
+        KEY_YEAR     = 1 << 4;
+        KEY_HEALTH   = 1 << 5;
+        KEY_RESOURCE = 1 << 6;
+        ALL_KEYS     = (1 << 7) - 1;
+
+        KEY_NAMES = new byte[][]
+        {
+            "species".getBytes(StandardCharsets.US_ASCII),
+            "name".getBytes(StandardCharsets.US_ASCII),
+            "day".getBytes(StandardCharsets.US_ASCII),
+            "month".getBytes(StandardCharsets.US_ASCII),
+            "year".getBytes(StandardCharsets.US_ASCII),
+            "health".getBytes(StandardCharsets.US_ASCII),
+            "resource".getBytes(StandardCharsets.US_ASCII),
+            "firePower".getBytes(StandardCharsets.US_ASCII),
+            "mana".getBytes(StandardCharsets.US_ASCII),
+            "rage".getBytes(StandardCharsets.US_ASCII)
+        };
+        KEY_BITS  = new int[]
+        {
+            KEY_SPECIES, KEY_NAME, KEY_DAY, KEY_MONTH, KEY_YEAR, KEY_HEALTH, KEY_RESOURCE, KEY_RESOURCE, KEY_RESOURCE, KEY_RESOURCE
+        };
+    }
+
+    private RosterImporter()
+    {
+    }
+
+    /**
+     * Imports every valid row of a CSV roster into {@code pool}.
+     *
+     * @param file   the CSV file.
+     * @param pool   the pool to add the creatures to.
+     * @param errors receives every rejected row.
+     * @return int number of creatures added.
+     * @throws IOException if the file cannot be read.
+     */
+    static int importCsv(final Path file,
+                         final CreaturePool pool,
+                         final ErrorSink errors) throws IOException
+    {
+        return importRoster(file, pool, errors, false);
+    }
+
+    /**
+     * Imports every valid row of a newline-delimited JSON roster into {@code pool}.
+     *
+     * @param file   the NDJSON file.
+     * @param pool   the pool to add the creatures to.
+     * @param errors receives every rejected row.
+     * @return int number of creatures added.
+     * @throws IOException if the file cannot be read.
+     */
+    static int importNdjson(final Path file,
+                            final CreaturePool pool,
+                            final ErrorSink errors) throws IOException
+    {
+        return importRoster(file, pool, errors, true);
+    }
+
+    /*
+     * Reads the file in chunks cut after their last line end, parses them in parallel
+     * and adds them to the pool in order. At most CHUNKS_IN_FLIGHT_PER_THREAD chunks per
+     * worker are read ahead, so memory stays bounded however large the file is.
+     */
+    private static int importRoster(final Path file,
+                                    final CreaturePool pool,
+                                    final ErrorSink errors,
+                                    final boolean json) throws IOException
+    {
+        final ForkJoinPool               workers;
+        final int                        maxInFlight;
+        final Deque<ForkJoinTask<Chunk>> inFlight;
+        long                             linesBefore;
+        int                              imported;
+        byte[]                           carry;
+        int                              carryLength;
+        boolean                          first;
+
+        workers     = ForkJoinPool.commonPool();
+        maxInFlight = workers.getParallelism() * CHUNKS_IN_FLIGHT_PER_THREAD;
+        inFlight    = new ArrayDeque<>();
+        linesBefore = 0;
+        imported    = 0;
+        carry       = new byte[0];
+        carryLength = 0;
+        first       = true;
+
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            while(true)
+            {
+                final byte[]     bytes;
+                final ByteBuffer buffer;
+                final int        length;
+                final int        cut;
+                final Chunk      chunk;
+
+                bytes  = Arrays.copyOf(carry, carryLength + CHUNK_BYTES);
+                buffer = ByteBuffer.wrap(bytes, carryLength, CHUNK_BYTES);
+
+                while(buffer.hasRemaining() && channel.read(buffer) >= 0)
+                {
+                    // fill the chunk unless the file ends first
+                }
+
+                length = buffer.position();
+
+                if(length == 0)
+                {
+                    break;
+                }
+
+                cut = buffer.hasRemaining()
+                      ? length
+                      : lastLineEnd(bytes, length);
+
+                carryLength = length - cut;
+                carry       = Arrays.copyOfRange(bytes, cut, length);
+
+                if(cut == 0)
+                {
+                    // a single line longer than the chunk; keep reading it
+                    continue;
+                }
+
+                chunk = new Chunk(bytes, cut, json, first);
+                first = false;
+
+                inFlight.addLast(workers.submit(chunk::parse));
+
+                if(inFlight.size() >= maxInFlight)
+                {
+                    final Chunk parsed;
+
+                    parsed       = inFlight.removeFirst().join();
+                    imported    += merge(parsed, pool, errors, linesBefore);
+                    linesBefore += parsed.lines;
+                }
+            }
+        } finally
+        {
+            while(!inFlight.isEmpty())
+            {
+                final Chunk parsed;
+
+                parsed       = inFlight.removeFirst().join();
+                imported    += merge(parsed, pool, errors, linesBefore);
+                linesBefore += parsed.lines;
+            }
+        }
+
+        return imported;
+    }
+
+    /*
+     * Gets the length of the part of the chunk up to and including its last line end,
+     * or 0 if it has none.
+     */
+    private static int lastLineEnd(final byte[] bytes,
+                                   final int length)
+    {
+        for(int i = length - 1; i >= 0; i--)
+        {
+            if(bytes[i] == '\n')
+            {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /*
+     * Adds the rows of a parsed chunk to the pool, reports its rejections with their
+     * line numbers in the file, and returns the number of creatures added.
+     */
+    private static int merge(final Chunk chunk,
+                             final CreaturePool pool,
+                             final ErrorSink errors,
+                             final long linesBefore)
+    {
+        for(int row = 0; row < chunk.rows; row++)
+        {
+            if(chunk.species[row] == CreaturePool.SPECIES_DRAGON)
+            {
+                pool.addDragon(chunk.names[row], chunk.birthDates[row], chunk.health[row], chunk.resources[row]);
+            } else if(chunk.species[row] == CreaturePool.SPECIES_ELF)
+            {
+                pool.addElf(chunk.names[row], chunk.birthDates[row], chunk.health[row], chunk.resources[row]);
+            } else
+            {
+                pool.addOrc(chunk.names[row], chunk.birthDates[row], chunk.health[row], chunk.resources[row]);
+            }
+        }
+
+        for(final Rejection rejection : chunk.rejections)
+        {
+            errors.reject(linesBefore + rejection.line, rejection.text, rejection.reason);
+        }
+
+        return chunk.rows;
+    }
+
+    /*
+     * A rejected row, with its 1-based line number inside its chunk.
+     */
+    private static final class Rejection
+    {
+        private final int    line;
+        private final String text;
+        private final String reason;
+
+        private Rejection(final int line,
+                          final String text,
+                          final String reason)
+        {
+            this.line   = line;
+            this.text   = text;
+            this.reason = reason;
+        }
+    }
+
+    /*
+     * One chunk of whole lines and the columns of its valid rows. A chunk is
+     * parsed by one worker and only read by the importing thread after join.
+     */
+    private static final class Chunk
+    {
+        private final byte[]          bytes;
+        private final int             length;
+        private final boolean         json;
+        private final boolean         first;
+        private final int[]           fieldStarts;
+        private final int[]           fieldEnds;
+        private final List<Rejection> rejections;
+
+        private int      rows;
+        private int      lines;
+        private int[]    species;
+        private String[] names;
+        private Date[]   birthDates;
+        private int[]    health;
+        private int[]    resources;
+
+        // the row being parsed
+        private int    rowSpecies;
+        private String rowName;
+        private Date   rowDateOfBirth;
+        private long   rowDay;
+        private long   rowMonth;
+        private long   rowYear;
+        private long   rowHealth;
+        private long   rowResource;
+
+        // where the JSON scanner is inside the row
+        private int pos;
+
+        private Chunk(final byte[] bytes,
+                      final int length,
+                      final boolean json,
+                      final boolean first)
+        {
+            this.bytes       = bytes;
+            this.length      = length;
+            this.json        = json;
+            this.first       = first;
+            this.fieldStarts = new int[CSV_FIELDS + 1];
+            this.fieldEnds   = new int[CSV_FIELDS + 1];
+            this.rejections  = new ArrayList<>();
+        }
+
+        /*
+         * Parses every line of the chunk. Returns this chunk for the importer to merge.
+         */
+        private Chunk parse()
+        {
+            final int estimate;
+            int       lineStart;
+
+            // rows are rarely shorter than 32 bytes
+            estimate    = length / 32 + 1;
+            species     = new int[estimate];
+            names       = new String[estimate];
+            birthDates  = new Date[estimate];
+            health      = new int[estimate];
+            resources   = new int[estimate];
+            lineStart   = 0;
+
+            while(lineStart < length)
+            {
+                final int newline;
+                int       lineEnd;
+
+                newline = indexOf((byte) '\n', lineStart, length);
+                lineEnd = newline < 0
+                          ? length
+                          : newline;
+
+                if(lineEnd > lineStart && bytes[lineEnd - 1] == '\r')
+                {
+                    lineEnd--;
+                }
+
+                lines++;
+                parseLine(lineStart, lineEnd);
+
+                lineStart = newline < 0
+                            ? length
+                            : newline + 1;
+            }
+
+            return this;
+        }
+
+        /*
+         * Parses and checks one line, adding it to the columns or to the rejections.
+         */
+        private void parseLine(final int start,
+                               final int end)
+        {
+            final String reason;
+
+            if(skipSpaces(start, end) == end)
+            {
+                return;
+            }
+            if(!json && first && lines == 1 && startsWith(start, end, CSV_HEADER))
+            {
+                return;
+            }
+
+            reason = json
+                     ? parseJson(start, end)
+                     : parseCsv(start, end);
+
+            if(reason == null)
+            {
+                addRow();
+            } else
+            {
+                rejections.add(new Rejection(lines,
+                                             new String(bytes, start, end - start, StandardCharsets.UTF_8),
+                                             reason));
+            }
+        }
+
+        /*
+         * Parses species,name,day,month,year,health,resource into the row fields.
+         */
+        private String parseCsv(final int start,
+                                final int end)
+        {
+            final int fields;
+
+            fields = splitCsv(start, end);
+
+            if(fields < 0)
+            {
+                return "Unterminated quoted name";
+            }
+            if(fields != CSV_FIELDS)
+            {
+                return "Expected " + CSV_FIELDS + " fields but found " + fields;
+            }
+
+            rowSpecies  = speciesTag(fieldStarts[0], fieldEnds[0]);
+            rowName     = csvName(fieldStarts[1], fieldEnds[1]);
+            rowDay      = parseNumber(fieldStarts[2], fieldEnds[2]);
+            rowMonth    = parseNumber(fieldStarts[3], fieldEnds[3]);
+            rowYear     = parseNumber(fieldStarts[4], fieldEnds[4]);
+            rowHealth   = parseNumber(fieldStarts[5], fieldEnds[5]);
+            rowResource = parseNumber(fieldStarts[6], fieldEnds[6]);
+
+            return checkRow();
+        }
+
+        /*
+         * Records the trimmed bounds of each field, up to one more than CSV_FIELDS.
+         * A quoted field is recorded with its quotes. Returns the number of fields,
+         * or -1 if a quote is not closed.
+         */
+        private int splitCsv(final int start,
+                             final int end)
+        {
+            int fields;
+            int fieldStart;
+
+            fields     = 0;
+            fieldStart = start;
+
+            while(fields <= CSV_FIELDS)
+            {
+                final int valueStart;
+                int       fieldEnd;
+
+                valueStart = skipSpaces(fieldStart, end);
+
+                if(valueStart < end && bytes[valueStart] == '"')
+                {
+                    fieldEnd = closingQuote(valueStart + 1, end);
+
+                    if(fieldEnd < 0)
+                    {
+                        return -1;
+                    }
+                    fieldEnd++;
+                    fieldStarts[fields] = valueStart;
+                    fieldEnds[fields]   = fieldEnd;
+                    fieldEnd            = indexOf((byte) ',', fieldEnd, end);
+                } else
+                {
+                    fieldEnd            = indexOf((byte) ',', fieldStart, end);
+                    fieldStarts[fields] = valueStart;
+                    fieldEnds[fields]   = trimEnd(valueStart, fieldEnd < 0
+                                                              ? end
+                                                              : fieldEnd);
+                }
+
+                fields++;
+
+                if(fieldEnd < 0)
+                {
+                    return fields;
+                }
+                fieldStart = fieldEnd + 1;
+            }
+
+            return fields;
+        }
+
+        /*
+         * Gets the index of the quote closing a CSV field, skipping "" escapes, or -1.
+         */
+        private int closingQuote(final int from,
+                                 final int end)
+        {
+            int i;
+
+            i = from;
+
+            while(i < end)
+            {
+                if(bytes[i] == '"')
+                {
+                    if(i + 1 < end && bytes[i + 1] == '"')
+                    {
+                        i += 2;
+                        continue;
+                    }
+                    return i;
+                }
+                i++;
+            }
+            return -1;
+        }
+
+        /*
+         * Decodes a CSV name field, removing its quotes and "" escapes if it is quoted.
+         */
+        private String csvName(final int start,
+                               final int end)
+        {
+            final byte[] unescaped;
+            int          written;
+
+            if(end == start || bytes[start] != '"')
+            {
+                return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+            }
+
+            unescaped = new byte[end - start];
+            written   = 0;
+
+            for(int i = start + 1; i < end - 1; i++)
+            {
+                unescaped[written++] = bytes[i];
+
+                if(bytes[i] == '"')
+                {
+                    i++;
+                }
+            }
+
+            return new String(unescaped, 0, written, StandardCharsets.UTF_8);
+        }
+
+        /*
+         * Parses a flat JSON object into the row fields.
+         */
+        private String parseJson(final int start,
+                                 final int end)
+        {
+            int seen;
+
+            seen = 0;
+            pos  = skipSpaces(start, end);
+
+            if(pos == end || bytes[pos] != '{')
+            {
+                return "Expected a JSON object";
+            }
+
+            pos = skipSpaces(pos + 1, end);
+
+            if(pos < end && bytes[pos] == '}')
+            {
+                pos++;
+            } else
+            {
+                while(true)
+                {
+                    final int keyStart;
+                    final int keyEnd;
+                    final int key;
+                    final String problem;
+
+                    if(pos == end || bytes[pos] != '"')
+                    {
+                        return "Expected a key";
+                    }
+
+                    keyStart = pos + 1;
+                    keyEnd   = jsonStringEnd(keyStart, end);
+
+                    if(keyEnd < 0)
+                    {
+                        return "Unterminated string";
+                    }
+
+                    key = keyBit(keyStart, keyEnd);
+                    pos = skipSpaces(keyEnd + 1, end);
+
+                    if(pos == end || bytes[pos] != ':')
+                    {
+                        return "Expected ':'";
+                    }
+
+                    pos     = skipSpaces(pos + 1, end);
+                    problem = parseJsonValue(key, end);
+
+                    if(problem != null)
+                    {
+                        return problem;
+                    }
+
+                    seen |= key;
+                    pos   = skipSpaces(pos, end);
+
+                    if(pos < end && bytes[pos] == ',')
+                    {
+                        pos = skipSpaces(pos + 1, end);
+                    } else if(pos < end && bytes[pos] == '}')
+                    {
+                        pos++;
+                        break;
+                    } else
+                    {
+                        return "Expected ',' or '}'";
+                    }
+                }
+            }
+
+            if(skipSpaces(pos, end) != end)
+            {
+                return "Unexpected text after the JSON object";
+            }
+            if(seen != ALL_KEYS)
+            {
+                return "Missing " + missingKeys(seen);
+            }
+
+            return checkRow();
+        }
+
+        /*
+         * Parses the value at pos into the row field for key, moving pos past it.
+         * Values of unknown keys are skipped if they are strings, numbers or literals.
+         */
+        private String parseJsonValue(final int key,
+                                      final int end)
+        {
+            final int valueStart;
+            final int valueEnd;
+
+            if(pos == end)
+            {
+                return "Expected a value";
+            }
+
+            if(bytes[pos] == '"')
+            {
+                valueStart = pos + 1;
+                valueEnd   = jsonStringEnd(valueStart, end);
+
+                if(valueEnd < 0)
+                {
+                    return "Unterminated string";
+                }
+
+                pos = valueEnd + 1;
+
+                if(key == KEY_SPECIES)
+                {
+                    rowSpecies = speciesTag(valueStart, valueEnd);
+                } else if(key == KEY_NAME)
+                {
+                    rowName = jsonString(valueStart, valueEnd);
+
+                    if(rowName == null)
+                    {
+                        return "Invalid \\u escape in name";
+                    }
+                } else if(key != 0)
+                {
+                    return "Expected a number for " + keyName(key);
+                }
+                return null;
+            }
+
+            valueStart = pos;
+
+            while(pos < end && bytes[pos] != ',' && bytes[pos] != '}' && bytes[pos] != ' ' && bytes[pos] != '\t')
+            {
+                pos++;
+            }
+
+            valueEnd = pos;
+
+            if(bytes[valueStart] == '{' || bytes[valueStart] == '[')
+            {
+                return "Nested values are not supported";
+            }
+
+            if(key == KEY_DAY)
+            {
+                rowDay = parseNumber(valueStart, valueEnd);
+            } else if(key == KEY_MONTH)
+            {
+                rowMonth = parseNumber(valueStart, valueEnd);
+            } else if(key == KEY_YEAR)
+            {
+                rowYear = parseNumber(valueStart, valueEnd);
+            } else if(key == KEY_HEALTH)
+            {
+                rowHealth = parseNumber(valueStart, valueEnd);
+            } else if(key == KEY_RESOURCE)
+            {
+                rowResource = parseNumber(valueStart, valueEnd);
+            } else if(key != 0)
+            {
+                return "Expected a string for " + keyName(key);
+            }
+            return null;
+        }
+
+        /*
+         * Gets the index of the quote closing a JSON string, skipping escapes, or -1.
+         */
+        private int jsonStringEnd(final int from,
+                                  final int end)
+        {
+            for(int i = from; i < end; i++)
+            {
+                if(bytes[i] == '\\')
+                {
+                    i++;
+                } else if(bytes[i] == '"')
+                {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /*
+         * Decodes the contents of a JSON string. Only strings with escapes are
+         * decoded character by character. Returns null if a \\u escape does not
+         * have four hex digits.
+         */
+        private String jsonString(final int start,
+                                  final int end)
+        {
+            final String        raw;
+            final StringBuilder decoded;
+
+            if(indexOf((byte) '\\', start, end) < 0)
+            {
+                return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+            }
+
+            raw     = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+            decoded = new StringBuilder(raw.length());
+
+            for(int i = 0; i < raw.length(); i++)
+            {
+                final char c;
+
+                c = raw.charAt(i);
+
+                if(c != '\\' || i + 1 == raw.length())
+                {
+                    decoded.append(c);
+                    continue;
+                }
+
+                i++;
+
+                switch(raw.charAt(i))
+                {
+                    case 'n' -> decoded.append('\n');
+                    case 't' -> decoded.append('\t');
+                    case 'r' -> decoded.append('\r');
+                    case 'b' -> decoded.append('\b');
+                    case 'f' -> decoded.append('\f');
+                    case 'u' ->
+                    {
+                        int unit;
+
+                        if(i + 4 >= raw.length())
+                        {
+                            return null;
+                        }
+
+                        unit = 0;
+
+                        for(int digit = i + 1; digit <= i + 4; digit++)
+                        {
+                            final int value;
+
+                            value = Character.digit(raw.charAt(digit), 16);
+
+                            if(value < 0)
+                            {
+                                return null;
+                            }
+                            unit = unit * 16 + value;
+                        }
+
+                        decoded.append((char) unit);
+                        i += 4;
+                    }
+                    default -> decoded.append(raw.charAt(i));
+                }
+            }
+
+            return decoded.toString();
+        }
+
+        /*
+         * Gets the key bit for a JSON key, or 0 for an unknown key.
+         */
+        private int keyBit(final int start,
+                           final int end)
+        {
+            for(int key = 0; key < KEY_NAMES.length; key++)
+            {
+                if(Arrays.equals(bytes, start, end, KEY_NAMES[key], 0, KEY_NAMES[key].length))
+                {
+                    return KEY_BITS[key];
+                }
+            }
+            return 0;
+        }
+
+        private static String keyName(final int keyBit)
+        {
+            return new String(KEY_NAMES[Integer.numberOfTrailingZeros(keyBit)], StandardCharsets.US_ASCII);
+        }
+
+        private static String missingKeys(final int seen)
+        {
+            final StringBuilder missing;
+
+            missing = new StringBuilder();
+
+            for(int key = KEY_SPECIES; key <= KEY_RESOURCE; key <<= 1)
+            {
+                if((seen & key) == 0)
+                {
+                    if(!missing.isEmpty())
+                    {
+                        missing.append(", ");
+                    }
+                    missing.append(keyName(key));
+                }
+            }
+            return missing.toString();
+        }
+
+        /*
+         * Applies the rules of the Creature, Date and species validators to the row fields.
+         * Returns null if the row is valid, otherwise why it is not.
+         */
+        private String checkRow()
+        {
+            final String nameProblem;
+            final String dateProblem;
+            final String dateOfBirthProblem;
+            final String healthProblem;
+
+            if(rowSpecies == NO_SPECIES)
+            {
+                return "Species must be Dragon, Elf or Orc";
+            }
+
+            nameProblem = Creature.checkName(rowName);
+
+            if(nameProblem != null)
+            {
+                return nameProblem;
+            }
+            if(rowDay == INVALID_NUMBER || rowMonth == INVALID_NUMBER || rowYear == INVALID_NUMBER)
+            {
+                return "Date of birth must be whole numbers";
+            }
+            if(rowHealth == INVALID_NUMBER || rowResource == INVALID_NUMBER)
+            {
+                return "Health and resource must be whole numbers";
+            }
+
+            dateProblem = Date.checkDate((int) rowDay, (int) rowMonth, (int) rowYear);
+
+            if(dateProblem != null)
+            {
+                return dateProblem;
+            }
+
+            // the shared Date, so a valid row costs no Date allocation
+            rowDateOfBirth     = Date.of((int) rowDay, (int) rowMonth, (int) rowYear);
+            dateOfBirthProblem = Creature.checkDOB(rowDateOfBirth);
+
+            if(dateOfBirthProblem != null)
+            {
+                return dateOfBirthProblem;
+            }
+
+            healthProblem = Creature.checkHealth((int) rowHealth);
+
+            if(healthProblem != null)
+            {
+                return healthProblem;
+            }
+            return checkResource(rowSpecies, (int) rowResource);
+        }
+
+        /*
+         * Applies the firePower, mana or rage rule of the species.
+         */
+        private static String checkResource(final int speciesTag,
+                                            final int resource)
+        {
+            if(speciesTag == CreaturePool.SPECIES_DRAGON)
+            {
+                return Dragon.checkFirePower(resource);
+            }
+            if(speciesTag == CreaturePool.SPECIES_ELF)
+            {
+                return Elf.checkMana(resource);
+            }
+            return Orc.checkRage(resource);
+        }
+
+        /*
+         * Appends the checked row fields to the columns, growing them if needed.
+         */
+        private void addRow()
+        {
+            if(rows == species.length)
+            {
+                final int capacity;
+
+                capacity    = rows * 2;
+                species     = Arrays.copyOf(species, capacity);
+                names       = Arrays.copyOf(names, capacity);
+                birthDates  = Arrays.copyOf(birthDates, capacity);
+                health      = Arrays.copyOf(health, capacity);
+                resources   = Arrays.copyOf(resources, capacity);
+            }
+
+            species[rows]     = rowSpecies;
+            names[rows]       = rowName;
+            birthDates[rows]  = rowDateOfBirth;
+            health[rows]      = (int) rowHealth;
+            resources[rows]   = (int) rowResource;
+            rows++;
+        }
+
+        /*
+         * Gets the species tag spelled by the bytes, or NO_SPECIES.
+         */
+        private int speciesTag(final int start,
+                               final int end)
+        {
+            if(Arrays.equals(bytes, start, end, DRAGON, 0, DRAGON.length))
+            {
+                return CreaturePool.SPECIES_DRAGON;
+            }
+            if(Arrays.equals(bytes, start, end, ELF, 0, ELF.length))
+            {
+                return CreaturePool.SPECIES_ELF;
+            }
+            if(Arrays.equals(bytes, start, end, ORC, 0, ORC.length))
+            {
+                return CreaturePool.SPECIES_ORC;
+            }
+            return NO_SPECIES;
+        }
+
+        /*
+         * Parses an optionally signed whole number that fits in an int, without
+         * making a String. Returns INVALID_NUMBER if the bytes are not one.
+         */
+        private long parseNumber(final int start,
+                                 final int end)
+        {
+            final boolean negative;
+            int           i;
+            long          value;
+
+            negative = start < end && bytes[start] == '-';
+            i        = negative
+                       ? start + 1
+                       : start;
+            value    = 0;
+
+            if(i == end)
+            {
+                return INVALID_NUMBER;
+            }
+
+            for(; i < end; i++)
+            {
+                final int digit;
+
+                digit = bytes[i] - '0';
+
+                if(digit < 0 || digit > 9)
+                {
+                    return INVALID_NUMBER;
+                }
+
+                value = value * 10 + digit;
+
+                if(value > (long) Integer.MAX_VALUE + 1)
+                {
+                    return INVALID_NUMBER;
+                }
+            }
+
+            value = negative
+                    ? -value
+                    : value;
+
+            return value > Integer.MAX_VALUE
+                   ? INVALID_NUMBER
+                   : value;
+        }
+
+        private int indexOf(final byte value,
+                            final int from,
+                            final int end)
+        {
+            for(int i = from; i < end; i++)
+            {
+                if(bytes[i] == value)
+                {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private int skipSpaces(final int from,
+                               final int end)
+        {
+            int i;
+
+            i = from;
+
+            while(i < end && (bytes[i] == ' ' || bytes[i] == '\t'))
+            {
+                i++;
+            }
+            return i;
+        }
+
+        private int trimEnd(final int start,
+                            final int end)
+        {
+            int i;
+
+            i = end;
+
+            while(i > start && (bytes[i - 1] == ' ' || bytes[i - 1] == '\t'))
+            {
+                i--;
+            }
+            return i;
+        }
+
+        private boolean startsWith(final int start,
+                                   final int end,
+                                   final byte[] prefix)
+        {
+            return end - start >= prefix.length &&
+                   Arrays.equals(bytes, start, start + prefix.length, prefix, 0, prefix.length);
+        }
+    }
+}
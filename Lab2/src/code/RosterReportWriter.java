@@ -0,0 +1,227 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>Streams a status report of a whole roster to a {@link FileChannel}.</p>
+ *
+ * <p>Each creature is written as the line {@code getDetails} would print.
+ * Text is encoded as UTF-8 straight into one reused direct {@link ByteBuffer}
+ * that is flushed to the channel when full, so writing a report allocates
+ * nothing per creature. An unpaired surrogate is written as {@code ?}, the same
+ * as {@code String.getBytes(UTF_8)} would write it.</p>
+ *
+ * @author Justin Cardas
+ * @author Mohammad Sadeghi
+ * @author Armaan Brar
+ * @version 1.0
+ */
+class RosterReportWriter implements Appendable, Closeable
+{
+    private static final int    DEFAULT_BUFFER_SIZE;
+    private static final int    MAX_UTF8_BYTES_PER_CHAR;
+    private static final byte   UNPAIRED_SURROGATE;
+    private static final String LINE_SEPARATOR;
+
+    static
+    {
+        DEFAULT_BUFFER_SIZE     = 64 * 1024;
+        MAX_UTF8_BYTES_PER_CHAR = 4;
+        UNPAIRED_SURROGATE      = '?';
+        LINE_SEPARATOR          = System.lineSeparator();
+    }
+
+    private final FileChannel channel;
+    private final ByteBuffer  buffer;
+    private char              pendingHighSurrogate;
+
+    /**
+     * Constructs a writer over an open channel.
+     *
+     * @param channel the channel to write the report to.
+     * @throws IllegalArgumentException if {@code channel} is {@code null}.
+     */
+    RosterReportWriter(final FileChannel channel)
+    {
+        if(channel == null)
+        {
+            throw new IllegalArgumentException("Channel cannot be null");
+        }
+
+        this.channel              = channel;
+        this.buffer               = ByteBuffer.allocateDirect(DEFAULT_BUFFER_SIZE);
+        this.pendingHighSurrogate = 0;
+    }
+
+    /**
+     * Opens {@code file} for writing, replacing any existing content.
+     *
+     * @param file the report file.
+     * @return a writer for the file.
+     * @throws IOException if the file cannot be opened.
+     */
+    static RosterReportWriter open(final Path file) throws IOException
+    {
+        return new RosterReportWriter(FileChannel.open(file,
+                                                       StandardOpenOption.CREATE,
+                                                       StandardOpenOption.TRUNCATE_EXISTING,
+                                                       StandardOpenOption.WRITE));
+    }
+
+    /**
+     * Writes the details line of one creature.
+     *
+     * @param creature the creature to report.
+     * @throws IOException if writing fails.
+     */
+    void writeDetails(final Creature creature) throws IOException
+    {
+        creature.appendDetails(this);
+        append(LINE_SEPARATOR);
+    }
+
+    /**
+     * Writes the details line of every creature in {@code roster}.
+     *
+     * @param roster the creatures to report.
+     * @throws IOException if writing fails.
+     */
+    void writeRoster(final Iterable<? extends Creature> roster) throws IOException
+    {
+        for(final Creature creature : roster)
+        {
+            writeDetails(creature);
+        }
+    }
+
+    /**
+     * Writes the details line of every creature in {@code pool}, read straight
+     * from its columns.
+     *
+     * @param pool the pool to report.
+     * @throws IOException if writing fails.
+     */
+    void writePool(final CreaturePool pool) throws IOException
+    {
+        for(int id = 0; id < pool.size(); id++)
+        {
+            pool.appendDetails(id, this);
+            append(LINE_SEPARATOR);
+        }
+    }
+
+    @Override
+    public RosterReportWriter append(final CharSequence text) throws IOException
+    {
+        return append(text, 0, text.length());
+    }
+
+    @Override
+    public RosterReportWriter append(final CharSequence text,
+                                     final int start,
+                                     final int end) throws IOException
+    {
+        for(int i = start; i < end; i++)
+        {
+            append(text.charAt(i));
+        }
+        return this;
+    }
+
+    @Override
+    public RosterReportWriter append(final char c) throws IOException
+    {
+        if(buffer.remaining() < MAX_UTF8_BYTES_PER_CHAR)
+        {
+            flush();
+        }
+
+        if(pendingHighSurrogate != 0 && !Character.isLowSurrogate(c))
+        {
+            pendingHighSurrogate = 0;
+            buffer.put(UNPAIRED_SURROGATE);
+        }
+
+        if(c < 0x80)
+        {
+            buffer.put((byte) c);
+        } else if(c < 0x800)
+        {
+            buffer.put((byte) (0xC0 | c >> 6));
+            buffer.put((byte) (0x80 | c & 0x3F));
+        } else if(Character.isHighSurrogate(c))
+        {
+            // the code point is written once its low surrogate arrives
+            pendingHighSurrogate = c;
+        } else if(Character.isLowSurrogate(c) && pendingHighSurrogate != 0)
+        {
+            final int codePoint;
+
+            codePoint            = Character.toCodePoint(pendingHighSurrogate, c);
+            pendingHighSurrogate = 0;
+
+            buffer.put((byte) (0xF0 | codePoint >> 18));
+            buffer.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+            buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+            buffer.put((byte) (0x80 | codePoint & 0x3F));
+        } else if(Character.isLowSurrogate(c))
+        {
+            buffer.put(UNPAIRED_SURROGATE);
+        } else
+        {
+            buffer.put((byte) (0xE0 | c >> 12));
+            buffer.put((byte) (0x80 | c >> 6 & 0x3F));
+            buffer.put((byte) (0x80 | c & 0x3F));
+        }
+
+        return this;
+    }
+
+    /**
+     * Writes everything buffered so far to the channel.
+     *
+     * @throws IOException if writing fails.
+     */
+    void flush() throws IOException
+    {
+        buffer.flip();
+
+        while(buffer.hasRemaining())
+        {
+            channel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+
+    /**
+     * Flushes the buffer and closes the channel. A high surrogate still waiting for
+     * its low surrogate is written as {@code ?}.
+     *
+     * @throws IOException if writing or closing fails.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            if(pendingHighSurrogate != 0)
+            {
+                if(!buffer.hasRemaining())
+                {
+                    flush();
+                }
+
+                pendingHighSurrogate = 0;
+                buffer.put(UNPAIRED_SURROGATE);
+            }
+            flush();
+        } finally
+        {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,695 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * <p>A memory-mapped binary snapshot of a roster of {@link Dragon}s, {@link Elf}s and {@link Orc}s.</p>
+ *
+ * <p>The file holds a header, one fixed-width record per creature and a region of
+ * UTF-8 names:</p>
+ * <pre>
+ * header  (24 bytes): magic int, version int, creature count long, names start long
+ * record  (32 bytes): species tag int, name length int, name offset long,
+ *                     packed date of birth int, health int, resource int, padding int
+ * names            : the UTF-8 bytes of every name, at the record's offset from names start
+ * </pre>
+ *
+ * <p>Records are written and read through {@link MappedByteBuffer}s, so a snapshot is
+ * reopened without parsing: the getters read fields straight from the mapping, and a
+ * name is only decoded when asked for. Opening a snapshot still checks every record
+ * against the rules of the {@link Creature}, {@link Dragon}, {@link Elf} and {@link Orc}
+ * constructors.</p>
+ *
+ * <p>A writer forces the records and names to disk before it writes the header, and
+ * forces the header before it closes, so a written snapshot is on disk once
+ * {@code write} returns. A file torn by a crash during writing has no magic and is
+ * rejected by {@link #open(Path)} rather than half-read.</p>
+ *
+ * @author Justin Cardas
+ * @author Mohammad Sadeghi
+ * @author Armaan Brar
+ * @version 1.0
+ */
+class RosterSnapshot implements Closeable
+{
+    private static final int MAGIC;
+    private static final int VERSION;
+    private static final int HEADER_BYTES;
+    private static final int RECORD_BYTES;
+
+    // record field offsets
+    private static final int TAG_OFFSET;
+    private static final int NAME_LENGTH_OFFSET;
+    private static final int NAME_OFFSET_OFFSET;
+    private static final int DATE_OFFSET;
+    private static final int HEALTH_OFFSET;
+    private static final int RESOURCE_OFFSET;
+
+    // records are mapped in chunks, since one mapping cannot exceed 2 GB
+    private static final int  RECORDS_PER_CHUNK_SHIFT;
+    private static final int  RECORDS_PER_CHUNK;
+    private static final int  RECORD_INDEX_MASK;
+    private static final long CHUNK_BYTES;
+
+    private static final int NAME_BUFFER_BYTES;
+    private static final int ASCII_LIMIT;
+
+    static
+    {
+        MAGIC        = 0x43525354; // "CRST"
+        VERSION      = 1;
+        HEADER_BYTES = 24;
+        RECORD_BYTES = 32;
+
+        TAG_OFFSET         = 0;
+        NAME_LENGTH_OFFSET = 4;
+        NAME_OFFSET_OFFSET = 8;
+        DATE_OFFSET        = 16;
+        HEALTH_OFFSET      = 20;
+        RESOURCE_OFFSET    = 24;
+
+        RECORDS_PER_CHUNK_SHIFT = 24;
+        RECORDS_PER_CHUNK       = 1 << RECORDS_PER_CHUNK_SHIFT;
+        RECORD_INDEX_MASK       = RECORDS_PER_CHUNK - 1;
+        CHUNK_BYTES             = (long) RECORDS_PER_CHUNK * RECORD_BYTES;
+
+        NAME_BUFFER_BYTES = 1 << 20;
+        ASCII_LIMIT       = 0x80;
+    }
+
+    private final FileChannel        channel;
+    private final MappedByteBuffer[] chunks;
+    private final int                size;
+    private final long               namesStart;
+
+    /*
+     * Wraps an opened and validated snapshot.
+     */
+    private RosterSnapshot(final FileChannel channel,
+                           final MappedByteBuffer[] chunks,
+                           final int size,
+                           final long namesStart)
+    {
+        this.channel    = channel;
+        this.chunks     = chunks;
+        this.size       = size;
+        this.namesStart = namesStart;
+    }
+
+    /**
+     * Writes every creature of {@code pool} to a snapshot file, replacing it if it exists.
+     *
+     * @param file the snapshot file.
+     * @param pool the creatures to save.
+     * @throws IOException if the file cannot be written.
+     */
+    static void write(final Path file,
+                      final CreaturePool pool) throws IOException
+    {
+        try(Writer writer = new Writer(file, pool.size()))
+        {
+            for(int id = 0; id < pool.size(); id++)
+            {
+                writer.put(pool.getSpecies(id),
+                           pool.getName(id),
+                           pool.getPackedDateOfBirth(id),
+                           pool.getHealth(id),
+                           pool.getResource(id));
+            }
+        }
+    }
+
+    /**
+     * Writes every creature of {@code roster} to a snapshot file, replacing it if it exists.
+     *
+     * @param file   the snapshot file.
+     * @param roster the creatures to save; each must be a {@link Dragon}, {@link Elf} or {@link Orc}.
+     * @throws IOException              if the file cannot be written.
+     * @throws IllegalArgumentException if a creature is not a Dragon, Elf or Orc.
+     */
+    static void write(final Path file,
+                      final List<? extends Creature> roster) throws IOException
+    {
+        try(Writer writer = new Writer(file, roster.size()))
+        {
+            for(final Creature creature : roster)
+            {
+                final int species;
+                final int resource;
+
+                if(creature instanceof Dragon dragon)
+                {
+                    species  = CreaturePool.SPECIES_DRAGON;
+                    resource = dragon.getFirePower();
+                } else if(creature instanceof Elf elf)
+                {
+                    species  = CreaturePool.SPECIES_ELF;
+                    resource = elf.getMana();
+                } else if(creature instanceof Orc orc)
+                {
+                    species  = CreaturePool.SPECIES_ORC;
+                    resource = orc.getRage();
+                } else
+                {
+                    throw new IllegalArgumentException("Only a Dragon, Elf or Orc can be saved: " + creature.getName());
+                }
+
+                writer.put(species,
+                           creature.getName(),
+                           creature.getDateOfBirth().getPackedDate(),
+                           creature.getHealth(),
+                           resource);
+            }
+        }
+    }
+
+    /**
+     * Opens a snapshot file and checks every record.
+     *
+     * @param file the snapshot file.
+     * @return the opened snapshot.
+     * @throws IOException              if the file cannot be read or is not a snapshot.
+     * @throws IllegalArgumentException if a record breaks a {@link Creature} invariant.
+     */
+    static RosterSnapshot open(final Path file) throws IOException
+    {
+        final FileChannel channel;
+        final ByteBuffer  header;
+        final long        count;
+        final long        namesStart;
+        final int         chunkCount;
+        final MappedByteBuffer[] chunks;
+        final RosterSnapshot     snapshot;
+
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+
+        try
+        {
+            header = ByteBuffer.allocate(HEADER_BYTES);
+
+            while(header.hasRemaining() && channel.read(header) >= 0)
+            {
+                // keep reading until the header is full or the file ends
+            }
+            header.flip();
+
+            if(header.remaining() < HEADER_BYTES || header.getInt() != MAGIC)
+            {
+                throw new IOException("Not a roster snapshot: " + file);
+            }
+            if(header.getInt() != VERSION)
+            {
+                throw new IOException("Unsupported roster snapshot version: " + file);
+            }
+
+            count      = header.getLong();
+            namesStart = header.getLong();
+
+            if(count < 0 || count > Integer.MAX_VALUE ||
+               namesStart != HEADER_BYTES + count * RECORD_BYTES || channel.size() < namesStart)
+            {
+                throw new IOException("Corrupt roster snapshot header: " + file);
+            }
+
+            chunkCount = (int) ((count + RECORDS_PER_CHUNK - 1) >>> RECORDS_PER_CHUNK_SHIFT);
+            chunks     = new MappedByteBuffer[chunkCount];
+
+            for(int chunk = 0; chunk < chunkCount; chunk++)
+            {
+                final long start;
+
+                start         = HEADER_BYTES + chunk * CHUNK_BYTES;
+                chunks[chunk] = channel.map(FileChannel.MapMode.READ_ONLY,
+                                            start,
+                                            Math.min(CHUNK_BYTES, namesStart - start));
+            }
+
+            snapshot = new RosterSnapshot(channel, chunks, (int) count, namesStart);
+            snapshot.validate();
+
+            return snapshot;
+        } catch(IOException | RuntimeException e)
+        {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /*
+     * Checks every record against the rules of the creature constructors.
+     * Names are read in blocks in record order, and only decoded when they
+     * contain non-ASCII bytes.
+     */
+    private void validate() throws IOException
+    {
+        final long namesBytes;
+        ByteBuffer block;
+        long       blockStart;
+
+        namesBytes = channel.size() - namesStart;
+        block      = ByteBuffer.allocate(0);
+        blockStart = 0;
+
+        for(int i = 0; i < size; i++)
+        {
+            final int  nameLength;
+            final long nameOffset;
+
+            nameLength = getNameLength(i);
+            nameOffset = getNameOffset(i);
+
+            try
+            {
+                if(nameLength <= 0 || nameOffset < 0 || nameOffset + nameLength > namesBytes)
+                {
+                    throw new IllegalArgumentException("Name is missing or outside the file");
+                }
+
+                if(nameOffset < blockStart || nameOffset + nameLength > blockStart + block.limit())
+                {
+                    block      = readNames(nameOffset, Math.max(NAME_BUFFER_BYTES, nameLength));
+                    blockStart = nameOffset;
+                }
+
+                validateName(block, (int) (nameOffset - blockStart), nameLength);
+                validateRecord(i);
+            } catch(IllegalArgumentException | LowRageException e)
+            {
+                throw new IllegalArgumentException("Invalid record " + i + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /*
+     * Applies Creature.validateName to a name without decoding pure ASCII names.
+     */
+    private static void validateName(final ByteBuffer block,
+                                     final int start,
+                                     final int length)
+    {
+        boolean ascii;
+        boolean blank;
+
+        ascii = true;
+        blank = true;
+
+        for(int i = start; i < start + length; i++)
+        {
+            final int value;
+
+            value = block.get(i) & 0xFF;
+
+            if(value >= ASCII_LIMIT)
+            {
+                ascii = false;
+                break;
+            }
+            if(!Character.isWhitespace(value))
+            {
+                blank = false;
+            }
+        }
+
+        if(!ascii)
+        {
+            Creature.validateName(new String(block.array(), start, length, StandardCharsets.UTF_8));
+        } else if(blank)
+        {
+            Creature.validateName("");
+        }
+    }
+
+    /*
+     * Applies the species, date of birth, health and resource rules to one record.
+     */
+    private void validateRecord(final int index)
+    {
+        final int species;
+        final int resource;
+
+        species  = getSpecies(index);
+        resource = getResource(index);
+
+        Creature.validateDOB(getDateOfBirth(index));
+        Creature.validateHealth(getHealth(index));
+
+        if(species == CreaturePool.SPECIES_DRAGON)
+        {
+            Dragon.validateFirePower(resource);
+        } else if(species == CreaturePool.SPECIES_ELF)
+        {
+            Elf.validateMana(resource);
+        } else if(species == CreaturePool.SPECIES_ORC)
+        {
+            Orc.validateRage(resource);
+        } else
+        {
+            throw new IllegalArgumentException("Unknown species tag: " + species);
+        }
+    }
+
+    /*
+     * Reads up to length bytes of the names region starting at offset.
+     */
+    private ByteBuffer readNames(final long offset,
+                                 final int length) throws IOException
+    {
+        final ByteBuffer buffer;
+        final long       available;
+
+        available = channel.size() - namesStart - offset;
+        buffer    = ByteBuffer.allocate((int) Math.min(length, available));
+
+        while(buffer.hasRemaining())
+        {
+            if(channel.read(buffer, namesStart + offset + buffer.position()) < 0)
+            {
+                throw new IOException("Roster snapshot ends inside a name");
+            }
+        }
+
+        buffer.flip();
+
+        return buffer;
+    }
+
+    /*
+     * Gets the mapped chunk holding a record.
+     */
+    private MappedByteBuffer chunk(final int index)
+    {
+        if(index < 0 || index >= size)
+        {
+            throw new IllegalArgumentException("Unknown record: " + index);
+        }
+        return chunks[index >>> RECORDS_PER_CHUNK_SHIFT];
+    }
+
+    /*
+     * Gets the position of a record field inside its chunk.
+     */
+    private static int position(final int index,
+                                final int fieldOffset)
+    {
+        return (index & RECORD_INDEX_MASK) * RECORD_BYTES + fieldOffset;
+    }
+
+    private int getNameLength(final int index)
+    {
+        return chunk(index).getInt(position(index, NAME_LENGTH_OFFSET));
+    }
+
+    private long getNameOffset(final int index)
+    {
+        return chunk(index).getLong(position(index, NAME_OFFSET_OFFSET));
+    }
+
+    /**
+     * @return int number of creatures in the snapshot.
+     */
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * @param index the record index.
+     * @return int species tag, as in {@link CreaturePool}.
+     */
+    int getSpecies(final int index)
+    {
+        return chunk(index).getInt(position(index, TAG_OFFSET));
+    }
+
+    /**
+     * @param index the record index.
+     * @return int packed date of birth, as {@link Date#getPackedDate()}.
+     */
+    int getPackedDateOfBirth(final int index)
+    {
+        return chunk(index).getInt(position(index, DATE_OFFSET));
+    }
+
+    /**
+     * @param index the record index.
+     * @return Date object date of birth of the creature.
+     */
+    Date getDateOfBirth(final int index)
+    {
+        return Date.fromPackedDate(getPackedDateOfBirth(index));
+    }
+
+    /**
+     * @param index the record index.
+     * @return int health of the creature.
+     */
+    int getHealth(final int index)
+    {
+        return chunk(index).getInt(position(index, HEALTH_OFFSET));
+    }
+
+    /**
+     * @param index the record index.
+     * @return int firePower, mana or rage of the creature, depending on its species.
+     */
+    int getResource(final int index)
+    {
+        return chunk(index).getInt(position(index, RESOURCE_OFFSET));
+    }
+
+    /**
+     * Reads and decodes the name of a creature.
+     *
+     * @param index the record index.
+     * @return String name of the creature.
+     * @throws IOException if the name cannot be read.
+     */
+    String getName(final int index) throws IOException
+    {
+        final ByteBuffer name;
+
+        name = readNames(getNameOffset(index), getNameLength(index));
+
+        return new String(name.array(), 0, name.limit(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates a {@link Dragon}, {@link Elf} or {@link Orc} from a record.
+     *
+     * @param index the record index.
+     * @return the creature.
+     * @throws IOException if the name cannot be read.
+     */
+    Creature toCreature(final int index) throws IOException
+    {
+        final int    species;
+        final String name;
+
+        species = getSpecies(index);
+        name    = getName(index);
+
+        if(species == CreaturePool.SPECIES_DRAGON)
+        {
+            return new Dragon(name, getDateOfBirth(index), getHealth(index), getResource(index));
+        }
+        if(species == CreaturePool.SPECIES_ELF)
+        {
+            return new Elf(name, getDateOfBirth(index), getHealth(index), getResource(index));
+        }
+        return new Orc(name, getDateOfBirth(index), getHealth(index), getResource(index));
+    }
+
+    /**
+     * Adds every creature of the snapshot to {@code pool}, in record order.
+     *
+     * @param pool the pool to load into.
+     * @throws IOException if a name cannot be read.
+     */
+    void loadInto(final CreaturePool pool) throws IOException
+    {
+        for(int i = 0; i < size; i++)
+        {
+            final int    species;
+            final String name;
+
+            species = getSpecies(i);
+            name    = getName(i);
+
+            if(species == CreaturePool.SPECIES_DRAGON)
+            {
+                pool.addDragon(name, getDateOfBirth(i), getHealth(i), getResource(i));
+            } else if(species == CreaturePool.SPECIES_ELF)
+            {
+                pool.addElf(name, getDateOfBirth(i), getHealth(i), getResource(i));
+            } else
+            {
+                pool.addOrc(name, getDateOfBirth(i), getHealth(i), getResource(i));
+            }
+        }
+    }
+
+    /**
+     * Closes the file. The getters must not be used afterwards.
+     *
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        channel.close();
+    }
+
+    /*
+     * Writes records into mapped chunks and names through a buffer at the end of the file.
+     */
+    private static final class Writer implements Closeable
+    {
+        private final FileChannel        channel;
+        private final MappedByteBuffer[] chunks;
+        private final ByteBuffer         names;
+        private final int                count;
+        private final long               namesStart;
+        private long                     namesWritten;
+        private int                      index;
+
+        private Writer(final Path file,
+                       final int count) throws IOException
+        {
+            final int chunkCount;
+
+            this.channel      = FileChannel.open(file,
+                                                 StandardOpenOption.CREATE,
+                                                 StandardOpenOption.TRUNCATE_EXISTING,
+                                                 StandardOpenOption.READ,
+                                                 StandardOpenOption.WRITE);
+            this.count        = count;
+            this.namesStart   = HEADER_BYTES + (long) count * RECORD_BYTES;
+            this.names        = ByteBuffer.allocateDirect(NAME_BUFFER_BYTES);
+            this.namesWritten = 0;
+            this.index        = 0;
+
+            chunkCount  = (count + RECORDS_PER_CHUNK - 1) >>> RECORDS_PER_CHUNK_SHIFT;
+            this.chunks = new MappedByteBuffer[chunkCount];
+
+            for(int chunk = 0; chunk < chunkCount; chunk++)
+            {
+                final long start;
+
+                start         = HEADER_BYTES + chunk * CHUNK_BYTES;
+                chunks[chunk] = channel.map(FileChannel.MapMode.READ_WRITE,
+                                            start,
+                                            Math.min(CHUNK_BYTES, namesStart - start));
+            }
+        }
+
+        /*
+         * Appends one record and its name.
+         */
+        private void put(final int species,
+                         final String name,
+                         final int packedDate,
+                         final int health,
+                         final int resource) throws IOException
+        {
+            final MappedByteBuffer chunk;
+            final byte[]           nameBytes;
+
+            chunk     = chunks[index >>> RECORDS_PER_CHUNK_SHIFT];
+            nameBytes = name.getBytes(StandardCharsets.UTF_8);
+
+            chunk.putInt(position(index, TAG_OFFSET), species);
+            chunk.putInt(position(index, NAME_LENGTH_OFFSET), nameBytes.length);
+            chunk.putLong(position(index, NAME_OFFSET_OFFSET), namesWritten + names.position());
+            chunk.putInt(position(index, DATE_OFFSET), packedDate);
+            chunk.putInt(position(index, HEALTH_OFFSET), health);
+            chunk.putInt(position(index, RESOURCE_OFFSET), resource);
+
+            writeName(nameBytes);
+            index++;
+        }
+
+        /*
+         * Buffers a name, flushing to the names region when the buffer is full.
+         */
+        private void writeName(final byte[] nameBytes) throws IOException
+        {
+            int written;
+
+            written = 0;
+
+            while(written < nameBytes.length)
+            {
+                final int length;
+
+                if(!names.hasRemaining())
+                {
+                    flushNames();
+                }
+
+                length = Math.min(names.remaining(), nameBytes.length - written);
+                names.put(nameBytes, written, length);
+                written += length;
+            }
+        }
+
+        private void flushNames() throws IOException
+        {
+            names.flip();
+
+            while(names.hasRemaining())
+            {
+                namesWritten += channel.write(names, namesStart + namesWritten);
+            }
+
+            names.clear();
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            final ByteBuffer header;
+
+            try
+            {
+                if(index != count)
+                {
+                    throw new IllegalStateException("Expected " + count + " creatures but got " + index);
+                }
+
+                flushNames();
+
+                for(final MappedByteBuffer chunk : chunks)
+                {
+                    chunk.force();
+                }
+
+                // the names and the file length must be on disk before the header
+                // marks the file as a snapshot, so a torn file is rejected by open
+                channel.force(true);
+
+                header = ByteBuffer.allocate(HEADER_BYTES);
+                header.putInt(MAGIC);
+                header.putInt(VERSION);
+                header.putLong(count);
+                header.putLong(namesStart);
+                header.flip();
+
+                while(header.hasRemaining())
+                {
+                    channel.write(header, header.position());
+                }
+
+                channel.force(true);
+            } finally
+            {
+                channel.close();
+            }
+        }
+    }
+}
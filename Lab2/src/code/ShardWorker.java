@@ -0,0 +1,305 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <p>The worker process of a {@link ShardedWorld}: holds one {@link WorldShard} and
+ * plays rounds when the coordinator says so.</p>
+ *
+ * <p>On start the worker listens for its peers on a free loopback port, connects
+ * to the coordinator and sends its shard index and that port. The coordinator
+ * answers with the ports of every shard; the worker then connects to each shard
+ * with a lower index and accepts a connection from each shard with a higher one, so
+ * every pair of shards shares one socket. For every round it runs the attack
+ * phase, writes each peer its batch while reading the peer batches, applies the
+ * damage, and replies to the coordinator with its checksum and living count.</p>
+ *
+ * <p>Usage: {@code java ShardWorker coordinatorPort shardIndex shardCount creatures seed}.</p>
+ *
+ * @author Justin Cardas
+ * @author Mohammad Sadeghi
+ * @author Armaan Brar
+ * @version 1.0
+ */
+final class ShardWorker
+{
+    private static final int BUFFER_SIZE;
+
+    static
+    {
+        BUFFER_SIZE = 64 * 1024;
+    }
+
+    private final WorldShard         shard;
+    private final int                shardIndex;
+    private final int                shardCount;
+    private final DataInputStream[]  peerIns;
+    private final DataOutputStream[] peerOuts;
+    private final Socket[]           peerSockets;
+    private final byte[][]           sendBuffers;
+    private final ExecutorService    senders;
+    private byte[]                   receiveBuffer;
+    private int[]                    received;
+
+    private ShardWorker(final WorldShard shard,
+                        final int shardIndex,
+                        final int shardCount)
+    {
+        this.shard         = shard;
+        this.shardIndex    = shardIndex;
+        this.shardCount    = shardCount;
+        this.peerIns       = new DataInputStream[shardCount];
+        this.peerOuts      = new DataOutputStream[shardCount];
+        this.peerSockets   = new Socket[shardCount];
+        this.sendBuffers   = new byte[shardCount][0];
+        this.senders       = Executors.newVirtualThreadPerTaskExecutor();
+        this.receiveBuffer = new byte[0];
+        this.received      = new int[0];
+    }
+
+    public static void main(final String[] args) throws IOException
+    {
+        final int         coordinatorPort;
+        final int         shardIndex;
+        final int         shardCount;
+        final ShardWorker worker;
+
+        coordinatorPort = Integer.parseInt(args[0]);
+        shardIndex      = Integer.parseInt(args[1]);
+        shardCount      = Integer.parseInt(args[2]);
+        worker          = new ShardWorker(new WorldShard(shardIndex,
+                                                         shardCount,
+                                                         Integer.parseInt(args[3]),
+                                                         Long.parseLong(args[4])),
+                                          shardIndex,
+                                          shardCount);
+
+        try(ServerSocket peers = new ServerSocket(0, shardCount, InetAddress.getLoopbackAddress());
+            Socket coordinator = new Socket(InetAddress.getLoopbackAddress(), coordinatorPort);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(coordinator.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(coordinator.getOutputStream())))
+        {
+            final int[] ports;
+
+            coordinator.setTcpNoDelay(true);
+
+            out.writeInt(shardIndex);
+            out.writeInt(peers.getLocalPort());
+            out.flush();
+
+            ports = new int[shardCount];
+
+            for(int s = 0; s < shardCount; s++)
+            {
+                ports[s] = in.readInt();
+            }
+
+            worker.connectPeers(peers, ports);
+
+            out.writeInt(ShardedWorld.READY);
+            out.flush();
+
+            worker.serve(in, out);
+        } finally
+        {
+            worker.close();
+        }
+    }
+
+    /*
+     * Connects to every shard with a lower index, then accepts every shard with a
+     * higher one, which says who it is first.
+     */
+    private void connectPeers(final ServerSocket peers,
+                              final int[] ports) throws IOException
+    {
+        for(int s = 0; s < shardIndex; s++)
+        {
+            final Socket socket;
+
+            socket = new Socket(InetAddress.getLoopbackAddress(), ports[s]);
+
+            openPeer(s, socket);
+            peerOuts[s].writeInt(shardIndex);
+            peerOuts[s].flush();
+        }
+        for(int accepted = shardIndex + 1; accepted < shardCount; accepted++)
+        {
+            final Socket          socket;
+            final DataInputStream hello;
+
+            socket = peers.accept();
+            hello  = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+
+            openPeer(hello.readInt(), socket, hello);
+        }
+    }
+
+    private void openPeer(final int peer,
+                          final Socket socket) throws IOException
+    {
+        openPeer(peer, socket, new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE)));
+    }
+
+    private void openPeer(final int peer,
+                          final Socket socket,
+                          final DataInputStream in) throws IOException
+    {
+        socket.setTcpNoDelay(true);
+
+        peerSockets[peer] = socket;
+        peerIns[peer]     = in;
+        peerOuts[peer]    = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+    }
+
+    /*
+     * Plays rounds until the coordinator says stop or goes away.
+     */
+    private void serve(final DataInputStream in,
+                       final DataOutputStream out) throws IOException
+    {
+        while(true)
+        {
+            final int command;
+
+            command = in.readInt();
+
+            if(command != ShardedWorld.ROUND)
+            {
+                return;
+            }
+
+            playRound(in.readInt());
+
+            out.writeLong(shard.checksum());
+            out.writeInt(shard.countLiving());
+            out.flush();
+        }
+    }
+
+    /*
+     * Attacks, sends each peer its batch on its own virtual thread so no two shards
+     * can block writing to each other, applies every peer batch as it arrives, and
+     * applies the local batch last.
+     */
+    private void playRound(final int round) throws IOException
+    {
+        final Future<?>[] sends;
+
+        shard.attack(round);
+
+        sends = new Future<?>[shardCount];
+
+        for(int s = 0; s < shardCount; s++)
+        {
+            final int peer;
+
+            peer = s;
+
+            if(peer != shardIndex)
+            {
+                sends[peer] = senders.submit(() -> send(peer));
+            }
+        }
+        for(int s = 0; s < shardCount; s++)
+        {
+            if(s != shardIndex)
+            {
+                receive(s);
+            }
+        }
+        for(final Future<?> send : sends)
+        {
+            if(send != null)
+            {
+                awaitSend(send);
+            }
+        }
+
+        shard.applyDamage(shard.batch(shardIndex), shard.batchInts(shardIndex));
+    }
+
+    /*
+     * Writes the batch for a peer as its length in ints, then the ints in one write.
+     */
+    private void send(final int peer)
+    {
+        final int ints;
+
+        ints = shard.batchInts(peer);
+
+        if(sendBuffers[peer].length < ints * Integer.BYTES)
+        {
+            sendBuffers[peer] = new byte[ints * Integer.BYTES];
+        }
+
+        ByteBuffer.wrap(sendBuffers[peer]).asIntBuffer().put(shard.batch(peer), 0, ints);
+
+        try
+        {
+            peerOuts[peer].writeInt(ints);
+            peerOuts[peer].write(sendBuffers[peer], 0, ints * Integer.BYTES);
+            peerOuts[peer].flush();
+        } catch(IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void receive(final int peer) throws IOException
+    {
+        final int ints;
+
+        ints = peerIns[peer].readInt();
+
+        if(received.length < ints)
+        {
+            received      = new int[ints];
+            receiveBuffer = new byte[ints * Integer.BYTES];
+        }
+
+        peerIns[peer].readFully(receiveBuffer, 0, ints * Integer.BYTES);
+        ByteBuffer.wrap(receiveBuffer).asIntBuffer().get(received, 0, ints);
+
+        shard.applyDamage(received, ints);
+    }
+
+    private static void awaitSend(final Future<?> send) throws IOException
+    {
+        try
+        {
+            send.get();
+        } catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while sending a batch", e);
+        } catch(ExecutionException e)
+        {
+            throw new IOException("Could not send a batch", e.getCause());
+        }
+    }
+
+    private void close() throws IOException
+    {
+        senders.shutdownNow();
+
+        for(final Socket socket : peerSockets)
+        {
+            if(socket != null)
+            {
+                socket.close();
+            }
+        }
+    }
+}
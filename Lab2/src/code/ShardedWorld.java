@@ -0,0 +1,297 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Coordinates a world too large for one JVM, split by id into
+ * {@link WorldShard}s that each run in their own {@link ShardWorker} process on
+ * this machine.</p>
+ *
+ * <p>Starting the world launches one worker per shard with the same class path as
+ * this JVM, accepts their connections on a loopback port and tells each the ports
+ * of the others. {@link #playRound()} is the barrier between rounds: it sends every
+ * worker the round, and returns only when every worker has attacked, exchanged its
+ * batches of cross-shard hits with the other workers and applied the damage it
+ * received. The checksum it returns is the same a single {@link WorldShard} would
+ * give for the same seed, so a run can be checked against a single-process one
+ * round by round.</p>
+ *
+ * @author Justin Cardas
+ * @author Mohammad Sadeghi
+ * @author Armaan Brar
+ * @version 1.0
+ */
+final class ShardedWorld implements Closeable
+{
+    static final int READY;
+    static final int ROUND;
+    static final int STOP;
+
+    private static final int ACCEPT_TIMEOUT_MS;
+    private static final int EXIT_TIMEOUT_MS;
+
+    static
+    {
+        READY             = 1;
+        ROUND             = 2;
+        STOP              = 3;
+        ACCEPT_TIMEOUT_MS = 60_000;
+        EXIT_TIMEOUT_MS   = 10_000;
+    }
+
+    private final int                shardCount;
+    private final List<Process>      workers;
+    private final Socket[]           sockets;
+    private final DataInputStream[]  ins;
+    private final DataOutputStream[] outs;
+    private long                     checksum;
+    private long                     living;
+    private int                      rounds;
+
+    private ShardedWorld(final int shardCount)
+    {
+        this.shardCount = shardCount;
+        this.workers    = new ArrayList<>();
+        this.sockets    = new Socket[shardCount];
+        this.ins        = new DataInputStream[shardCount];
+        this.outs       = new DataOutputStream[shardCount];
+        this.checksum   = 0;
+        this.living     = 0;
+        this.rounds     = 0;
+    }
+
+    /**
+     * Launches one worker process per shard and waits until all of them are
+     * connected to each other.
+     *
+     * @param shardCount the number of shards.
+     * @param creatures  the number of creatures in the world.
+     * @param seed       the seed of the world.
+     * @param jvmOptions options for every worker JVM, such as its heap size.
+     * @return the running world.
+     * @throws IllegalArgumentException if {@code shardCount} is not positive or {@code creatures} is negative.
+     * @throws IOException              if a worker cannot be launched or does not connect.
+     */
+    static ShardedWorld start(final int shardCount,
+                              final int creatures,
+                              final long seed,
+                              final List<String> jvmOptions) throws IOException
+    {
+        final ShardedWorld world;
+
+        if(shardCount < 1 || creatures < 0)
+        {
+            throw new IllegalArgumentException("Invalid world: " + shardCount + " shards, " + creatures + " creatures");
+        }
+
+        world = new ShardedWorld(shardCount);
+
+        try(ServerSocket server = new ServerSocket(0, shardCount, InetAddress.getLoopbackAddress()))
+        {
+            final int[] ports;
+
+            server.setSoTimeout(ACCEPT_TIMEOUT_MS);
+
+            for(int s = 0; s < shardCount; s++)
+            {
+                world.workers.add(launch(server.getLocalPort(), s, shardCount, creatures, seed, jvmOptions));
+            }
+
+            ports = new int[shardCount];
+
+            for(int s = 0; s < shardCount; s++)
+            {
+                final Socket          socket;
+                final DataInputStream in;
+                final int             shard;
+
+                socket = server.accept();
+                in     = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                shard  = in.readInt();
+
+                socket.setTcpNoDelay(true);
+
+                world.sockets[shard] = socket;
+                world.ins[shard]     = in;
+                world.outs[shard]    = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                ports[shard]         = in.readInt();
+            }
+
+            for(final DataOutputStream out : world.outs)
+            {
+                for(final int port : ports)
+                {
+                    out.writeInt(port);
+                }
+                out.flush();
+            }
+            for(final DataInputStream in : world.ins)
+            {
+                if(in.readInt() != READY)
+                {
+                    throw new IOException("A worker failed to connect to its peers");
+                }
+            }
+        } catch(IOException | RuntimeException e)
+        {
+            world.close();
+            throw e;
+        }
+
+        return world;
+    }
+
+    /**
+     * Plays the next round on every shard and waits for all of them to finish it.
+     *
+     * @return long the checksum of the world after the round.
+     * @throws IOException if a worker fails or goes away.
+     */
+    long playRound() throws IOException
+    {
+        long sum;
+        long alive;
+
+        for(final DataOutputStream out : outs)
+        {
+            out.writeInt(ROUND);
+            out.writeInt(rounds);
+            out.flush();
+        }
+
+        sum   = 0;
+        alive = 0;
+
+        for(final DataInputStream in : ins)
+        {
+            sum   += in.readLong();
+            alive += in.readInt();
+        }
+
+        checksum = sum;
+        living   = alive;
+        rounds++;
+
+        return checksum;
+    }
+
+    /**
+     * @return long the checksum of the world after the last round.
+     */
+    long checksum()
+    {
+        return checksum;
+    }
+
+    /**
+     * @return long number of living creatures after the last round.
+     */
+    long countLiving()
+    {
+        return living;
+    }
+
+    /**
+     * @return int number of rounds played.
+     */
+    int rounds()
+    {
+        return rounds;
+    }
+
+    /**
+     * @return int number of shards.
+     */
+    int shardCount()
+    {
+        return shardCount;
+    }
+
+    /**
+     * Tells every worker to stop and waits for the processes to exit, killing any
+     * that do not.
+     */
+    @Override
+    public void close()
+    {
+        for(final DataOutputStream out : outs)
+        {
+            if(out != null)
+            {
+                try
+                {
+                    out.writeInt(STOP);
+                    out.flush();
+                } catch(IOException e)
+                {
+                    // the worker is already gone; it is killed below if it lingers
+                }
+            }
+        }
+        for(final Process worker : workers)
+        {
+            try
+            {
+                if(!worker.waitFor(EXIT_TIMEOUT_MS, TimeUnit.MILLISECONDS))
+                {
+                    worker.destroyForcibly();
+                }
+            } catch(InterruptedException e)
+            {
+                worker.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+        for(final Socket socket : sockets)
+        {
+            if(socket != null)
+            {
+                try
+                {
+                    socket.close();
+                } catch(IOException e)
+                {
+                    // already closing; keep closing the others
+                }
+            }
+        }
+    }
+
+    /*
+     * Starts a worker JVM for one shard with this JVM's class path.
+     */
+    private static Process launch(final int coordinatorPort,
+                                  final int shard,
+                                  final int shardCount,
+                                  final int creatures,
+                                  final long seed,
+                                  final List<String> jvmOptions) throws IOException
+    {
+        final List<String> command;
+
+        command = new ArrayList<>();
+
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ShardWorker.class.getName());
+        command.add(Integer.toString(coordinatorPort));
+        command.add(Integer.toString(shard));
+        command.add(Integer.toString(shardCount));
+        command.add(Integer.toString(creatures));
+        command.add(Long.toString(seed));
+
+        return new ProcessBuilder(command).inheritIO().start();
+    }
+}
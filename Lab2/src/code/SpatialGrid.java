@@ -0,0 +1,391 @@
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * <p>Gives the creatures of a {@link CreaturePool} positions in a rectangular world
+ * and finds every creature within a radius of a point, for area-of-effect attacks
+ * such as {@link CreaturePool#breathFire(int, int, SpatialGrid, int)}.</p>
+ *
+ * <p>The world is divided into a uniform grid of square cells whose side is a
+ * power of two, and each cell is an int array of the ids of the creatures in it,
+ * so a query only looks at the creatures of the few cells overlapping its circle.
+ * Coordinates are columns indexed by id like the pool's, so moving every creature
+ * in id order writes them in order; only a creature that crosses into another cell
+ * touches the cells, swapped out of the old one and appended to the new one, both
+ * O(1).</p>
+ *
+ * <p>Creatures that were never placed are not in the grid, and dead creatures stay
+ * where they fell: queries report both the living and the dead.</p>
+ *
+ * @author Justin Cardas
+ * @author Mohammad Sadeghi
+ * @author Armaan Brar
+ * @version 1.0
+ */
+final class SpatialGrid
+{
+    private static final int NOT_PLACED;
+    private static final int DEFAULT_CELL_CAPACITY;
+    private static final int GROWTH_FACTOR;
+
+    static
+    {
+        NOT_PLACED            = -1;
+        DEFAULT_CELL_CAPACITY = 4;
+        GROWTH_FACTOR         = 2;
+    }
+
+    /*
+     * cellOf and entryOf give the cell of each placed creature, or NOT_PLACED, and
+     * its index in that cell.
+     */
+    private final CreaturePool pool;
+    private final int          width;
+    private final int          height;
+    private final int          cellShift;
+    private final int          columns;
+    private final int          rows;
+    private final int[][]      cells;
+    private final int[]        cellSizes;
+    private int[]              xs;
+    private int[]              ys;
+    private int[]              cellOf;
+    private int[]              entryOf;
+    private int                placed;
+
+    /**
+     * Constructs an empty grid over a world from (0, 0) to ({@code width} - 1,
+     * {@code height} - 1) for the creatures of {@code pool}.
+     *
+     * @param pool     the pool whose creatures are placed.
+     * @param width    the width of the world.
+     * @param height   the height of the world.
+     * @param cellSize the side of a cell, a power of two.
+     * @throws IllegalArgumentException if {@code pool} is {@code null}, the world is
+     *                                  empty, or {@code cellSize} is not a power of two.
+     */
+    SpatialGrid(final CreaturePool pool,
+                final int width,
+                final int height,
+                final int cellSize)
+    {
+        if(pool == null)
+        {
+            throw new IllegalArgumentException("Pool cannot be null");
+        }
+        if(width < 1 || height < 1)
+        {
+            throw new IllegalArgumentException("Invalid world size: " + width + " x " + height);
+        }
+        if(cellSize < 1 || Integer.bitCount(cellSize) != 1)
+        {
+            throw new IllegalArgumentException("Cell size must be a power of two: " + cellSize);
+        }
+
+        this.pool      = pool;
+        this.width     = width;
+        this.height    = height;
+        this.cellShift = Integer.numberOfTrailingZeros(cellSize);
+        this.columns   = (int) (((long) width + cellSize - 1) >> cellShift);
+        this.rows      = (int) (((long) height + cellSize - 1) >> cellShift);
+
+        if((long) columns * rows > Integer.MAX_VALUE)
+        {
+            throw new IllegalArgumentException("Too many cells; use a larger cell size");
+        }
+
+        this.cells     = new int[columns * rows][];
+        this.cellSizes = new int[columns * rows];
+        this.xs        = new int[0];
+        this.ys        = new int[0];
+        this.cellOf    = new int[0];
+        this.entryOf   = new int[0];
+        this.placed    = 0;
+
+        Arrays.fill(cells, new int[0]);
+    }
+
+    /**
+     * Places a creature at ({@code x}, {@code y}), or moves it there if it was
+     * already placed.
+     *
+     * @param id the id of the creature.
+     * @param x  the x coordinate, from 0 to the width - 1.
+     * @param y  the y coordinate, from 0 to the height - 1.
+     * @throws IllegalArgumentException if the creature is unknown or the position is outside the world.
+     */
+    void place(final int id,
+               final int x,
+               final int y)
+    {
+        final int cell;
+
+        validateId(id);
+        validatePosition(x, y);
+
+        if(id >= cellOf.length)
+        {
+            growIds(id);
+        }
+
+        cell   = (y >> cellShift) * columns + (x >> cellShift);
+        xs[id] = x;
+        ys[id] = y;
+
+        if(cellOf[id] == NOT_PLACED)
+        {
+            append(cell, id);
+            placed++;
+        } else if(cellOf[id] != cell)
+        {
+            detach(id);
+            append(cell, id);
+        }
+    }
+
+    /**
+     * Takes a creature out of the grid.
+     *
+     * @param id the id of the creature.
+     * @return true if the creature was placed.
+     */
+    boolean remove(final int id)
+    {
+        if(!isPlaced(id))
+        {
+            return false;
+        }
+
+        detach(id);
+        cellOf[id] = NOT_PLACED;
+        placed--;
+
+        return true;
+    }
+
+    /**
+     * @param id the id of the creature.
+     * @return true if the creature has a position.
+     */
+    boolean isPlaced(final int id)
+    {
+        return id >= 0 &&
+               id < cellOf.length &&
+               cellOf[id] != NOT_PLACED;
+    }
+
+    /**
+     * @param id the id of a placed creature.
+     * @return int the x coordinate of the creature.
+     * @throws IllegalArgumentException if the creature is not placed.
+     */
+    int getX(final int id)
+    {
+        validatePlaced(id);
+        return xs[id];
+    }
+
+    /**
+     * @param id the id of a placed creature.
+     * @return int the y coordinate of the creature.
+     * @throws IllegalArgumentException if the creature is not placed.
+     */
+    int getY(final int id)
+    {
+        validatePlaced(id);
+        return ys[id];
+    }
+
+    /**
+     * @return int number of creatures placed.
+     */
+    int size()
+    {
+        return placed;
+    }
+
+    /**
+     * @return CreaturePool the pool whose creatures are placed.
+     */
+    CreaturePool pool()
+    {
+        return pool;
+    }
+
+    /**
+     * Calls {@code action} with the id of every creature at a distance of at most
+     * {@code radius} from ({@code x}, {@code y}), cell by cell.
+     *
+     * @param x      the x coordinate of the centre.
+     * @param y      the y coordinate of the centre.
+     * @param radius the radius.
+     * @param action the action to call.
+     * @throws IllegalArgumentException if {@code radius} is negative.
+     */
+    void forEachWithin(final int x,
+                       final int y,
+                       final int radius,
+                       final IntConsumer action)
+    {
+        final long radiusSquared;
+        final int  firstColumn;
+        final int  lastColumn;
+        final int  firstRow;
+        final int  lastRow;
+
+        if(radius < 0)
+        {
+            throw new IllegalArgumentException("Radius cannot be negative: " + radius);
+        }
+
+        radiusSquared = (long) radius * radius;
+        firstColumn   = clampedCell((long) x - radius, columns);
+        lastColumn    = clampedCell((long) x + radius, columns);
+        firstRow      = clampedCell((long) y - radius, rows);
+        lastRow       = clampedCell((long) y + radius, rows);
+
+        for(int row = firstRow; row <= lastRow; row++)
+        {
+            for(int column = firstColumn; column <= lastColumn; column++)
+            {
+                final int   cell;
+                final int[] ids;
+                final int   count;
+
+                cell  = row * columns + column;
+                ids   = cells[cell];
+                count = cellSizes[cell];
+
+                for(int i = 0; i < count; i++)
+                {
+                    final int  id;
+                    final long dx;
+                    final long dy;
+
+                    id = ids[i];
+                    dx = (long) xs[id] - x;
+                    dy = (long) ys[id] - y;
+
+                    if(dx * dx + dy * dy <= radiusSquared)
+                    {
+                        action.accept(id);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param x      the x coordinate of the centre.
+     * @param y      the y coordinate of the centre.
+     * @param radius the radius.
+     * @return int number of creatures at a distance of at most {@code radius} from ({@code x}, {@code y}).
+     * @throws IllegalArgumentException if {@code radius} is negative.
+     */
+    int countWithin(final int x,
+                    final int y,
+                    final int radius)
+    {
+        final int[] count;
+
+        count = new int[1];
+
+        forEachWithin(x, y, radius, id -> count[0]++);
+
+        return count[0];
+    }
+
+    /*
+     * Gets the cell column or row of a coordinate, clamped to the grid.
+     */
+    private int clampedCell(final long coordinate,
+                            final int cellCount)
+    {
+        return (int) Math.max(0, Math.min(coordinate >> cellShift, cellCount - 1));
+    }
+
+    /*
+     * Adds a creature at the end of a cell.
+     */
+    private void append(final int cell,
+                        final int id)
+    {
+        final int at;
+
+        at = cellSizes[cell];
+
+        if(at == cells[cell].length)
+        {
+            cells[cell] = Arrays.copyOf(cells[cell], Math.max(at * GROWTH_FACTOR, DEFAULT_CELL_CAPACITY));
+        }
+
+        cells[cell][at] = id;
+        cellSizes[cell] = at + 1;
+        cellOf[id]      = cell;
+        entryOf[id]     = at;
+    }
+
+    /*
+     * Removes a creature from its cell by moving the last creature of the cell into
+     * its place.
+     */
+    private void detach(final int id)
+    {
+        final int   cell;
+        final int   at;
+        final int   last;
+        final int[] ids;
+
+        cell = cellOf[id];
+        at   = entryOf[id];
+        ids  = cells[cell];
+        last = ids[--cellSizes[cell]];
+
+        ids[at]       = last;
+        entryOf[last] = at;
+    }
+
+    /*
+     * Makes room in the columns for ids up to id.
+     */
+    private void growIds(final int id)
+    {
+        final int oldLength;
+        final int newLength;
+
+        oldLength = cellOf.length;
+        newLength = Math.max(id + 1, Math.min(oldLength * GROWTH_FACTOR, pool.size()));
+
+        xs      = Arrays.copyOf(xs, newLength);
+        ys      = Arrays.copyOf(ys, newLength);
+        cellOf  = Arrays.copyOf(cellOf, newLength);
+        entryOf = Arrays.copyOf(entryOf, newLength);
+
+        Arrays.fill(cellOf, oldLength, newLength, NOT_PLACED);
+    }
+
+    private void validateId(final int id)
+    {
+        if(id < 0 || id >= pool.size())
+        {
+            throw new IllegalArgumentException("Unknown creature id: " + id);
+        }
+    }
+
+    private void validatePlaced(final int id)
+    {
+        if(!isPlaced(id))
+        {
+            throw new IllegalArgumentException("Creature " + id + " has no position");
+        }
+    }
+
+    private void validatePosition(final int x,
+                                  final int y)
+    {
+        if(x < 0 || x >= width || y < 0 || y >= height)
+        {
+            throw new IllegalArgumentException("Position outside the world: (" + x + ", " + y + ")");
+        }
+    }
+}
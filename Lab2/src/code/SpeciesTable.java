@@ -0,0 +1,548 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>The rules of every species, one row per species tag, so combat can be driven
+ * by data instead of by a class per species. {@link #STANDARD} holds
+ * {@link Dragon}, {@link Elf} and {@link Orc} at the tags of
+ * {@link CreaturePool#SPECIES_DRAGON}, {@link CreaturePool#SPECIES_ELF} and
+ * {@link CreaturePool#SPECIES_ORC}, with the constants of those classes; more
+ * species can be loaded from a config file.</p>
+ *
+ * <p>Every species has one resource and one attack, which is resolved like this
+ * against the attacker's resource:</p>
+ * <ol>
+ *     <li>if the resource is above {@code BOOST_ABOVE}, a hit of {@code DAMAGE}
+ *     times {@code BOOST_MULTIPLIER} lands and {@code ATTACK_COST} is taken off
+ *     the resource;</li>
+ *     <li>then, if the resource is below {@code ATTACK_MINIMUM}, the attack fails
+ *     for a low resource and the resource is left as it was;</li>
+ *     <li>otherwise, if the resource is below {@code NORMAL_BELOW}, a hit of
+ *     {@code DAMAGE} lands and {@code ATTACK_COST} is taken off again.</li>
+ * </ol>
+ * <p>A negative cost raises the resource, as berserking raises rage.</p>
+ *
+ * <p>{@code RESTORES} is not part of the attack but of a turn: a species that
+ * restores fills its resource back to the maximum on its turn when it is too low to
+ * attack. Only worlds that play turns apply it, through
+ * {@link #resourceAfterTurn}; {@link CombatEngine#resolveRound} resolves single
+ * attacks and, like the single-call methods of {@link CreaturePool}, leaves a low
+ * resource as it was.</p>
+ *
+ * <p>The rules of all species are stored in one int array, {@code RULE_STRIDE}
+ * ints per species, read with the field offsets below. The attack rule itself is
+ * written once, in {@link #attackFails}, {@link #attackDamage} and
+ * {@link #resourceAfterAttack}, which every interpreter calls: they resolve an
+ * attack of any species with the same loads and no branches, so a loop over mixed
+ * species stays monomorphic.</p>
+ *
+ * <p>The standard tags keep the standard rules everywhere: the single-call combat
+ * methods of {@link CreaturePool}, {@link BattleWorld}, {@link EffectScheduler} and
+ * the creature classes read the constants of {@link Dragon}, {@link Elf} and
+ * {@link Orc}. So a config file must start by restating the standard table
+ * exactly, and only the species after it are free.</p>
+ *
+ * <p>A config file has one species per line, in tag order. Blank lines and lines
+ * starting with {@code #} are skipped. A line holds, separated by spaces: the name,
+ * {@code MIN_RESOURCE}, {@code MAX_RESOURCE}, {@code ATTACK_MINIMUM},
+ * {@code ATTACK_COST}, {@code DAMAGE}, {@code NORMAL_BELOW}, {@code BOOST_ABOVE},
+ * {@code BOOST_MULTIPLIER}, {@code yes} or {@code no} for {@code RESTORES}, and the
+ * name of the resource, which is the rest of the line. {@code -} for
+ * {@code NORMAL_BELOW} or {@code BOOST_ABOVE} means no limit. The standard table
+ * reads:</p>
+ * <pre>
+ * dragon 0 100 10 10 20 - - 1 yes fire power
+ * elf    0  50  5  5 10 - - 1 yes mana
+ * orc    5  30  5 -5 15 20 20 2 no rage
+ * </pre>
+ *
+ * @author Justin Cardas
+ * @author Mohammad Sadeghi
+ * @author Armaan Brar
+ * @version 1.0
+ */
+final class SpeciesTable
+{
+    // Field offsets within a species' rules
+    static final int MIN_RESOURCE;
+    static final int MAX_RESOURCE;
+    static final int ATTACK_MINIMUM;
+    static final int ATTACK_COST;
+    static final int DAMAGE;
+    static final int NORMAL_BELOW;
+    static final int BOOST_ABOVE;
+    static final int BOOST_MULTIPLIER;
+    static final int RESTORES;
+    static final int RULE_STRIDE;
+
+    // NORMAL_BELOW or BOOST_ABOVE without a limit
+    static final int NO_LIMIT;
+
+    static final SpeciesTable STANDARD;
+
+    private static final String COMMENT;
+    private static final String NO_LIMIT_TEXT;
+    private static final String YES;
+    private static final String NO;
+    private static final int    FIELDS;
+
+    static
+    {
+        MIN_RESOURCE     = 0;
+        MAX_RESOURCE     = 1;
+        ATTACK_MINIMUM   = 2;
+        ATTACK_COST      = 3;
+        DAMAGE           = 4;
+        NORMAL_BELOW     = 5;
+        BOOST_ABOVE      = 6;
+        BOOST_MULTIPLIER = 7;
+        RESTORES         = 8;
+        RULE_STRIDE      = 9;
+
+        NO_LIMIT = Integer.MAX_VALUE;
+
+        COMMENT       = "#";
+        NO_LIMIT_TEXT = "-";
+        YES           = "yes";
+        NO            = "no";
+        FIELDS        = RULE_STRIDE + 2;
+
+        STANDARD = new SpeciesTable(new String[]{"dragon", "elf", "orc"},
+                                    new String[]{"fire power", "mana", "rage"},
+                                    new int[]{
+                                        Dragon.MIN_FIREPOWER,
+                                        Dragon.MAX_FIREPOWER,
+                                        Dragon.FIREPOWER_COST,
+                                        Dragon.FIREPOWER_COST,
+                                        Dragon.FIREPOWER_DAMAGE,
+                                        NO_LIMIT,
+                                        NO_LIMIT,
+                                        1,
+                                        1,
+
+                                        Elf.MIN_MANA,
+                                        Elf.MAX_MANA,
+                                        Elf.MANA_SPELL_COST,
+                                        Elf.MANA_SPELL_COST,
+                                        Elf.SPELL_POWER,
+                                        NO_LIMIT,
+                                        NO_LIMIT,
+                                        1,
+                                        1,
+
+                                        Orc.MIN_RAGE,
+                                        Orc.MAX_RAGE,
+                                        Orc.MIN_RAGE,
+                                        -Orc.BERSERK_RAGE_INCREASE,
+                                        Orc.RAGE_NORMAL_DAMAGE,
+                                        Orc.RAGE_BOOST_REQUIREMENT,
+                                        Orc.RAGE_BOOST_REQUIREMENT,
+                                        Orc.RAGE_BOOST_MODIFIER,
+                                        0
+                                    });
+    }
+
+    private final String[] names;
+    private final String[] resourceNames;
+    private final int[]    rules;
+
+    private SpeciesTable(final String[] names,
+                         final String[] resourceNames,
+                         final int[] rules)
+    {
+        this.names         = names;
+        this.resourceNames = resourceNames;
+        this.rules         = rules;
+    }
+
+    /**
+     * Loads a table from a UTF-8 config file.
+     *
+     * @param file the config file.
+     * @return SpeciesTable the table.
+     * @throws IOException              if the file cannot be read.
+     * @throws IllegalArgumentException if a line is not a valid species.
+     */
+    static SpeciesTable load(final Path file) throws IOException
+    {
+        try(BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8))
+        {
+            return read(reader);
+        }
+    }
+
+    /**
+     * Reads a table in config file format.
+     *
+     * @param reader the config text.
+     * @return SpeciesTable the table.
+     * @throws IOException              if {@code reader} fails.
+     * @throws IllegalArgumentException if a line is not a valid species, two species
+     *                                  have the same name, or the table does not start
+     *                                  with the standard species.
+     */
+    static SpeciesTable read(final BufferedReader reader) throws IOException
+    {
+        final List<String> names;
+        final List<String> resourceNames;
+        final List<int[]>  rows;
+        final int[]        rules;
+        String             line;
+        int                lineNumber;
+
+        names         = new ArrayList<>();
+        resourceNames = new ArrayList<>();
+        rows          = new ArrayList<>();
+        lineNumber    = 0;
+
+        while((line = reader.readLine()) != null)
+        {
+            final String   text;
+            final String[] fields;
+            final int[]    row;
+            final String   problem;
+
+            lineNumber++;
+            text = line.strip();
+
+            if(text.isEmpty() || text.startsWith(COMMENT))
+            {
+                continue;
+            }
+
+            fields = text.split("\\s+", FIELDS);
+
+            if(fields.length != FIELDS)
+            {
+                throw new IllegalArgumentException("Line " + lineNumber + ": expected " + FIELDS + " fields");
+            }
+            if(names.contains(fields[0]))
+            {
+                throw new IllegalArgumentException("Line " + lineNumber + ": duplicate species " + fields[0]);
+            }
+
+            row = new int[RULE_STRIDE];
+
+            for(int field = 0; field < RESTORES; field++)
+            {
+                row[field] = parseRule(fields[field + 1], field, lineNumber);
+            }
+
+            row[RESTORES] = parseRestores(fields[RESTORES + 1], lineNumber);
+            problem       = rows.size() < STANDARD.size()
+                            ? checkStandard(rows.size(), fields[0], fields[FIELDS - 1], row)
+                            : checkRules(row);
+
+            if(problem != null)
+            {
+                throw new IllegalArgumentException("Line " + lineNumber + ": " + problem);
+            }
+
+            names.add(fields[0]);
+            resourceNames.add(fields[FIELDS - 1]);
+            rows.add(row);
+        }
+
+        if(rows.size() < STANDARD.size())
+        {
+            throw new IllegalArgumentException("A species table must start with the " + STANDARD.size() + " standard species");
+        }
+
+        rules = new int[rows.size() * RULE_STRIDE];
+
+        for(int species = 0; species < rows.size(); species++)
+        {
+            System.arraycopy(rows.get(species), 0, rules, species * RULE_STRIDE, RULE_STRIDE);
+        }
+
+        return new SpeciesTable(names.toArray(new String[0]),
+                                resourceNames.toArray(new String[0]),
+                                rules);
+    }
+
+    /**
+     * @return int number of species.
+     */
+    int size()
+    {
+        return names.length;
+    }
+
+    /**
+     * @param species the species tag.
+     * @return String the name of the species (e.g. "dragon").
+     */
+    String name(final int species)
+    {
+        return names[species];
+    }
+
+    /**
+     * @param species the species tag.
+     * @return String the name of the species' resource, as {@code getDetails} prints it (e.g. "fire power").
+     */
+    String resourceName(final int species)
+    {
+        return resourceNames[species];
+    }
+
+    /**
+     * @param name the name of a species.
+     * @return int the tag of the species, or -1 if there is none by that name.
+     */
+    int speciesOf(final String name)
+    {
+        return Arrays.asList(names).indexOf(name);
+    }
+
+    /**
+     * @param species the species tag.
+     * @param field   the field offset, such as {@code DAMAGE}.
+     * @return int the value of the field for the species.
+     */
+    int rule(final int species,
+             final int field)
+    {
+        return rules[species * RULE_STRIDE + field];
+    }
+
+    /**
+     * The rules of every species, {@code RULE_STRIDE} ints per species tag. Shared
+     * with the combat loops, which must not write to it.
+     *
+     * @return int[] the rules.
+     */
+    int[] rules()
+    {
+        return rules;
+    }
+
+    /**
+     * Checks a species tag and a resource against the table, without throwing.
+     *
+     * @param species  the species tag.
+     * @param resource the resource.
+     * @return String null if both are valid, otherwise why they are not.
+     */
+    String checkResource(final int species,
+                         final int resource)
+    {
+        if(species < 0 || species >= names.length)
+        {
+            return "Unknown species: " + species;
+        }
+        if(resource < rule(species, MIN_RESOURCE))
+        {
+            return resourceName(species) + " must be >=" + rule(species, MIN_RESOURCE);
+        }
+        if(resource > rule(species, MAX_RESOURCE))
+        {
+            return resourceName(species) + " must be <=" + rule(species, MAX_RESOURCE);
+        }
+        return null;
+    }
+
+    /**
+     * Whether an attack fails for a low resource, following the attack rule above.
+     *
+     * @param rules    the rules of a table, from {@link #rules()}.
+     * @param rule     the attacker's species tag times {@code RULE_STRIDE}.
+     * @param resource the attacker's resource before the attack.
+     * @return int 1 if the attack fails for a low resource, otherwise 0.
+     */
+    static int attackFails(final int[] rules,
+                           final int rule,
+                           final int resource)
+    {
+        return resource - boosted(rules, rule, resource) * rules[rule + ATTACK_COST] < rules[rule + ATTACK_MINIMUM]
+               ? 1
+               : 0;
+    }
+
+    /**
+     * The damage an attack deals, following the attack rule above. A boosted hit
+     * lands even when the attack then fails for a low resource.
+     *
+     * @param rules    the rules of a table, from {@link #rules()}.
+     * @param rule     the attacker's species tag times {@code RULE_STRIDE}.
+     * @param resource the attacker's resource before the attack.
+     * @return int the damage dealt to the target.
+     */
+    static int attackDamage(final int[] rules,
+                            final int rule,
+                            final int resource)
+    {
+        final int boosted;
+        final int normal;
+
+        boosted = boosted(rules, rule, resource);
+        normal  = resource - boosted * rules[rule + ATTACK_COST] < rules[rule + NORMAL_BELOW]
+                  ? 1 - attackFails(rules, rule, resource)
+                  : 0;
+
+        return rules[rule + DAMAGE] * (boosted * rules[rule + BOOST_MULTIPLIER] + normal);
+    }
+
+    /**
+     * The attacker's resource after an attack, following the attack rule above. A
+     * failed attack leaves the resource as it was, as the single-call combat methods
+     * of {@link CreaturePool} do.
+     *
+     * @param rules    the rules of a table, from {@link #rules()}.
+     * @param rule     the attacker's species tag times {@code RULE_STRIDE}.
+     * @param resource the attacker's resource before the attack.
+     * @return int the attacker's resource after the attack.
+     */
+    static int resourceAfterAttack(final int[] rules,
+                                   final int rule,
+                                   final int resource)
+    {
+        final int cost;
+        final int boosted;
+        final int normal;
+
+        cost    = rules[rule + ATTACK_COST];
+        boosted = boosted(rules, rule, resource);
+        normal  = resource - boosted * cost < rules[rule + NORMAL_BELOW]
+                  ? 1
+                  : 0;
+
+        return attackFails(rules, rule, resource) == 0
+               ? resource - (boosted + normal) * cost
+               : resource;
+    }
+
+    /**
+     * The attacker's resource after a whole turn, for worlds that play turns, such
+     * as {@link WorldShard}: the attack, then, if it failed for a low resource, a
+     * species that {@code RESTORES} fills its resource back to the maximum.
+     *
+     * @param rules    the rules of a table, from {@link #rules()}.
+     * @param rule     the attacker's species tag times {@code RULE_STRIDE}.
+     * @param resource the attacker's resource before the turn.
+     * @return int the attacker's resource after the turn.
+     */
+    static int resourceAfterTurn(final int[] rules,
+                                 final int rule,
+                                 final int resource)
+    {
+        return attackFails(rules, rule, resource) != 0 && rules[rule + RESTORES] != 0
+               ? rules[rule + MAX_RESOURCE]
+               : resourceAfterAttack(rules, rule, resource);
+    }
+
+    /*
+     * 1 if the resource is high enough for a boosted hit, otherwise 0.
+     */
+    private static int boosted(final int[] rules,
+                               final int rule,
+                               final int resource)
+    {
+        return resource > rules[rule + BOOST_ABOVE]
+               ? 1
+               : 0;
+    }
+
+    /*
+     * Parses one rule field of a config line.
+     */
+    private static int parseRule(final String text,
+                                 final int field,
+                                 final int lineNumber)
+    {
+        if(text.equals(NO_LIMIT_TEXT) && (field == NORMAL_BELOW || field == BOOST_ABOVE))
+        {
+            return NO_LIMIT;
+        }
+
+        try
+        {
+            return Integer.parseInt(text);
+        } catch(NumberFormatException e)
+        {
+            throw new IllegalArgumentException("Line " + lineNumber + ": not a number: " + text);
+        }
+    }
+
+    private static int parseRestores(final String text,
+                                     final int lineNumber)
+    {
+        if(text.equals(YES))
+        {
+            return 1;
+        }
+        if(text.equals(NO))
+        {
+            return 0;
+        }
+        throw new IllegalArgumentException("Line " + lineNumber + ": expected " + YES + " or " + NO + ": " + text);
+    }
+
+    /*
+     * Checks that a row at a standard tag restates the standard species exactly.
+     * Returns null if it does, otherwise why not.
+     */
+    private static String checkStandard(final int species,
+                                        final String name,
+                                        final String resourceName,
+                                        final int[] row)
+    {
+        if(!name.equals(STANDARD.name(species)) ||
+           !resourceName.equals(STANDARD.resourceName(species)) ||
+           !Arrays.equals(row, 0, RULE_STRIDE, STANDARD.rules, species * RULE_STRIDE, (species + 1) * RULE_STRIDE))
+        {
+            return "species " + species + " must be " + STANDARD.name(species) + " with the standard rules";
+        }
+        return null;
+    }
+
+    /*
+     * The rules a species must follow. Returns null if valid, otherwise why not.
+     * An attack pays its cost at most twice and deals at most a boosted and a
+     * normal hit, so those are checked to fit an int: an overflowed damage would
+     * turn negative and heal the target.
+     */
+    private static String checkRules(final int[] row)
+    {
+        final long maxCost;
+
+        maxCost = 2L * row[ATTACK_COST];
+
+        if(row[MIN_RESOURCE] < 0 || row[MIN_RESOURCE] > row[MAX_RESOURCE])
+        {
+            return "resources must satisfy 0 <= min <= max";
+        }
+        if(row[ATTACK_MINIMUM] < row[MIN_RESOURCE] || row[ATTACK_MINIMUM] > row[MAX_RESOURCE])
+        {
+            return "attack minimum must lie between min and max";
+        }
+        if(row[DAMAGE] < 0)
+        {
+            return "damage cannot be negative";
+        }
+        if(row[BOOST_MULTIPLIER] < 1)
+        {
+            return "boost multiplier must be >=1";
+        }
+        if((long) row[DAMAGE] * (row[BOOST_MULTIPLIER] + 1L) > Integer.MAX_VALUE)
+        {
+            return "damage times (boost multiplier + 1) must fit an int";
+        }
+        if(!fitsInt(row[MIN_RESOURCE] - maxCost) || !fitsInt(row[MAX_RESOURCE] - maxCost))
+        {
+            return "resource minus twice the cost must fit an int";
+        }
+        return null;
+    }
+
+    private static boolean fitsInt(final long value)
+    {
+        return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,233 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * <p>Runs large numbers of randomized one-on-one battles between {@link Dragon}s,
+ * {@link Elf}s and {@link Orc}s to help balance the combat constants.</p>
+ *
+ * <p>Battles are split across a {@link ForkJoinPool}. The range of battles is always
+ * split the same way and each half gets its own {@link SplittableRandom} split from
+ * its parent's, so the results depend only on the seed and the number of battles,
+ * never on how many threads run them.</p>
+ *
+ * <p>In each round the first creature attacks, then the second one if it is still
+ * alive. A dragon or elf that is too low to attack restores a random amount of
+ * firePower or mana instead. A battle still going after {@code MAX_ROUNDS} rounds
+ * is a draw.</p>
+ *
+ * @author Justin Cardas
+ * @author Mohammad Sadeghi
+ * @author Armaan Brar
+ * @version 1.0
+ */
+final class Tournament
+{
+    static final int MAX_ROUNDS;
+
+    private static final int    BATTLES_PER_TASK;
+    private static final Date   DATE_OF_BIRTH;
+    private static final String DRAGON_NAME;
+    private static final String ELF_NAME;
+    private static final String ORC_NAME;
+
+    static
+    {
+        MAX_ROUNDS       = 100;
+        BATTLES_PER_TASK = 4_096;
+        DATE_OF_BIRTH    = Date.of(1, 1, 2000);
+        DRAGON_NAME      = "Dragon";
+        ELF_NAME         = "Elf";
+        ORC_NAME         = "Orc";
+    }
+
+    private Tournament()
+    {
+    }
+
+    /**
+     * Runs a tournament on the common {@link ForkJoinPool}.
+     *
+     * @param seed    the seed of the tournament.
+     * @param battles the number of battles to run.
+     * @return the merged statistics of every battle.
+     * @throws IllegalArgumentException if {@code battles} is negative.
+     */
+    static TournamentStats run(final long seed,
+                               final int battles)
+    {
+        return run(seed, battles, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs a tournament on {@code pool}.
+     *
+     * @param seed    the seed of the tournament.
+     * @param battles the number of battles to run.
+     * @param pool    the pool to run the battles on.
+     * @return the merged statistics of every battle.
+     * @throws IllegalArgumentException if {@code battles} is negative or {@code pool} is {@code null}.
+     */
+    static TournamentStats run(final long seed,
+                               final int battles,
+                               final ForkJoinPool pool)
+    {
+        if(battles < 0)
+        {
+            throw new IllegalArgumentException("Battles cannot be negative: " + battles);
+        }
+        if(pool == null)
+        {
+            throw new IllegalArgumentException("Pool cannot be null");
+        }
+
+        return pool.invoke(new BattleTask(new SplittableRandom(seed), battles));
+    }
+
+    /*
+     * Runs one battle between two random creatures and records it.
+     */
+    private static void battle(final SplittableRandom random,
+                               final TournamentStats stats)
+    {
+        final Creature first;
+        final Creature second;
+        int            rounds;
+
+        first  = randomCreature(random);
+        second = randomCreature(random);
+        rounds = 0;
+
+        while(first.isAlive() && second.isAlive() && rounds < MAX_ROUNDS)
+        {
+            rounds++;
+
+            act(first, second, random);
+
+            if(second.isAlive())
+            {
+                act(second, first, random);
+            }
+        }
+
+        stats.record(speciesOf(first), speciesOf(second), first.isAlive(), second.isAlive(), rounds);
+    }
+
+    /*
+     * Lets the attacker use its attack on the target, or restore its resource
+     * if it is too low to attack.
+     */
+    private static void act(final Creature attacker,
+                            final Creature target,
+                            final SplittableRandom random)
+    {
+        if(attacker instanceof Dragon dragon)
+        {
+            if(dragon.tryBreathFire(target) == CombatOutcome.LOW_RESOURCE)
+            {
+                dragon.restoreFirePower(random.nextInt(Dragon.MIN_FIREPOWER, Dragon.MAX_FIREPOWER + 1));
+            }
+        } else if(attacker instanceof Elf elf)
+        {
+            if(elf.tryCastSpell(target) == CombatOutcome.LOW_RESOURCE)
+            {
+                elf.restoreMana(random.nextInt(Elf.MIN_MANA, Elf.MAX_MANA + 1));
+            }
+        } else if(attacker instanceof Orc orc)
+        {
+            orc.tryBerserk(target);
+        }
+    }
+
+    /*
+     * Creates a creature of a random species with random health and resource.
+     */
+    private static Creature randomCreature(final SplittableRandom random)
+    {
+        final int species;
+        final int health;
+
+        species = random.nextInt(TournamentStats.SPECIES_COUNT);
+        health  = random.nextInt(Creature.MIN_HEALTH, Creature.MAX_HEALTH + 1);
+
+        if(species == CreaturePool.SPECIES_DRAGON)
+        {
+            return new Dragon(DRAGON_NAME,
+                              DATE_OF_BIRTH,
+                              health,
+                              random.nextInt(Dragon.MIN_FIREPOWER, Dragon.MAX_FIREPOWER + 1));
+        }
+        if(species == CreaturePool.SPECIES_ELF)
+        {
+            return new Elf(ELF_NAME,
+                           DATE_OF_BIRTH,
+                           health,
+                           random.nextInt(Elf.MIN_MANA, Elf.MAX_MANA + 1));
+        }
+        return new Orc(ORC_NAME,
+                       DATE_OF_BIRTH,
+                       health,
+                       random.nextInt(Orc.MIN_RAGE, Orc.MAX_RAGE + 1));
+    }
+
+    /*
+     * Gets the species tag of a creature.
+     */
+    private static int speciesOf(final Creature creature)
+    {
+        if(creature instanceof Dragon)
+        {
+            return CreaturePool.SPECIES_DRAGON;
+        }
+        if(creature instanceof Elf)
+        {
+            return CreaturePool.SPECIES_ELF;
+        }
+        return CreaturePool.SPECIES_ORC;
+    }
+
+    /*
+     * Runs a range of battles, splitting it in half until it is small enough.
+     */
+    private static final class BattleTask extends RecursiveTask<TournamentStats>
+    {
+        private final SplittableRandom random;
+        private final int              battles;
+
+        private BattleTask(final SplittableRandom random,
+                           final int battles)
+        {
+            this.random  = random;
+            this.battles = battles;
+        }
+
+        @Override
+        protected TournamentStats compute()
+        {
+            final TournamentStats stats;
+
+            if(battles > BATTLES_PER_TASK)
+            {
+                final BattleTask left;
+                final BattleTask right;
+
+                // split before forking so the random streams never depend on scheduling
+                left  = new BattleTask(random.split(), battles / 2);
+                right = new BattleTask(random, battles - battles / 2);
+
+                left.fork();
+
+                return right.compute().merge(left.join());
+            }
+
+            stats = new TournamentStats();
+
+            for(int i = 0; i < battles; i++)
+            {
+                battle(random, stats);
+            }
+
+            return stats;
+        }
+    }
+}
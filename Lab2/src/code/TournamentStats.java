@@ -0,0 +1,240 @@
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * <p>Win, loss, draw and round counts per species, collected by a {@link Tournament}.</p>
+ *
+ * <p>Species are indexed by the {@link CreaturePool} species tags. Results of
+ * separate parts of a tournament are combined with {@link #merge(TournamentStats)};
+ * since merging only adds counts, the order of merges does not change the result.</p>
+ *
+ * @author Justin Cardas
+ * @author Mohammad Sadeghi
+ * @author Armaan Brar
+ * @version 1.0
+ */
+class TournamentStats
+{
+    static final int SPECIES_COUNT;
+
+    static
+    {
+        SPECIES_COUNT = 3;
+    }
+
+    private final long[] battles;
+    private final long[] wins;
+    private final long[] losses;
+    private final long[] draws;
+    private final long[] rounds;
+
+    /**
+     * Constructs empty statistics.
+     */
+    TournamentStats()
+    {
+        this.battles = new long[SPECIES_COUNT];
+        this.wins    = new long[SPECIES_COUNT];
+        this.losses  = new long[SPECIES_COUNT];
+        this.draws   = new long[SPECIES_COUNT];
+        this.rounds  = new long[SPECIES_COUNT];
+    }
+
+    /**
+     * Records one finished battle from the point of view of both sides.
+     *
+     * @param firstSpecies  species tag of the first creature.
+     * @param secondSpecies species tag of the second creature.
+     * @param firstAlive    whether the first creature survived.
+     * @param secondAlive   whether the second creature survived.
+     * @param battleRounds  number of rounds the battle lasted.
+     */
+    void record(final int firstSpecies,
+                final int secondSpecies,
+                final boolean firstAlive,
+                final boolean secondAlive,
+                final int battleRounds)
+    {
+        recordSide(firstSpecies, firstAlive, secondAlive, battleRounds);
+        recordSide(secondSpecies, secondAlive, firstAlive, battleRounds);
+    }
+
+    /*
+     * Records the result of a battle for one side. A battle where both sides
+     * survive (the round limit was reached) is a draw.
+     */
+    private void recordSide(final int species,
+                            final boolean alive,
+                            final boolean opponentAlive,
+                            final int battleRounds)
+    {
+        battles[species]++;
+        rounds[species] += battleRounds;
+
+        if(alive && !opponentAlive)
+        {
+            wins[species]++;
+        } else if(!alive && opponentAlive)
+        {
+            losses[species]++;
+        } else
+        {
+            draws[species]++;
+        }
+    }
+
+    /**
+     * Adds every count of {@code other} to this object.
+     *
+     * @param other the statistics to add.
+     * @return this object.
+     */
+    TournamentStats merge(final TournamentStats other)
+    {
+        for(int species = 0; species < SPECIES_COUNT; species++)
+        {
+            this.battles[species] += other.battles[species];
+            this.wins[species]    += other.wins[species];
+            this.losses[species]  += other.losses[species];
+            this.draws[species]   += other.draws[species];
+            this.rounds[species]  += other.rounds[species];
+        }
+        return this;
+    }
+
+    /**
+     * @param species the species tag.
+     * @return long number of battles the species fought.
+     */
+    long getBattles(final int species)
+    {
+        return battles[species];
+    }
+
+    /**
+     * @param species the species tag.
+     * @return long number of battles the species won.
+     */
+    long getWins(final int species)
+    {
+        return wins[species];
+    }
+
+    /**
+     * @param species the species tag.
+     * @return long number of battles the species lost.
+     */
+    long getLosses(final int species)
+    {
+        return losses[species];
+    }
+
+    /**
+     * @param species the species tag.
+     * @return long number of battles that ended with the species and its opponent both alive or both dead.
+     */
+    long getDraws(final int species)
+    {
+        return draws[species];
+    }
+
+    /**
+     * @param species the species tag.
+     * @return long total rounds over every battle the species fought.
+     */
+    long getRounds(final int species)
+    {
+        return rounds[species];
+    }
+
+    /**
+     * Formats one line per species with its counts and win rate.
+     *
+     * @return the statistics as text.
+     */
+    @Override
+    public String toString()
+    {
+        final StringBuilder text;
+
+        text = new StringBuilder();
+
+        for(int species = 0; species < SPECIES_COUNT; species++)
+        {
+            text.append(String.format("%-6s battles %d, wins %d, losses %d, draws %d, win rate %.2f%%, avg rounds %.2f%n",
+                                      speciesName(species),
+                                      battles[species],
+                                      wins[species],
+                                      losses[species],
+                                      draws[species],
+                                      battles[species] == 0
+                                      ? 0.0
+                                      : 100.0 * wins[species] / battles[species],
+                                      battles[species] == 0
+                                      ? 0.0
+                                      : (double) rounds[species] / battles[species]));
+        }
+
+        return text.toString();
+    }
+
+    /*
+     * Gets the display name of a species tag.
+     */
+    private static String speciesName(final int species)
+    {
+        if(species == CreaturePool.SPECIES_DRAGON)
+        {
+            return "Dragon";
+        }
+        if(species == CreaturePool.SPECIES_ELF)
+        {
+            return "Elf";
+        }
+        return "Orc";
+    }
+
+    /**
+     * Checks whether another object holds exactly the same counts.
+     *
+     * @param other the object to compare with.
+     * @return true if every count matches.
+     */
+    @Override
+    public boolean equals(final Object other)
+    {
+        final TournamentStats stats;
+
+        if(this == other)
+        {
+            return true;
+        }
+        if(!(other instanceof TournamentStats))
+        {
+            return false;
+        }
+
+        stats = (TournamentStats) other;
+
+        return Arrays.equals(battles, stats.battles) &&
+               Arrays.equals(wins, stats.wins) &&
+               Arrays.equals(losses, stats.losses) &&
+               Arrays.equals(draws, stats.draws) &&
+               Arrays.equals(rounds, stats.rounds);
+    }
+
+    /**
+     * Gets a hash code consistent with {@link #equals(Object)}.
+     *
+     * @return the hash code.
+     */
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(Arrays.hashCode(battles),
+                            Arrays.hashCode(wins),
+                            Arrays.hashCode(losses),
+                            Arrays.hashCode(draws),
+                            Arrays.hashCode(rounds));
+    }
+}
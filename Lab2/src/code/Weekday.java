@@ -0,0 +1,59 @@
+/**
+ * The days of the week, in the order of the weekday codes used by {@link Date}
+ * (saturday is 0, sunday is 1, ... friday is 6).
+ *
+ * @author Justin Cardas
+ * @author Mohammad Sadeghi
+ * @author Armaan Brar
+ * @version 25.01
+ */
+public enum Weekday
+{
+    SATURDAY("saturday"),
+    SUNDAY("sunday"),
+    MONDAY("monday"),
+    TUESDAY("tuesday"),
+    WEDNESDAY("wednesday"),
+    THURSDAY("thursday"),
+    FRIDAY("friday");
+
+    private static final Weekday[] BY_CODE = values();
+
+    private final String displayName;
+
+    Weekday(final String displayName)
+    {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Gets the weekday for a weekday code.
+     *
+     * @param code the weekday code, 0 (saturday) to 6 (friday)
+     * @return the matching Weekday
+     */
+    static Weekday fromCode(final int code)
+    {
+        return BY_CODE[code];
+    }
+
+    /**
+     * Gets the weekday code.
+     *
+     * @return the weekday code, 0 (saturday) to 6 (friday)
+     */
+    int getCode()
+    {
+        return ordinal();
+    }
+
+    /**
+     * Gets the lower case name used by {@link Date#getDayOfWeek()}.
+     *
+     * @return the week day as a String (e.g. "monday")
+     */
+    public String getDisplayName()
+    {
+        return displayName;
+    }
+}
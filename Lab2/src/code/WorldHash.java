@@ -0,0 +1,123 @@
+/**
+ * <p>Keys of a Zobrist-style hash of a world: the hash of a world is the XOR of one
+ * 64-bit key for the species, the health and the resource of every creature, so a
+ * change to one field updates it in O(1) by XOR-ing out the key of the old value and
+ * XOR-ing in the key of the new one. Two worlds that agree on every field of every
+ * creature have the same hash, and two that differ almost surely do not.</p>
+ *
+ * <p>Instead of tables of random keys, which would need one entry per creature and
+ * value, a key is the SplitMix64 finalizer of the creature id, the value and a salt
+ * for the field.</p>
+ *
+ * @author Justin Cardas
+ * @author Mohammad Sadeghi
+ * @author Armaan Brar
+ * @version 1.0
+ */
+final class WorldHash
+{
+    private static final long SPECIES_SALT;
+    private static final long HEALTH_SALT;
+    private static final long RESOURCE_SALT;
+    private static final long VALUE_MASK;
+
+    static
+    {
+        SPECIES_SALT  = 0x5DEECE66DL;
+        HEALTH_SALT   = 0x9E3779B97F4A7C15L;
+        RESOURCE_SALT = 0xC2B2AE3D27D4EB4FL;
+        VALUE_MASK    = 0xFFFFFFFFL;
+    }
+
+    private WorldHash()
+    {
+    }
+
+    /**
+     * @param id      the id of the creature.
+     * @param species the species tag of the creature.
+     * @return long the key of the creature's species.
+     */
+    static long species(final int id,
+                        final int species)
+    {
+        return key(id, species, SPECIES_SALT);
+    }
+
+    /**
+     * @param id     the id of the creature.
+     * @param health the health of the creature.
+     * @return long the key of the creature's health.
+     */
+    static long health(final int id,
+                       final int health)
+    {
+        return key(id, health, HEALTH_SALT);
+    }
+
+    /**
+     * @param id       the id of the creature.
+     * @param resource the firePower, mana or rage of the creature.
+     * @return long the key of the creature's resource.
+     */
+    static long resource(final int id,
+                         final int resource)
+    {
+        return key(id, resource, RESOURCE_SALT);
+    }
+
+    /**
+     * @param id     the id of the creature.
+     * @param before the health before the change.
+     * @param after  the health after the change.
+     * @return long what to XOR into the hash for the change; 0 if nothing changed.
+     */
+    static long healthChange(final int id,
+                             final int before,
+                             final int after)
+    {
+        return before == after
+               ? 0L
+               : health(id, before) ^ health(id, after);
+    }
+
+    /**
+     * @param id     the id of the creature.
+     * @param before the resource before the change.
+     * @param after  the resource after the change.
+     * @return long what to XOR into the hash for the change; 0 if nothing changed.
+     */
+    static long resourceChange(final int id,
+                               final int before,
+                               final int after)
+    {
+        return before == after
+               ? 0L
+               : resource(id, before) ^ resource(id, after);
+    }
+
+    /**
+     * The SplitMix64 finalizer: scrambles every bit of {@code z} into every bit of
+     * the result.
+     *
+     * @param z the value to scramble.
+     * @return long the scrambled value.
+     */
+    static long mix(final long z)
+    {
+        long x;
+
+        x = z;
+        x = (x ^ x >>> 30) * 0xBF58476D1CE4E5B9L;
+        x = (x ^ x >>> 27) * 0x94D049BB133111EBL;
+
+        return x ^ x >>> 31;
+    }
+
+    private static long key(final int id,
+                            final int value,
+                            final long salt)
+    {
+        return mix(((long) id << Integer.SIZE | value & VALUE_MASK) ^ salt);
+    }
+}
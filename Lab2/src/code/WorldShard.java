@@ -0,0 +1,354 @@
+import java.util.Arrays;
+
+/**
+ * <p>One shard of a world whose creatures are partitioned by id: shard {@code s}
+ * of {@code n} owns every creature with {@code id % n == s}, stored at local id
+ * {@code id / n} in its own {@link CreaturePool}. A {@link ShardedWorld} runs one
+ * shard per worker process; a single shard of one is the whole world in one
+ * process.</p>
+ *
+ * <p>Every creature, its species and each of its attacks follow from the seed and
+ * its id alone, so any partition of the same world plays the same battle. A round
+ * has two phases. First every creature alive at the start of the round attacks a
+ * target chosen from the seed, the round and its id, with the rules of
+ * {@link CombatEngine#resolveRound}, read from the {@link SpeciesTable}: the
+ * attacker pays locally and the damage is added to the batch of the shard that owns
+ * the target. A species that restores, like a dragon or elf, restores its resource
+ * to the maximum instead when it is too low to attack, and an orc too low just
+ * misses its turn. Then each shard applies the batches it receives with
+ * {@link CreaturePool#takeDamage(int, int)}. Since clamped damage adds up the same
+ * in any order, the order the batches arrive in does not matter.</p>
+ *
+ * <p>A batch is an int array of (target id, damage) pairs.</p>
+ *
+ * @author Justin Cardas
+ * @author Mohammad Sadeghi
+ * @author Armaan Brar
+ * @version 1.0
+ */
+final class WorldShard
+{
+    private static final Date   DATE_OF_BIRTH;
+    private static final String DRAGON_NAME;
+    private static final String ELF_NAME;
+    private static final String ORC_NAME;
+    private static final int    INTS_PER_HIT;
+    private static final int    DEFAULT_BATCH_CAPACITY;
+    private static final int    GROWTH_FACTOR;
+    private static final long   ROUND_STEP;
+    private static final long   ID_STEP;
+
+    static
+    {
+        DATE_OF_BIRTH          = Date.of(1, 1, 2000);
+        DRAGON_NAME            = "Dragon";
+        ELF_NAME               = "Elf";
+        ORC_NAME               = "Orc";
+        INTS_PER_HIT           = 2;
+        DEFAULT_BATCH_CAPACITY = 1_024;
+        GROWTH_FACTOR          = 2;
+        ROUND_STEP             = 0x9E3779B97F4A7C15L;
+        ID_STEP                = 0xC2B2AE3D27D4EB4FL;
+    }
+
+    private final int          shardIndex;
+    private final int          shardCount;
+    private final int          creatures;
+    private final long         seed;
+    private final CreaturePool pool;
+    private final int[][]      batches;
+    private final int[]        batchInts;
+
+    /**
+     * Creates the creatures this shard owns.
+     *
+     * @param shardIndex the index of this shard, from 0 to {@code shardCount} - 1.
+     * @param shardCount the number of shards in the world.
+     * @param creatures  the number of creatures in the whole world.
+     * @param seed       the seed of the world.
+     * @throws IllegalArgumentException if the shard index or count or the number of creatures is invalid.
+     */
+    WorldShard(final int shardIndex,
+               final int shardCount,
+               final int creatures,
+               final long seed)
+    {
+        final int owned;
+
+        if(shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount)
+        {
+            throw new IllegalArgumentException("Invalid shard " + shardIndex + " of " + shardCount);
+        }
+        if(creatures < 0)
+        {
+            throw new IllegalArgumentException("Creatures cannot be negative: " + creatures);
+        }
+
+        owned = ownedCount(shardIndex, shardCount, creatures);
+
+        this.shardIndex = shardIndex;
+        this.shardCount = shardCount;
+        this.creatures  = creatures;
+        this.seed       = seed;
+        this.pool       = new CreaturePool(Math.max(owned, 1));
+        this.batches    = new int[shardCount][DEFAULT_BATCH_CAPACITY];
+        this.batchInts  = new int[shardCount];
+
+        for(int local = 0; local < owned; local++)
+        {
+            final int species;
+
+            species = speciesOf(local * shardCount + shardIndex);
+
+            if(species == CreaturePool.SPECIES_DRAGON)
+            {
+                pool.addDragon(DRAGON_NAME, DATE_OF_BIRTH, Creature.MAX_HEALTH, Dragon.MAX_FIREPOWER);
+            } else if(species == CreaturePool.SPECIES_ELF)
+            {
+                pool.addElf(ELF_NAME, DATE_OF_BIRTH, Creature.MAX_HEALTH, Elf.MAX_MANA);
+            } else
+            {
+                pool.addOrc(ORC_NAME, DATE_OF_BIRTH, Creature.MAX_HEALTH, Orc.MAX_RAGE);
+            }
+        }
+    }
+
+    /**
+     * Runs the first phase of a round: every living creature of this shard attacks,
+     * and the damage is sorted into one batch per shard. The batches of the
+     * previous round are cleared first.
+     *
+     * @param round the number of the round.
+     */
+    void attack(final int round)
+    {
+        final int[] species;
+        final int[] health;
+        final int[] resources;
+        final int[] rules;
+        final int   owned;
+        long        hashChange;
+
+        species    = pool.speciesColumn();
+        health     = pool.healthColumn();
+        resources  = pool.resourceColumn();
+        rules      = pool.speciesTable().rules();
+        owned      = pool.size();
+        hashChange = 0;
+
+        Arrays.fill(batchInts, 0);
+
+        for(int local = 0; local < owned; local++)
+        {
+            final int id;
+            final int target;
+            final int before;
+            final int damage;
+
+            // damage is only applied in the second phase, so this is the health
+            // at the start of the round
+            if(health[local] == Creature.NO_HEALTH)
+            {
+                continue;
+            }
+
+            id     = local * shardCount + shardIndex;
+            target = targetOf(round, id);
+            before = resources[local];
+            damage = attackDamage(rules, species[local] * SpeciesTable.RULE_STRIDE, resources, local);
+
+            hashChange ^= WorldHash.resourceChange(local, before, resources[local]);
+
+            if(damage > 0)
+            {
+                addHit(target % shardCount, target, damage);
+            }
+        }
+
+        pool.mixStateHash(hashChange);
+    }
+
+    /**
+     * @param shard the index of a shard.
+     * @return int[] the batch for {@code shard} from the last {@link #attack(int)}.
+     */
+    int[] batch(final int shard)
+    {
+        return batches[shard];
+    }
+
+    /**
+     * @param shard the index of a shard.
+     * @return int number of ints used in the batch for {@code shard}.
+     */
+    int batchInts(final int shard)
+    {
+        return batchInts[shard];
+    }
+
+    /**
+     * Runs the second phase of a round for one batch: applies each hit to the
+     * creature of this shard it targets.
+     *
+     * @param batch the (target id, damage) pairs.
+     * @param ints  the number of ints used in {@code batch}.
+     * @throws IllegalArgumentException if a target is not owned by this shard.
+     */
+    void applyDamage(final int[] batch,
+                     final int ints)
+    {
+        for(int i = 0; i < ints; i += INTS_PER_HIT)
+        {
+            final int target;
+
+            target = batch[i];
+
+            if(target % shardCount != shardIndex)
+            {
+                throw new IllegalArgumentException("Creature " + target + " is not on shard " + shardIndex);
+            }
+
+            pool.takeDamage(target / shardCount, batch[i + 1]);
+        }
+    }
+
+    /**
+     * Plays a whole round on a world held in one shard.
+     *
+     * @param round the number of the round.
+     * @throws IllegalStateException if the world has more than one shard.
+     */
+    void playRound(final int round)
+    {
+        if(shardCount != 1)
+        {
+            throw new IllegalStateException("Only a single shard can play a round alone");
+        }
+
+        attack(round);
+        applyDamage(batches[0], batchInts[0]);
+    }
+
+    /**
+     * Gets a hash of the health and resource of every creature of this shard.
+     * The checksums of the shards of a world add up to the checksum of the same
+     * world held in one shard.
+     *
+     * @return long the checksum.
+     */
+    long checksum()
+    {
+        final int[] health;
+        final int[] resources;
+        final int   owned;
+        long        sum;
+
+        health    = pool.healthColumn();
+        resources = pool.resourceColumn();
+        owned     = pool.size();
+        sum       = 0;
+
+        for(int local = 0; local < owned; local++)
+        {
+            final long id;
+
+            id  = (long) local * shardCount + shardIndex;
+            sum += WorldHash.mix(id * ID_STEP + ((long) health[local] << Integer.SIZE | resources[local] & 0xFFFFFFFFL));
+        }
+
+        return sum;
+    }
+
+    /**
+     * @return int number of living creatures on this shard.
+     */
+    int countLiving()
+    {
+        return pool.living().count();
+    }
+
+    /**
+     * @return int number of creatures this shard owns.
+     */
+    int size()
+    {
+        return pool.size();
+    }
+
+    /**
+     * @return int number of creatures in the whole world.
+     */
+    int worldSize()
+    {
+        return creatures;
+    }
+
+    /*
+     * Plays the turn of a creature with the SpeciesTable rules and returns the
+     * damage of its attack.
+     */
+    private static int attackDamage(final int[] rules,
+                                    final int rule,
+                                    final int[] resources,
+                                    final int local)
+    {
+        final int resource;
+
+        resource         = resources[local];
+        resources[local] = SpeciesTable.resourceAfterTurn(rules, rule, resource);
+
+        return SpeciesTable.attackDamage(rules, rule, resource);
+    }
+
+    private void addHit(final int shard,
+                        final int target,
+                        final int damage)
+    {
+        final int at;
+
+        at = batchInts[shard];
+
+        if(at == batches[shard].length)
+        {
+            batches[shard] = Arrays.copyOf(batches[shard], at * GROWTH_FACTOR);
+        }
+
+        batches[shard][at]     = target;
+        batches[shard][at + 1] = damage;
+        batchInts[shard]       = at + INTS_PER_HIT;
+    }
+
+    /*
+     * Gets the species of a creature from the seed and its id.
+     */
+    private int speciesOf(final int id)
+    {
+        return (int) Long.remainderUnsigned(WorldHash.mix(seed + id * ID_STEP), TournamentStats.SPECIES_COUNT);
+    }
+
+    /*
+     * Gets the target of a creature in a round from the seed; never the creature
+     * itself unless it is alone in the world.
+     */
+    private int targetOf(final int round,
+                         final int id)
+    {
+        final int target;
+
+        target = (int) Long.remainderUnsigned(WorldHash.mix(seed + round * ROUND_STEP + id * ID_STEP), creatures);
+
+        return target == id
+               ? (target + 1) % creatures
+               : target;
+    }
+
+    /*
+     * Gets the number of ids below creatures that belong to a shard.
+     */
+    private static int ownedCount(final int shardIndex,
+                                  final int shardCount,
+                                  final int creatures)
+    {
+        return creatures / shardCount + (shardIndex < creatures % shardCount ? 1 : 0);
+    }
+}
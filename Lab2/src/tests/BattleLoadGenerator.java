@@ -0,0 +1,181 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Load generator for {@link BattleServer}.
+ *
+ * <p>Usage: {@code java BattleLoadGenerator [activeClients] [requestsPerClient] [idleClients]}.
+ * Starts a server in this JVM, opens {@code idleClients} connections that never send
+ * anything, then runs {@code activeClients} clients on virtual threads that each
+ * spawn a dragon and an orc and fight. Prints throughput and latency percentiles.
+ * Large client counts need a matching open file limit ({@code ulimit -n}).</p>
+ */
+public class BattleLoadGenerator
+{
+    private static final int DEFAULT_ACTIVE_CLIENTS      = 1_000;
+    private static final int DEFAULT_REQUESTS_PER_CLIENT = 200;
+    private static final int DEFAULT_IDLE_CLIENTS        = 1_000;
+    private static final int NANOS_PER_MICRO             = 1_000;
+
+    public static void main(final String[] args) throws Exception
+    {
+        final int          activeClients;
+        final int          requestsPerClient;
+        final int          idleClients;
+        final List<Socket> idle;
+        final long[]       latencies;
+        final long         start;
+        final long         elapsed;
+
+        activeClients     = args.length > 0
+                            ? Integer.parseInt(args[0])
+                            : DEFAULT_ACTIVE_CLIENTS;
+        requestsPerClient = args.length > 1
+                            ? Integer.parseInt(args[1])
+                            : DEFAULT_REQUESTS_PER_CLIENT;
+        idleClients       = args.length > 2
+                            ? Integer.parseInt(args[2])
+                            : DEFAULT_IDLE_CLIENTS;
+
+        idle      = new ArrayList<>();
+        latencies = new long[activeClients * requestsPerClient];
+
+        try(BattleServer server = new BattleServer(0))
+        {
+            server.start();
+
+            for(int i = 0; i < idleClients; i++)
+            {
+                idle.add(new Socket(InetAddress.getLoopbackAddress(), server.getPort()));
+            }
+
+            start = System.nanoTime();
+
+            try(ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor())
+            {
+                final List<Future<?>> results;
+
+                results = new ArrayList<>();
+
+                for(int client = 0; client < activeClients; client++)
+                {
+                    final int offset;
+
+                    offset = client * requestsPerClient;
+
+                    results.add(clients.submit(() -> runClient(server.getPort(), requestsPerClient, latencies, offset)));
+                }
+
+                for(final Future<?> result : results)
+                {
+                    result.get();
+                }
+            }
+
+            elapsed = System.nanoTime() - start;
+
+            for(final Socket socket : idle)
+            {
+                socket.close();
+            }
+        }
+
+        Arrays.sort(latencies);
+
+        System.out.printf("%d active clients x %d requests, %d idle clients%n", activeClients, requestsPerClient, idleClients);
+        System.out.printf("throughput: %.0f requests/s%n", latencies.length * 1e9 / elapsed);
+        System.out.printf("latency p50: %d us, p99: %d us, max: %d us%n",
+                          percentile(latencies, 0.50) / NANOS_PER_MICRO,
+                          percentile(latencies, 0.99) / NANOS_PER_MICRO,
+                          latencies[latencies.length - 1] / NANOS_PER_MICRO);
+    }
+
+    /*
+     * One client: spawns a dragon and an orc, then cycles through attacks, healing,
+     * restoring and details, recording the latency of every request.
+     */
+    private static void runClient(final int port,
+                                  final int requests,
+                                  final long[] latencies,
+                                  final int offset)
+    {
+        try(Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)))
+        {
+            final String dragon;
+            final String orc;
+
+            socket.setTcpNoDelay(true);
+
+            dragon = request(in, out, "spawn Dragon").substring(3);
+            orc    = request(in, out, "spawn Orc").substring(3);
+
+            for(int i = 0; i < requests; i++)
+            {
+                final String command;
+                final long   sent;
+
+                command = switch(i % 5)
+                {
+                    case 0 -> "Dragon " + dragon + " breathFire " + orc;
+                    case 1 -> "Orc " + orc + " berserk " + dragon;
+                    case 2 -> "heal " + dragon + " 50";
+                    case 3 -> "Dragon " + dragon + " restoreFirePower 10";
+                    default -> "details " + orc;
+                };
+
+                sent = System.nanoTime();
+                request(in, out, command);
+                latencies[offset + i] = System.nanoTime() - sent;
+            }
+        } catch(IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+     * Sends one request line and returns the response, failing on an ERR response.
+     */
+    private static String request(final BufferedReader in,
+                                  final BufferedWriter out,
+                                  final String command) throws IOException
+    {
+        final String response;
+
+        out.write(command);
+        out.newLine();
+        out.flush();
+
+        response = in.readLine();
+
+        if(response == null || !response.startsWith("OK"))
+        {
+            throw new IOException("'" + command + "' failed: " + response);
+        }
+        return response;
+    }
+
+    /*
+     * Gets a percentile of sorted values.
+     */
+    private static long percentile(final long[] sorted,
+                                   final double fraction)
+    {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * fraction))];
+    }
+}
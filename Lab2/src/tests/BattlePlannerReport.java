@@ -0,0 +1,255 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Plays skirmishes in which every creature of the first side picks its action with
+ * {@link BattlePlanner} while the second side attacks a random enemy, and reports
+ * the rollouts per second of the search and how the planned side did.
+ *
+ * <p>Usage: {@code java BattlePlannerReport [perSide] [budgetMs] [skirmishes]}. Both
+ * sides hold the same mix of species at full health and resource. A skirmish ends
+ * when one side is dead or after {@link Tournament#MAX_ROUNDS} rounds. The first
+ * skirmish warms up the search and is not timed.</p>
+ */
+public class BattlePlannerReport
+{
+    private static final int    DEFAULT_PER_SIDE   = 4;
+    private static final int    DEFAULT_BUDGET_MS  = 10;
+    private static final int    DEFAULT_SKIRMISHES = 5;
+    private static final long   SEED               = 2522L;
+    private static final double NANOS_PER_MILLI    = 1_000_000.0;
+    private static final double NANOS_PER_SECOND   = 1_000_000_000.0;
+
+    public static void main(final String[] args)
+    {
+        final int              perSide;
+        final long             budgetNanos;
+        final int              skirmishes;
+        final SplittableRandom random;
+        long                   decisions;
+        long                   rollouts;
+        long                   planNanos;
+        long                   worstNanos;
+        int                    wins;
+        int                    losses;
+
+        perSide     = args.length > 0
+                      ? Integer.parseInt(args[0])
+                      : DEFAULT_PER_SIDE;
+        budgetNanos = (long) ((args.length > 1
+                               ? Integer.parseInt(args[1])
+                               : DEFAULT_BUDGET_MS) * NANOS_PER_MILLI);
+        skirmishes  = args.length > 2
+                      ? Integer.parseInt(args[2])
+                      : DEFAULT_SKIRMISHES;
+        random      = new SplittableRandom(SEED);
+        decisions   = 0;
+        rollouts    = 0;
+        planNanos   = 0;
+        worstNanos  = 0;
+        wins        = 0;
+        losses      = 0;
+
+        for(int skirmish = 0; skirmish <= skirmishes; skirmish++)
+        {
+            final BattleWorld world;
+            final int[]       firstSide;
+            final int[]       secondSide;
+            int               rounds;
+
+            world      = BattleWorld.of(populate(perSide));
+            firstSide  = new int[perSide];
+            secondSide = new int[perSide];
+            rounds     = 0;
+
+            for(int i = 0; i < perSide; i++)
+            {
+                firstSide[i]  = i;
+                secondSide[i] = perSide + i;
+            }
+
+            while(living(world, firstSide) && living(world, secondSide) && rounds < Tournament.MAX_ROUNDS)
+            {
+                rounds++;
+
+                for(final int id : firstSide)
+                {
+                    final long                   start;
+                    final long                   elapsed;
+                    final BattlePlanner.Decision decision;
+
+                    if(!world.isAlive(id) || !living(world, secondSide))
+                    {
+                        continue;
+                    }
+
+                    start    = System.nanoTime();
+                    decision = BattlePlanner.plan(world, firstSide, secondSide, id, budgetNanos, random.nextLong());
+                    elapsed  = System.nanoTime() - start;
+
+                    perform(world, decision);
+
+                    if(skirmish > 0)
+                    {
+                        decisions++;
+                        rollouts   += decision.getRollouts();
+                        planNanos  += elapsed;
+                        worstNanos = Math.max(worstNanos, elapsed);
+                    }
+                }
+                for(final int id : secondSide)
+                {
+                    if(world.isAlive(id) && living(world, firstSide))
+                    {
+                        attackRandom(world, id, firstSide, random);
+                    }
+                }
+            }
+
+            if(skirmish > 0 && !living(world, secondSide))
+            {
+                wins++;
+            } else if(skirmish > 0 && !living(world, firstSide))
+            {
+                losses++;
+            }
+        }
+
+        System.out.printf("%d vs %d, %d skirmishes on %d threads, %.0f ms per decision%n",
+                          perSide,
+                          perSide,
+                          skirmishes,
+                          ForkJoinPool.commonPool().getParallelism(),
+                          budgetNanos / NANOS_PER_MILLI);
+        System.out.printf("%,d decisions: %,.0f rollouts each, %,.0f rollouts per second, mean %.2f ms, worst %.2f ms%n",
+                          decisions,
+                          (double) rollouts / decisions,
+                          rollouts / (planNanos / NANOS_PER_SECOND),
+                          planNanos / NANOS_PER_MILLI / decisions,
+                          worstNanos / NANOS_PER_MILLI);
+        System.out.printf("planned side against the random side: %d wins, %d losses, %d draws%n",
+                          wins,
+                          losses,
+                          skirmishes - wins - losses);
+    }
+
+    /*
+     * Carries out a planned action on the world.
+     */
+    private static void perform(final BattleWorld world,
+                                final BattlePlanner.Decision decision)
+    {
+        final int actorId;
+        final int targetId;
+
+        actorId  = decision.getActorId();
+        targetId = decision.getTargetId();
+
+        try
+        {
+            if(decision.getAction() == BattlePlanner.ACTION_BREATH_FIRE)
+            {
+                world.breathFire(actorId, targetId);
+            } else if(decision.getAction() == BattlePlanner.ACTION_CAST_SPELL)
+            {
+                world.castSpell(actorId, targetId);
+            } else if(decision.getAction() == BattlePlanner.ACTION_BERSERK)
+            {
+                world.berserk(actorId, targetId);
+            } else if(decision.getAction() == BattlePlanner.ACTION_RESTORE_FIRE_POWER)
+            {
+                world.restoreFirePower(actorId, Dragon.MAX_FIREPOWER);
+            } else if(decision.getAction() == BattlePlanner.ACTION_RESTORE_MANA)
+            {
+                world.restoreMana(actorId, Elf.MAX_MANA - world.getResource(actorId));
+            } else
+            {
+                world.heal(actorId, BattlePlanner.HEAL_AMOUNT);
+            }
+        } catch(final LowFirePowerException | LowManaException e)
+        {
+            System.out.println("PLANNED AN ACTION THE CREATURE CANNOT TAKE: " + decision);
+        }
+    }
+
+    /*
+     * Makes a creature attack a random living enemy, restoring its resource
+     * instead when it runs low.
+     */
+    private static void attackRandom(final BattleWorld world,
+                                     final int attackerId,
+                                     final int[] enemies,
+                                     final SplittableRandom random)
+    {
+        int targetId;
+
+        do
+        {
+            targetId = enemies[random.nextInt(enemies.length)];
+        } while(!world.isAlive(targetId));
+
+        try
+        {
+            if(world.getSpecies(attackerId) == CreaturePool.SPECIES_DRAGON)
+            {
+                world.breathFire(attackerId, targetId);
+            } else if(world.getSpecies(attackerId) == CreaturePool.SPECIES_ELF)
+            {
+                world.castSpell(attackerId, targetId);
+            } else
+            {
+                world.berserk(attackerId, targetId);
+            }
+        } catch(final LowFirePowerException e)
+        {
+            world.restoreFirePower(attackerId, Dragon.MAX_FIREPOWER);
+        } catch(final LowManaException e)
+        {
+            world.restoreMana(attackerId, Elf.MAX_MANA - world.getResource(attackerId));
+        } catch(final LowRageException e)
+        {
+            // an orc without rage just misses its turn
+        }
+    }
+
+    private static boolean living(final BattleWorld world,
+                                  final int[] side)
+    {
+        for(final int id : side)
+        {
+            if(world.isAlive(id))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Creates two sides of perSide creatures each, with the same species in the
+     * same places.
+     */
+    private static CreaturePool populate(final int perSide)
+    {
+        final CreaturePool pool;
+        final Date         dateOfBirth;
+
+        pool        = new CreaturePool(perSide * 2);
+        dateOfBirth = Date.of(1, 1, 1900);
+
+        for(int id = 0; id < perSide * 2; id++)
+        {
+            if(id % perSide % 3 == 0)
+            {
+                pool.addDragon("Dragon " + id, dateOfBirth, Creature.MAX_HEALTH, Dragon.MAX_FIREPOWER);
+            } else if(id % perSide % 3 == 1)
+            {
+                pool.addElf("Elf " + id, dateOfBirth, Creature.MAX_HEALTH, Elf.MAX_MANA);
+            } else
+            {
+                pool.addOrc("Orc " + id, dateOfBirth, Creature.MAX_HEALTH, Orc.MAX_RAGE);
+            }
+        }
+        return pool;
+    }
+}
@@ -0,0 +1,179 @@
+import java.util.SplittableRandom;
+
+/**
+ * Forks thousands of speculative branches of one large {@link BattleWorld},
+ * fights a few attacks in each while keeping them all alive, and reports the time
+ * to fork, the time per attack and the memory every branch adds.
+ *
+ * <p>Usage: {@code java BattleWorldReport [creatures] [branches] [attacks]}. For
+ * comparison the report also prints what a flat copy of the health and resource
+ * columns of every branch would take. Memory is measured from the used heap after
+ * {@link System#gc()}, so it is an estimate.</p>
+ */
+public class BattleWorldReport
+{
+    private static final int    DEFAULT_CREATURES = 1_000_000;
+    private static final int    DEFAULT_BRANCHES  = 10_000;
+    private static final int    DEFAULT_ATTACKS   = 20;
+    private static final int    BYTES_PER_INT     = 4;
+    private static final long   SEED              = 2522L;
+    private static final double NANOS_PER_MILLI   = 1_000_000.0;
+    private static final double BYTES_PER_MB      = 1024.0 * 1024.0;
+
+    public static void main(final String[] args)
+    {
+        final int              creatures;
+        final int              branchCount;
+        final int              attacks;
+        final SplittableRandom random;
+        final BattleWorld      world;
+        final BattleWorld[]    branches;
+        final long             baseBytes;
+        final long             forkStart;
+        final long             forkNanos;
+        final long             attackStart;
+        final long             attackNanos;
+        final long             branchBytes;
+        final long             discardedBytes;
+        long                   living;
+
+        creatures   = args.length > 0
+                      ? Integer.parseInt(args[0])
+                      : DEFAULT_CREATURES;
+        branchCount = args.length > 1
+                      ? Integer.parseInt(args[1])
+                      : DEFAULT_BRANCHES;
+        attacks     = args.length > 2
+                      ? Integer.parseInt(args[2])
+                      : DEFAULT_ATTACKS;
+        random      = new SplittableRandom(SEED);
+        world       = BattleWorld.of(populate(creatures));
+        branches    = new BattleWorld[branchCount];
+        baseBytes   = usedBytes();
+        forkStart   = System.nanoTime();
+
+        for(int b = 0; b < branchCount; b++)
+        {
+            branches[b] = world.fork();
+        }
+
+        forkNanos   = System.nanoTime() - forkStart;
+        attackStart = System.nanoTime();
+
+        for(final BattleWorld branch : branches)
+        {
+            for(int a = 0; a < attacks; a++)
+            {
+                attack(branch, random, creatures);
+            }
+        }
+
+        attackNanos = System.nanoTime() - attackStart;
+        branchBytes = usedBytes() - baseBytes;
+        living      = 0;
+
+        for(final BattleWorld branch : branches)
+        {
+            living += branch.countLiving();
+        }
+
+        System.out.printf("%,d creatures, %,d branches of %d attacks each (%,.1f living per branch on average)%n",
+                          creatures,
+                          branchCount,
+                          attacks,
+                          (double) living / branchCount);
+        System.out.printf("fork: %,.1f ns each; attack in a branch: %,.1f ns each%n",
+                          (double) forkNanos / branchCount,
+                          (double) attackNanos / branchCount / attacks);
+        System.out.printf("memory: %,.1f MB for all branches, %,.1f KB per branch; a flat copy would take %,.1f MB per branch, %,.1f MB in all%n",
+                          branchBytes / BYTES_PER_MB,
+                          branchBytes / 1024.0 / branchCount,
+                          2.0 * creatures * BYTES_PER_INT / BYTES_PER_MB,
+                          2.0 * creatures * BYTES_PER_INT * branchCount / BYTES_PER_MB);
+
+        for(int b = 0; b < branchCount; b++)
+        {
+            branches[b] = null;
+        }
+
+        discardedBytes = usedBytes() - baseBytes;
+
+        System.out.printf("after discarding every branch: %,.1f MB above the base world (world still has %,d living, %.1f ms to fork all)%n",
+                          discardedBytes / BYTES_PER_MB,
+                          world.countLiving(),
+                          forkNanos / NANOS_PER_MILLI);
+    }
+
+    /*
+     * Makes a random creature attack another random creature, restoring its
+     * resource instead when it runs low.
+     */
+    private static void attack(final BattleWorld branch,
+                               final SplittableRandom random,
+                               final int creatures)
+    {
+        final int attackerId;
+        final int targetId;
+
+        attackerId = random.nextInt(creatures);
+        targetId   = random.nextInt(creatures);
+
+        try
+        {
+            if(branch.getSpecies(attackerId) == CreaturePool.SPECIES_DRAGON)
+            {
+                branch.breathFire(attackerId, targetId);
+            } else if(branch.getSpecies(attackerId) == CreaturePool.SPECIES_ELF)
+            {
+                branch.castSpell(attackerId, targetId);
+            } else
+            {
+                branch.berserk(attackerId, targetId);
+            }
+        } catch(final LowFirePowerException e)
+        {
+            branch.restoreFirePower(attackerId, Dragon.MAX_FIREPOWER);
+        } catch(final LowManaException e)
+        {
+            branch.restoreMana(attackerId, Elf.MAX_MANA);
+        } catch(final LowRageException e)
+        {
+            // an orc without rage just misses its turn
+        }
+    }
+
+    private static long usedBytes()
+    {
+        final Runtime runtime;
+
+        runtime = Runtime.getRuntime();
+
+        System.gc();
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static CreaturePool populate(final int creatures)
+    {
+        final CreaturePool pool;
+        final Date         dateOfBirth;
+
+        pool        = new CreaturePool(creatures);
+        dateOfBirth = Date.of(1, 1, 1900);
+
+        for(int id = 0; id < creatures; id++)
+        {
+            if(id % 3 == 0)
+            {
+                pool.addDragon("Dragon " + id, dateOfBirth, Creature.MAX_HEALTH, Dragon.MAX_FIREPOWER);
+            } else if(id % 3 == 1)
+            {
+                pool.addElf("Elf " + id, dateOfBirth, Creature.MAX_HEALTH, Elf.MAX_MANA);
+            } else
+            {
+                pool.addOrc("Orc " + id, dateOfBirth, Creature.MAX_HEALTH, Orc.MAX_RAGE);
+            }
+        }
+        return pool;
+    }
+}
@@ -0,0 +1,372 @@
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A small benchmark harness for the hot paths of the lab code.
+ *
+ * <p>Each benchmark runs in a JVM of its own, forked from the suite with the same
+ * class path, so the one call site that invokes the operations only ever sees that
+ * benchmark's operation. Run in one JVM, the call site turns megamorphic after the
+ * first few benchmarks and later scores carry the dispatch cost and depend on the
+ * order the benchmarks run in.</p>
+ *
+ * <p>In the forked JVM the benchmark is warmed up, then measured over several
+ * fixed-length iterations. Scores are average nanoseconds per operation and are
+ * written as JSON in the same shape as JMH's {@code -rf json} output, so results
+ * can be tracked over time with the usual tooling. As in JMH, {@code scoreError}
+ * is the half-width of the 99.9% confidence interval of the score, from
+ * Student's t distribution over the measured iterations.</p>
+ *
+ * <p>A suite builds its runner with {@link #BenchmarkRunner(Class)} and passes every
+ * benchmark to {@link #run}; its {@code main} hands the arguments of a forked JVM,
+ * recognised by {@link #isForked(String[])}, to {@link #forked(String[])} and runs
+ * the same benchmarks on that runner.</p>
+ */
+public class BenchmarkRunner
+{
+    private static final int    WARMUP_ITERATIONS      = 3;
+    private static final int    MEASUREMENT_ITERATIONS = 5;
+    private static final long   ITERATION_NANOS        = 200_000_000L;
+    private static final int    BATCH_SIZE             = 1_024;
+    private static final int    FORKS                  = 1;
+    private static final String FORKED                 = "--forked";
+    // Student's t for a two-sided 99.9% interval with MEASUREMENT_ITERATIONS - 1 degrees of freedom
+    private static final double T_99_9                 = 8.6103;
+
+    private final Class<?>     suite;
+    private final String       only;
+    private final Path         scoresFile;
+    private final List<Result> results;
+    private long               sink;
+
+    /**
+     * Constructs a runner that measures each benchmark of {@code suite} in a forked JVM.
+     *
+     * @param suite the class whose {@code main} runs the benchmarks.
+     */
+    public BenchmarkRunner(final Class<?> suite)
+    {
+        this(suite, null, null);
+    }
+
+    private BenchmarkRunner(final Class<?> suite,
+                            final String only,
+                            final Path scoresFile)
+    {
+        this.suite      = suite;
+        this.only       = only;
+        this.scoresFile = scoresFile;
+        this.results    = new ArrayList<>();
+        this.sink       = 0;
+    }
+
+    /**
+     * @param args the arguments of the suite's {@code main}.
+     * @return boolean true if they are those of a JVM forked to run one benchmark.
+     */
+    public static boolean isForked(final String[] args)
+    {
+        return args.length == 3 && args[0].equals(FORKED);
+    }
+
+    /**
+     * Constructs the runner of a forked JVM. It measures only the benchmark it was
+     * forked for and writes the scores back for the parent.
+     *
+     * @param args the arguments of the suite's {@code main}.
+     * @return BenchmarkRunner the runner of this forked JVM.
+     * @throws IllegalArgumentException if {@code args} are not those of a forked JVM.
+     */
+    public static BenchmarkRunner forked(final String[] args)
+    {
+        if(!isForked(args))
+        {
+            throw new IllegalArgumentException("Not the arguments of a forked benchmark JVM");
+        }
+
+        return new BenchmarkRunner(null, args[1], Path.of(args[2]));
+    }
+
+    /**
+     * Runs one benchmark and records its score. In a forked JVM this measures the
+     * benchmark if it is the one the JVM was forked for and ignores it otherwise.
+     *
+     * @param name      the name of the benchmark.
+     * @param operation the operation to measure.
+     * @throws IOException if the forked JVM cannot be run, fails, or its scores cannot be read.
+     */
+    public void run(final String name,
+                    final Operation operation) throws IOException
+    {
+        if(scoresFile == null)
+        {
+            fork(name);
+        } else if(name.equals(only))
+        {
+            measure(operation);
+        }
+    }
+
+    /*
+     * Runs the suite in a new JVM that measures only the named benchmark, then
+     * records the scores it wrote.
+     */
+    private void fork(final String name) throws IOException
+    {
+        final Path         scores;
+        final List<String> command;
+        final Process      process;
+        final double[]     rawData;
+        final double       mean;
+        final double       error;
+
+        scores  = Files.createTempFile("benchmark", ".scores");
+        command = new ArrayList<>();
+
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(suite.getName());
+        command.add(FORKED);
+        command.add(name);
+        command.add(scores.toString());
+
+        try
+        {
+            process = new ProcessBuilder(command).inheritIO().start();
+
+            try
+            {
+                if(process.waitFor() != 0)
+                {
+                    throw new IOException("Benchmark " + name + " exited with " + process.exitValue());
+                }
+            } catch(InterruptedException e)
+            {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+
+                throw new InterruptedIOException("Interrupted while running benchmark " + name);
+            }
+
+            rawData = readScores(scores);
+        } finally
+        {
+            Files.deleteIfExists(scores);
+        }
+
+        if(rawData.length != MEASUREMENT_ITERATIONS)
+        {
+            throw new IOException("Benchmark " + name + " was not run by " + suite.getName());
+        }
+
+        mean  = mean(rawData);
+        error = T_99_9 * standardDeviation(rawData, mean) / Math.sqrt(rawData.length);
+
+        results.add(new Result(name, mean, error, rawData));
+
+        System.out.printf(Locale.ROOT, "%-40s %12.2f +/- %.2f ns/op%n", name, mean, error);
+    }
+
+    /*
+     * Warms up and measures the operation, writing one score per line to scoresFile.
+     */
+    private void measure(final Operation operation) throws IOException
+    {
+        final StringBuilder scores;
+
+        for(int i = 0; i < WARMUP_ITERATIONS; i++)
+        {
+            iteration(operation);
+        }
+
+        scores = new StringBuilder();
+
+        for(int i = 0; i < MEASUREMENT_ITERATIONS; i++)
+        {
+            scores.append(iteration(operation)).append('\n');
+        }
+
+        Files.writeString(scoresFile, scores, StandardCharsets.UTF_8);
+    }
+
+    /*
+     * Reads the scores a forked JVM wrote, one per line.
+     */
+    private static double[] readScores(final Path scores) throws IOException
+    {
+        final List<String> lines;
+        final double[]     values;
+
+        lines  = Files.readAllLines(scores, StandardCharsets.UTF_8);
+        values = new double[lines.size()];
+
+        for(int i = 0; i < values.length; i++)
+        {
+            values[i] = Double.parseDouble(lines.get(i));
+        }
+        return values;
+    }
+
+    private static double mean(final double[] values)
+    {
+        double total;
+
+        total = 0;
+
+        for(final double value : values)
+        {
+            total += value;
+        }
+        return total / values.length;
+    }
+
+    /*
+     * The sample standard deviation of values around their mean.
+     */
+    private static double standardDeviation(final double[] values,
+                                            final double mean)
+    {
+        double variance;
+
+        variance = 0;
+
+        for(final double value : values)
+        {
+            variance += (value - mean) * (value - mean);
+        }
+        return Math.sqrt(variance / (values.length - 1));
+    }
+
+    /*
+     * Runs batches of the operation for about ITERATION_NANOS and returns ns per operation.
+     */
+    private double iteration(final Operation operation)
+    {
+        final long start;
+        long       operations;
+        long       elapsed;
+
+        start      = System.nanoTime();
+        operations = 0;
+
+        do
+        {
+            for(int i = 0; i < BATCH_SIZE; i++)
+            {
+                sink += operation.run(i);
+            }
+            operations += BATCH_SIZE;
+            elapsed = System.nanoTime() - start;
+        } while(elapsed < ITERATION_NANOS);
+
+        return (double) elapsed / operations;
+    }
+
+    /**
+     * Writes every recorded result as JSON.
+     *
+     * @param file the file to write.
+     * @throws IOException if the file cannot be written.
+     */
+    public void writeJson(final Path file) throws IOException
+    {
+        final StringBuilder json;
+
+        json = new StringBuilder();
+        json.append("[\n");
+
+        for(int i = 0; i < results.size(); i++)
+        {
+            final Result result;
+
+            result = results.get(i);
+
+            json.append("  {\n");
+            json.append("    \"benchmark\" : \"").append(result.name).append("\",\n");
+            json.append("    \"mode\" : \"avgt\",\n");
+            json.append("    \"forks\" : ").append(FORKS).append(",\n");
+            json.append("    \"warmupIterations\" : ").append(WARMUP_ITERATIONS).append(",\n");
+            json.append("    \"measurementIterations\" : ").append(MEASUREMENT_ITERATIONS).append(",\n");
+            json.append("    \"primaryMetric\" : {\n");
+            json.append("      \"score\" : ").append(format(result.score)).append(",\n");
+            json.append("      \"scoreError\" : ").append(format(result.error)).append(",\n");
+            json.append("      \"scoreConfidence\" : [ ")
+                .append(format(result.score - result.error))
+                .append(", ")
+                .append(format(result.score + result.error))
+                .append(" ],\n");
+            json.append("      \"scoreUnit\" : \"ns/op\",\n");
+            json.append("      \"rawData\" : [ [ ");
+
+            for(int j = 0; j < result.rawData.length; j++)
+            {
+                if(j > 0)
+                {
+                    json.append(", ");
+                }
+                json.append(format(result.rawData[j]));
+            }
+
+            json.append(" ] ]\n");
+            json.append("    }\n");
+            json.append(i == results.size() - 1
+                        ? "  }\n"
+                        : "  },\n");
+        }
+
+        json.append("]\n");
+
+        Files.writeString(file, json, StandardCharsets.UTF_8);
+        System.out.println("Wrote " + results.size() + " results to " + file.toAbsolutePath());
+    }
+
+    /*
+     * Formats a score with a fixed locale so the JSON is always valid.
+     */
+    private static String format(final double value)
+    {
+        return String.format(Locale.ROOT, "%.4f", value);
+    }
+
+    /**
+     * One benchmarked operation. The returned value is consumed by the runner
+     * so the JIT cannot remove the work.
+     */
+    public interface Operation
+    {
+        /**
+         * @param i the index of the call within its batch.
+         * @return any value derived from the work done.
+         */
+        long run(int i);
+    }
+
+    /*
+     * The measured score of one benchmark.
+     */
+    private static final class Result
+    {
+        private final String   name;
+        private final double   score;
+        private final double   error;
+        private final double[] rawData;
+
+        private Result(final String name,
+                       final double score,
+                       final double error,
+                       final double[] rawData)
+        {
+            this.name    = name;
+            this.score   = score;
+            this.error   = error;
+            this.rawData = rawData;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * Runs random combat through a {@link CombatLog}, recovers the pool from the log
+ * directory and checks that it matches the pool that was logged.
+ *
+ * <p>Usage: {@code java CombatLogReport [creatures] [actions] [checkpointInterval] [passes]}.
+ * The same actions are also run on an unlogged pool to show what logging costs,
+ * and recovery is timed against the logged run. Each pass runs both, one after
+ * the other, so both paths are compiled before the best pass of each is reported;
+ * timing one cold run of each charges the logged run for recompiling the action
+ * loop once the log is in use.</p>
+ */
+public class CombatLogReport
+{
+    private static final int  DEFAULT_CREATURES           = 10_000;
+    private static final int  DEFAULT_ACTIONS             = 5_000_000;
+    private static final int  DEFAULT_CHECKPOINT_INTERVAL = 1_000_000;
+    private static final int  DEFAULT_PASSES              = 5;
+    private static final long SEED                        = 2522L;
+    private static final int  ACTION_KINDS                = 5;
+    private static final int  NANOS_PER_MILLI             = 1_000_000;
+    private static final int  PERCENT                     = 100;
+
+    public static void main(final String[] args) throws Exception
+    {
+        final int          creatures;
+        final int          actions;
+        final int          checkpointInterval;
+        final int          passes;
+        final Path         directory;
+        final long         recoverStart;
+        final CreaturePool recovered;
+        final long         recoverNanos;
+        CreaturePool       unlogged;
+        CreaturePool       logged;
+        long               unloggedNanos;
+        long               loggedNanos;
+
+        creatures          = args.length > 0
+                             ? Integer.parseInt(args[0])
+                             : DEFAULT_CREATURES;
+        actions            = args.length > 1
+                             ? Integer.parseInt(args[1])
+                             : DEFAULT_ACTIONS;
+        checkpointInterval = args.length > 2
+                             ? Integer.parseInt(args[2])
+                             : DEFAULT_CHECKPOINT_INTERVAL;
+        passes             = args.length > 3
+                             ? Integer.parseInt(args[3])
+                             : DEFAULT_PASSES;
+        directory          = Files.createTempDirectory("combat-log");
+
+        try
+        {
+            unlogged      = null;
+            logged        = null;
+            unloggedNanos = Long.MAX_VALUE;
+            loggedNanos   = Long.MAX_VALUE;
+
+            for(int pass = 0; pass < passes; pass++)
+            {
+                final long loggedStart;
+
+                unlogged      = new CreaturePool(creatures);
+                unloggedNanos = Math.min(unloggedNanos, run(unlogged, null, creatures, actions));
+
+                // each pass checkpoints its fresh pool over the last pass's log
+                logged      = new CreaturePool(creatures);
+                loggedStart = System.nanoTime();
+
+                try(CombatLog log = new CombatLog(directory,
+                                                  logged,
+                                                  CombatLog.DEFAULT_COMMIT_INTERVAL_MILLIS,
+                                                  checkpointInterval))
+                {
+                    run(logged, log, creatures, actions);
+                }
+
+                loggedNanos = Math.min(loggedNanos, System.nanoTime() - loggedStart);
+            }
+
+            recoverStart = System.nanoTime();
+            recovered    = CombatLog.recover(directory);
+            recoverNanos = System.nanoTime() - recoverStart;
+
+            System.out.printf("%,d creatures, %,d actions, checkpoint every %,d events, best of %d passes%n",
+                              creatures,
+                              actions,
+                              checkpointInterval,
+                              passes);
+            System.out.printf("unlogged run:     %,d ms%n", unloggedNanos / NANOS_PER_MILLI);
+            System.out.printf("logged run:       %,d ms (%+.1f%%)%n",
+                              loggedNanos / NANOS_PER_MILLI,
+                              (double) PERCENT * (loggedNanos - unloggedNanos) / unloggedNanos);
+            System.out.printf("recover:          %,d ms%n", recoverNanos / NANOS_PER_MILLI);
+            System.out.println(sameState(logged, recovered) && sameState(logged, unlogged)
+                               ? "Recovered state is identical."
+                               : "RECOVERED STATE DIFFERS!");
+        } finally
+        {
+            deleteDirectory(directory);
+        }
+    }
+
+    /*
+     * Adds the creatures and runs the random actions, through the log if there is
+     * one. Rejected actions are skipped. Returns the time taken.
+     */
+    private static long run(final CreaturePool pool,
+                            final CombatLog log,
+                            final int creatures,
+                            final int actions) throws IOException
+    {
+        final SplittableRandom random;
+        final long             start;
+
+        random = new SplittableRandom(SEED);
+        start  = System.nanoTime();
+
+        for(int i = 0; i < creatures; i++)
+        {
+            final Date dateOfBirth;
+
+            dateOfBirth = Date.of(1, 1, 1900 + i % 100);
+
+            if(i % 3 == 0)
+            {
+                add(pool, log, CreaturePool.SPECIES_DRAGON, "Dragon " + i, dateOfBirth, Dragon.MAX_FIREPOWER);
+            } else if(i % 3 == 1)
+            {
+                add(pool, log, CreaturePool.SPECIES_ELF, "Elf " + i, dateOfBirth, Elf.MAX_MANA);
+            } else
+            {
+                add(pool, log, CreaturePool.SPECIES_ORC, "Orc " + i, dateOfBirth, Orc.MIN_RAGE);
+            }
+        }
+
+        for(int i = 0; i < actions; i++)
+        {
+            final int id;
+            final int other;
+
+            id    = random.nextInt(creatures);
+            other = random.nextInt(creatures);
+
+            try
+            {
+                act(pool, log, random.nextInt(ACTION_KINDS), id, other);
+            } catch(LowFirePowerException | LowManaException | IllegalArgumentException e)
+            {
+                // the wrong species or too low a resource; nothing happened
+            }
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    private static void add(final CreaturePool pool,
+                            final CombatLog log,
+                            final int species,
+                            final String name,
+                            final Date dateOfBirth,
+                            final int resource) throws IOException
+    {
+        if(species == CreaturePool.SPECIES_DRAGON)
+        {
+            if(log == null)
+            {
+                pool.addDragon(name, dateOfBirth, Creature.MAX_HEALTH, resource);
+            } else
+            {
+                log.addDragon(name, dateOfBirth, Creature.MAX_HEALTH, resource);
+            }
+        } else if(species == CreaturePool.SPECIES_ELF)
+        {
+            if(log == null)
+            {
+                pool.addElf(name, dateOfBirth, Creature.MAX_HEALTH, resource);
+            } else
+            {
+                log.addElf(name, dateOfBirth, Creature.MAX_HEALTH, resource);
+            }
+        } else if(log == null)
+        {
+            pool.addOrc(name, dateOfBirth, Creature.MAX_HEALTH, resource);
+        } else
+        {
+            log.addOrc(name, dateOfBirth, Creature.MAX_HEALTH, resource);
+        }
+    }
+
+    private static void act(final CreaturePool pool,
+                            final CombatLog log,
+                            final int kind,
+                            final int id,
+                            final int other)
+    throws LowFirePowerException, LowManaException, IOException
+    {
+        final int species;
+
+        species = pool.getSpecies(id);
+
+        if(kind == 0)
+        {
+            if(log == null)
+            {
+                pool.heal(id, other % 20);
+            } else
+            {
+                log.heal(id, other % 20);
+            }
+        } else if(species == CreaturePool.SPECIES_DRAGON)
+        {
+            if(kind == 1)
+            {
+                if(log == null)
+                {
+                    pool.restoreFirePower(id, other % 50);
+                } else
+                {
+                    log.restoreFirePower(id, other % 50);
+                }
+            } else if(log == null)
+            {
+                pool.breathFire(id, other);
+            } else
+            {
+                log.breathFire(id, other);
+            }
+        } else if(species == CreaturePool.SPECIES_ELF)
+        {
+            if(kind == 1)
+            {
+                if(log == null)
+                {
+                    pool.restoreMana(id, other % 50);
+                } else
+                {
+                    log.restoreMana(id, other % 50);
+                }
+            } else if(log == null)
+            {
+                pool.castSpell(id, other);
+            } else
+            {
+                log.castSpell(id, other);
+            }
+        } else if(kind == 1)
+        {
+            if(log == null)
+            {
+                pool.takeDamage(other, id % 10);
+            } else
+            {
+                log.takeDamage(other, id % 10);
+            }
+        } else if(log == null)
+        {
+            pool.berserk(id, other);
+        } else
+        {
+            log.berserk(id, other);
+        }
+    }
+
+    /*
+     * Compares every column of two pools.
+     */
+    private static boolean sameState(final CreaturePool expected,
+                                     final CreaturePool actual)
+    {
+        if(expected.size() != actual.size())
+        {
+            return false;
+        }
+
+        for(int id = 0; id < expected.size(); id++)
+        {
+            if(expected.getSpecies(id) != actual.getSpecies(id) ||
+               expected.getPackedDateOfBirth(id) != actual.getPackedDateOfBirth(id) ||
+               !expected.getName(id).equals(actual.getName(id)))
+            {
+                return false;
+            }
+        }
+
+        return Arrays.equals(expected.healthColumn(), 0, expected.size(), actual.healthColumn(), 0, actual.size()) &&
+               Arrays.equals(expected.resourceColumn(), 0, expected.size(), actual.resourceColumn(), 0, actual.size());
+    }
+
+    private static void deleteDirectory(final Path directory) throws IOException
+    {
+        try(Stream<Path> files = Files.walk(directory))
+        {
+            for(final Path file : files.sorted(Comparator.reverseOrder()).toList())
+            {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Runs combat on several threads, then checks that {@link CombatMetrics} counted
+ * exactly what happened and that JMX reports the same numbers.
+ *
+ * <p>Usage: {@code java -Dcombat.metrics=true CombatMetricsReport [threads] [attacks]}.
+ * Every thread makes its own dragons, elves and orcs attack each other and heals
+ * them back, counting everything itself. Metrics are off by default, so run it
+ * with and without {@code -Dcombat.metrics=true} to compare throughput.</p>
+ */
+public class CombatMetricsReport
+{
+    private static final int  DEFAULT_THREADS  = 4;
+    private static final int  DEFAULT_ATTACKS  = 5_000_000;
+    private static final int  FIGHTERS         = 64;
+    private static final long SEED             = 2522L;
+    private static final int  NANOS_PER_MILLI  = 1_000_000;
+
+    public static void main(final String[] args) throws Exception
+    {
+        final int         threadCount;
+        final int         attacks;
+        final Thread[]    threads;
+        final long[][]    expected;
+        final long        start;
+        final long        elapsed;
+        final MBeanServer server;
+        final ObjectName  name;
+        final long[]      totals;
+        boolean           matches;
+
+        threadCount = args.length > 0
+                      ? Integer.parseInt(args[0])
+                      : DEFAULT_THREADS;
+        attacks     = args.length > 1
+                      ? Integer.parseInt(args[1])
+                      : DEFAULT_ATTACKS;
+        threads     = new Thread[threadCount];
+        expected    = new long[threadCount][];
+
+        CombatMetrics.registerMBean();
+        CombatMetrics.reset();
+
+        start = System.nanoTime();
+
+        for(int t = 0; t < threadCount; t++)
+        {
+            final int thread;
+
+            thread     = t;
+            threads[t] = new Thread(() -> expected[thread] = fight(SEED + thread, attacks));
+            threads[t].start();
+        }
+        for(final Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        elapsed = System.nanoTime() - start;
+        server  = ManagementFactory.getPlatformMBeanServer();
+        name    = new ObjectName(CombatMetrics.OBJECT_NAME);
+        totals  = new long[expected[0].length];
+
+        for(final long[] counts : expected)
+        {
+            for(int i = 0; i < counts.length; i++)
+            {
+                totals[i] += counts[i];
+            }
+        }
+
+        System.out.print(server.getAttribute(name, "Snapshot"));
+        System.out.printf("%,d threads x %,d attacks: %,d ms, %,.0f attacks/s%n",
+                          threadCount,
+                          attacks,
+                          elapsed / NANOS_PER_MILLI,
+                          threadCount * (double) attacks * 1e9 / elapsed);
+
+        if(!CombatMetrics.ENABLED)
+        {
+            System.out.println("Metrics are disabled; nothing to check.");
+            return;
+        }
+
+        matches = check(server, name, "DragonAttacks", totals[0]) &
+                  check(server, name, "ElfAttacks", totals[1]) &
+                  check(server, name, "OrcAttacks", totals[2]) &
+                  check(server, name, "LowFirePowerFailures", totals[3]) &
+                  check(server, name, "LowManaFailures", totals[4]) &
+                  check(server, name, "LowRageFailures", totals[5]) &
+                  check(server, name, "DamageDealt", totals[6]) &
+                  check(server, name, "HealthHealed", totals[7]) &
+                  check(server, name, "Deaths", totals[8]);
+
+        System.out.println(matches
+                           ? "Every counter matches."
+                           : "COUNTERS DIFFER!");
+    }
+
+    /*
+     * Makes random attacks between a thread's own creatures and heals the targets
+     * back, counting attacks, failures, damage, healing and deaths as it goes.
+     */
+    private static long[] fight(final long seed,
+                                final int attacks)
+    {
+        final SplittableRandom random;
+        final Creature[]       fighters;
+        final long[]           counts;
+
+        random   = new SplittableRandom(seed);
+        fighters = new Creature[FIGHTERS];
+        counts   = new long[9];
+
+        for(int i = 0; i < FIGHTERS; i++)
+        {
+            fighters[i] = switch(i % 3)
+            {
+                case 0 -> new Dragon("Dragon " + i, Date.of(1, 1, 1900), Creature.MAX_HEALTH, Dragon.MAX_FIREPOWER);
+                case 1 -> new Elf("Elf " + i, Date.of(1, 1, 1900), Creature.MAX_HEALTH, Elf.MAX_MANA);
+                default -> new Orc("Orc " + i, Date.of(1, 1, 1900), Creature.MAX_HEALTH, Orc.MAX_RAGE);
+            };
+        }
+
+        for(int i = 0; i < attacks; i++)
+        {
+            final Creature attacker;
+            final Creature target;
+            final int      before;
+            final int      outcome;
+
+            attacker = fighters[random.nextInt(FIGHTERS)];
+            target   = fighters[random.nextInt(FIGHTERS)];
+            before   = target.getHealth();
+
+            if(before == Creature.NO_HEALTH || random.nextInt(4) == 0)
+            {
+                target.heal(Creature.MAX_HEALTH);
+                counts[7] += target.getHealth() - before;
+                continue;
+            }
+
+            if(attacker instanceof Dragon dragon)
+            {
+                outcome = dragon.tryBreathFire(target);
+                counts[0]++;
+                counts[3] += outcome == CombatOutcome.LOW_RESOURCE ? 1 : 0;
+
+                if(outcome == CombatOutcome.LOW_RESOURCE)
+                {
+                    dragon.restoreFirePower(Dragon.MAX_FIREPOWER);
+                }
+            } else if(attacker instanceof Elf elf)
+            {
+                outcome = elf.tryCastSpell(target);
+                counts[1]++;
+                counts[4] += outcome == CombatOutcome.LOW_RESOURCE ? 1 : 0;
+
+                if(outcome == CombatOutcome.LOW_RESOURCE)
+                {
+                    elf.restoreMana(Elf.MAX_MANA);
+                }
+            } else
+            {
+                outcome = ((Orc) attacker).tryBerserk(target);
+                counts[2]++;
+                counts[5] += outcome == CombatOutcome.LOW_RESOURCE ? 1 : 0;
+            }
+
+            counts[6] += before - target.getHealth();
+            counts[8] += target.getHealth() == Creature.NO_HEALTH ? 1 : 0;
+        }
+
+        return counts;
+    }
+
+    private static boolean check(final MBeanServer server,
+                                 final ObjectName name,
+                                 final String attribute,
+                                 final long expected) throws Exception
+    {
+        final long actual;
+
+        actual = (Long) server.getAttribute(name, attribute);
+
+        if(actual != expected)
+        {
+            System.out.println(attribute + ": JMX reports " + actual + ", expected " + expected);
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,97 @@
+import java.util.Random;
+
+/**
+ * Reports the heap used by the dates of birth of a large roster when each
+ * creature gets its own {@code new Date(...)} versus a shared {@code Date.of(...)}.
+ *
+ * <p>The roster size defaults to 10,000,000 and can be passed as the first
+ * argument. Run with a large enough heap, for example {@code -Xmx2g}.</p>
+ */
+public class DateMemoryReport
+{
+    private static final int  DEFAULT_ROSTER_SIZE = 10_000_000;
+    private static final long SEED                = 2522L;
+    private static final int  FIRST_YEAR          = 1800;
+    private static final int  YEARS               = 226;
+    private static final int  MONTHS              = 12;
+    private static final int  SAFE_DAYS           = 28;
+    private static final int  BYTES_PER_MEGABYTE  = 1024 * 1024;
+
+    public static void main(final String[] args)
+    {
+        final int    rosterSize;
+        final long   beforeAllocated;
+        final long   beforeShared;
+        final long   allocatedBytes;
+        final long   sharedBytes;
+        final Date[] allocated;
+        final Date[] shared;
+
+        rosterSize = args.length > 0
+                     ? Integer.parseInt(args[0])
+                     : DEFAULT_ROSTER_SIZE;
+
+        beforeAllocated = usedHeap();
+        allocated       = fill(rosterSize, false);
+        allocatedBytes  = usedHeap() - beforeAllocated;
+
+        beforeShared = usedHeap();
+        shared       = fill(rosterSize, true);
+        sharedBytes  = usedHeap() - beforeShared;
+
+        System.out.printf("roster size:      %,d%n", rosterSize);
+        System.out.printf("new Date(...):    %,.1f MB%n", (double) allocatedBytes / BYTES_PER_MEGABYTE);
+        System.out.printf("Date.of(...):     %,.1f MB%n", (double) sharedBytes / BYTES_PER_MEGABYTE);
+        System.out.printf("saved:            %,.1f MB%n", (double) (allocatedBytes - sharedBytes) / BYTES_PER_MEGABYTE);
+
+        // keeps both rosters reachable until both measurements are done
+        System.out.println("checksum:         " + (allocated[rosterSize - 1].hashCode() + shared[rosterSize - 1].hashCode()));
+    }
+
+    /*
+     * Builds a roster of random dates of birth with the same seed for both variants.
+     */
+    private static Date[] fill(final int rosterSize,
+                               final boolean canonical)
+    {
+        final Random random;
+        final Date[] dates;
+
+        random = new Random(SEED);
+        dates  = new Date[rosterSize];
+
+        for(int i = 0; i < rosterSize; i++)
+        {
+            final int day;
+            final int month;
+            final int year;
+
+            day   = random.nextInt(SAFE_DAYS) + 1;
+            month = random.nextInt(MONTHS) + 1;
+            year  = random.nextInt(YEARS) + FIRST_YEAR;
+
+            dates[i] = canonical
+                       ? Date.of(day, month, year)
+                       : new Date(day, month, year);
+        }
+
+        return dates;
+    }
+
+    /*
+     * Returns the heap in use after asking for a full collection.
+     */
+    private static long usedHeap()
+    {
+        final Runtime runtime;
+
+        runtime = Runtime.getRuntime();
+
+        for(int i = 0; i < 3; i++)
+        {
+            System.gc();
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * Gives every creature of a large pool a regeneration effect and times the ticks
+ * of an {@link EffectScheduler} against a 16 ms frame budget.
+ *
+ * <p>Usage: {@code java EffectSchedulerReport [creatures] [period]}. Every creature
+ * heals 1 health every {@code period} ticks, and dragons and elves also regain
+ * firePower or mana. In the first run every effect is in phase, so one tick in
+ * {@code period} applies all of them; in the second they are spread over the
+ * period. For comparison the same regeneration is also applied through
+ * {@link CreaturePool#heal(int, int)} and the restore methods, one call per creature.</p>
+ */
+public class EffectSchedulerReport
+{
+    private static final int    DEFAULT_CREATURES = 2_000_000;
+    private static final int    DEFAULT_PERIOD    = 10;
+    private static final int    PERIODS           = 20;
+    private static final double FRAME_BUDGET_MS   = 16.0;
+    private static final double NANOS_PER_MILLI   = 1_000_000.0;
+
+    public static void main(final String[] args)
+    {
+        final int creatures;
+        final int period;
+
+        creatures = args.length > 0
+                    ? Integer.parseInt(args[0])
+                    : DEFAULT_CREATURES;
+        period    = args.length > 1
+                    ? Integer.parseInt(args[1])
+                    : DEFAULT_PERIOD;
+
+        System.out.printf("%,d creatures, regenerating every %d ticks%n", creatures, period);
+
+        run("in phase", creatures, period, false);
+        run("spread", creatures, period, true);
+        runPerCall(creatures);
+    }
+
+    /*
+     * Schedules the regeneration of every creature and runs PERIODS periods of ticks.
+     */
+    private static void run(final String label,
+                            final int creatures,
+                            final int period,
+                            final boolean spread)
+    {
+        final CreaturePool    pool;
+        final EffectScheduler scheduler;
+        final long            scheduleStart;
+        final long            scheduleNanos;
+        long                  worstNanos;
+        long                  totalNanos;
+        long                  applied;
+
+        pool = populate(creatures);
+
+        scheduler     = new EffectScheduler(pool, creatures * 2);
+        scheduleStart = System.nanoTime();
+
+        for(int id = 0; id < creatures; id++)
+        {
+            final int delay;
+            final int species;
+
+            delay   = spread
+                      ? id % period + 1
+                      : period;
+            species = pool.getSpecies(id);
+
+            scheduler.schedule(EffectScheduler.EFFECT_HEAL, id, 1, delay, period, EffectScheduler.FOREVER);
+
+            if(species == CreaturePool.SPECIES_DRAGON)
+            {
+                scheduler.schedule(EffectScheduler.EFFECT_RESTORE_FIRE_POWER, id, 1, delay, period, EffectScheduler.FOREVER);
+            } else if(species == CreaturePool.SPECIES_ELF)
+            {
+                scheduler.schedule(EffectScheduler.EFFECT_RESTORE_MANA, id, 1, delay, period, EffectScheduler.FOREVER);
+            }
+        }
+
+        scheduleNanos = System.nanoTime() - scheduleStart;
+        worstNanos    = 0;
+        totalNanos    = 0;
+        applied       = 0;
+
+        for(int tick = 0; tick < PERIODS * period; tick++)
+        {
+            final long start;
+            final long nanos;
+
+            start = System.nanoTime();
+            applied += scheduler.tick();
+            nanos = System.nanoTime() - start;
+
+            // the first period warms up the JIT compiler
+            if(tick >= period)
+            {
+                worstNanos = Math.max(worstNanos, nanos);
+                totalNanos += nanos;
+            }
+        }
+
+        System.out.printf("%-9s schedule %,d effects: %,.1f ms; worst tick %,.2f ms, mean tick %,.3f ms, %,d applied (%s the %.0f ms budget)%n",
+                          label,
+                          scheduler.size(),
+                          scheduleNanos / NANOS_PER_MILLI,
+                          worstNanos / NANOS_PER_MILLI,
+                          totalNanos / NANOS_PER_MILLI / ((PERIODS - 1) * period),
+                          applied,
+                          worstNanos / NANOS_PER_MILLI <= FRAME_BUDGET_MS ? "within" : "OVER",
+                          FRAME_BUDGET_MS);
+    }
+
+    /*
+     * Applies one round of regeneration through the pool methods, one call per creature.
+     */
+    private static void runPerCall(final int creatures)
+    {
+        final CreaturePool pool;
+        long               worstNanos;
+
+        pool       = populate(creatures);
+        worstNanos = 0;
+
+        for(int round = 0; round < PERIODS; round++)
+        {
+            final long start;
+            final long nanos;
+
+            start = System.nanoTime();
+
+            for(int id = 0; id < creatures; id++)
+            {
+                final int species;
+
+                species = pool.getSpecies(id);
+
+                pool.heal(id, 1);
+
+                if(species == CreaturePool.SPECIES_DRAGON)
+                {
+                    pool.restoreFirePower(id, 1);
+                } else if(species == CreaturePool.SPECIES_ELF)
+                {
+                    pool.restoreMana(id, 1);
+                }
+            }
+
+            nanos = System.nanoTime() - start;
+
+            if(round > 0)
+            {
+                worstNanos = Math.max(worstNanos, nanos);
+            }
+        }
+
+        System.out.printf("per call  worst round %,.2f ms%n", worstNanos / NANOS_PER_MILLI);
+    }
+
+    private static CreaturePool populate(final int creatures)
+    {
+        final CreaturePool pool;
+        final Date         dateOfBirth;
+
+        pool        = new CreaturePool(creatures);
+        dateOfBirth = Date.of(1, 1, 1900);
+
+        for(int id = 0; id < creatures; id++)
+        {
+            if(id % 3 == 0)
+            {
+                pool.addDragon("Dragon " + id, dateOfBirth, Creature.MAX_HEALTH / 2, Dragon.MIN_FIREPOWER);
+            } else if(id % 3 == 1)
+            {
+                pool.addElf("Elf " + id, dateOfBirth, Creature.MAX_HEALTH / 2, Elf.MIN_MANA);
+            } else
+            {
+                pool.addOrc("Orc " + id, dateOfBirth, Creature.MAX_HEALTH / 2, Orc.MIN_RAGE);
+            }
+        }
+        return pool;
+    }
+}
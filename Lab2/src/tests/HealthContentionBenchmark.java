@@ -0,0 +1,93 @@
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Hammers one boss creature from 1 to 64 threads and reports throughput.
+ *
+ * <p>Half the threads repeatedly deal 1 damage and then heal 1, the other half heal
+ * 1 and then deal 1 damage, so the boss never strays more than half the thread count
+ * from its starting health. It starts halfway between 0 and {@code MAX_HEALTH}, far
+ * enough from both that no update is ever clamped, so a lost update of either kind
+ * changes the final health. After every run the boss must be back at its starting
+ * health; any lost update is reported.</p>
+ */
+public class HealthContentionBenchmark
+{
+    private static final int   PAIRS_PER_THREAD = 500_000;
+    private static final int[] THREAD_COUNTS    = {1, 2, 4, 8, 16, 32, 64};
+    private static final int   START_HEALTH     = Creature.MAX_HEALTH / 2;
+
+    public static void main(final String[] args) throws InterruptedException
+    {
+        for(final int threadCount : THREAD_COUNTS)
+        {
+            run(threadCount);
+        }
+    }
+
+    /*
+     * Runs one contention round with the given number of threads.
+     */
+    private static void run(final int threadCount) throws InterruptedException
+    {
+        final Creature       boss;
+        final Thread[]       threads;
+        final CountDownLatch start;
+        final long           startNanos;
+        final long           elapsedNanos;
+        final long           operations;
+
+        boss    = new Creature("Boss", new Date(1, 1, 1900), START_HEALTH);
+        threads = new Thread[threadCount];
+        start   = new CountDownLatch(1);
+
+        for(int i = 0; i < threadCount; i++)
+        {
+            final boolean damageFirst;
+
+            damageFirst = i % 2 == 0;
+            threads[i]  = new Thread(() -> {
+                try
+                {
+                    start.await();
+                } catch(InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+
+                for(int j = 0; j < PAIRS_PER_THREAD; j++)
+                {
+                    if(damageFirst)
+                    {
+                        boss.takeDamage(1);
+                        boss.heal(1);
+                    } else
+                    {
+                        boss.heal(1);
+                        boss.takeDamage(1);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+
+        startNanos = System.nanoTime();
+        start.countDown();
+
+        for(final Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        elapsedNanos = System.nanoTime() - startNanos;
+        operations   = 2L * PAIRS_PER_THREAD * threadCount;
+
+        System.out.printf("%2d threads: %8.2f Mops/s, final health %d%s%n",
+                          threadCount,
+                          operations * 1_000.0 / elapsedNanos,
+                          boss.getHealth(),
+                          boss.getHealth() == START_HEALTH
+                          ? ""
+                          : " (LOST UPDATES)");
+    }
+}
@@ -0,0 +1,406 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Benchmarks the hot paths of {@link Date}, {@link Creature} and its subclasses,
+ * and writes the results as JSON.
+ *
+ * <p>Usage: {@code java HotPathBenchmarks [output.json]}. The default output file
+ * is {@code benchmark-results.json} in the working directory. Each benchmark is
+ * measured in a JVM forked by {@link BenchmarkRunner}, which runs this class again
+ * with the arguments of a forked JVM.</p>
+ */
+public class HotPathBenchmarks
+{
+    private static final String DEFAULT_OUTPUT = "benchmark-results.json";
+    private static final int    DATE_COUNT     = 1_024;
+    private static final long   SEED           = 2522L;
+    private static final int    BATTLE_SIZE    = 100_000;
+    private static final int    SURVIVOR_EVERY = 100;
+
+    public static void main(final String[] args) throws IOException
+    {
+        final BenchmarkRunner runner;
+        final Path            output;
+
+        if(BenchmarkRunner.isForked(args))
+        {
+            benchmarks(BenchmarkRunner.forked(args));
+            return;
+        }
+
+        runner = new BenchmarkRunner(HotPathBenchmarks.class);
+        output = Path.of(args.length > 0
+                         ? args[0]
+                         : DEFAULT_OUTPUT);
+
+        benchmarks(runner);
+
+        runner.writeJson(output);
+    }
+
+    private static void benchmarks(final BenchmarkRunner runner) throws IOException
+    {
+        dateBenchmarks(runner);
+        constructionBenchmarks(runner);
+        detailsBenchmarks(runner);
+        attackBenchmarks(runner);
+        survivorBenchmarks(runner);
+        ageQueryBenchmarks(runner);
+    }
+
+    /*
+     * Date construction, toString, and ISO formatting and parsing.
+     */
+    private static void dateBenchmarks(final BenchmarkRunner runner) throws IOException
+    {
+        final int[]  days;
+        final int[]  months;
+        final int[]  years;
+        final Date[]   dates;
+        final String[] isoTexts;
+        final int[]    packedDates;
+        final int[]    parsedDates;
+        final char[]   isoChars;
+        final byte[]   isoBytes;
+        final byte[]   isoColumn;
+        final Random   random;
+
+        days        = new int[DATE_COUNT];
+        months      = new int[DATE_COUNT];
+        years       = new int[DATE_COUNT];
+        dates       = new Date[DATE_COUNT];
+        isoTexts    = new String[DATE_COUNT];
+        packedDates = new int[DATE_COUNT];
+        parsedDates = new int[DATE_COUNT];
+        isoChars    = new char[Date.ISO_LENGTH];
+        isoBytes    = new byte[Date.ISO_LENGTH];
+        isoColumn   = new byte[DATE_COUNT * Date.ISO_LENGTH];
+        random      = new Random(SEED);
+
+        for(int i = 0; i < DATE_COUNT; i++)
+        {
+            days[i]   = random.nextInt(28) + 1;
+            months[i] = random.nextInt(12) + 1;
+            years[i]  = random.nextInt(226) + 1800;
+            dates[i]  = new Date(days[i], months[i], years[i]);
+
+            isoTexts[i]    = dates[i].getYyyyMmDd();
+            packedDates[i] = dates[i].getPackedDate();
+        }
+
+        // filled here so Date.parseColumn does not rely on Date.formatColumn running first
+        Date.formatColumn(packedDates, 0, DATE_COUNT, isoColumn, 0);
+
+        runner.run("Date.new", i -> new Date(days[i], months[i], years[i]).getDay());
+        runner.run("Date.of", i -> Date.of(days[i], months[i], years[i]).getDay());
+        runner.run("Date.new.invalid", i -> {
+            try
+            {
+                return new Date(30, 2, years[i]).getDay();
+            } catch(IllegalArgumentException e)
+            {
+                return 1;
+            }
+        });
+        runner.run("Date.toString", i -> dates[i].toString().length());
+        runner.run("Date.getYyyyMmDd", i -> dates[i].getYyyyMmDd().length());
+        runner.run("Date.formatIso.char", i -> dates[i].formatIso(isoChars, 0));
+        runner.run("Date.formatIso.byte", i -> dates[i].formatIso(isoBytes, 0));
+        runner.run("Date.parse", i -> Date.parse(isoTexts[i]).getDay());
+        runner.run("Date.formatColumn", i -> {
+            Date.formatColumn(packedDates, i, 1, isoColumn, i * Date.ISO_LENGTH);
+            return isoColumn[i * Date.ISO_LENGTH];
+        });
+        runner.run("Date.parseColumn", i -> {
+            Date.parseColumn(isoColumn, i * Date.ISO_LENGTH, parsedDates, i, 1);
+            return parsedDates[i];
+        });
+        runner.run("Date.getDayOfWeek", i -> dates[i].getDayOfWeek().length());
+    }
+
+    /*
+     * Construction and validation of every creature type, on valid and invalid input.
+     */
+    private static void constructionBenchmarks(final BenchmarkRunner runner) throws IOException
+    {
+        final Date dateOfBirth;
+
+        dateOfBirth = new Date(20, 1, 2006);
+
+        runner.run("Creature.new", i -> new Creature("Zartan", dateOfBirth, 100).getHealth());
+        runner.run("Dragon.new", i -> new Dragon("Zartan", dateOfBirth, 100, 50).getHealth());
+        runner.run("Elf.new", i -> new Elf("Sir Elfizar", dateOfBirth, 50, 25).getHealth());
+        runner.run("Orc.new", i -> new Orc("Grunk", dateOfBirth, 75, 25).getRage());
+        runner.run("Dragon.new.invalid", i -> {
+            try
+            {
+                return new Dragon("Zartan", dateOfBirth, 100, -1).getHealth();
+            } catch(IllegalArgumentException e)
+            {
+                return 1;
+            }
+        });
+        runner.run("Elf.new.invalid", i -> {
+            try
+            {
+                return new Elf("Sir Elfizar", dateOfBirth, 50, -1).getHealth();
+            } catch(IllegalArgumentException e)
+            {
+                return 1;
+            }
+        });
+        runner.run("Orc.new.invalid", i -> {
+            try
+            {
+                return new Orc("Grunk", dateOfBirth, 75, 0).getRage();
+            } catch(LowRageException e)
+            {
+                return 1;
+            }
+        });
+    }
+
+    /*
+     * getDetails of every creature type, with System.out discarded,
+     * and appendDetails into a reused buffer.
+     */
+    private static void detailsBenchmarks(final BenchmarkRunner runner) throws IOException
+    {
+        final PrintStream   original;
+        final Date          dateOfBirth;
+        final Creature      creature;
+        final Dragon        dragon;
+        final Elf           elf;
+        final Orc           orc;
+        final StringBuilder details;
+
+        original    = System.out;
+        dateOfBirth = new Date(20, 1, 2006);
+        creature    = new Creature("Zartan", dateOfBirth, 100);
+        dragon      = new Dragon("Zartan", dateOfBirth, 100, 50);
+        elf         = new Elf("Sir Elfizar", dateOfBirth, 50, 25);
+        orc         = new Orc("Grunk", dateOfBirth, 75, 25);
+        details     = new StringBuilder();
+
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        try
+        {
+            runner.run("Creature.getDetails", i -> {
+                creature.getDetails();
+                return 1;
+            });
+            runner.run("Dragon.getDetails", i -> {
+                dragon.getDetails();
+                return 1;
+            });
+            runner.run("Elf.getDetails", i -> {
+                elf.getDetails();
+                return 1;
+            });
+            runner.run("Orc.getDetails", i -> {
+                orc.getDetails();
+                return 1;
+            });
+            runner.run("Dragon.appendDetails", i -> {
+                details.setLength(0);
+                try
+                {
+                    dragon.appendDetails(details);
+                } catch(IOException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
+                return details.length();
+            });
+        } finally
+        {
+            System.setOut(original);
+        }
+    }
+
+    /*
+     * Every attack method on its success path and its exception path.
+     * The success paths restore the attacker and heal the target each call so the
+     * state never runs out; an Orc cannot reach its exception path because its
+     * constructor already rejects rage below MIN_RAGE.
+     */
+    private static void attackBenchmarks(final BenchmarkRunner runner) throws IOException
+    {
+        final Date   dateOfBirth;
+        final Dragon dragon;
+        final Dragon tiredDragon;
+        final Elf    elf;
+        final Elf    tiredElf;
+        final Orc[]  orc;
+        final Orc    target;
+
+        dateOfBirth = new Date(20, 1, 2006);
+        dragon      = new Dragon("Zartan", dateOfBirth, 100, Dragon.MAX_FIREPOWER);
+        tiredDragon = new Dragon("Tired Zartan", dateOfBirth, 100, 0);
+        elf         = new Elf("Sir Elfizar", dateOfBirth, 50, Elf.MAX_MANA);
+        tiredElf    = new Elf("Tired Elfizar", dateOfBirth, 50, 0);
+        orc         = new Orc[1];
+        target      = new Orc("Target", dateOfBirth, 100, Orc.MIN_RAGE);
+
+        runner.run("Dragon.breathFire.success", i -> {
+            try
+            {
+                dragon.breathFire(target);
+            } catch(LowFirePowerException e)
+            {
+                throw new IllegalStateException(e);
+            }
+            dragon.restoreFirePower(Dragon.FIREPOWER_COST);
+            target.heal(Creature.MAX_HEALTH);
+            return target.getHealth();
+        });
+        runner.run("Dragon.breathFire.exception", i -> {
+            try
+            {
+                tiredDragon.breathFire(target);
+                return 0;
+            } catch(LowFirePowerException e)
+            {
+                return 1;
+            }
+        });
+        runner.run("Elf.castSpell.success", i -> {
+            try
+            {
+                elf.castSpell(target);
+            } catch(LowManaException e)
+            {
+                throw new IllegalStateException(e);
+            }
+            elf.restoreMana(Elf.MANA_SPELL_COST);
+            target.heal(Creature.MAX_HEALTH);
+            return target.getHealth();
+        });
+        runner.run("Elf.castSpell.exception", i -> {
+            try
+            {
+                tiredElf.castSpell(target);
+                return 0;
+            } catch(LowManaException e)
+            {
+                return 1;
+            }
+        });
+        runner.run("Orc.berserk.success", i -> {
+            // rage grows on every berserk, so start a fresh orc each batch
+            if(i == 0)
+            {
+                orc[0] = new Orc("Grunk", dateOfBirth, 75, Orc.MIN_RAGE);
+            }
+            orc[0].berserk(target);
+            target.heal(Creature.MAX_HEALTH);
+            return target.getHealth();
+        });
+    }
+
+    /*
+     * Finding survivors late in a battle, where 1 in SURVIVOR_EVERY creatures is
+     * alive: a health check per creature against the living index.
+     */
+    private static void survivorBenchmarks(final BenchmarkRunner runner) throws IOException
+    {
+        final CreaturePool pool;
+        final Date         dateOfBirth;
+        final LivingIndex  living;
+
+        pool        = new CreaturePool(BATTLE_SIZE);
+        dateOfBirth = new Date(20, 1, 2006);
+        living      = pool.living();
+
+        for(int id = 0; id < BATTLE_SIZE; id++)
+        {
+            pool.addOrc("Grunk", dateOfBirth, id % SURVIVOR_EVERY == 0
+                                              ? Creature.MAX_HEALTH
+                                              : Creature.NO_HEALTH, Orc.MIN_RAGE);
+        }
+
+        runner.run("CreaturePool.countLivingOrcs.scan", i -> {
+            int count;
+
+            count = 0;
+
+            for(int id = 0; id < BATTLE_SIZE; id++)
+            {
+                if(pool.getSpecies(id) == CreaturePool.SPECIES_ORC && pool.isAlive(id))
+                {
+                    count++;
+                }
+            }
+            return count;
+        });
+        runner.run("LivingIndex.count", i -> living.count(CreaturePool.SPECIES_ORC));
+        runner.run("LivingIndex.ids", i -> living.ids(CreaturePool.SPECIES_ORC).length);
+        runner.run("CreaturePool.nextLivingTarget.scan", i -> {
+            final int from;
+
+            from = i * SURVIVOR_EVERY + 1;
+
+            for(int id = from; id < BATTLE_SIZE; id++)
+            {
+                if(pool.isAlive(id))
+                {
+                    return id;
+                }
+            }
+            return -1;
+        });
+        runner.run("LivingIndex.nextAfter", i -> living.nextAfter(i * SURVIVOR_EVERY));
+    }
+
+    /*
+     * "Creatures aged 20 to 25" over a pool of BATTLE_SIZE random dates of birth:
+     * an age check per creature against the date of birth index.
+     */
+    private static void ageQueryBenchmarks(final BenchmarkRunner runner) throws IOException
+    {
+        final CreaturePool   pool;
+        final Random         random;
+        final BirthDateIndex index;
+
+        pool   = new CreaturePool(BATTLE_SIZE);
+        random = new Random(SEED);
+
+        for(int id = 0; id < BATTLE_SIZE; id++)
+        {
+            pool.addElf("Sir Elfizar",
+                        Date.of(random.nextInt(28) + 1, random.nextInt(12) + 1, random.nextInt(225) + 1800),
+                        Creature.MAX_HEALTH,
+                        Elf.MAX_MANA);
+        }
+
+        index = new BirthDateIndex(pool);
+
+        runner.run("CreaturePool.countAged.scan", i -> {
+            int count;
+
+            count = 0;
+
+            for(int id = 0; id < BATTLE_SIZE; id++)
+            {
+                final int age;
+
+                age = pool.getAgeYears(id);
+
+                if(age >= 20 && age <= 25)
+                {
+                    count++;
+                }
+            }
+            return count;
+        });
+        runner.run("BirthDateIndex.countAged", i -> index.countAged(20, 25));
+        runner.run("BirthDateIndex.idsAged", i -> index.idsAged(20, 25).length);
+        runner.run("BirthDateIndex.ageHistogram", i -> index.ageHistogram(10).length);
+    }
+}
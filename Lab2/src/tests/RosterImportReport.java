@@ -0,0 +1,213 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * Generates a CSV and an NDJSON roster with some bad rows, imports both with
+ * {@link RosterImporter} and compares against reading the CSV line by line through
+ * {@code new Date(...)} and the creature constructors.
+ *
+ * <p>Usage: {@code java RosterImportReport [rows]}. Every 1,000th row is invalid.
+ * The generated files are deleted afterwards.</p>
+ */
+public class RosterImportReport
+{
+    private static final int  DEFAULT_ROWS    = 2_000_000;
+    private static final long SEED            = 2522L;
+    private static final int  BAD_ROW_EVERY   = 1_000;
+    private static final int  FIRST_YEAR      = 1800;
+    private static final int  YEARS           = 225;
+    private static final int  NANOS_PER_MILLI = 1_000_000;
+
+    // NDJSON-only rows with broken \\u escapes in the name, rejected on top of the spoiled rows
+    private static final String[] BAD_ESCAPES = {
+        "{\"species\":\"Elf\",\"name\":\"A\\uZZZZ\",\"day\":1,\"month\":1,\"year\":1900,\"health\":50,\"resource\":5}",
+        "{\"species\":\"Elf\",\"name\":\"A\\u00\",\"day\":1,\"month\":1,\"year\":1900,\"health\":50,\"resource\":5}"
+    };
+
+    public static void main(final String[] args) throws IOException
+    {
+        final int          rows;
+        final Path         csv;
+        final Path         ndjson;
+        final long[]       rejected;
+        final CreaturePool csvPool;
+        final CreaturePool ndjsonPool;
+        final long         csvStart;
+        final int          csvImported;
+        final long         csvNanos;
+        final long         ndjsonStart;
+        final int          ndjsonImported;
+        final long         ndjsonNanos;
+        final long         naiveStart;
+        final int          naiveImported;
+        final long         naiveNanos;
+
+        rows     = args.length > 0
+                   ? Integer.parseInt(args[0])
+                   : DEFAULT_ROWS;
+        csv      = Files.createTempFile("roster", ".csv");
+        ndjson   = Files.createTempFile("roster", ".ndjson");
+        rejected = new long[2];
+
+        try
+        {
+            generate(csv, ndjson, rows);
+
+            csvPool     = new CreaturePool(rows);
+            csvStart    = System.nanoTime();
+            csvImported = RosterImporter.importCsv(csv, csvPool, (line, text, reason) ->
+            {
+                if(rejected[0]++ == 0)
+                {
+                    System.out.println("first CSV rejection, line " + line + ": " + reason + " [" + text + "]");
+                }
+            });
+            csvNanos    = System.nanoTime() - csvStart;
+
+            ndjsonPool     = new CreaturePool(rows);
+            ndjsonStart    = System.nanoTime();
+            ndjsonImported = RosterImporter.importNdjson(ndjson, ndjsonPool, (line, text, reason) ->
+            {
+                if(rejected[1]++ == 0 || line > rows)
+                {
+                    System.out.println("NDJSON rejection, line " + line + ": " + reason + " [" + text + "]");
+                }
+            });
+            ndjsonNanos    = System.nanoTime() - ndjsonStart;
+
+            naiveStart    = System.nanoTime();
+            naiveImported = importNaively(csv);
+            naiveNanos    = System.nanoTime() - naiveStart;
+
+            System.out.printf("rows:                 %,d%n", rows);
+            System.out.printf("CSV import:           %,d ms, %,d imported, %,d rejected%n", csvNanos / NANOS_PER_MILLI, csvImported, rejected[0]);
+            System.out.printf("NDJSON import:        %,d ms, %,d imported, %,d rejected%n", ndjsonNanos / NANOS_PER_MILLI, ndjsonImported, rejected[1]);
+            System.out.printf("constructors per row: %,d ms, %,d imported%n", naiveNanos / NANOS_PER_MILLI, naiveImported);
+            System.out.println(csvImported == naiveImported && ndjsonImported == naiveImported &&
+                               rejected[1] == rejected[0] + BAD_ESCAPES.length
+                               ? "Every importer accepted the same rows, and NDJSON rejected each bad escape."
+                               : "IMPORTERS DISAGREE!");
+        } finally
+        {
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(ndjson);
+        }
+    }
+
+    /*
+     * Writes the same random rows as CSV and NDJSON, spoiling every BAD_ROW_EVERY-th row.
+     */
+    private static void generate(final Path csv,
+                                 final Path ndjson,
+                                 final int rows) throws IOException
+    {
+        final SplittableRandom random;
+
+        random = new SplittableRandom(SEED);
+
+        try(BufferedWriter csvOut = Files.newBufferedWriter(csv, StandardCharsets.UTF_8);
+            BufferedWriter ndjsonOut = Files.newBufferedWriter(ndjson, StandardCharsets.UTF_8))
+        {
+            csvOut.write("species,name,day,month,year,health,resource");
+            csvOut.newLine();
+
+            for(int i = 0; i < rows; i++)
+            {
+                final String species;
+                final int    resource;
+                final int    day;
+                final int    month;
+                final int    year;
+                final int    health;
+
+                species  = switch(random.nextInt(3))
+                {
+                    case 0 -> "Dragon";
+                    case 1 -> "Elf";
+                    default -> "Orc";
+                };
+                resource = switch(species)
+                {
+                    case "Dragon" -> random.nextInt(Dragon.MIN_FIREPOWER, Dragon.MAX_FIREPOWER + 1);
+                    case "Elf" -> random.nextInt(Elf.MIN_MANA, Elf.MAX_MANA + 1);
+                    default -> random.nextInt(Orc.MIN_RAGE, Orc.MAX_RAGE + 1);
+                };
+                day      = random.nextInt(28) + 1;
+                month    = random.nextInt(12) + 1;
+                year     = FIRST_YEAR + random.nextInt(YEARS);
+                health   = i % BAD_ROW_EVERY == BAD_ROW_EVERY - 1
+                           ? Creature.MAX_HEALTH + 1
+                           : random.nextInt(Creature.MIN_HEALTH, Creature.MAX_HEALTH + 1);
+
+                csvOut.write(species + ",\"" + species + " " + i + "\"," + day + "," + month + "," + year + "," + health + "," + resource);
+                csvOut.newLine();
+
+                ndjsonOut.write("{\"species\":\"" + species + "\",\"name\":\"" + species + " " + i +
+                                "\",\"day\":" + day + ",\"month\":" + month + ",\"year\":" + year +
+                                ",\"health\":" + health + ",\"resource\":" + resource + "}");
+                ndjsonOut.newLine();
+            }
+
+            for(final String row : BAD_ESCAPES)
+            {
+                ndjsonOut.write(row);
+                ndjsonOut.newLine();
+            }
+        }
+    }
+
+    /*
+     * Reads the CSV one line at a time through String.split, Integer.parseInt,
+     * new Date(...) and the creature constructors, counting the rows they accept.
+     */
+    private static int importNaively(final Path csv) throws IOException
+    {
+        int imported;
+
+        imported = 0;
+
+        try(BufferedReader in = Files.newBufferedReader(csv, StandardCharsets.UTF_8))
+        {
+            String line;
+
+            in.readLine();
+
+            while((line = in.readLine()) != null)
+            {
+                final String[] fields;
+                final String   name;
+                final Date     dateOfBirth;
+                final int      health;
+                final int      resource;
+
+                fields = line.split(",");
+                name   = fields[1].substring(1, fields[1].length() - 1);
+
+                try
+                {
+                    dateOfBirth = new Date(Integer.parseInt(fields[2]), Integer.parseInt(fields[3]), Integer.parseInt(fields[4]));
+                    health      = Integer.parseInt(fields[5]);
+                    resource    = Integer.parseInt(fields[6]);
+
+                    switch(fields[0])
+                    {
+                        case "Dragon" -> new Dragon(name, dateOfBirth, health, resource);
+                        case "Elf" -> new Elf(name, dateOfBirth, health, resource);
+                        default -> new Orc(name, dateOfBirth, health, resource);
+                    }
+                    imported++;
+                } catch(IllegalArgumentException e)
+                {
+                    // a rejected row
+                }
+            }
+        }
+
+        return imported;
+    }
+}
@@ -0,0 +1,121 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * Saves a large pool to a {@link RosterSnapshot}, reopens it and checks that every
+ * creature came back unchanged.
+ *
+ * <p>Usage: {@code java RosterSnapshotReport [creatures] [file]}. The pool size
+ * defaults to 5,000,000 and the file to a temporary file that is deleted afterwards.
+ * A 50,000,000 creature pool needs a large heap, for example {@code -Xmx8g}.</p>
+ */
+public class RosterSnapshotReport
+{
+    private static final int  DEFAULT_CREATURES  = 5_000_000;
+    private static final long SEED               = 2522L;
+    private static final int  FIRST_YEAR         = 1800;
+    private static final int  YEARS              = 225;
+    private static final int  MONTHS             = 12;
+    private static final int  SAFE_DAYS          = 28;
+    private static final int  NANOS_PER_MILLI    = 1_000_000;
+    private static final int  BYTES_PER_MEGABYTE = 1024 * 1024;
+
+    public static void main(final String[] args) throws Exception
+    {
+        final int          creatures;
+        final Path         file;
+        final CreaturePool pool;
+        final long         writeStart;
+        final long         writeNanos;
+        final long         openStart;
+        final long         openNanos;
+
+        creatures = args.length > 0
+                    ? Integer.parseInt(args[0])
+                    : DEFAULT_CREATURES;
+        file      = args.length > 1
+                    ? Path.of(args[1])
+                    : Files.createTempFile("roster", ".snapshot");
+        pool      = fill(creatures);
+
+        try
+        {
+            writeStart = System.nanoTime();
+            RosterSnapshot.write(file, pool);
+            writeNanos = System.nanoTime() - writeStart;
+
+            openStart = System.nanoTime();
+
+            try(RosterSnapshot snapshot = RosterSnapshot.open(file))
+            {
+                openNanos = System.nanoTime() - openStart;
+
+                for(int id = 0; id < creatures; id++)
+                {
+                    if(snapshot.getSpecies(id) != pool.getSpecies(id) ||
+                       snapshot.getPackedDateOfBirth(id) != pool.getPackedDateOfBirth(id) ||
+                       snapshot.getHealth(id) != pool.getHealth(id) ||
+                       snapshot.getResource(id) != pool.getResource(id) ||
+                       !snapshot.getName(id).equals(pool.getName(id)))
+                    {
+                        throw new IllegalStateException("Creature " + id + " did not round trip");
+                    }
+                }
+            }
+
+            System.out.printf("creatures:        %,d%n", creatures);
+            System.out.printf("file size:        %,.1f MB%n", (double) Files.size(file) / BYTES_PER_MEGABYTE);
+            System.out.printf("write:            %,d ms%n", writeNanos / NANOS_PER_MILLI);
+            System.out.printf("open + validate:  %,d ms%n", openNanos / NANOS_PER_MILLI);
+            System.out.println("Every creature round tripped.");
+        } finally
+        {
+            if(args.length < 2)
+            {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /*
+     * Builds a pool of random dragons, elves and orcs.
+     */
+    private static CreaturePool fill(final int creatures)
+    {
+        final SplittableRandom random;
+        final CreaturePool     pool;
+
+        random = new SplittableRandom(SEED);
+        pool   = new CreaturePool(creatures);
+
+        for(int i = 0; i < creatures; i++)
+        {
+            final Date dateOfBirth;
+            final int  health;
+
+            dateOfBirth = Date.of(random.nextInt(SAFE_DAYS) + 1,
+                                  random.nextInt(MONTHS) + 1,
+                                  FIRST_YEAR + random.nextInt(YEARS));
+            health      = random.nextInt(Creature.MIN_HEALTH, Creature.MAX_HEALTH + 1);
+
+            switch(random.nextInt(3))
+            {
+                case 0 -> pool.addDragon("Dragon " + i,
+                                         dateOfBirth,
+                                         health,
+                                         random.nextInt(Dragon.MIN_FIREPOWER, Dragon.MAX_FIREPOWER + 1));
+                case 1 -> pool.addElf("Elf " + i,
+                                      dateOfBirth,
+                                      health,
+                                      random.nextInt(Elf.MIN_MANA, Elf.MAX_MANA + 1));
+                default -> pool.addOrc("Orc " + i,
+                                       dateOfBirth,
+                                       health,
+                                       random.nextInt(Orc.MIN_RAGE, Orc.MAX_RAGE + 1));
+            }
+        }
+
+        return pool;
+    }
+}
@@ -0,0 +1,120 @@
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Plays the same world in one process and then split across 1, 2, 4 and 8
+ * {@link ShardWorker} processes, reporting the time per round of each and
+ * checking every round's checksum against the single-process run.
+ *
+ * <p>Usage: {@code java ShardedWorldReport [creatures] [rounds] [workerHeapMb]}. The
+ * first rounds of each run warm up its JVMs and are not timed. Every shard process
+ * gets the same heap, so the largest world a run can hold grows with its shard
+ * count.</p>
+ */
+public class ShardedWorldReport
+{
+    private static final int    DEFAULT_CREATURES  = 2_000_000;
+    private static final int    DEFAULT_ROUNDS     = 30;
+    private static final int    DEFAULT_WORKER_MB  = 256;
+    private static final int    WARMUP_ROUNDS      = 5;
+    private static final int[]  SHARD_COUNTS       = {1, 2, 4, 8};
+    private static final long   SEED               = 2522L;
+    private static final double NANOS_PER_MILLI    = 1_000_000.0;
+
+    public static void main(final String[] args) throws IOException
+    {
+        final int        creatures;
+        final int        rounds;
+        final int        workerMb;
+        final WorldShard single;
+        final long[]     expected;
+        final long       singleNanos;
+        long             start;
+
+        creatures = args.length > 0
+                    ? Integer.parseInt(args[0])
+                    : DEFAULT_CREATURES;
+        rounds    = args.length > 1
+                    ? Integer.parseInt(args[1])
+                    : DEFAULT_ROUNDS;
+        workerMb  = args.length > 2
+                    ? Integer.parseInt(args[2])
+                    : DEFAULT_WORKER_MB;
+        single    = new WorldShard(0, 1, creatures, SEED);
+        expected  = new long[rounds];
+        start     = 0;
+
+        for(int round = 0; round < rounds; round++)
+        {
+            if(round == WARMUP_ROUNDS)
+            {
+                start = System.nanoTime();
+            }
+
+            single.playRound(round);
+            expected[round] = single.checksum();
+        }
+
+        singleNanos = System.nanoTime() - start;
+
+        System.out.printf("%,d creatures, %d rounds (%d timed), %d MB heap per shard process on %d cpus%n",
+                          creatures,
+                          rounds,
+                          rounds - WARMUP_ROUNDS,
+                          workerMb,
+                          Runtime.getRuntime().availableProcessors());
+        System.out.printf("single process:  %8.2f ms per round, %,d living at the end%n",
+                          singleNanos / NANOS_PER_MILLI / (rounds - WARMUP_ROUNDS),
+                          single.countLiving());
+
+        for(final int shards : SHARD_COUNTS)
+        {
+            final long startupStart;
+            final long startupNanos;
+            long       roundNanos;
+            int        mismatches;
+
+            startupStart = System.nanoTime();
+
+            try(ShardedWorld world = ShardedWorld.start(shards,
+                                                        creatures,
+                                                        SEED,
+                                                        List.of("-Xmx" + workerMb + "m", "-XX:+UseSerialGC")))
+            {
+                startupNanos = System.nanoTime() - startupStart;
+                roundNanos   = 0;
+                mismatches   = 0;
+
+                for(int round = 0; round < rounds; round++)
+                {
+                    final long roundStart;
+                    final long checksum;
+
+                    roundStart = System.nanoTime();
+                    checksum   = world.playRound();
+
+                    if(round >= WARMUP_ROUNDS)
+                    {
+                        roundNanos += System.nanoTime() - roundStart;
+                    }
+                    if(checksum != expected[round])
+                    {
+                        mismatches++;
+                    }
+                }
+
+                System.out.printf("%d shard process%s: %8.2f ms per round (%.2fx the single process), " +
+                                  "started in %,.0f ms, %,d living at the end, %s%n",
+                                  shards,
+                                  shards == 1 ? "  " : "es",
+                                  roundNanos / NANOS_PER_MILLI / (rounds - WARMUP_ROUNDS),
+                                  (double) singleNanos / roundNanos,
+                                  startupNanos / NANOS_PER_MILLI,
+                                  world.countLiving(),
+                                  mismatches == 0
+                                  ? "every round matches the single process"
+                                  : mismatches + " ROUNDS DIFFER FROM THE SINGLE PROCESS");
+            }
+        }
+    }
+}
@@ -0,0 +1,282 @@
+import java.util.SplittableRandom;
+
+/**
+ * Places a large pool of creatures in a {@link SpatialGrid}, then runs frames in
+ * which every creature moves and dragons breathe fire over an area, timing each
+ * frame against a 16 ms budget.
+ *
+ * <p>Usage: {@code java SpatialGridReport [creatures] [breaths]}. Creatures walk
+ * at a steady velocity and turn back at the edge of the world, and each frame
+ * {@code breaths} dragons breathe fire with
+ * {@link CreaturePool#breathFire(int, int, SpatialGrid, int)} at a random placed
+ * creature, their firePower restored when it runs low. For comparison, the same
+ * area query is also answered by scanning every position.</p>
+ */
+public class SpatialGridReport
+{
+    private static final int    DEFAULT_CREATURES = 1_000_000;
+    private static final int    DEFAULT_BREATHS   = 1_000;
+    private static final int    WORLD_SIZE        = 16_384;
+    private static final int    CELL_SIZE         = 128;
+    private static final int    RADIUS            = 64;
+    private static final int    MAX_SPEED         = 2;
+    private static final int    FRAMES            = 60;
+    private static final int    WARMUP_FRAMES     = 10;
+    private static final int    SCANS             = 20;
+    private static final int    QUERIES           = 100_000;
+    private static final long   SEED              = 2522L;
+    private static final double FRAME_BUDGET_MS   = 16.0;
+    private static final double NANOS_PER_MILLI   = 1_000_000.0;
+
+    public static void main(final String[] args)
+    {
+        final int              creatures;
+        final int              breaths;
+        final SplittableRandom random;
+        final CreaturePool     pool;
+        final SpatialGrid      grid;
+        final int[]            xs;
+        final int[]            ys;
+        final int[]            velocities;
+        final long             placeStart;
+        final long             placeNanos;
+        long                   worstNanos;
+        long                   totalNanos;
+        long                   moveNanos;
+        long                   hits;
+
+        creatures  = args.length > 0
+                     ? Integer.parseInt(args[0])
+                     : DEFAULT_CREATURES;
+        breaths    = args.length > 1
+                     ? Integer.parseInt(args[1])
+                     : DEFAULT_BREATHS;
+        random     = new SplittableRandom(SEED);
+        pool       = populate(creatures);
+        grid       = new SpatialGrid(pool, WORLD_SIZE, WORLD_SIZE, CELL_SIZE);
+        xs         = new int[creatures];
+        ys         = new int[creatures];
+        velocities = new int[creatures * 2];
+        placeStart = System.nanoTime();
+
+        for(int id = 0; id < creatures; id++)
+        {
+            xs[id]                 = random.nextInt(WORLD_SIZE);
+            ys[id]                 = random.nextInt(WORLD_SIZE);
+            velocities[id * 2]     = random.nextInt(-MAX_SPEED, MAX_SPEED + 1);
+            velocities[id * 2 + 1] = random.nextInt(-MAX_SPEED, MAX_SPEED + 1);
+
+            grid.place(id, xs[id], ys[id]);
+        }
+
+        placeNanos = System.nanoTime() - placeStart;
+        worstNanos = 0;
+        totalNanos = 0;
+        moveNanos  = 0;
+        hits       = 0;
+
+        System.out.printf("%,d creatures in a %,d x %,d world, %d-unit cells: placed in %,.1f ms%n",
+                          creatures,
+                          WORLD_SIZE,
+                          WORLD_SIZE,
+                          CELL_SIZE,
+                          placeNanos / NANOS_PER_MILLI);
+
+        for(int frame = 0; frame < FRAMES; frame++)
+        {
+            final long start;
+            final long moved;
+            final long end;
+            long       frameHits;
+
+            start     = System.nanoTime();
+            frameHits = 0;
+
+            move(grid, xs, ys, velocities);
+
+            moved = System.nanoTime();
+
+            for(int breath = 0; breath < breaths; breath++)
+            {
+                frameHits += breathe(pool, grid, random, creatures);
+            }
+
+            end = System.nanoTime();
+
+            if(frame >= WARMUP_FRAMES)
+            {
+                worstNanos = Math.max(worstNanos, end - start);
+                totalNanos += end - start;
+                moveNanos  += moved - start;
+                hits       += frameHits;
+            }
+        }
+
+        System.out.printf("%,d breaths of radius %d per frame: worst frame %,.2f ms, mean frame %,.2f ms " +
+                          "(moves %,.2f ms), %,.1f creatures hit per breath (%s the %.0f ms budget)%n",
+                          breaths,
+                          RADIUS,
+                          worstNanos / NANOS_PER_MILLI,
+                          totalNanos / NANOS_PER_MILLI / (FRAMES - WARMUP_FRAMES),
+                          moveNanos / NANOS_PER_MILLI / (FRAMES - WARMUP_FRAMES),
+                          (double) hits / breaths / (FRAMES - WARMUP_FRAMES),
+                          worstNanos / NANOS_PER_MILLI <= FRAME_BUDGET_MS ? "within" : "OVER",
+                          FRAME_BUDGET_MS);
+
+        compareWithScan(grid, xs, ys, random);
+    }
+
+    /*
+     * Moves every creature one step, turning it back at the edge of the world.
+     */
+    private static void move(final SpatialGrid grid,
+                             final int[] xs,
+                             final int[] ys,
+                             final int[] velocities)
+    {
+        for(int id = 0; id < xs.length; id++)
+        {
+            final int x;
+            final int y;
+
+            x = xs[id] + velocities[id * 2];
+            y = ys[id] + velocities[id * 2 + 1];
+
+            if(x < 0 || x >= WORLD_SIZE)
+            {
+                velocities[id * 2] = -velocities[id * 2];
+            } else
+            {
+                xs[id] = x;
+            }
+            if(y < 0 || y >= WORLD_SIZE)
+            {
+                velocities[id * 2 + 1] = -velocities[id * 2 + 1];
+            } else
+            {
+                ys[id] = y;
+            }
+
+            grid.place(id, xs[id], ys[id]);
+        }
+    }
+
+    /*
+     * Makes a random dragon breathe fire at a random creature.
+     */
+    private static int breathe(final CreaturePool pool,
+                               final SpatialGrid grid,
+                               final SplittableRandom random,
+                               final int creatures)
+    {
+        final int dragonId;
+        final int targetId;
+
+        dragonId = random.nextInt(creatures / 3) * 3;
+        targetId = random.nextInt(creatures);
+
+        try
+        {
+            return pool.breathFire(dragonId, targetId, grid, RADIUS);
+        } catch(final LowFirePowerException e)
+        {
+            pool.restoreFirePower(dragonId, Dragon.MAX_FIREPOWER);
+            return 0;
+        }
+    }
+
+    /*
+     * Checks a few area queries against a scan of every position, then times the
+     * scan and, over many more queries, the grid.
+     */
+    private static void compareWithScan(final SpatialGrid grid,
+                                        final int[] xs,
+                                        final int[] ys,
+                                        final SplittableRandom random)
+    {
+        final long radiusSquared;
+        final long gridStart;
+        final long gridNanos;
+        long       scanNanos;
+        long       found;
+
+        radiusSquared = (long) RADIUS * RADIUS;
+        scanNanos     = 0;
+
+        for(int query = 0; query < SCANS; query++)
+        {
+            final int  x;
+            final int  y;
+            final int  inGrid;
+            final long start;
+            int        inScan;
+
+            x      = random.nextInt(WORLD_SIZE);
+            y      = random.nextInt(WORLD_SIZE);
+            inGrid = grid.countWithin(x, y, RADIUS);
+            start  = System.nanoTime();
+            inScan = 0;
+
+            for(int id = 0; id < xs.length; id++)
+            {
+                final long dx;
+                final long dy;
+
+                dx = (long) xs[id] - x;
+                dy = (long) ys[id] - y;
+
+                if(dx * dx + dy * dy <= radiusSquared)
+                {
+                    inScan++;
+                }
+            }
+
+            scanNanos += System.nanoTime() - start;
+
+            if(inGrid != inScan)
+            {
+                System.out.println("GRID AND SCAN DIFFER: " + inGrid + " vs " + inScan);
+            }
+        }
+
+        found     = 0;
+        gridStart = System.nanoTime();
+
+        for(int query = 0; query < QUERIES; query++)
+        {
+            found += grid.countWithin(random.nextInt(WORLD_SIZE), random.nextInt(WORLD_SIZE), RADIUS);
+        }
+
+        gridNanos = System.nanoTime() - gridStart;
+
+        System.out.printf("one query of radius %d: grid %,.1f us (%,.1f found), scan %,.1f us%n",
+                          RADIUS,
+                          gridNanos / 1_000.0 / QUERIES,
+                          (double) found / QUERIES,
+                          scanNanos / 1_000.0 / SCANS);
+    }
+
+    private static CreaturePool populate(final int creatures)
+    {
+        final CreaturePool pool;
+        final Date         dateOfBirth;
+
+        pool        = new CreaturePool(creatures);
+        dateOfBirth = Date.of(1, 1, 1900);
+
+        for(int id = 0; id < creatures; id++)
+        {
+            if(id % 3 == 0)
+            {
+                pool.addDragon("Dragon " + id, dateOfBirth, Creature.MAX_HEALTH, Dragon.MAX_FIREPOWER);
+            } else if(id % 3 == 1)
+            {
+                pool.addElf("Elf " + id, dateOfBirth, Creature.MAX_HEALTH, Elf.MAX_MANA);
+            } else
+            {
+                pool.addOrc("Orc " + id, dateOfBirth, Creature.MAX_HEALTH, Orc.MAX_RAGE);
+            }
+        }
+        return pool;
+    }
+}
@@ -0,0 +1,200 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.SplittableRandom;
+
+/**
+ * Loads a {@link SpeciesTable} with a fourth species from config text, checks that
+ * the standard species read from config play exactly like
+ * {@link SpeciesTable#STANDARD}, and times {@link CombatEngine#resolveRound} on
+ * rounds of one species and of mixed species.
+ *
+ * <p>Usage: {@code java SpeciesTableReport [creatures] [attacks] [passes]}.</p>
+ */
+public class SpeciesTableReport
+{
+    private static final String CONFIG;
+    private static final int    DEFAULT_CREATURES = 1_000_000;
+    private static final int    DEFAULT_ATTACKS   = 4_000_000;
+    private static final int    DEFAULT_PASSES    = 5;
+    private static final long   SEED              = 2522L;
+    private static final double NANOS_PER_MILLI   = 1_000_000.0;
+
+    static
+    {
+        CONFIG = """
+                 # name min max attackMinimum cost damage normalBelow boostAbove boost restores resource
+                 dragon 0 100 10 10 20 - - 1 yes fire power
+                 elf    0  50  5  5 10 - - 1 yes mana
+                 orc    5  30  5 -5 15 20 20 2 no rage
+                 troll 10  80 10 10 25 - 60 2 yes stamina
+                 """;
+    }
+
+    public static void main(final String[] args) throws IOException
+    {
+        final int          creatures;
+        final int          attacks;
+        final int          passes;
+        final SpeciesTable table;
+        final int          troll;
+        final CreaturePool standard;
+        final CreaturePool configured;
+        final StringBuilder details;
+        double             singleTotal;
+
+        creatures = args.length > 0
+                    ? Integer.parseInt(args[0])
+                    : DEFAULT_CREATURES;
+        attacks   = args.length > 1
+                    ? Integer.parseInt(args[1])
+                    : DEFAULT_ATTACKS;
+        passes    = args.length > 2
+                    ? Integer.parseInt(args[2])
+                    : DEFAULT_PASSES;
+        table     = SpeciesTable.read(new BufferedReader(new StringReader(CONFIG)));
+        troll     = table.speciesOf("troll");
+
+        standard   = populate(SpeciesTable.STANDARD, creatures, SpeciesTable.STANDARD.size());
+        configured = populate(table, creatures, SpeciesTable.STANDARD.size());
+
+        play(standard, attacks, new SplittableRandom(SEED));
+        play(configured, attacks, new SplittableRandom(SEED));
+
+        System.out.printf("%d species loaded; standard species from config %s the built-in table%n",
+                          table.size(),
+                          standard.stateHash() == configured.stateHash()
+                          ? "play exactly like"
+                          : "DIFFER from");
+
+        details = new StringBuilder();
+        configured.appendDetails(configured.add(troll, "Grok", Date.of(1, 1, 1990), Creature.MAX_HEALTH, 80), details);
+        System.out.println(details);
+
+        System.out.printf("%,d creatures, %,d attacks per round, best of %d passes%n", creatures, attacks, passes);
+
+        singleTotal = 0;
+
+        for(int species = 0; species < table.size(); species++)
+        {
+            final double single;
+
+            single      = time(table, creatures, attacks, passes, species, 1);
+            singleTotal += single;
+
+            System.out.printf("%-8s only:  %6.2f ns/attack%n", table.name(species), single);
+        }
+
+        // each species spends its resource differently, so a mix of all of them is
+        // compared with the mean of their single-species rounds
+        System.out.printf("mean of those: %6.2f ns/attack%n", singleTotal / table.size());
+        System.out.printf("mixed %d:       %6.2f ns/attack%n",
+                          table.size(),
+                          time(table, creatures, attacks, passes, 0, table.size()));
+    }
+
+    /*
+     * Resolves one round on a fresh pool per pass and returns the best time per
+     * attack. Only resolveRound is timed, not building the pool or the round.
+     */
+    private static double time(final SpeciesTable table,
+                               final int creatures,
+                               final int attacks,
+                               final int passes,
+                               final int firstSpecies,
+                               final int speciesCount)
+    {
+        long best;
+
+        best = Long.MAX_VALUE;
+
+        for(int pass = 0; pass < passes; pass++)
+        {
+            final CreaturePool pool;
+            final int[][]      round;
+            final long         start;
+
+            pool  = populate(table, creatures, speciesCount, firstSpecies);
+            round = round(pool, attacks, new SplittableRandom(SEED + pass));
+            start = System.nanoTime();
+
+            CombatEngine.resolveRound(pool, round[0], round[1], round[2], round[3]);
+
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        return (double) best / attacks;
+    }
+
+    private static void play(final CreaturePool pool,
+                             final int attacks,
+                             final SplittableRandom random)
+    {
+        final int[][] round;
+
+        round = round(pool, attacks, random);
+
+        CombatEngine.resolveRound(pool, round[0], round[1], round[2], round[3]);
+    }
+
+    /*
+     * Builds a round of random attacks: attacker ids, target ids, actions and room
+     * for the outcomes.
+     */
+    private static int[][] round(final CreaturePool pool,
+                                 final int attacks,
+                                 final SplittableRandom random)
+    {
+        final int[] attackerIds;
+        final int[] targetIds;
+        final int[] actions;
+        final int[] outcomes;
+
+        attackerIds = new int[attacks];
+        targetIds   = new int[attacks];
+        actions     = new int[attacks];
+        outcomes    = new int[attacks];
+
+        for(int i = 0; i < attacks; i++)
+        {
+            attackerIds[i] = random.nextInt(pool.size());
+            targetIds[i]   = random.nextInt(pool.size());
+            actions[i]     = pool.getSpecies(attackerIds[i]);
+        }
+
+        return new int[][]{attackerIds, targetIds, actions, outcomes};
+    }
+
+    private static CreaturePool populate(final SpeciesTable table,
+                                         final int creatures,
+                                         final int speciesCount)
+    {
+        return populate(table, creatures, speciesCount, 0);
+    }
+
+    /*
+     * Fills a pool round-robin with speciesCount species from firstSpecies, each at
+     * full health and resource.
+     */
+    private static CreaturePool populate(final SpeciesTable table,
+                                         final int creatures,
+                                         final int speciesCount,
+                                         final int firstSpecies)
+    {
+        final CreaturePool pool;
+        final Date         dateOfBirth;
+
+        pool        = new CreaturePool(creatures, table);
+        dateOfBirth = Date.of(1, 1, 1900);
+
+        for(int id = 0; id < creatures; id++)
+        {
+            final int species;
+
+            species = firstSpecies + id % speciesCount;
+
+            pool.add(species, "Creature", dateOfBirth, Creature.MAX_HEALTH, table.rule(species, SpeciesTable.MAX_RESOURCE));
+        }
+        return pool;
+    }
+}
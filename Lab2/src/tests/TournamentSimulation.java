@@ -0,0 +1,55 @@
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs a large randomized tournament and prints per species statistics.
+ *
+ * <p>Usage: {@code java TournamentSimulation [battles] [seed]}. The tournament is
+ * run once on a single thread and once on every core, and the two results must
+ * be identical.</p>
+ */
+public class TournamentSimulation
+{
+    private static final int  DEFAULT_BATTLES = 1_000_000;
+    private static final long DEFAULT_SEED    = 2522L;
+
+    public static void main(final String[] args)
+    {
+        final int             battles;
+        final long            seed;
+        final ForkJoinPool    singleThread;
+        final long            singleStart;
+        final TournamentStats singleStats;
+        final long            singleNanos;
+        final long            parallelStart;
+        final TournamentStats parallelStats;
+        final long            parallelNanos;
+
+        battles = args.length > 0
+                  ? Integer.parseInt(args[0])
+                  : DEFAULT_BATTLES;
+        seed    = args.length > 1
+                  ? Long.parseLong(args[1])
+                  : DEFAULT_SEED;
+
+        singleThread = new ForkJoinPool(1);
+
+        singleStart = System.nanoTime();
+        singleStats = Tournament.run(seed, battles, singleThread);
+        singleNanos = System.nanoTime() - singleStart;
+
+        parallelStart = System.nanoTime();
+        parallelStats = Tournament.run(seed, battles);
+        parallelNanos = System.nanoTime() - parallelStart;
+
+        singleThread.shutdown();
+
+        System.out.print(parallelStats);
+        System.out.printf("1 thread: %d ms, %d threads: %d ms%n",
+                          singleNanos / 1_000_000,
+                          ForkJoinPool.getCommonPoolParallelism(),
+                          parallelNanos / 1_000_000);
+        System.out.println(singleStats.equals(parallelStats)
+                           ? "Results are identical."
+                           : "RESULTS DIFFER between 1 thread and the common pool!");
+    }
+}
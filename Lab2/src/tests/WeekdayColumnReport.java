@@ -0,0 +1,142 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Reports the weekday distribution of a large column of dates of birth, computed
+ * once a date at a time through {@link Date#of(int, int, int)} and
+ * {@link Date#getWeekday()} and once with the bulk {@link Date#weekdayCodes}, and
+ * checks that both agree. Also times {@link Date#leapYears} on the year column.
+ *
+ * <p>Usage: {@code java WeekdayColumnReport [dates] [passes]}. Run with a large
+ * enough heap, for example {@code -Xmx2g}.</p>
+ */
+public class WeekdayColumnReport
+{
+    private static final int    DEFAULT_DATES   = 10_000_000;
+    private static final int    DEFAULT_PASSES  = 5;
+    private static final int    CHUNK           = 4_096;
+    private static final long   SEED            = 2522L;
+    private static final int    FIRST_YEAR      = 1800;
+    private static final int    YEARS           = 226;
+    private static final int    MONTHS          = 12;
+    private static final int    SAFE_DAYS       = 28;
+    private static final int    DAYS_IN_WEEK    = 7;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    public static void main(final String[] args)
+    {
+        final int       dates;
+        final int       passes;
+        final Random    random;
+        final int[]     years;
+        final int[]     months;
+        final int[]     days;
+        final byte[]    codes;
+        final boolean[] leap;
+        long            oneAtATimeNanos;
+        long            bulkNanos;
+        long            leapNanos;
+        long[]          oneAtATime;
+        long[]          bulk;
+        int             leapCount;
+
+        dates  = args.length > 0
+                 ? Integer.parseInt(args[0])
+                 : DEFAULT_DATES;
+        passes = args.length > 1
+                 ? Integer.parseInt(args[1])
+                 : DEFAULT_PASSES;
+        random = new Random(SEED);
+        years  = new int[dates];
+        months = new int[dates];
+        days   = new int[dates];
+        codes  = new byte[CHUNK];
+        leap   = new boolean[CHUNK];
+
+        for(int i = 0; i < dates; i++)
+        {
+            days[i]   = random.nextInt(SAFE_DAYS) + 1;
+            months[i] = random.nextInt(MONTHS) + 1;
+            years[i]  = random.nextInt(YEARS) + FIRST_YEAR;
+        }
+
+        oneAtATimeNanos = 0;
+        bulkNanos       = 0;
+        leapNanos       = 0;
+        oneAtATime      = null;
+        bulk            = null;
+        leapCount       = 0;
+
+        for(int pass = 0; pass < passes; pass++)
+        {
+            long start;
+
+            start      = System.nanoTime();
+            oneAtATime = new long[DAYS_IN_WEEK];
+
+            for(int i = 0; i < dates; i++)
+            {
+                oneAtATime[Date.of(days[i], months[i], years[i]).getWeekday().getCode()]++;
+            }
+
+            oneAtATimeNanos = System.nanoTime() - start;
+            start           = System.nanoTime();
+            bulk            = new long[DAYS_IN_WEEK];
+
+            for(int from = 0; from < dates; from += CHUNK)
+            {
+                final int count;
+
+                count = Math.min(CHUNK, dates - from);
+
+                Date.weekdayCodes(years, months, days, from, count, codes, 0);
+
+                for(int i = 0; i < count; i++)
+                {
+                    bulk[codes[i]]++;
+                }
+            }
+
+            bulkNanos = System.nanoTime() - start;
+            start     = System.nanoTime();
+            leapCount = 0;
+
+            for(int from = 0; from < dates; from += CHUNK)
+            {
+                final int count;
+
+                count = Math.min(CHUNK, dates - from);
+
+                Date.leapYears(years, from, count, leap, 0);
+
+                for(int i = 0; i < count; i++)
+                {
+                    leapCount += leap[i] ? 1 : 0;
+                }
+            }
+
+            leapNanos = System.nanoTime() - start;
+        }
+
+        System.out.printf("%,d dates, last of %d passes%n", dates, passes);
+        System.out.printf("one at a time: %,.1f ms (%.2f ns/date)%n",
+                          oneAtATimeNanos / NANOS_PER_MILLI,
+                          (double) oneAtATimeNanos / dates);
+        System.out.printf("weekdayCodes:  %,.1f ms (%.2f ns/date)%n",
+                          bulkNanos / NANOS_PER_MILLI,
+                          (double) bulkNanos / dates);
+        System.out.printf("leapYears:     %,.1f ms (%.2f ns/year), %,d leap years%n",
+                          leapNanos / NANOS_PER_MILLI,
+                          (double) leapNanos / dates,
+                          leapCount);
+
+        for(int code = 0; code < DAYS_IN_WEEK; code++)
+        {
+            System.out.printf("%-10s %,d%n", Weekday.fromCode(code).getDisplayName(), bulk[code]);
+        }
+
+        System.out.println("distributions " + (Arrays.equals(oneAtATime, bulk)
+                                               ? "agree"
+                                               : "DIFFER"));
+    }
+}
@@ -0,0 +1,147 @@
+import java.util.SplittableRandom;
+
+/**
+ * Plays the same rounds on two equal {@link CreaturePool}s, as two replicas of one
+ * battle would, and after every round checks that they agree both with one
+ * comparison of their {@link CreaturePool#stateHash()} and field by field, timing
+ * each. Finally one creature of one replica is hurt and the report shows whether
+ * each check sees the divergence.
+ *
+ * <p>Usage: {@code java WorldHashReport [creatures] [rounds] [attacksPerRound]}.</p>
+ */
+public class WorldHashReport
+{
+    private static final int    DEFAULT_CREATURES = 10_000_000;
+    private static final int    DEFAULT_ROUNDS    = 10;
+    private static final int    DEFAULT_ATTACKS   = 1_000_000;
+    private static final long   SEED              = 2522L;
+    private static final double NANOS_PER_MILLI   = 1_000_000.0;
+
+    public static void main(final String[] args)
+    {
+        final int              creatures;
+        final int              rounds;
+        final int              attacks;
+        final SplittableRandom random;
+        final CreaturePool     first;
+        final CreaturePool     second;
+        final int[]            attackerIds;
+        final int[]            targetIds;
+        final int[]            actions;
+        final int[]            outcomes;
+        final int              diverged;
+        long                   hashNanos;
+        long                   fieldNanos;
+        int                    disagreements;
+
+        creatures     = args.length > 0
+                        ? Integer.parseInt(args[0])
+                        : DEFAULT_CREATURES;
+        rounds        = args.length > 1
+                        ? Integer.parseInt(args[1])
+                        : DEFAULT_ROUNDS;
+        attacks       = args.length > 2
+                        ? Integer.parseInt(args[2])
+                        : DEFAULT_ATTACKS;
+        random        = new SplittableRandom(SEED);
+        first         = populate(creatures);
+        second        = populate(creatures);
+        attackerIds   = new int[attacks];
+        targetIds     = new int[attacks];
+        actions       = new int[attacks];
+        outcomes      = new int[attacks];
+        hashNanos     = 0;
+        fieldNanos    = 0;
+        disagreements = 0;
+
+        for(int round = 0; round < rounds; round++)
+        {
+            final long    hashStart;
+            final boolean hashesAgree;
+            final long    fieldStart;
+            final boolean fieldsAgree;
+
+            for(int i = 0; i < attacks; i++)
+            {
+                attackerIds[i] = random.nextInt(creatures);
+                targetIds[i]   = random.nextInt(creatures);
+                actions[i]     = first.getSpecies(attackerIds[i]);
+            }
+
+            CombatEngine.resolveRound(first, attackerIds, targetIds, actions, outcomes);
+            CombatEngine.resolveRound(second, attackerIds, targetIds, actions, outcomes);
+
+            hashStart   = System.nanoTime();
+            hashesAgree = first.stateHash() == second.stateHash();
+            hashNanos   += System.nanoTime() - hashStart;
+            fieldStart  = System.nanoTime();
+            fieldsAgree = sameFields(first, second);
+            fieldNanos  += System.nanoTime() - fieldStart;
+
+            if(!hashesAgree || !fieldsAgree)
+            {
+                disagreements++;
+            }
+        }
+
+        System.out.printf("%,d creatures, %d rounds of %,d attacks on two replicas: %d rounds where they disagree%n",
+                          creatures,
+                          rounds,
+                          attacks,
+                          disagreements);
+        System.out.printf("check per round: hash %,.0f ns, field by field %,.2f ms%n",
+                          (double) hashNanos / rounds,
+                          fieldNanos / NANOS_PER_MILLI / rounds);
+
+        diverged = random.nextInt(creatures);
+
+        second.takeDamage(diverged, 1);
+
+        System.out.printf("after hurting creature %,d of one replica: hashes %s, fields %s%n",
+                          diverged,
+                          first.stateHash() == second.stateHash()
+                          ? "agree"
+                          : "differ",
+                          sameFields(first, second)
+                          ? "agree"
+                          : "differ");
+    }
+
+    private static boolean sameFields(final CreaturePool first,
+                                      final CreaturePool second)
+    {
+        for(int id = 0; id < first.size(); id++)
+        {
+            if(first.getHealth(id) != second.getHealth(id) ||
+               first.getResource(id) != second.getResource(id))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static CreaturePool populate(final int creatures)
+    {
+        final CreaturePool pool;
+        final Date         dateOfBirth;
+
+        pool        = new CreaturePool(creatures);
+        dateOfBirth = Date.of(1, 1, 1900);
+
+        for(int id = 0; id < creatures; id++)
+        {
+            if(id % 3 == 0)
+            {
+                pool.addDragon("Dragon", dateOfBirth, Creature.MAX_HEALTH, Dragon.MAX_FIREPOWER);
+            } else if(id % 3 == 1)
+            {
+                pool.addElf("Elf", dateOfBirth, Creature.MAX_HEALTH, Elf.MAX_MANA);
+            } else
+            {
+                pool.addOrc("Orc", dateOfBirth, Creature.MAX_HEALTH, Orc.MAX_RAGE);
+            }
+        }
+        return pool;
+    }
+}